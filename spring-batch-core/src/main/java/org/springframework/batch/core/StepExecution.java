@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2013 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -76,6 +76,8 @@ public class StepExecution extends Entity {
 
 	private transient volatile List<Throwable> failureExceptions = new CopyOnWriteArrayList<>();
 
+	private transient volatile StepProfile profile;
+
 	/**
 	 * Constructor with mandatory properties.
 	 *
@@ -504,6 +506,29 @@ public class StepExecution extends Entity {
 				&& getId().equals(other.getId());
 	}
 
+	/**
+	 * The time spent in each phase of the chunks of this execution, recorded by
+	 * the tasklet step executing it in this process. Not persisted, but it can
+	 * be saved in the execution context as a summary.
+	 *
+	 * @return the profile of this step execution, empty if nothing was
+	 * recorded
+	 * @since 4.3
+	 */
+	public StepProfile getProfile() {
+		StepProfile profile = this.profile;
+		if (profile == null) {
+			synchronized (this) {
+				profile = this.profile;
+				if (profile == null) {
+					profile = new StepProfile();
+					this.profile = profile;
+				}
+			}
+		}
+		return profile;
+	}
+
 	/**
 	 * Deserialize and ensure transient fields are re-instantiated when read
 	 * back.
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.core;
+
+import java.util.Locale;
+
+import org.springframework.util.Assert;
+
+/**
+ * Time spent by a step execution in each {@link Phase} of its chunks, to find
+ * out what a slow step is waiting for.
+ *
+ * <p>
+ * The time of a phase is recorded once per chunk transaction, from
+ * {@link System#nanoTime()}, so profiling costs a few nanoseconds per chunk
+ * whatever the number of items. For each phase the profile keeps the number of
+ * chunks, the total and maximum times and a histogram of the times of the
+ * chunks, from which percentiles are estimated within 25%.
+ * </p>
+ *
+ * <p>
+ * This class is thread-safe, so the chunks of a multi-threaded step can be
+ * recorded concurrently.
+ * </p>
+ *
+ * @since 4.3
+ * @see StepExecution#getProfile()
+ */
+public class StepProfile {
+
+	/**
+	 * The phases of a chunk.
+	 */
+	public enum Phase {
+
+		/**
+		 * Reading the items of the chunk, with the read listeners.
+		 */
+		READ,
+
+		/**
+		 * Processing the items of the chunk, with the process listeners.
+		 */
+		PROCESS,
+
+		/**
+		 * Writing the items of the chunk, with the write listeners.
+		 */
+		WRITE,
+
+		/**
+		 * Calling the chunk listeners.
+		 */
+		CHUNK_LISTENERS,
+
+		/**
+		 * Updating the streams and saving the step execution and its execution
+		 * context in the job repository.
+		 */
+		REPOSITORY,
+
+		/**
+		 * Starting the transaction of the chunk and committing or rolling it back.
+		 */
+		TRANSACTION
+
+	}
+
+	// durations below 8ns have their own bucket, then 4 buckets per power of 2
+	private static final int BUCKETS = 8 + (63 - 3) * 4;
+
+	private final PhaseProfile[] phases = new PhaseProfile[Phase.values().length];
+
+	public StepProfile() {
+		for (Phase phase : Phase.values()) {
+			phases[phase.ordinal()] = new PhaseProfile();
+		}
+	}
+
+	/**
+	 * Record the time spent by a chunk in a phase.
+	 *
+	 * @param phase the phase
+	 * @param nanos the duration in nanoseconds, as measured with
+	 * {@link System#nanoTime()}
+	 */
+	public void record(Phase phase, long nanos) {
+		phases[phase.ordinal()].record(Math.max(nanos, 0));
+	}
+
+	/**
+	 * @param phase a phase
+	 * @return the number of chunks recorded for the phase
+	 */
+	public long getCount(Phase phase) {
+		return phases[phase.ordinal()].getCount();
+	}
+
+	/**
+	 * @param phase a phase
+	 * @return the total time spent in the phase, in nanoseconds
+	 */
+	public long getTotal(Phase phase) {
+		return phases[phase.ordinal()].getTotal();
+	}
+
+	/**
+	 * @param phase a phase
+	 * @return the longest time spent by a chunk in the phase, in nanoseconds
+	 */
+	public long getMax(Phase phase) {
+		return phases[phase.ordinal()].getMax();
+	}
+
+	/**
+	 * @param phase a phase
+	 * @param percentile the percentile, between 0 and 1, e.g. 0.99
+	 * @return an upper bound of the time spent in the phase by the given share of
+	 * the chunks, in nanoseconds, or 0 if no chunk was recorded
+	 */
+	public long getPercentile(Phase phase, double percentile) {
+		Assert.isTrue(percentile >= 0 && percentile <= 1, "The percentile must be between 0 and 1");
+		return phases[phase.ordinal()].getPercentile(percentile);
+	}
+
+	/**
+	 * @return the total time of all the phases, in nanoseconds
+	 */
+	public long getTotal() {
+		long total = 0;
+		for (PhaseProfile phase : phases) {
+			total += phase.getTotal();
+		}
+		return total;
+	}
+
+	/**
+	 * @return a one line summary of the phases recorded, with their total time,
+	 * share of the total, number of chunks and percentiles
+	 */
+	public String getSummary() {
+		long total = getTotal();
+		StringBuilder summary = new StringBuilder();
+		for (Phase phase : Phase.values()) {
+			long count = getCount(phase);
+			if (count == 0) {
+				continue;
+			}
+			if (summary.length() > 0) {
+				summary.append(", ");
+			}
+			long phaseTotal = getTotal(phase);
+			summary.append(phase.name().toLowerCase(Locale.ROOT)).append("=").append(format(phaseTotal))
+					.append(String.format(Locale.ROOT, " (%.1f%%, %d chunks, p50=%s, p90=%s, p99=%s, max=%s)",
+							total > 0 ? 100.0 * phaseTotal / total : 0, count, format(getPercentile(phase, 0.5)),
+							format(getPercentile(phase, 0.9)), format(getPercentile(phase, 0.99)),
+							format(getMax(phase))));
+		}
+		return summary.toString();
+	}
+
+	@Override
+	public String toString() {
+		return "StepProfile: [" + getSummary() + "]";
+	}
+
+	private static String format(long nanos) {
+		return String.format(Locale.ROOT, "%.3fms", nanos / 1e6);
+	}
+
+	private static int bucket(long nanos) {
+		if (nanos < 8) {
+			return (int) nanos;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+		int mantissa = (int) (nanos >>> (exponent - 2)) & 3;
+		return 8 + (exponent - 3) * 4 + mantissa;
+	}
+
+	private static long upperBound(int bucket) {
+		if (bucket < 8) {
+			return bucket;
+		}
+		int exponent = (bucket - 8) / 4 + 3;
+		int mantissa = (bucket - 8) % 4;
+		return ((4L + mantissa + 1) << (exponent - 2)) - 1;
+	}
+
+	private static class PhaseProfile {
+
+		private long count;
+
+		private long total;
+
+		private long max;
+
+		// created on first use, most step executions are never profiled
+		private long[] histogram;
+
+		private synchronized void record(long nanos) {
+			if (histogram == null) {
+				histogram = new long[BUCKETS];
+			}
+			histogram[bucket(nanos)]++;
+			count++;
+			total += nanos;
+			max = Math.max(max, nanos);
+		}
+
+		private synchronized long getCount() {
+			return count;
+		}
+
+		private synchronized long getTotal() {
+			return total;
+		}
+
+		private synchronized long getMax() {
+			return max;
+		}
+
+		private synchronized long getPercentile(double percentile) {
+			if (count == 0) {
+				return 0;
+			}
+			long rank = Math.max((long) Math.ceil(percentile * count), 1);
+			long seen = 0;
+			for (int i = 0; i < histogram.length; i++) {
+				seen += histogram[i];
+				if (seen >= rank) {
+					return Math.min(upperBound(i), max);
+				}
+			}
+			return max;
+		}
+
+	}
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.core;
+
+import java.util.Locale;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.lang.Nullable;
+
+/**
+ * Snapshot of the progress of a step execution: the share of its input read,
+ * the moving average of the items read per second and the estimated time to
+ * completion.
+ *
+ * <p>
+ * The progress is saved in the execution context of the step execution with
+ * each chunk by a
+ * {@link org.springframework.batch.core.listener.StepProgressListener}, so it
+ * can be followed from another process through
+ * {@link org.springframework.batch.core.explore.JobExplorer#getStepProgress(Long, Long)}.
+ * </p>
+ *
+ * @since 4.3
+ */
+public class StepProgress {
+
+	/**
+	 * Key of the progress in the execution context of a step execution.
+	 */
+	public static final String PROGRESS_KEY = "batch.progress";
+
+	/**
+	 * Key of the rate in the execution context of a step execution.
+	 */
+	public static final String RATE_KEY = "batch.progress.rate";
+
+	/**
+	 * Key of the estimated time remaining in the execution context of a step
+	 * execution.
+	 */
+	public static final String REMAINING_KEY = "batch.progress.remaining";
+
+	/**
+	 * Value of the progress or the estimated time remaining when they are not
+	 * known.
+	 */
+	public static final double UNKNOWN = -1;
+
+	private final double progress;
+
+	private final double rate;
+
+	private final double remaining;
+
+	/**
+	 * @param progress the share of the input read, between 0 and 1, or
+	 * {@link #UNKNOWN}
+	 * @param rate the moving average of the items read per second
+	 * @param remaining the estimated time remaining, in seconds, or
+	 * {@link #UNKNOWN}
+	 */
+	public StepProgress(double progress, double rate, double remaining) {
+		this.progress = progress;
+		this.rate = rate;
+		this.remaining = remaining;
+	}
+
+	/**
+	 * @param executionContext the execution context of a step execution
+	 * @return the progress last saved in the execution context, or null if the
+	 * progress of the step execution is not tracked
+	 */
+	@Nullable
+	public static StepProgress from(ExecutionContext executionContext) {
+		if (!executionContext.containsKey(PROGRESS_KEY)) {
+			return null;
+		}
+		return new StepProgress(getDouble(executionContext, PROGRESS_KEY), getDouble(executionContext, RATE_KEY),
+				getDouble(executionContext, REMAINING_KEY));
+	}
+
+	/**
+	 * Save this progress in the execution context of a step execution.
+	 *
+	 * @param executionContext the execution context of a step execution
+	 */
+	public void saveTo(ExecutionContext executionContext) {
+		executionContext.putDouble(PROGRESS_KEY, progress);
+		executionContext.putDouble(RATE_KEY, rate);
+		executionContext.putDouble(REMAINING_KEY, remaining);
+	}
+
+	/**
+	 * @return the share of the input read, between 0 and 1, or {@link #UNKNOWN}
+	 * if the reader does not know the size of its input
+	 */
+	public double getProgress() {
+		return progress;
+	}
+
+	/**
+	 * @return the exponentially weighted moving average of the items read per
+	 * second
+	 */
+	public double getRate() {
+		return rate;
+	}
+
+	/**
+	 * @return the estimated time remaining until the input is read, in seconds,
+	 * or {@link #UNKNOWN}
+	 */
+	public double getRemaining() {
+		return remaining;
+	}
+
+	@Override
+	public String toString() {
+		return "StepProgress: [progress="
+				+ (progress < 0 ? "unknown" : String.format(Locale.ROOT, "%.1f%%", progress * 100)) + ", rate="
+				+ String.format(Locale.ROOT, "%.1f items/s", rate) + ", remaining="
+				+ (remaining < 0 ? "unknown" : String.format(Locale.ROOT, "%.0fs", remaining)) + "]";
+	}
+
+	// numbers may be deserialized with another type
+	private static double getDouble(ExecutionContext executionContext, String key) {
+		Object value = executionContext.get(key);
+		return value instanceof Number ? ((Number) value).doubleValue() : UNKNOWN;
+	}
+
+}
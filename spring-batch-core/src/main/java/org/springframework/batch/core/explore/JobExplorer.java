@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2019 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,7 @@ import java.util.Set;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobInstance;
 import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepProgress;
 import org.springframework.batch.core.launch.NoSuchJobException;
 import org.springframework.batch.item.ExecutionContext;
 import org.springframework.lang.Nullable;
@@ -89,6 +90,24 @@ public interface JobExplorer {
 	@Nullable
 	StepExecution getStepExecution(@Nullable Long jobExecutionId, @Nullable Long stepExecutionId);
 
+	/**
+	 * Retrieve the progress of a {@link StepExecution}, as last saved in its
+	 * execution context by a
+	 * {@link org.springframework.batch.core.listener.StepProgressListener}.
+	 *
+	 * @param jobExecutionId the parent job execution id
+	 * @param stepExecutionId the step execution id
+	 * @return the progress of the step execution, or null if not found or if
+	 * its progress is not tracked
+	 *
+	 * @since 4.3
+	 */
+	@Nullable
+	default StepProgress getStepProgress(@Nullable Long jobExecutionId, @Nullable Long stepExecutionId) {
+		StepExecution stepExecution = getStepExecution(jobExecutionId, stepExecutionId);
+		return stepExecution != null ? StepProgress.from(stepExecution.getExecutionContext()) : null;
+	}
+
 	/**
 	 * @param instanceId {@link Long} id for the jobInstance to obtain.
 	 * @return the {@link JobInstance} with this id, or null
@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2019 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -39,6 +39,7 @@ import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.launch.NoSuchJobException;
 import org.springframework.batch.core.launch.support.ExitCodeMapper;
 import org.springframework.batch.core.listener.CompositeJobExecutionListener;
+import org.springframework.batch.core.metrics.BatchEventRecorder;
 import org.springframework.batch.core.metrics.BatchMetrics;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.repository.JobRestartException;
@@ -82,6 +83,8 @@ InitializingBean {
 
 	private StepHandler stepHandler;
 
+	private BatchEventRecorder eventRecorder;
+
 	/**
 	 * Default constructor.
 	 */
@@ -260,6 +263,17 @@ InitializingBean {
 		stepHandler = new SimpleStepHandler(jobRepository);
 	}
 
+	/**
+	 * Public setter for a {@link BatchEventRecorder} recording the executions of
+	 * this job and dumping their events when they end.
+	 *
+	 * @param eventRecorder the recorder of the events, or null (the default)
+	 * @since 4.3
+	 */
+	public void setEventRecorder(@Nullable BatchEventRecorder eventRecorder) {
+		this.eventRecorder = eventRecorder;
+	}
+
 	/**
 	 * Convenience method for subclasses to access the job repository.
 	 *
@@ -306,6 +320,7 @@ InitializingBean {
 		LongTaskTimer longTaskTimer = BatchMetrics.createLongTaskTimer("job.active", "Active jobs");
 		LongTaskTimer.Sample longTaskTimerSample = longTaskTimer.start();
 		Timer.Sample timerSample = BatchMetrics.createTimerSample();
+		long start = System.nanoTime();
 		try {
 
 			jobParametersValidator.validate(execution.getJobParameters());
@@ -375,6 +390,10 @@ InitializingBean {
 				}
 
 				jobRepository.update(execution);
+
+				if (eventRecorder != null) {
+					eventRecorder.jobEnded(execution, start);
+				}
 			} finally {
 				JobSynchronizationManager.release();
 			}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2011 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,6 +27,7 @@ import org.springframework.batch.core.JobExecutionListener;
 import org.springframework.batch.core.JobParametersIncrementer;
 import org.springframework.batch.core.JobParametersValidator;
 import org.springframework.batch.core.job.AbstractJob;
+import org.springframework.batch.core.metrics.BatchEventRecorder;
 import org.springframework.batch.core.repository.JobRepository;
 
 /**
@@ -110,6 +111,21 @@ public abstract class JobBuilderHelper<B extends JobBuilderHelper<B>> {
 		return result;
 	}
 
+	/**
+	 * Record the executions of the job with a {@link BatchEventRecorder}, which dumps their events when they end if it
+	 * has a dump directory. The steps record their events if given a recorder too.
+	 * 
+	 * @param eventRecorder the recorder of the events
+	 * @return this to enable fluent chaining
+	 * @since 4.3
+	 */
+	public B eventRecorder(BatchEventRecorder eventRecorder) {
+		properties.eventRecorder = eventRecorder;
+		@SuppressWarnings("unchecked")
+		B result = (B) this;
+		return result;
+	}
+
 	/**
 	 * Set a flag to prevent restart an execution of this job even if it has failed.
 	 * 
@@ -140,6 +156,7 @@ public abstract class JobBuilderHelper<B extends JobBuilderHelper<B>> {
 
 			AbstractJob job = (AbstractJob) target;
 			job.setJobRepository(properties.getJobRepository());
+			job.setEventRecorder(properties.eventRecorder);
 
 			JobParametersIncrementer jobParametersIncrementer = properties.getJobParametersIncrementer();
 			if (jobParametersIncrementer != null) {
@@ -176,6 +193,8 @@ public abstract class JobBuilderHelper<B extends JobBuilderHelper<B>> {
 
 		private JobParametersValidator jobParametersValidator;
 
+		private BatchEventRecorder eventRecorder;
+
 		public CommonJobProperties() {
 		}
 
@@ -186,6 +205,15 @@ public abstract class JobBuilderHelper<B extends JobBuilderHelper<B>> {
 			this.jobExecutionListeners = new LinkedHashSet<>(properties.jobExecutionListeners);
 			this.jobParametersIncrementer = properties.jobParametersIncrementer;
 			this.jobParametersValidator = properties.jobParametersValidator;
+			this.eventRecorder = properties.eventRecorder;
+		}
+
+		public BatchEventRecorder getEventRecorder() {
+			return eventRecorder;
+		}
+
+		public void setEventRecorder(BatchEventRecorder eventRecorder) {
+			this.eventRecorder = eventRecorder;
 		}
 
 		public JobParametersIncrementer getJobParametersIncrementer() {
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.core.listener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tag;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.metrics.BatchMetrics;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.repeat.policy.AdaptiveCompletionPolicy;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Listener feeding an {@link AdaptiveCompletionPolicy} with the lifecycle of the
+ * step it completes the chunks of: the policy is reset before the step and told
+ * about the chunks rolled back.
+ *
+ * <p>
+ * The current chunk size and the throughput of the last chunk are published as
+ * the <code>spring.batch.chunk.size</code> and
+ * <code>spring.batch.chunk.throughput</code> gauges, tagged with the job and step
+ * names, while the step runs. The step builders register this listener when an
+ * {@link AdaptiveCompletionPolicy} is the chunk completion policy.
+ * </p>
+ *
+ * @since 4.3
+ */
+public class AdaptiveCompletionPolicyListener extends StepExecutionListenerSupport implements ChunkListener {
+
+	private static final Log logger = LogFactory.getLog(AdaptiveCompletionPolicyListener.class);
+
+	private final AdaptiveCompletionPolicy completionPolicy;
+
+	private final List<Gauge> gauges = new ArrayList<>();
+
+	/**
+	 * @param completionPolicy the policy completing the chunks of the step
+	 */
+	public AdaptiveCompletionPolicyListener(AdaptiveCompletionPolicy completionPolicy) {
+		Assert.notNull(completionPolicy, "A completion policy is required");
+		this.completionPolicy = completionPolicy;
+	}
+
+	@Override
+	public void beforeStep(StepExecution stepExecution) {
+		this.completionPolicy.reset();
+		Tag jobNameTag = Tag.of("job.name", stepExecution.getJobExecution().getJobInstance().getJobName());
+		Tag stepNameTag = Tag.of("step.name", stepExecution.getStepName());
+		this.gauges.add(BatchMetrics.createGauge("chunk.size", "Chunk size", this.completionPolicy,
+				AdaptiveCompletionPolicy::getChunkSize, jobNameTag, stepNameTag));
+		this.gauges.add(BatchMetrics.createGauge("chunk.throughput", "Items per second of the last chunk",
+				this.completionPolicy, AdaptiveCompletionPolicy::getThroughput, jobNameTag, stepNameTag));
+	}
+
+	@Nullable
+	@Override
+	public ExitStatus afterStep(StepExecution stepExecution) {
+		if (logger.isDebugEnabled()) {
+			logger.debug("Chunk size after step " + stepExecution.getStepName() + ": "
+					+ this.completionPolicy.getChunkSize() + " (" + this.completionPolicy.getThroughput()
+					+ " items/s)");
+		}
+		// a gauge is bound to the policy it was registered with
+		for (Gauge gauge : this.gauges) {
+			BatchMetrics.getMeterRegistry().remove(gauge);
+		}
+		this.gauges.clear();
+		return null;
+	}
+
+	@Override
+	public void beforeChunk(ChunkContext context) {
+	}
+
+	@Override
+	public void afterChunk(ChunkContext context) {
+	}
+
+	@Override
+	public void afterChunkError(ChunkContext context) {
+		this.completionPolicy.chunkFailed();
+	}
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.core.listener;
+
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.repeat.policy.ByteBudgetCompletionPolicy;
+import org.springframework.util.Assert;
+
+/**
+ * Listener passing the items read to a {@link ByteBudgetCompletionPolicy}, so
+ * that it can complete the chunks once their items reach the byte budget. The
+ * step builders register this listener when a byte budget is set, or when a
+ * {@link ByteBudgetCompletionPolicy} is the chunk completion policy. It must be
+ * registered explicitly when the policy is part of a
+ * {@link org.springframework.batch.repeat.policy.CompositeCompletionPolicy}.
+ *
+ * @param <T> type of the items
+ * @since 4.3
+ */
+public class ByteBudgetCompletionPolicyListener<T> implements ItemReadListener<T> {
+
+	private final ByteBudgetCompletionPolicy<? super T> completionPolicy;
+
+	/**
+	 * @param completionPolicy the policy completing the chunks of the step
+	 */
+	public ByteBudgetCompletionPolicyListener(ByteBudgetCompletionPolicy<? super T> completionPolicy) {
+		Assert.notNull(completionPolicy, "A completion policy is required");
+		this.completionPolicy = completionPolicy;
+	}
+
+	@Override
+	public void beforeRead() {
+	}
+
+	@Override
+	public void afterRead(T item) {
+		this.completionPolicy.itemRead(item);
+	}
+
+	@Override
+	public void onReadError(Exception ex) {
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2013 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,7 +15,6 @@
  */
 package org.springframework.batch.core.listener;
 
-import java.util.Iterator;
 import java.util.List;
 
 import org.springframework.batch.core.ChunkListener;
@@ -55,8 +54,9 @@ public class CompositeChunkListener implements ChunkListener {
 	 */
 	@Override
 	public void afterChunk(ChunkContext context) {
-		for (Iterator<ChunkListener> iterator = listeners.reverse(); iterator.hasNext();) {
-			ChunkListener listener = iterator.next();
+		List<ChunkListener> delegates = listeners.reversedItems();
+		for (int i = 0; i < delegates.size(); i++) {
+			ChunkListener listener = delegates.get(i);
 			listener.afterChunk(context);
 		}
 	}
@@ -69,8 +69,9 @@ public class CompositeChunkListener implements ChunkListener {
 	 */
 	@Override
 	public void beforeChunk(ChunkContext context) {
-		for (Iterator<ChunkListener> iterator = listeners.iterator(); iterator.hasNext();) {
-			ChunkListener listener = iterator.next();
+		List<ChunkListener> delegates = listeners.items();
+		for (int i = 0; i < delegates.size(); i++) {
+			ChunkListener listener = delegates.get(i);
 			listener.beforeChunk(context);
 		}
 	}
@@ -82,8 +83,9 @@ public class CompositeChunkListener implements ChunkListener {
 	 */
 	@Override
 	public void afterChunkError(ChunkContext context) {
-		for (Iterator<ChunkListener> iterator = listeners.reverse(); iterator.hasNext();) {
-			ChunkListener listener = iterator.next();
+		List<ChunkListener> delegates = listeners.reversedItems();
+		for (int i = 0; i < delegates.size(); i++) {
+			ChunkListener listener = delegates.get(i);
 			listener.afterChunkError(context);
 		}
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2018 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,7 +15,6 @@
  */
 package org.springframework.batch.core.listener;
 
-import java.util.Iterator;
 import java.util.List;
 
 import org.springframework.batch.core.ItemProcessListener;
@@ -57,8 +56,9 @@ public class CompositeItemProcessListener<T, S> implements ItemProcessListener<T
 	 */
 	@Override
 	public void afterProcess(T item, @Nullable S result) {
-		for (Iterator<ItemProcessListener<? super T, ? super S>> iterator = listeners.reverse(); iterator.hasNext();) {
-			ItemProcessListener<? super T, ? super S> listener = iterator.next();
+		List<ItemProcessListener<? super T, ? super S>> delegates = listeners.reversedItems();
+		for (int i = 0; i < delegates.size(); i++) {
+			ItemProcessListener<? super T, ? super S> listener = delegates.get(i);
 			listener.afterProcess(item, result);
 		}
 	}
@@ -70,8 +70,9 @@ public class CompositeItemProcessListener<T, S> implements ItemProcessListener<T
 	 */
 	@Override
 	public void beforeProcess(T item) {
-		for (Iterator<ItemProcessListener<? super T, ? super S>> iterator = listeners.iterator(); iterator.hasNext();) {
-			ItemProcessListener<? super T, ? super S> listener = iterator.next();
+		List<ItemProcessListener<? super T, ? super S>> delegates = listeners.items();
+		for (int i = 0; i < delegates.size(); i++) {
+			ItemProcessListener<? super T, ? super S> listener = delegates.get(i);
 			listener.beforeProcess(item);
 		}
 	}
@@ -84,8 +85,9 @@ public class CompositeItemProcessListener<T, S> implements ItemProcessListener<T
 	 */
 	@Override
 	public void onProcessError(T item, Exception e) {
-		for (Iterator<ItemProcessListener<? super T, ? super S>> iterator = listeners.reverse(); iterator.hasNext();) {
-			ItemProcessListener<? super T, ? super S> listener = iterator.next();
+		List<ItemProcessListener<? super T, ? super S>> delegates = listeners.reversedItems();
+		for (int i = 0; i < delegates.size(); i++) {
+			ItemProcessListener<? super T, ? super S> listener = delegates.get(i);
 			listener.onProcessError(item, e);
 		}
 	}
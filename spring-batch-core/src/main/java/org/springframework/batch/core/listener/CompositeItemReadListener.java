@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2013 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,7 +15,6 @@
  */
 package org.springframework.batch.core.listener;
 
-import java.util.Iterator;
 import java.util.List;
 
 import org.springframework.batch.core.ItemReadListener;
@@ -55,8 +54,9 @@ public class CompositeItemReadListener<T> implements ItemReadListener<T> {
 	 */
 	@Override
 	public void afterRead(T item) {
-		for (Iterator<ItemReadListener<? super T>> iterator = listeners.reverse(); iterator.hasNext();) {
-			ItemReadListener<? super T> listener = iterator.next();
+		List<ItemReadListener<? super T>> delegates = listeners.reversedItems();
+		for (int i = 0; i < delegates.size(); i++) {
+			ItemReadListener<? super T> listener = delegates.get(i);
 			listener.afterRead(item);
 		}
 	}
@@ -68,8 +68,9 @@ public class CompositeItemReadListener<T> implements ItemReadListener<T> {
 	 */
 	@Override
 	public void beforeRead() {
-		for (Iterator<ItemReadListener<? super T>> iterator = listeners.iterator(); iterator.hasNext();) {
-			ItemReadListener<? super T> listener = iterator.next();
+		List<ItemReadListener<? super T>> delegates = listeners.items();
+		for (int i = 0; i < delegates.size(); i++) {
+			ItemReadListener<? super T> listener = delegates.get(i);
 			listener.beforeRead();
 		}
 	}
@@ -81,8 +82,9 @@ public class CompositeItemReadListener<T> implements ItemReadListener<T> {
 	 */
 	@Override
 	public void onReadError(Exception ex) {
-		for (Iterator<ItemReadListener<? super T>> iterator = listeners.reverse(); iterator.hasNext();) {
-			ItemReadListener<? super T> listener = iterator.next();
+		List<ItemReadListener<? super T>> delegates = listeners.reversedItems();
+		for (int i = 0; i < delegates.size(); i++) {
+			ItemReadListener<? super T> listener = delegates.get(i);
 			listener.onReadError(ex);
 		}
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2013 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,7 +15,6 @@
  */
 package org.springframework.batch.core.listener;
 
-import java.util.Iterator;
 import java.util.List;
 
 import org.springframework.batch.core.ItemWriteListener;
@@ -55,8 +54,9 @@ public class CompositeItemWriteListener<S> implements ItemWriteListener<S> {
 	 */
 	@Override
 	public void afterWrite(List<? extends S> items) {
-		for (Iterator<ItemWriteListener<? super S>> iterator = listeners.reverse(); iterator.hasNext();) {
-			ItemWriteListener<? super S> listener = iterator.next();
+		List<ItemWriteListener<? super S>> delegates = listeners.reversedItems();
+		for (int i = 0; i < delegates.size(); i++) {
+			ItemWriteListener<? super S> listener = delegates.get(i);
 			listener.afterWrite(items);
 		}
 	}
@@ -68,8 +68,9 @@ public class CompositeItemWriteListener<S> implements ItemWriteListener<S> {
 	 */
 	@Override
 	public void beforeWrite(List<? extends S> items) {
-		for (Iterator<ItemWriteListener<? super S>> iterator = listeners.iterator(); iterator.hasNext();) {
-			ItemWriteListener<? super S> listener = iterator.next();
+		List<ItemWriteListener<? super S>> delegates = listeners.items();
+		for (int i = 0; i < delegates.size(); i++) {
+			ItemWriteListener<? super S> listener = delegates.get(i);
 			listener.beforeWrite(items);
 		}
 	}
@@ -81,8 +82,9 @@ public class CompositeItemWriteListener<S> implements ItemWriteListener<S> {
 	 */
 	@Override
 	public void onWriteError(Exception ex, List<? extends S> items) {
-		for (Iterator<ItemWriteListener<? super S>> iterator = listeners.reverse(); iterator.hasNext();) {
-			ItemWriteListener<? super S> listener = iterator.next();
+		List<ItemWriteListener<? super S>> delegates = listeners.reversedItems();
+		for (int i = 0; i < delegates.size(); i++) {
+			ItemWriteListener<? super S> listener = delegates.get(i);
 			listener.onWriteError(ex, items);
 		}
 	}
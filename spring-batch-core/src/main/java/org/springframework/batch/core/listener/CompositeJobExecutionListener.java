@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2013 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,7 +15,6 @@
  */
 package org.springframework.batch.core.listener;
 
-import java.util.Iterator;
 import java.util.List;
 
 import org.springframework.batch.core.JobExecution;
@@ -55,8 +54,9 @@ public class CompositeJobExecutionListener implements JobExecutionListener {
 	 */
 	@Override
 	public void afterJob(JobExecution jobExecution) {
-		for (Iterator<JobExecutionListener> iterator = listeners.reverse(); iterator.hasNext();) {
-			JobExecutionListener listener = iterator.next();
+		List<JobExecutionListener> delegates = listeners.reversedItems();
+		for (int i = 0; i < delegates.size(); i++) {
+			JobExecutionListener listener = delegates.get(i);
 			listener.afterJob(jobExecution);
 		}
 	}
@@ -68,8 +68,9 @@ public class CompositeJobExecutionListener implements JobExecutionListener {
 	 */
 	@Override
 	public void beforeJob(JobExecution jobExecution) {
-		for (Iterator<JobExecutionListener> iterator = listeners.iterator(); iterator.hasNext();) {
-			JobExecutionListener listener = iterator.next();
+		List<JobExecutionListener> delegates = listeners.items();
+		for (int i = 0; i < delegates.size(); i++) {
+			JobExecutionListener listener = delegates.get(i);
 			listener.beforeJob(jobExecution);
 		}
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2013 the original author or authors.
+ * Copyright 2013-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,7 +15,6 @@
  */
 package org.springframework.batch.core.listener;
 
-import java.util.Iterator;
 import java.util.List;
 import javax.batch.api.chunk.listener.RetryProcessListener;
 
@@ -54,8 +53,9 @@ public class CompositeRetryProcessListener implements RetryProcessListener {
 
 	@Override
 	public void onRetryProcessException(Object item, Exception ex) throws Exception {
-		for (Iterator<RetryProcessListener> iterator = listeners.reverse(); iterator.hasNext();) {
-			RetryProcessListener listener = iterator.next();
+		List<RetryProcessListener> delegates = listeners.reversedItems();
+		for (int i = 0; i < delegates.size(); i++) {
+			RetryProcessListener listener = delegates.get(i);
 			listener.onRetryProcessException(item, ex);
 		}
 	}
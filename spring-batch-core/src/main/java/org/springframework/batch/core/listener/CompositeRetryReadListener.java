@@ -1,5 +1,5 @@
 /*
- * Copyright 2013 the original author or authors.
+ * Copyright 2013-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,7 +15,6 @@
  */
 package org.springframework.batch.core.listener;
 
-import java.util.Iterator;
 import java.util.List;
 import javax.batch.api.chunk.listener.RetryReadListener;
 
@@ -54,8 +53,9 @@ public class CompositeRetryReadListener implements RetryReadListener {
 
 	@Override
 	public void onRetryReadException(Exception ex) throws Exception {
-		for (Iterator<RetryReadListener> iterator = listeners.reverse(); iterator.hasNext();) {
-			RetryReadListener listener = iterator.next();
+		List<RetryReadListener> delegates = listeners.reversedItems();
+		for (int i = 0; i < delegates.size(); i++) {
+			RetryReadListener listener = delegates.get(i);
 			listener.onRetryReadException(ex);
 		}
 	}
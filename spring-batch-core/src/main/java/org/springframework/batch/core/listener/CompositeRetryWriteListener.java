@@ -1,5 +1,5 @@
 /*
- * Copyright 2013 the original author or authors.
+ * Copyright 2013-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,7 +15,6 @@
  */
 package org.springframework.batch.core.listener;
 
-import java.util.Iterator;
 import java.util.List;
 import javax.batch.api.chunk.listener.RetryWriteListener;
 
@@ -54,8 +53,9 @@ public class CompositeRetryWriteListener implements RetryWriteListener {
 
 	@Override
 	public void onRetryWriteException(List<Object> items, Exception ex) throws Exception {
-		for (Iterator<RetryWriteListener> iterator = listeners.reverse(); iterator.hasNext();) {
-			RetryWriteListener listener = iterator.next();
+		List<RetryWriteListener> delegates = listeners.reversedItems();
+		for (int i = 0; i < delegates.size(); i++) {
+			RetryWriteListener listener = delegates.get(i);
 			listener.onRetryWriteException(items, ex);
 		}
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2013 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,7 +15,6 @@
  */
 package org.springframework.batch.core.listener;
 
-import java.util.Iterator;
 import java.util.List;
 
 import org.springframework.batch.core.SkipListener;
@@ -54,8 +53,9 @@ public class CompositeSkipListener<T,S> implements SkipListener<T,S> {
 	 */
 	@Override
 	public void onSkipInRead(Throwable t) {
-		for (Iterator<SkipListener<? super T,? super S>> iterator = listeners.iterator(); iterator.hasNext();) {
-			SkipListener<? super T,? super S> listener = iterator.next();
+		List<SkipListener<? super T,? super S>> delegates = listeners.items();
+		for (int i = 0; i < delegates.size(); i++) {
+			SkipListener<? super T,? super S> listener = delegates.get(i);
 			listener.onSkipInRead(t);
 		}
 	}
@@ -68,8 +68,9 @@ public class CompositeSkipListener<T,S> implements SkipListener<T,S> {
 	 */
 	@Override
 	public void onSkipInWrite(S item, Throwable t) {
-		for (Iterator<SkipListener<? super T,? super S>> iterator = listeners.iterator(); iterator.hasNext();) {
-			SkipListener<? super T,? super S> listener = iterator.next();
+		List<SkipListener<? super T,? super S>> delegates = listeners.items();
+		for (int i = 0; i < delegates.size(); i++) {
+			SkipListener<? super T,? super S> listener = delegates.get(i);
 			listener.onSkipInWrite(item, t);
 		}
 	}
@@ -82,8 +83,9 @@ public class CompositeSkipListener<T,S> implements SkipListener<T,S> {
 	 */
 	@Override
 	public void onSkipInProcess(T item, Throwable t) {
-		for (Iterator<SkipListener<? super T,? super S>> iterator = listeners.iterator(); iterator.hasNext();) {
-			SkipListener<? super T,? super S> listener = iterator.next();
+		List<SkipListener<? super T,? super S>> delegates = listeners.items();
+		for (int i = 0; i < delegates.size(); i++) {
+			SkipListener<? super T,? super S> listener = delegates.get(i);
 			listener.onSkipInProcess(item, t);
 		}
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2019 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,7 @@
 package org.springframework.batch.core.listener;
 
 import java.util.Arrays;
-import java.util.Iterator;
+import java.util.List;
 
 import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.StepExecution;
@@ -59,8 +59,9 @@ public class CompositeStepExecutionListener implements StepExecutionListener {
 	@Nullable
 	@Override
 	public ExitStatus afterStep(StepExecution stepExecution) {
-		for (Iterator<StepExecutionListener> iterator = list.reverse(); iterator.hasNext();) {
-			StepExecutionListener listener = iterator.next();
+		List<StepExecutionListener> delegates = list.reversedItems();
+		for (int i = 0; i < delegates.size(); i++) {
+			StepExecutionListener listener = delegates.get(i);
 			ExitStatus close = listener.afterStep(stepExecution);
 			stepExecution.setExitStatus(stepExecution.getExitStatus().and(close));
 		}
@@ -74,8 +75,9 @@ public class CompositeStepExecutionListener implements StepExecutionListener {
 	 */
 	@Override
 	public void beforeStep(StepExecution stepExecution) {
-		for (Iterator<StepExecutionListener> iterator = list.iterator(); iterator.hasNext();) {
-			StepExecutionListener listener = iterator.next();
+		List<StepExecutionListener> delegates = list.items();
+		for (int i = 0; i < delegates.size(); i++) {
+			StepExecutionListener listener = delegates.get(i);
 			listener.beforeStep(stepExecution);
 		}
 	}
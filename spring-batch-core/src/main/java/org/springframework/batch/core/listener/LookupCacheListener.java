@@ -0,0 +1,173 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core.listener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tag;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.metrics.BatchMetrics;
+import org.springframework.batch.item.support.LookupCache;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Listener managing the lifecycle of a {@link LookupCache} for a step.
+ *
+ * <p>
+ * Before the step, the cache is cleared (unless {@link #setClearBeforeStep(boolean)}
+ * is false, for example when the cache is shared by several steps of a job) and
+ * optionally warmed up with the values returned by a
+ * {@link #setWarmUpLoader(Callable) warm up loader}, typically a query loading the
+ * most used reference data at once. When the executions of a partitioned step
+ * share the listener, the cache is only cleared and warmed up before the first
+ * of them.
+ * </p>
+ *
+ * <p>
+ * While the step is running, the hit, miss and eviction counts of the cache are
+ * published as the <code>spring.batch.lookup.cache.hits</code>,
+ * <code>.misses</code> and <code>.evictions</code> counters, tagged with the
+ * {@link #setName(String) name} of the cache.
+ * </p>
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ * @since 4.3
+ */
+public class LookupCacheListener<K, V> extends StepExecutionListenerSupport implements InitializingBean {
+
+	private static final Log logger = LogFactory.getLog(LookupCacheListener.class);
+
+	private LookupCache<K, V> cache;
+
+	private String name = "lookup";
+
+	private Callable<? extends Map<? extends K, ? extends V>> warmUpLoader;
+
+	private boolean clearBeforeStep = true;
+
+	private final Set<StepExecution> stepExecutions = Collections.newSetFromMap(new IdentityHashMap<>());
+
+	private final List<Meter> meters = new ArrayList<>();
+
+	/**
+	 * @param cache the {@link LookupCache} to manage
+	 */
+	public void setCache(LookupCache<K, V> cache) {
+		this.cache = cache;
+	}
+
+	/**
+	 * @param name the name of the cache used to tag its metrics, defaults to
+	 * <code>lookup</code>
+	 */
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * @param warmUpLoader the loader of the values to put in the cache before the
+	 * step
+	 */
+	public void setWarmUpLoader(Callable<? extends Map<? extends K, ? extends V>> warmUpLoader) {
+		this.warmUpLoader = warmUpLoader;
+	}
+
+	/**
+	 * @param clearBeforeStep whether the cache is cleared before the step, defaults
+	 * to true
+	 */
+	public void setClearBeforeStep(boolean clearBeforeStep) {
+		this.clearBeforeStep = clearBeforeStep;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		Assert.notNull(this.cache, "The 'cache' property must be provided");
+		Assert.hasText(this.name, "The 'name' property must not be empty");
+	}
+
+	@Override
+	public void beforeStep(StepExecution stepExecution) {
+		synchronized (this.stepExecutions) {
+			// the executions of a partitioned step share the cache
+			if (this.stepExecutions.isEmpty()) {
+				start();
+			}
+			this.stepExecutions.add(stepExecution);
+		}
+	}
+
+	private void start() {
+		Tag nameTag = Tag.of("name", this.name);
+		this.meters.add(BatchMetrics.createFunctionCounter("lookup.cache.hits", "Lookup cache hits",
+				this.cache, LookupCache::getHitCount, nameTag));
+		this.meters.add(BatchMetrics.createFunctionCounter("lookup.cache.misses", "Lookup cache misses",
+				this.cache, LookupCache::getMissCount, nameTag));
+		this.meters.add(BatchMetrics.createFunctionCounter("lookup.cache.evictions", "Lookup cache evictions",
+				this.cache, LookupCache::getEvictionCount, nameTag));
+
+		if (this.clearBeforeStep) {
+			this.cache.clear();
+		}
+		if (this.warmUpLoader != null) {
+			Map<? extends K, ? extends V> values;
+			try {
+				values = this.warmUpLoader.call();
+			}
+			catch (Exception e) {
+				throw new StepListenerFailedException("Failed to warm up the lookup cache '" + this.name + "'", e);
+			}
+			this.cache.putAll(values);
+			if (logger.isDebugEnabled()) {
+				logger.debug("Warmed up the lookup cache '" + this.name + "' with " + values.size() + " values");
+			}
+		}
+	}
+
+	@Nullable
+	@Override
+	public ExitStatus afterStep(StepExecution stepExecution) {
+		if (logger.isDebugEnabled()) {
+			logger.debug("Lookup cache '" + this.name + "' after step " + stepExecution.getStepName() + ": hits="
+					+ this.cache.getHitCount() + ", misses=" + this.cache.getMissCount() + ", evictions="
+					+ this.cache.getEvictionCount() + ", size=" + this.cache.size());
+		}
+		synchronized (this.stepExecutions) {
+			if (this.stepExecutions.remove(stepExecution) && this.stepExecutions.isEmpty()) {
+				for (Meter meter : this.meters) {
+					BatchMetrics.getMeterRegistry().remove(meter);
+				}
+				this.meters.clear();
+			}
+		}
+		return null;
+	}
+
+}
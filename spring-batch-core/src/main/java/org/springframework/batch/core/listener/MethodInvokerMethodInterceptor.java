@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2013 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,6 +15,7 @@
  */
 package org.springframework.batch.core.listener;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -40,6 +41,7 @@ import org.springframework.batch.support.MethodInvoker;
 public class MethodInvokerMethodInterceptor implements MethodInterceptor {
 
 	private final Map<String, Set<MethodInvoker>> invokerMap;
+	private final Map<String, MethodInvoker[]> invokers;
 	private final boolean ordered;
 
 	public MethodInvokerMethodInterceptor(Map<String, Set<MethodInvoker>> invokerMap) {
@@ -49,6 +51,11 @@ public class MethodInvokerMethodInterceptor implements MethodInterceptor {
 	public MethodInvokerMethodInterceptor(Map<String, Set<MethodInvoker>> invokerMap, boolean ordered) {
 		this.ordered = ordered;
 		this.invokerMap = invokerMap;
+		// the invokers are copied to arrays once, as they are called for each item
+		this.invokers = new HashMap<>();
+		for (Map.Entry<String, Set<MethodInvoker>> entry : invokerMap.entrySet()) {
+			this.invokers.put(entry.getKey(), entry.getValue().toArray(new MethodInvoker[0]));
+		}
 	}
 
 	@Override
@@ -59,14 +66,15 @@ public class MethodInvokerMethodInterceptor implements MethodInterceptor {
 			return invocation.proceed();
 		}
 
-		Set<MethodInvoker> invokers = invokerMap.get(methodName);
+		MethodInvoker[] invokers = this.invokers.get(methodName);
 
 		if (invokers == null) {
 			return null;
 		}
+		Object[] arguments = invocation.getArguments();
 		ExitStatus status = null;
 		for (MethodInvoker invoker : invokers) {
-			Object retVal = invoker.invokeMethod(invocation.getArguments());
+			Object retVal = invoker.invokeMethod(arguments);
 			if (retVal instanceof ExitStatus) {
 				if (status != null) {
 					status = status.and((ExitStatus) retVal);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2007 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -38,7 +38,11 @@ class OrderedComposite<S> {
 	
 	private Comparator<? super S> comparator = new AnnotationAwareOrderComparator();
 
-	private List<S> list = new ArrayList<>();
+	// immutable snapshots, rebuilt on registration so that the listeners can be
+	// called for each item without copying or locking
+	private volatile List<S> list = Collections.emptyList();
+
+	private volatile List<S> reversed = Collections.emptyList();
 
 	/**
 	 * Public setter for the listeners.
@@ -51,6 +55,7 @@ class OrderedComposite<S> {
 		for (S s : items) {
 			add(s);
 		}
+		refresh();
 	}
 
 	/**
@@ -72,10 +77,36 @@ class OrderedComposite<S> {
 		else if (!unordered.contains(item)) {
 			unordered.add(item);
 		}
+		refresh();
+	}
+
+	private void refresh() {
 		Collections.sort(ordered, comparator);
-		list.clear();
+		List<S> list = new ArrayList<>(ordered.size() + unordered.size());
 		list.addAll(ordered);
 		list.addAll(unordered);
+		List<S> reversed = new ArrayList<>(list);
+		Collections.reverse(reversed);
+		this.list = Collections.unmodifiableList(list);
+		this.reversed = Collections.unmodifiableList(reversed);
+	}
+
+	/**
+	 * Public getter for the items, to be iterated by index on hot paths. The
+	 * {@link Ordered} items come first, followed by any unordered ones.
+	 * @return an immutable snapshot of the items
+	 */
+	public List<S> items() {
+		return list;
+	}
+
+	/**
+	 * Public getter for the items in reverse, to be iterated by index on hot
+	 * paths. The {@link Ordered} items come last, after any unordered ones.
+	 * @return an immutable snapshot of the items in reverse
+	 */
+	public List<S> reversedItems() {
+		return reversed;
 	}
 
 	/**
@@ -84,7 +115,7 @@ class OrderedComposite<S> {
 	 * @return an iterator over the list of items
 	 */
 	public Iterator<S> iterator() {
-		return new ArrayList<>(list).iterator();
+		return list.iterator();
 	}
 
 	/**
@@ -93,9 +124,7 @@ class OrderedComposite<S> {
 	 * @return an iterator over the list of items
 	 */
 	public Iterator<S> reverse() {
-		ArrayList<S> result = new ArrayList<>(list);
-		Collections.reverse(result);
-		return result.iterator();
+		return reversed.iterator();
 	}
 
 }
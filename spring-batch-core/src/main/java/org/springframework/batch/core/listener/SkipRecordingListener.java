@@ -0,0 +1,169 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core.listener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.SkipListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.core.step.skip.SkippedItem;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * Listener recording the items skipped by a fault-tolerant step with an
+ * {@link ItemWriter} of {@link SkippedItem}s, e.g. a
+ * {@link org.springframework.batch.item.database.JdbcBatchItemWriter} inserting
+ * them in an error table.
+ *
+ * <p>
+ * The skips of a chunk are buffered, and written at once just before the
+ * transaction of the chunk is committed, instead of one by one. The skips are
+ * thus committed with the chunk, the skips of a chunk that is rolled back are
+ * discarded, and the chunk is rolled back if the sink fails. Outside of a
+ * transaction the skips are written after the chunk.
+ * </p>
+ *
+ * <p>
+ * The sink cannot be an {@link ItemStream}, since the state of the streams of
+ * the step is saved before the skips are written, and would not account for
+ * them on restart.
+ * </p>
+ *
+ * <p>
+ * The skips are buffered per thread, so that the listener can be used by a
+ * multi-threaded step, the sink being called by one thread at a time.
+ * </p>
+ *
+ * @since 4.3
+ * @see org.springframework.batch.core.step.builder.FaultTolerantStepBuilder#skipSink(ItemWriter)
+ */
+public class SkipRecordingListener implements SkipListener<Object, Object>, ChunkListener {
+
+	private final ItemWriter<? super SkippedItem> sink;
+
+	private final ThreadLocal<List<SkippedItem>> skippedItems = new ThreadLocal<>();
+
+	/**
+	 * @param sink the writer of the skipped items
+	 */
+	public SkipRecordingListener(ItemWriter<? super SkippedItem> sink) {
+		Assert.notNull(sink, "The sink must not be null");
+		Assert.isTrue(!(sink instanceof ItemStream), "The sink must not be an ItemStream, "
+				+ "since the skips are written after the state of the streams of the step is saved");
+		this.sink = sink;
+	}
+
+	@Override
+	public void onSkipInRead(Throwable t) {
+		record(SkippedItem.Phase.READ, null, t);
+	}
+
+	@Override
+	public void onSkipInProcess(Object item, Throwable t) {
+		record(SkippedItem.Phase.PROCESS, item, t);
+	}
+
+	@Override
+	public void onSkipInWrite(Object item, Throwable t) {
+		record(SkippedItem.Phase.WRITE, item, t);
+	}
+
+	@Override
+	public void beforeChunk(ChunkContext context) {
+	}
+
+	@Override
+	public void afterChunk(ChunkContext context) {
+		// the skips recorded outside of a transaction
+		List<SkippedItem> items = skippedItems.get();
+		if (items == null) {
+			return;
+		}
+		skippedItems.remove();
+		write(items);
+	}
+
+	private void write(List<SkippedItem> items) {
+		synchronized (sink) {
+			try {
+				sink.write(items);
+			}
+			catch (Exception e) {
+				throw new StepListenerFailedException("Failed to write the skipped items", e);
+			}
+		}
+	}
+
+	@Override
+	public void afterChunkError(ChunkContext context) {
+		skippedItems.remove();
+	}
+
+	private void record(SkippedItem.Phase phase, Object item, Throwable t) {
+		StepContext stepContext = StepSynchronizationManager.getContext();
+		SkippedItem skippedItem;
+		if (stepContext == null) {
+			skippedItem = new SkippedItem(null, null, null, phase, item, t);
+		}
+		else {
+			StepExecution stepExecution = stepContext.getStepExecution();
+			skippedItem = new SkippedItem(stepExecution.getJobExecutionId(), stepExecution.getId(),
+					stepExecution.getStepName(), phase, item, t);
+		}
+		List<SkippedItem> items = skippedItems.get();
+		if (items == null) {
+			items = new ArrayList<>();
+			skippedItems.set(items);
+			if (TransactionSynchronizationManager.isSynchronizationActive()) {
+				TransactionSynchronizationManager.registerSynchronization(new SkipsSynchronization(items));
+			}
+		}
+		items.add(skippedItem);
+	}
+
+	/**
+	 * Writes the skips recorded in a transaction before it is committed.
+	 */
+	private class SkipsSynchronization extends TransactionSynchronizationAdapter {
+
+		private final List<SkippedItem> items;
+
+		private SkipsSynchronization(List<SkippedItem> items) {
+			this.items = items;
+		}
+
+		@Override
+		public void beforeCommit(boolean readOnly) {
+			write(items);
+		}
+
+		@Override
+		public void afterCompletion(int status) {
+			skippedItems.remove();
+		}
+
+	}
+
+}
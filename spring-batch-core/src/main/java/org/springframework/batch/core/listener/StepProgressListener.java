@@ -0,0 +1,248 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.core.listener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tag;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepProgress;
+import org.springframework.batch.core.metrics.BatchMetrics;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.ProgressAware;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Listener tracking the progress of the executions of a step, from the size of
+ * the input known by a {@link ProgressAware} reader and the number of items
+ * read.
+ *
+ * <p>
+ * After each chunk, the share of the input read, the exponentially weighted
+ * moving average of the items read per second and the estimated time remaining
+ * are saved in the execution context of the step execution as a
+ * {@link StepProgress}. While the step runs they are also published as the
+ * <code>spring.batch.step.progress</code>, <code>spring.batch.step.rate</code>
+ * and <code>spring.batch.step.remaining</code> gauges, tagged with the job and
+ * step names, so the partitions of a partitioned step are tracked separately.
+ * Without a reader knowing the size of its input only the rate is tracked.
+ * </p>
+ *
+ * <p>
+ * A listener can be shared by concurrent step executions, and by the threads of
+ * a multi-threaded step. The step builders register this listener when asked to
+ * track the progress of a step.
+ * </p>
+ *
+ * @since 4.3
+ * @see org.springframework.batch.core.step.builder.SimpleStepBuilder#trackProgress()
+ */
+public class StepProgressListener extends StepExecutionListenerSupport implements ChunkListener {
+
+	private final ProgressAware progressAware;
+
+	private double averagingPeriod = 60;
+
+	private final Map<StepExecution, Tracker> trackers = Collections.synchronizedMap(new IdentityHashMap<>());
+
+	/**
+	 * @param progressAware the reader of the step, or null if the size of its
+	 * input is not known
+	 */
+	public StepProgressListener(@Nullable ProgressAware progressAware) {
+		this.progressAware = progressAware;
+	}
+
+	/**
+	 * @param averagingPeriod the period over which the rate of the items read and
+	 * of the progress are averaged, one minute by default. The weight of a chunk
+	 * in the average is divided by e every period.
+	 */
+	public void setAveragingPeriod(Duration averagingPeriod) {
+		Assert.isTrue(averagingPeriod != null && !averagingPeriod.isNegative() && !averagingPeriod.isZero(),
+				"The averaging period must be positive");
+		this.averagingPeriod = averagingPeriod.toNanos() / 1e9;
+	}
+
+	@Override
+	public void beforeStep(StepExecution stepExecution) {
+		Tracker tracker = new Tracker();
+		Tag jobNameTag = Tag.of("job.name", stepExecution.getJobExecution().getJobInstance().getJobName());
+		Tag stepNameTag = Tag.of("step.name", stepExecution.getStepName());
+		tracker.gauges.add(BatchMetrics.createGauge("step.progress", "Share of the input read", tracker,
+				t -> t.progress < 0 ? Double.NaN : t.progress, jobNameTag, stepNameTag));
+		tracker.gauges.add(BatchMetrics.createGauge("step.rate", "Moving average of the items read per second",
+				tracker, t -> t.rate, jobNameTag, stepNameTag));
+		tracker.gauges.add(BatchMetrics.createGauge("step.remaining", "Estimated seconds to completion", tracker,
+				t -> t.remaining < 0 ? Double.NaN : t.remaining, jobNameTag, stepNameTag));
+		this.trackers.put(stepExecution, tracker);
+	}
+
+	@Nullable
+	@Override
+	public ExitStatus afterStep(StepExecution stepExecution) {
+		Tracker tracker = this.trackers.remove(stepExecution);
+		if (tracker == null) {
+			return null;
+		}
+		if (stepExecution.getStatus() == BatchStatus.COMPLETED) {
+			// the reader is closed and may not know its input anymore
+			tracker.complete(System.nanoTime(), getItemCount(stepExecution));
+		}
+		else {
+			tracker.update(System.nanoTime(), getItemCount(stepExecution), getProgress());
+		}
+		tracker.getProgress().saveTo(stepExecution.getExecutionContext());
+		// a gauge is bound to the tracker it was registered with
+		for (Gauge gauge : tracker.gauges) {
+			BatchMetrics.getMeterRegistry().remove(gauge);
+		}
+		return null;
+	}
+
+	/**
+	 * Take the first sample of the step execution, the streams being open.
+	 */
+	@Override
+	public void beforeChunk(ChunkContext context) {
+		StepExecution stepExecution = context.getStepContext().getStepExecution();
+		Tracker tracker = this.trackers.get(stepExecution);
+		if (tracker != null) {
+			tracker.start(System.nanoTime(), getItemCount(stepExecution), getProgress());
+		}
+	}
+
+	@Override
+	public void afterChunk(ChunkContext context) {
+		StepExecution stepExecution = context.getStepContext().getStepExecution();
+		Tracker tracker = this.trackers.get(stepExecution);
+		if (tracker != null) {
+			tracker.update(System.nanoTime(), getItemCount(stepExecution), getProgress());
+			tracker.getProgress().saveTo(stepExecution.getExecutionContext());
+		}
+	}
+
+	@Override
+	public void afterChunkError(ChunkContext context) {
+	}
+
+	private long getItemCount(StepExecution stepExecution) {
+		return stepExecution.getReadCount() + stepExecution.getReadSkipCount();
+	}
+
+	private double getProgress() {
+		if (this.progressAware == null) {
+			return StepProgress.UNKNOWN;
+		}
+		long total = this.progressAware.getTotalWork();
+		if (total < 0) {
+			return StepProgress.UNKNOWN;
+		}
+		if (total == 0) {
+			return 1;
+		}
+		return Math.min((double) this.progressAware.getCompletedWork() / total, 1);
+	}
+
+	private class Tracker {
+
+		private final List<Gauge> gauges = new ArrayList<>();
+
+		private boolean started;
+
+		private long lastTime;
+
+		private long lastCount;
+
+		private double lastProgress = StepProgress.UNKNOWN;
+
+		private boolean rated;
+
+		private double progressRate = Double.NaN;
+
+		private volatile double progress = StepProgress.UNKNOWN;
+
+		private volatile double rate;
+
+		private volatile double remaining = StepProgress.UNKNOWN;
+
+		private synchronized void start(long time, long count, double progress) {
+			if (!this.started) {
+				this.started = true;
+				this.lastTime = time;
+				this.lastCount = count;
+				this.lastProgress = progress;
+				this.progress = progress;
+			}
+		}
+
+		private synchronized void update(long time, long count, double progress) {
+			double elapsed = (time - this.lastTime) / 1e9;
+			if (!this.started || elapsed <= 0) {
+				return;
+			}
+			double alpha = 1 - Math.exp(-elapsed / averagingPeriod);
+			double rate = (count - this.lastCount) / elapsed;
+			this.rate = this.rated ? average(this.rate, rate, alpha) : rate;
+			this.rated = true;
+			if (progress >= 0 && this.lastProgress >= 0) {
+				double progressRate = (progress - this.lastProgress) / elapsed;
+				this.progressRate = Double.isNaN(this.progressRate) ? progressRate
+						: average(this.progressRate, progressRate, alpha);
+			}
+			this.lastTime = time;
+			this.lastCount = count;
+			this.lastProgress = progress;
+			this.progress = progress;
+			if (progress >= 1) {
+				this.remaining = 0;
+			}
+			else if (progress >= 0 && this.progressRate > 0) {
+				this.remaining = (1 - progress) / this.progressRate;
+			}
+			else {
+				this.remaining = StepProgress.UNKNOWN;
+			}
+		}
+
+		private synchronized void complete(long time, long count) {
+			update(time, count, this.progress >= 0 ? 1 : StepProgress.UNKNOWN);
+			this.remaining = 0;
+		}
+
+		private double average(double average, double value, double alpha) {
+			return average + alpha * (value - average);
+		}
+
+		private StepProgress getProgress() {
+			return new StepProgress(this.progress, this.rate, this.remaining);
+		}
+
+	}
+
+}
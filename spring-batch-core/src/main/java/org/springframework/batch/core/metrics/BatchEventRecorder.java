@@ -0,0 +1,517 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.SkipListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.lang.Nullable;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.util.Assert;
+
+/**
+ * Recorder of the events of job executions, like a flight recorder, to find out
+ * afterwards which chunk or partition was slow, and why.
+ *
+ * <p>
+ * Jobs, steps, chunks, rollbacks, skips, retries and the updates of the step
+ * executions in the job repository are recorded with their start time, duration,
+ * number of items and thread. Each thread records its events in its own ring
+ * buffer of fixed capacity, without locking nor allocating, so that recording
+ * costs a few tens of nanoseconds per chunk. The oldest events of a thread are
+ * overwritten when its buffer is full.
+ * </p>
+ *
+ * <p>
+ * The events of a job execution can be dumped as JSON, one event per line, on
+ * demand or in a {@link #setDumpDirectory(File) directory} when the job ends.
+ * They can also be committed to the JDK Flight Recorder, when it is available
+ * (JDK 11 or 8u262 and later), as <code>org.springframework.batch.Event</code>
+ * events. This is {@link #setFlightRecorderEnabled(boolean) disabled} by
+ * default, since committing an event allocates it.
+ * </p>
+ *
+ * <p>
+ * The jobs and steps given a recorder record their events. A recorder is also a
+ * {@link SkipListener} and a {@link RetryListener}, registered by the fault
+ * tolerant step builders to record the skips and retries. A recorder can be
+ * shared by all the jobs and steps of an application.
+ * </p>
+ *
+ * @since 4.3
+ * @see org.springframework.batch.core.step.builder.StepBuilderHelper#eventRecorder(BatchEventRecorder)
+ * @see org.springframework.batch.core.job.builder.JobBuilderHelper#eventRecorder(BatchEventRecorder)
+ */
+public class BatchEventRecorder implements SkipListener<Object, Object>, RetryListener {
+
+	/**
+	 * The types of events.
+	 */
+	public enum Type {
+
+		/**
+		 * A job execution.
+		 */
+		JOB,
+
+		/**
+		 * A step execution.
+		 */
+		STEP,
+
+		/**
+		 * A chunk, committed or rolled back.
+		 */
+		CHUNK,
+
+		/**
+		 * A chunk rolled back, with the same start as the chunk.
+		 */
+		ROLLBACK,
+
+		/**
+		 * An item skipped.
+		 */
+		SKIP,
+
+		/**
+		 * A failed attempt to process or write items, about to be retried or
+		 * recovered.
+		 */
+		RETRY,
+
+		/**
+		 * An update of a step execution and its execution context in the job
+		 * repository.
+		 */
+		REPOSITORY
+
+	}
+
+	private static final Log logger = LogFactory.getLog(BatchEventRecorder.class);
+
+	// buffers of threads gone kept for a later dump
+	private static final int MAX_DEAD_BUFFERS = 64;
+
+	private final int capacity;
+
+	private final long epochOffset = System.currentTimeMillis() * 1000000 - System.nanoTime();
+
+	private final List<RingBuffer> buffers = new CopyOnWriteArrayList<>();
+
+	private final ThreadLocal<RingBuffer> buffer = ThreadLocal.withInitial(this::createBuffer);
+
+	private File dumpDirectory;
+
+	private boolean flightRecorderEnabled = false;
+
+	/**
+	 * Create a recorder keeping the last 4096 events of each thread.
+	 */
+	public BatchEventRecorder() {
+		this(4096);
+	}
+
+	/**
+	 * @param capacity the number of events kept for each thread
+	 */
+	public BatchEventRecorder(int capacity) {
+		Assert.isTrue(capacity > 0, "The capacity must be positive");
+		this.capacity = capacity;
+	}
+
+	/**
+	 * @param dumpDirectory a directory where the events of each job execution are
+	 * dumped when it ends, in a <code>[job name]-[job execution id].json</code>
+	 * file, or null (the default) not to dump them
+	 */
+	public void setDumpDirectory(@Nullable File dumpDirectory) {
+		this.dumpDirectory = dumpDirectory;
+	}
+
+	/**
+	 * @param flightRecorderEnabled true to also commit the events to the JDK
+	 * Flight Recorder when it is available, false by default
+	 */
+	public void setFlightRecorderEnabled(boolean flightRecorderEnabled) {
+		this.flightRecorderEnabled = flightRecorderEnabled && FlightRecorderEvents.isAvailable();
+	}
+
+	/**
+	 * Record an event that started earlier and ends now.
+	 *
+	 * @param type the type of the event
+	 * @param jobExecutionId the id of the job execution of the event
+	 * @param name the name of the job or step of the event
+	 * @param startNanos the start of the event, from {@link System#nanoTime()}
+	 * @param items the number of items of the event
+	 */
+	public void record(Type type, long jobExecutionId, String name, long startNanos, long items) {
+		long duration = System.nanoTime() - startNanos;
+		this.buffer.get().add(type, jobExecutionId, name, startNanos, duration, items);
+		if (this.flightRecorderEnabled) {
+			FlightRecorderEvents.commit(type, jobExecutionId, name, duration, items);
+		}
+	}
+
+	/**
+	 * Record an event of a step execution that started earlier and ends now.
+	 *
+	 * @param type the type of the event
+	 * @param stepExecution the step execution of the event
+	 * @param startNanos the start of the event, from {@link System#nanoTime()}
+	 * @param items the number of items of the event
+	 */
+	public void record(Type type, StepExecution stepExecution, long startNanos, long items) {
+		record(type, id(stepExecution.getJobExecutionId()), stepExecution.getStepName(), startNanos, items);
+	}
+
+	/**
+	 * Record the end of a step execution.
+	 *
+	 * @param stepExecution the step execution ending
+	 * @param startNanos the start of the step execution, from
+	 * {@link System#nanoTime()}
+	 */
+	public void stepEnded(StepExecution stepExecution, long startNanos) {
+		record(Type.STEP, stepExecution, startNanos, stepExecution.getReadCount());
+	}
+
+	/**
+	 * Record the end of a job execution, and dump its events if a
+	 * {@link #setDumpDirectory(File) dump directory} is set.
+	 *
+	 * @param jobExecution the job execution ending
+	 * @param startNanos the start of the job execution, from
+	 * {@link System#nanoTime()}
+	 */
+	public void jobEnded(JobExecution jobExecution, long startNanos) {
+		long items = 0;
+		for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+			items += stepExecution.getReadCount();
+		}
+		String jobName = jobExecution.getJobInstance().getJobName();
+		record(Type.JOB, id(jobExecution.getId()), jobName, startNanos, items);
+		if (this.dumpDirectory != null) {
+			File file = new File(this.dumpDirectory, jobName + "-" + jobExecution.getId() + ".json");
+			try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+				dump(jobExecution.getId(), writer);
+			}
+			catch (IOException e) {
+				logger.error("Unable to dump the events of " + jobExecution + " in " + file, e);
+			}
+		}
+	}
+
+	/**
+	 * Get the events recorded, oldest first. The events recorded while getting
+	 * them may be missed.
+	 *
+	 * @param jobExecutionId the id of the job execution of the events, or null
+	 * for the events of all the job executions
+	 * @return the events still in the buffers of the threads
+	 */
+	public List<Event> getEvents(@Nullable Long jobExecutionId) {
+		List<Event> events = new ArrayList<>();
+		for (RingBuffer buffer : this.buffers) {
+			buffer.collect(jobExecutionId, events);
+		}
+		events.sort(Comparator.comparingLong(Event::getStartNanos));
+		return events;
+	}
+
+	/**
+	 * Write the events recorded as JSON, one event per line, oldest first.
+	 *
+	 * @param jobExecutionId the id of the job execution of the events, or null
+	 * for the events of all the job executions
+	 * @param writer where to write the events
+	 * @throws IOException if the events cannot be written
+	 */
+	public void dump(@Nullable Long jobExecutionId, Writer writer) throws IOException {
+		for (Event event : getEvents(jobExecutionId)) {
+			writer.write(event.toJson());
+			writer.write('\n');
+		}
+		writer.flush();
+	}
+
+	@Override
+	public void onSkipInRead(Throwable t) {
+		recordItem(Type.SKIP);
+	}
+
+	@Override
+	public void onSkipInWrite(Object item, Throwable t) {
+		recordItem(Type.SKIP);
+	}
+
+	@Override
+	public void onSkipInProcess(Object item, Throwable t) {
+		recordItem(Type.SKIP);
+	}
+
+	@Override
+	public <T, E extends Throwable> boolean open(RetryContext context, RetryCallback<T, E> callback) {
+		return true;
+	}
+
+	@Override
+	public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback,
+			@Nullable Throwable throwable) {
+	}
+
+	@Override
+	public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback,
+			Throwable throwable) {
+		recordItem(Type.RETRY);
+	}
+
+	private void recordItem(Type type) {
+		StepContext context = StepSynchronizationManager.getContext();
+		if (context != null) {
+			record(type, context.getStepExecution(), System.nanoTime(), 1);
+		}
+	}
+
+	// job executions not saved are recorded with -1
+	private static long id(@Nullable Long id) {
+		return id != null ? id : -1;
+	}
+
+	private RingBuffer createBuffer() {
+		RingBuffer buffer = new RingBuffer(Thread.currentThread(), this.capacity);
+		List<RingBuffer> deadBuffers = new ArrayList<>();
+		for (RingBuffer other : this.buffers) {
+			if (other.thread.get() == null || !other.thread.get().isAlive()) {
+				deadBuffers.add(other);
+			}
+		}
+		if (deadBuffers.size() >= MAX_DEAD_BUFFERS) {
+			this.buffers.removeAll(deadBuffers.subList(0, deadBuffers.size() - MAX_DEAD_BUFFERS + 1));
+		}
+		this.buffers.add(buffer);
+		return buffer;
+	}
+
+	/**
+	 * An event recorded.
+	 */
+	public static final class Event {
+
+		private final Type type;
+
+		private final long jobExecutionId;
+
+		private final String name;
+
+		private final String thread;
+
+		private final long startNanos;
+
+		private final long startMicros;
+
+		private final long duration;
+
+		private final long items;
+
+		private Event(Type type, long jobExecutionId, String name, String thread, long startNanos, long startMicros,
+				long duration, long items) {
+			this.type = type;
+			this.jobExecutionId = jobExecutionId;
+			this.name = name;
+			this.thread = thread;
+			this.startNanos = startNanos;
+			this.startMicros = startMicros;
+			this.duration = duration;
+			this.items = items;
+		}
+
+		public Type getType() {
+			return type;
+		}
+
+		public long getJobExecutionId() {
+			return jobExecutionId;
+		}
+
+		/**
+		 * @return the name of the job or step of the event
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the name of the thread of the event
+		 */
+		public String getThread() {
+			return thread;
+		}
+
+		/**
+		 * @return the start of the event, from {@link System#nanoTime()}
+		 */
+		public long getStartNanos() {
+			return startNanos;
+		}
+
+		/**
+		 * @return the start of the event, in microseconds since the epoch
+		 */
+		public long getStartMicros() {
+			return startMicros;
+		}
+
+		/**
+		 * @return the duration of the event, in nanoseconds
+		 */
+		public long getDuration() {
+			return duration;
+		}
+
+		/**
+		 * @return the number of items of the event
+		 */
+		public long getItems() {
+			return items;
+		}
+
+		private String toJson() {
+			return String.format(Locale.ROOT,
+					"{\"type\":\"%s\",\"jobExecutionId\":%d,\"name\":\"%s\",\"thread\":\"%s\",\"start\":%d,\"duration\":%d,\"items\":%d}",
+					type.name().toLowerCase(Locale.ROOT), jobExecutionId, escape(name), escape(thread),
+					getStartMicros(), duration, items);
+		}
+
+		@Override
+		public String toString() {
+			return "Event: " + toJson();
+		}
+
+	}
+
+	private static String escape(String value) {
+		StringBuilder escaped = new StringBuilder(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				escaped.append('\\').append(c);
+			}
+			else if (c < 0x20) {
+				escaped.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+			}
+			else {
+				escaped.append(c);
+			}
+		}
+		return escaped.toString();
+	}
+
+	/**
+	 * The events of a thread, written by this thread only. An event is published
+	 * by the volatile write of the position, so readers see the events before
+	 * the position they read, unless overwritten in the meantime.
+	 */
+	private class RingBuffer {
+
+		private final WeakReference<Thread> thread;
+
+		private final String threadName;
+
+		private final Type[] types;
+
+		private final long[] jobExecutionIds;
+
+		private final String[] names;
+
+		private final long[] starts;
+
+		private final long[] durations;
+
+		private final long[] items;
+
+		private volatile long position;
+
+		private RingBuffer(Thread thread, int capacity) {
+			this.thread = new WeakReference<>(thread);
+			this.threadName = thread.getName();
+			this.types = new Type[capacity];
+			this.jobExecutionIds = new long[capacity];
+			this.names = new String[capacity];
+			this.starts = new long[capacity];
+			this.durations = new long[capacity];
+			this.items = new long[capacity];
+		}
+
+		private void add(Type type, long jobExecutionId, String name, long start, long duration, long items) {
+			long position = this.position;
+			int index = (int) (position % this.types.length);
+			this.types[index] = type;
+			this.jobExecutionIds[index] = jobExecutionId;
+			this.names[index] = name;
+			this.starts[index] = start;
+			this.durations[index] = duration;
+			this.items[index] = items;
+			this.position = position + 1;
+		}
+
+		private void collect(@Nullable Long jobExecutionId, List<Event> events) {
+			int length = this.types.length;
+			long end = this.position;
+			long start = Math.max(end - length, 0);
+			List<Event> collected = new ArrayList<>();
+			long[] positions = new long[(int) (end - start)];
+			for (long position = start; position < end; position++) {
+				int index = (int) (position % length);
+				if (jobExecutionId == null || this.jobExecutionIds[index] == jobExecutionId) {
+					positions[collected.size()] = position;
+					collected.add(new Event(this.types[index], this.jobExecutionIds[index], this.names[index],
+							this.threadName, this.starts[index], (epochOffset + this.starts[index]) / 1000,
+							this.durations[index], this.items[index]));
+				}
+			}
+			// drop the events overwritten while collecting
+			long overwritten = this.position - length;
+			for (int i = 0; i < collected.size(); i++) {
+				if (positions[i] >= overwritten) {
+					events.add(collected.get(i));
+				}
+			}
+		}
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2019 the original author or authors.
+ * Copyright 2019-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,19 +19,25 @@ import java.time.Duration;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Timer;
 
 import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
 
 /**
  * Central class for batch metrics. It provides:
  *
  * <ul>
- *     <li>the main entry point to interact with Micrometer's {@link Metrics#globalRegistry}
+ *     <li>the main entry point to interact with Micrometer's {@link Metrics#globalRegistry},
+ *     or the {@link MeterRegistry} set with {@link #setMeterRegistry(MeterRegistry)},
  *     with common metrics such as {@link Timer} and {@link LongTaskTimer}.</li>
  *     <li>Some utility methods like calculating durations and formatting them in
  *     a human readable format.</li>
@@ -50,8 +56,31 @@ public final class BatchMetrics {
 
 	public static final String STATUS_FAILURE = "FAILURE";
 
+	private static volatile MeterRegistry meterRegistry = Metrics.globalRegistry;
+
 	private BatchMetrics() {}
 
+	/**
+	 * Set the registry of the batch metrics, for example to keep them apart from
+	 * the metrics of the rest of the application or to use a registry without
+	 * the indirection of a composite registry. Only the meters created after this
+	 * call are registered in the new registry.
+	 * @param meterRegistry the meter registry, defaults to {@link Metrics#globalRegistry}
+	 * @since 4.3
+	 */
+	public static void setMeterRegistry(MeterRegistry meterRegistry) {
+		Assert.notNull(meterRegistry, "The meter registry must not be null");
+		BatchMetrics.meterRegistry = meterRegistry;
+	}
+
+	/**
+	 * @return the registry of the batch metrics
+	 * @since 4.3
+	 */
+	public static MeterRegistry getMeterRegistry() {
+		return meterRegistry;
+	}
+
 	/**
 	 * Create a {@link Timer}.
 	 * @param name of the timer. Will be prefixed with {@link BatchMetrics#METRICS_PREFIX}.
@@ -60,10 +89,23 @@ public final class BatchMetrics {
 	 * @return a new timer instance
 	 */
 	public static Timer createTimer(String name, String description, Tag... tags) {
+		return createTimer(meterRegistry, name, description, tags);
+	}
+
+	/**
+	 * Create a {@link Timer} in the given registry.
+	 * @param meterRegistry the registry of the timer
+	 * @param name of the timer. Will be prefixed with {@link BatchMetrics#METRICS_PREFIX}.
+	 * @param description of the timer
+	 * @param tags of the timer
+	 * @return a new timer instance
+	 * @since 4.3
+	 */
+	public static Timer createTimer(MeterRegistry meterRegistry, String name, String description, Tag... tags) {
 		return Timer.builder(METRICS_PREFIX + name)
 				.description(description)
 				.tags(Arrays.asList(tags))
-				.register(Metrics.globalRegistry);
+				.register(meterRegistry);
 	}
 
 	/**
@@ -71,7 +113,7 @@ public final class BatchMetrics {
 	 * @return a new timer sample instance
 	 */
 	public static Timer.Sample createTimerSample() {
-		return Timer.start(Metrics.globalRegistry);
+		return Timer.start(meterRegistry);
 	}
 
 	/**
@@ -85,7 +127,46 @@ public final class BatchMetrics {
 		return LongTaskTimer.builder(METRICS_PREFIX + name)
 				.description(description)
 				.tags(Arrays.asList(tags))
-				.register(Metrics.globalRegistry);
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Create a {@link FunctionCounter} tracking a monotonically increasing count
+	 * maintained by another object.
+	 * @param name of the counter. Will be prefixed with {@link BatchMetrics#METRICS_PREFIX}.
+	 * @param description of the counter
+	 * @param object the object maintaining the count
+	 * @param count the function returning the count of the object
+	 * @param tags of the counter
+	 * @param <T> type of the object maintaining the count
+	 * @return a new function counter instance, or the existing one with the same name and tags
+	 * @since 4.3
+	 */
+	public static <T> FunctionCounter createFunctionCounter(String name, String description, T object,
+			ToDoubleFunction<T> count, Tag... tags) {
+		return FunctionCounter.builder(METRICS_PREFIX + name, object, count)
+				.description(description)
+				.tags(Arrays.asList(tags))
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Create a {@link Gauge} tracking a value maintained by another object.
+	 * @param name of the gauge. Will be prefixed with {@link BatchMetrics#METRICS_PREFIX}.
+	 * @param description of the gauge
+	 * @param object the object maintaining the value
+	 * @param value the function returning the value of the object
+	 * @param tags of the gauge
+	 * @param <T> type of the object maintaining the value
+	 * @return a new gauge instance, or the existing one with the same name and tags
+	 * @since 4.3
+	 */
+	public static <T> Gauge createGauge(String name, String description, T object, ToDoubleFunction<T> value,
+			Tag... tags) {
+		return Gauge.builder(METRICS_PREFIX + name, object, value)
+				.description(description)
+				.tags(Arrays.asList(tags))
+				.register(meterRegistry);
 	}
 
 	/**
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core.metrics;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * JDK Flight Recorder events of a {@link BatchEventRecorder}, named
+ * <code>org.springframework.batch.Event</code>. The event type is defined at
+ * runtime with a <code>jdk.jfr.EventFactory</code>, looked up by reflection, so
+ * that Spring Batch neither compiles nor links against the flight recorder,
+ * which is missing from JDK 8 before 8u262 and from some runtimes.
+ *
+ * @since 4.3
+ */
+final class FlightRecorderEvents {
+
+	private static final Log logger = LogFactory.getLog(FlightRecorderEvents.class);
+
+	@Nullable
+	private static final FlightRecorderEvents instance = create();
+
+	private final Object eventFactory;
+
+	private final MethodHandle newEvent;
+
+	private final MethodHandle isEnabled;
+
+	private final MethodHandle set;
+
+	private final MethodHandle commit;
+
+	private FlightRecorderEvents(Object eventFactory, MethodHandle newEvent, MethodHandle isEnabled,
+			MethodHandle set, MethodHandle commit) {
+		this.eventFactory = eventFactory;
+		this.newEvent = newEvent;
+		this.isEnabled = isEnabled;
+		this.set = set;
+		this.commit = commit;
+	}
+
+	/**
+	 * @return true if the events can be committed to the flight recorder
+	 */
+	static boolean isAvailable() {
+		return instance != null;
+	}
+
+	/**
+	 * Commit an event to the flight recorder, if available and recording the
+	 * events of Spring Batch.
+	 */
+	static void commit(BatchEventRecorder.Type type, long jobExecutionId, String name, long elapsed, long items) {
+		if (instance != null) {
+			instance.doCommit(type, jobExecutionId, name, elapsed, items);
+		}
+	}
+
+	private void doCommit(BatchEventRecorder.Type type, long jobExecutionId, String name, long elapsed, long items) {
+		try {
+			Object event = newEvent.invoke(eventFactory);
+			if ((boolean) isEnabled.invoke(event)) {
+				set.invoke(event, 0, type.name());
+				set.invoke(event, 1, jobExecutionId);
+				set.invoke(event, 2, name);
+				set.invoke(event, 3, elapsed);
+				set.invoke(event, 4, items);
+				commit.invoke(event);
+			}
+		}
+		catch (Throwable e) {
+			throw new IllegalStateException("Failed to commit a flight recorder event", e);
+		}
+	}
+
+	@Nullable
+	private static FlightRecorderEvents create() {
+		try {
+			ClassLoader classLoader = FlightRecorderEvents.class.getClassLoader();
+			Class<?> annotationElementClass = Class.forName("jdk.jfr.AnnotationElement", false, classLoader);
+			Class<?> valueDescriptorClass = Class.forName("jdk.jfr.ValueDescriptor", false, classLoader);
+			Class<?> eventFactoryClass = Class.forName("jdk.jfr.EventFactory", false, classLoader);
+			Class<?> eventClass = Class.forName("jdk.jfr.Event", false, classLoader);
+			Constructor<?> annotation = annotationElementClass.getConstructor(Class.class, Object.class);
+			Constructor<?> field = valueDescriptorClass.getConstructor(Class.class, String.class, List.class);
+			Class<?> label = Class.forName("jdk.jfr.Label", false, classLoader);
+			Class<?> description = Class.forName("jdk.jfr.Description", false, classLoader);
+
+			List<Object> eventAnnotations = Arrays.asList(
+					annotation.newInstance(Class.forName("jdk.jfr.Name", false, classLoader), "org.springframework.batch.Event"),
+					annotation.newInstance(label, "Batch Event"),
+					annotation.newInstance(Class.forName("jdk.jfr.Category", false, classLoader), new String[] {"Spring Batch"}),
+					annotation.newInstance(description, "Job, step, chunk, rollback, skip, retry or job repository update"));
+			List<Object> fields = Arrays.asList(
+					field.newInstance(String.class, "type",
+							Collections.singletonList(annotation.newInstance(label, "Type"))),
+					field.newInstance(long.class, "jobExecutionId",
+							Collections.singletonList(annotation.newInstance(label, "Job Execution Id"))),
+					field.newInstance(String.class, "name",
+							Arrays.asList(annotation.newInstance(label, "Name"),
+									annotation.newInstance(description, "Name of the job or step"))),
+					field.newInstance(long.class, "elapsed",
+							Arrays.asList(annotation.newInstance(label, "Elapsed"),
+									annotation.newInstance(Class.forName("jdk.jfr.Timespan", false, classLoader), "NANOSECONDS"))),
+					field.newInstance(long.class, "items",
+							Collections.singletonList(annotation.newInstance(label, "Items"))));
+			Method create = eventFactoryClass.getMethod("create", List.class, List.class);
+			Object eventFactory = create.invoke(null, eventAnnotations, fields);
+
+			MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+			return new FlightRecorderEvents(eventFactory,
+					lookup.unreflect(eventFactoryClass.getMethod("newEvent")),
+					lookup.unreflect(eventClass.getMethod("isEnabled")),
+					lookup.unreflect(eventClass.getMethod("set", int.class, Object.class)),
+					lookup.unreflect(eventClass.getMethod("commit")));
+		}
+		catch (ClassNotFoundException e) {
+			return null;
+		}
+		catch (Exception | LinkageError e) {
+			logger.debug("The JDK Flight Recorder cannot be used", e);
+			return null;
+		}
+	}
+
+}
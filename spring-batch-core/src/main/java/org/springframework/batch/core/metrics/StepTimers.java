@@ -0,0 +1,237 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Timers of a step execution, tagged with the job name, the step name and the
+ * status, registered once in a meter registry (by default the
+ * {@link BatchMetrics#getMeterRegistry() meter registry} of the batch metrics)
+ * and cached, so that timing an item does not build the identifier of its timer
+ * again. The timers of the step executions timed by a component are looked up
+ * with a {@link Cache}.
+ *
+ * <p>
+ * Items can be sampled: with a sampling interval of N, only one sample out of
+ * N is started, the others being <code>null</code> and costing nothing, so the
+ * count of an item timer is then about the count of items divided by N.
+ * </p>
+ *
+ * <p>
+ * Instances are thread-safe, so that the threads of a multi-threaded step can
+ * share the timers of their step execution.
+ * </p>
+ *
+ * Only intended for internal use.
+ *
+ * @since 4.3
+ */
+public final class StepTimers {
+
+	private final StepExecution stepExecution;
+
+	private final MeterRegistry meterRegistry;
+
+	private final boolean defaultMeterRegistry;
+
+	private final int samplingInterval;
+
+	private final Map<String, Timer> successTimers = new ConcurrentHashMap<>();
+
+	private final Map<String, Timer> failureTimers = new ConcurrentHashMap<>();
+
+	private final AtomicInteger count = new AtomicInteger();
+
+	/**
+	 * @param stepExecution the step execution timed
+	 * @param samplingInterval the number of item samples out of which only one
+	 * is started, 1 to time all the items
+	 */
+	public StepTimers(StepExecution stepExecution, int samplingInterval) {
+		this(stepExecution, samplingInterval, null);
+	}
+
+	/**
+	 * @param stepExecution the step execution timed
+	 * @param samplingInterval the number of item samples out of which only one
+	 * is started, 1 to time all the items
+	 * @param meterRegistry the registry of the timers, null for the current
+	 * meter registry of the batch metrics
+	 */
+	public StepTimers(StepExecution stepExecution, int samplingInterval, @Nullable MeterRegistry meterRegistry) {
+		Assert.notNull(stepExecution, "A step execution is required");
+		Assert.isTrue(samplingInterval > 0, "The sampling interval must be positive");
+		this.stepExecution = stepExecution;
+		this.meterRegistry = meterRegistry != null ? meterRegistry : BatchMetrics.getMeterRegistry();
+		this.defaultMeterRegistry = meterRegistry == null;
+		this.samplingInterval = samplingInterval;
+	}
+
+	/**
+	 * @param stepExecution a step execution
+	 * @return true if these timers time the given step execution, in the current
+	 * meter registry of the batch metrics if no registry was given
+	 */
+	public boolean isFor(StepExecution stepExecution) {
+		return this.stepExecution == stepExecution
+				&& (!defaultMeterRegistry || this.meterRegistry == BatchMetrics.getMeterRegistry());
+	}
+
+	/**
+	 * Start a sample for an item, unless the item is not sampled.
+	 * @return a new timer sample, or null if the item is not sampled
+	 */
+	@Nullable
+	public Timer.Sample startItemSample() {
+		if (samplingInterval > 1 && count.getAndIncrement() % samplingInterval != 0) {
+			return null;
+		}
+		return Timer.start(meterRegistry);
+	}
+
+	/**
+	 * Start a sample for something timed every time, like a chunk.
+	 * @return a new timer sample
+	 */
+	public Timer.Sample startSample() {
+		return Timer.start(meterRegistry);
+	}
+
+	/**
+	 * Stop a sample, if any, with the timer of the given name and status.
+	 * @param sample the sample to stop, may be null if not sampled
+	 * @param name of the timer. Will be prefixed like in {@link BatchMetrics#createTimer}.
+	 * @param description of the timer
+	 * @param status {@link BatchMetrics#STATUS_SUCCESS} or {@link BatchMetrics#STATUS_FAILURE}
+	 */
+	public void stop(@Nullable Timer.Sample sample, String name, String description, String status) {
+		if (sample != null) {
+			sample.stop(getTimer(name, description, status));
+		}
+	}
+
+	/**
+	 * @param name of the timer. Will be prefixed like in {@link BatchMetrics#createTimer}.
+	 * @param description of the timer
+	 * @param status {@link BatchMetrics#STATUS_SUCCESS} or {@link BatchMetrics#STATUS_FAILURE}
+	 * @return the timer of the given name and status, registered on first use
+	 */
+	public Timer getTimer(String name, String description, String status) {
+		Map<String, Timer> timers = BatchMetrics.STATUS_SUCCESS.equals(status) ? successTimers : failureTimers;
+		Timer timer = timers.get(name);
+		if (timer == null) {
+			timer = timers.computeIfAbsent(name, key -> BatchMetrics.createTimer(meterRegistry, name, description,
+					Tag.of("job.name", stepExecution.getJobExecution().getJobInstance().getJobName()),
+					Tag.of("step.name", stepExecution.getStepName()),
+					Tag.of("status", status)));
+		}
+		return timer;
+	}
+
+	/**
+	 * The timers of the step executions timed by a component, for example a chunk
+	 * provider or processor shared by the partitions of a partitioned step. The
+	 * timers of a step execution are kept until its step context is closed, and
+	 * looked up without locking.
+	 */
+	public static final class Cache {
+
+		private final int samplingInterval;
+
+		@Nullable
+		private final MeterRegistry meterRegistry;
+
+		private final Map<StepExecution, StepTimers> timers = new ConcurrentHashMap<>();
+
+		private final String callbackName = Cache.class.getName() + "@" + Integer.toHexString(System.identityHashCode(this));
+
+		// the timers of the last step execution without a step context, e.g. on a remote chunking worker
+		@Nullable
+		private volatile StepTimers uncachedTimers;
+
+		/**
+		 * @param samplingInterval the number of item samples out of which only one
+		 * is started, 1 to time all the items
+		 * @param meterRegistry the registry of the timers, null for the current
+		 * meter registry of the batch metrics
+		 */
+		public Cache(int samplingInterval, @Nullable MeterRegistry meterRegistry) {
+			Assert.isTrue(samplingInterval > 0, "The sampling interval must be positive");
+			this.samplingInterval = samplingInterval;
+			this.meterRegistry = meterRegistry;
+		}
+
+		/**
+		 * @param stepExecution the step execution timed
+		 * @return the timers of the step execution, created on first use
+		 */
+		public StepTimers get(StepExecution stepExecution) {
+			StepTimers stepTimers = timers.get(stepExecution);
+			if (stepTimers != null && stepTimers.isFor(stepExecution)) {
+				return stepTimers;
+			}
+			stepTimers = uncachedTimers;
+			if (stepTimers != null && stepTimers.isFor(stepExecution)) {
+				return stepTimers;
+			}
+			stepTimers = new StepTimers(stepExecution, samplingInterval, meterRegistry);
+			// the timers of a step execution that would never be forgotten are not cached
+			if (forgetAtStepEnd(stepExecution, stepTimers)) {
+				timers.put(stepExecution, stepTimers);
+			}
+			else {
+				uncachedTimers = stepTimers;
+			}
+			return stepTimers;
+		}
+
+		/**
+		 * Forget the timers of the step execution when its step context is closed.
+		 *
+		 * @return false if the step execution has no step context on this thread
+		 */
+		private boolean forgetAtStepEnd(StepExecution stepExecution, StepTimers stepTimers) {
+			StepContext context = StepSynchronizationManager.getContext();
+			if (context == null || context.getStepExecution() != stepExecution) {
+				return false;
+			}
+			context.registerDestructionCallback(callbackName, () -> timers.remove(stepExecution, stepTimers));
+			return true;
+		}
+
+		/**
+		 * @return the number of step executions whose timers are cached
+		 */
+		int size() {
+			return timers.size();
+		}
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2013 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,14 +16,20 @@
 
 package org.springframework.batch.core.resource;
 
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.listener.AdaptiveCompletionPolicyListener;
 import org.springframework.batch.core.listener.StepExecutionListenerSupport;
+import org.springframework.batch.core.scope.context.ChunkContext;
 import org.springframework.batch.repeat.CompletionPolicy;
 import org.springframework.batch.repeat.RepeatContext;
 import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.repeat.policy.AdaptiveCompletionPolicy;
 import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 
 /**
@@ -43,16 +49,29 @@ import org.springframework.util.Assert;
  * from of Spring Batch 2.1.7.
  * </p>
  *
+ * <p>
+ * If a {@link #setMaxKeyName(String) maximum commit interval} is also found in
+ * the {@link JobParameters}, the commit interval is tuned from the measured
+ * throughput by an {@link AdaptiveCompletionPolicy}, starting from the commit
+ * interval parameter. This policy is then also a {@link ChunkListener}, reducing
+ * the commit interval after a rollback.
+ * </p>
+ *
  * @author Dave Syer
  *
  * @see CompletionPolicy
  */
-public class StepExecutionSimpleCompletionPolicy extends StepExecutionListenerSupport implements CompletionPolicy {
+public class StepExecutionSimpleCompletionPolicy extends StepExecutionListenerSupport implements CompletionPolicy,
+		ChunkListener {
 
 	private CompletionPolicy delegate;
 
+	private AdaptiveCompletionPolicyListener adaptiveListener;
+
 	private String keyName = "commit.interval";
 
+	private String maxKeyName;
+
 	/**
 	 * Public setter for the key name of a Long value in the
 	 * {@link JobParameters} that will contain a commit interval. Defaults to
@@ -63,6 +82,17 @@ public class StepExecutionSimpleCompletionPolicy extends StepExecutionListenerSu
 		this.keyName = keyName;
 	}
 
+	/**
+	 * Public setter for the key name of a Long value in the
+	 * {@link JobParameters} that will contain a maximum commit interval, in
+	 * which case the commit interval is adaptive. Not set by default.
+	 * @param maxKeyName the maxKeyName to set
+	 * @since 4.3
+	 */
+	public void setMaxKeyName(String maxKeyName) {
+		this.maxKeyName = maxKeyName;
+	}
+
 	/**
 	 * Set up a {@link SimpleCompletionPolicy} with a commit interval taken from
 	 * the {@link JobParameters}. If there is a Long parameter with the given
@@ -76,7 +106,48 @@ public class StepExecutionSimpleCompletionPolicy extends StepExecutionListenerSu
 		JobParameters jobParameters = stepExecution.getJobParameters();
 		Assert.state(jobParameters.getParameters().containsKey(keyName),
 				"JobParameters do not contain Long parameter with key=[" + keyName + "]");
-		delegate = new SimpleCompletionPolicy(jobParameters.getLong(keyName).intValue());
+		int commitInterval = jobParameters.getLong(keyName).intValue();
+		if (maxKeyName != null && jobParameters.getParameters().containsKey(maxKeyName)) {
+			AdaptiveCompletionPolicy adaptiveCompletionPolicy = new AdaptiveCompletionPolicy(1,
+					jobParameters.getLong(maxKeyName).intValue());
+			adaptiveCompletionPolicy.setInitialChunkSize(commitInterval);
+			adaptiveListener = new AdaptiveCompletionPolicyListener(adaptiveCompletionPolicy);
+			adaptiveListener.beforeStep(stepExecution);
+			delegate = adaptiveCompletionPolicy;
+		}
+		else {
+			adaptiveListener = null;
+			delegate = new SimpleCompletionPolicy(commitInterval);
+		}
+	}
+
+	@Nullable
+	@Override
+	public ExitStatus afterStep(StepExecution stepExecution) {
+		if (adaptiveListener != null) {
+			adaptiveListener.afterStep(stepExecution);
+		}
+		return null;
+	}
+
+	@Override
+	public void beforeChunk(ChunkContext context) {
+	}
+
+	@Override
+	public void afterChunk(ChunkContext context) {
+	}
+
+	/**
+	 * Reduce an adaptive commit interval after a rollback.
+	 *
+	 * @see ChunkListener#afterChunkError(ChunkContext)
+	 */
+	@Override
+	public void afterChunkError(ChunkContext context) {
+		if (adaptiveListener != null) {
+			adaptiveListener.afterChunkError(context);
+		}
 	}
 
 	/**
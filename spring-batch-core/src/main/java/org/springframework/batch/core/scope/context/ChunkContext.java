@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2007 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.batch.core.scope.context;
 import org.springframework.core.AttributeAccessorSupport;
 
 import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 上下文对象，用于在块期间存储的弱类型数据(通常是在事务中一起处理的一组项)。如果有回滚并且重新尝试块，则相同的上下文将与它关联。
@@ -38,6 +39,11 @@ public class ChunkContext extends AttributeAccessorSupport {
 
 	private boolean complete = false;
 
+	private volatile boolean retryDeferred = false;
+
+	// System.nanoTime() before which the chunk should not be retried
+	private volatile long retryTime;
+
 	/**
 	 * @param stepContext the current step context
 	 */
@@ -66,6 +72,32 @@ public class ChunkContext extends AttributeAccessorSupport {
 		this.complete = true;
 	}
 
+	/**
+	 * Defer the next attempt of a chunk that has to back off before a retry, so
+	 * that other chunks can be processed meanwhile.
+	 *
+	 * @param delay the time to wait before the retry, in milliseconds
+	 * @since 4.3
+	 */
+	public void deferRetry(long delay) {
+		this.retryTime = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+		this.retryDeferred = true;
+	}
+
+	/**
+	 * @return the time left before the chunk can be retried, in milliseconds
+	 * rounded up, 0 if its retry was not deferred or can start now
+	 * @since 4.3
+	 */
+	public long getRetryDelay() {
+		if (!retryDeferred) {
+			return 0;
+		}
+		long delay = retryTime - System.nanoTime();
+		// rounded up, so that a chunk waiting for this delay is not retried early
+		return delay > 0 ? TimeUnit.NANOSECONDS.toMillis(delay + TimeUnit.MILLISECONDS.toNanos(1) - 1) : 0;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
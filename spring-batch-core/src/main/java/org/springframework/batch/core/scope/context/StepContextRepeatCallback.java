@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2018 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,10 @@
 package org.springframework.batch.core.scope.context;
 
 import java.util.Queue;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -39,6 +42,12 @@ public abstract class StepContextRepeatCallback implements RepeatCallback {
 
 	private final Queue<ChunkContext> attributeQueue = new LinkedBlockingQueue<>();
 
+	// chunks whose retry was deferred, until their back off period elapses
+	private final DelayQueue<DeferredChunkContext> deferredQueue = new DelayQueue<>();
+
+	// set once a chunk finished while others were waiting for a retry
+	private volatile boolean finished = false;
+
 	private final StepExecution stepExecution;
 
 	private final Log logger = LogFactory.getLog(StepContextRepeatCallback.class);
@@ -70,7 +79,7 @@ public abstract class StepContextRepeatCallback implements RepeatCallback {
 			logger.debug("Preparing chunk execution for StepContext: "+ObjectUtils.identityToString(stepContext));
 		}
 
-		ChunkContext chunkContext = attributeQueue.poll();
+		ChunkContext chunkContext = pollChunkContext();
 		if (chunkContext == null) {
 			chunkContext = new ChunkContext(stepContext);
 		}
@@ -79,18 +88,49 @@ public abstract class StepContextRepeatCallback implements RepeatCallback {
 			if (logger.isDebugEnabled()) {
 				logger.debug("Chunk execution starting: queue size="+attributeQueue.size());
 			}
-			return doInChunkContext(context, chunkContext);
+			RepeatStatus status = doInChunkContext(context, chunkContext);
+			if (status != null && !status.isContinuable() && !deferredQueue.isEmpty()) {
+				// The chunks waiting for a retry are not done yet
+				finished = true;
+				return RepeatStatus.CONTINUABLE;
+			}
+			return status;
 		}
 		finally {
 			// Still some stuff to do with the data in this chunk,
 			// pass it back.
 			if (!chunkContext.isComplete()) {
-				attributeQueue.add(chunkContext);
+				if (chunkContext.getRetryDelay() > 0) {
+					deferredQueue.add(new DeferredChunkContext(chunkContext));
+				}
+				else {
+					attributeQueue.add(chunkContext);
+				}
 			}
 			StepSynchronizationManager.close();
 		}
 	}
 
+	/**
+	 * Take the next chunk to carry on with, a deferred chunk whose retry is due
+	 * coming first. Other chunks are processed while a deferred chunk is waiting,
+	 * unless there are no more, in which case the thread waits for it, outside
+	 * of any transaction.
+	 */
+	private ChunkContext pollChunkContext() throws InterruptedException {
+		DeferredChunkContext deferred = deferredQueue.poll();
+		if (deferred == null && finished) {
+			DeferredChunkContext next = deferredQueue.peek();
+			if (next != null) {
+				deferred = deferredQueue.poll(next.getDelay(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+			}
+		}
+		if (deferred != null) {
+			return deferred.chunkContext;
+		}
+		return attributeQueue.poll();
+	}
+
 	/**
 	 * Do the work required for this chunk of the step. The {@link ChunkContext}
 	 * provided is managed by the base class, so that if there is still work to
@@ -109,4 +149,27 @@ public abstract class StepContextRepeatCallback implements RepeatCallback {
 	 */
 	public abstract RepeatStatus doInChunkContext(RepeatContext context, ChunkContext chunkContext) throws Exception;
 
+	private static class DeferredChunkContext implements Delayed {
+
+		private final ChunkContext chunkContext;
+
+		private final long retryTime;
+
+		private DeferredChunkContext(ChunkContext chunkContext) {
+			this.chunkContext = chunkContext;
+			this.retryTime = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(chunkContext.getRetryDelay());
+		}
+
+		@Override
+		public long getDelay(TimeUnit unit) {
+			return unit.convert(retryTime - System.nanoTime(), TimeUnit.NANOSECONDS);
+		}
+
+		@Override
+		public int compareTo(Delayed other) {
+			return Long.compare(retryTime, ((DeferredChunkContext) other).retryTime);
+		}
+
+	}
+
 }
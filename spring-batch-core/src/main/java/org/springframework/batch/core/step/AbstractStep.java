@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2019 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -33,6 +33,7 @@ import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.launch.NoSuchJobException;
 import org.springframework.batch.core.launch.support.ExitCodeMapper;
 import org.springframework.batch.core.listener.CompositeStepExecutionListener;
+import org.springframework.batch.core.metrics.BatchEventRecorder;
 import org.springframework.batch.core.metrics.BatchMetrics;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.scope.context.StepSynchronizationManager;
@@ -40,6 +41,7 @@ import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.repeat.RepeatException;
 import org.springframework.beans.factory.BeanNameAware;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 
@@ -70,6 +72,8 @@ public abstract class AbstractStep implements Step, InitializingBean, BeanNameAw
 
 	private JobRepository jobRepository;
 
+	private BatchEventRecorder eventRecorder;
+
 	/**
 	 * Default constructor.
 	 */
@@ -195,6 +199,7 @@ public abstract class AbstractStep implements Step, InitializingBean, BeanNameAw
 		stepExecution.setStartTime(new Date());
 		stepExecution.setStatus(BatchStatus.STARTED);
 		Timer.Sample sample = BatchMetrics.createTimerSample();
+		long start = System.nanoTime();
 		getJobRepository().update(stepExecution);
 
 		// Start with a default value that will be trumped by anything
@@ -294,6 +299,10 @@ public abstract class AbstractStep implements Step, InitializingBean, BeanNameAw
 
 			doExecutionRelease();
 
+			if (eventRecorder != null) {
+				eventRecorder.stepEnded(stepExecution, start);
+			}
+
 			if (logger.isDebugEnabled()) {
 				logger.debug("Step execution complete: " + stepExecution.getSummary());
 			}
@@ -368,6 +377,26 @@ public abstract class AbstractStep implements Step, InitializingBean, BeanNameAw
 		return jobRepository;
 	}
 
+	/**
+	 * Public setter for a {@link BatchEventRecorder} recording the executions of
+	 * this step.
+	 *
+	 * @param eventRecorder the recorder of the events, or null (the default)
+	 * @since 4.3
+	 */
+	public void setEventRecorder(@Nullable BatchEventRecorder eventRecorder) {
+		this.eventRecorder = eventRecorder;
+	}
+
+	/**
+	 * @return the recorder of the events of this step, or null
+	 * @since 4.3
+	 */
+	@Nullable
+	protected BatchEventRecorder getEventRecorder() {
+		return eventRecorder;
+	}
+
 	@Override
 	public String toString() {
 		return ClassUtils.getShortName(getClass()) + ": [name=" + name + "]";
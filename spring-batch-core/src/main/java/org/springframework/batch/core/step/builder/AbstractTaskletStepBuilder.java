@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2018 the original author or authors.
+ * Copyright 2012-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -69,6 +69,8 @@ StepBuilderHelper<AbstractTaskletStepBuilder<B>> {
 
 	private TaskExecutor taskExecutor;
 
+	private boolean saveProfile = false;
+
 	public AbstractTaskletStepBuilder(StepBuilderHelper<?> parent) {
 		super(parent);
 	}
@@ -113,6 +115,7 @@ StepBuilderHelper<AbstractTaskletStepBuilder<B>> {
 		step.setTasklet(createTasklet());
 
 		step.setStreams(streams.toArray(new ItemStream[0]));
+		step.setSaveProfile(saveProfile);
 
 		try {
 			step.afterPropertiesSet();
@@ -241,6 +244,19 @@ StepBuilderHelper<AbstractTaskletStepBuilder<B>> {
 		return this;
 	}
 
+	/**
+	 * Save the summary of the time spent in each phase of the chunks in the execution context of the step when it
+	 * ends. The profile is logged and published as metrics anyway.
+	 *
+	 * @return this for fluent chaining
+	 * @see TaskletStep#setSaveProfile(boolean)
+	 * @since 4.3
+	 */
+	public AbstractTaskletStepBuilder<B> saveProfile() {
+		this.saveProfile = true;
+		return this;
+	}
+
 	/**
 	 * Convenience method for subclasses to access the step operations that were injected by user.
 	 *
@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2019 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -35,14 +35,18 @@ import org.springframework.batch.core.StepListener;
 import org.springframework.batch.core.annotation.OnSkipInProcess;
 import org.springframework.batch.core.annotation.OnSkipInRead;
 import org.springframework.batch.core.annotation.OnSkipInWrite;
+import org.springframework.batch.core.listener.SkipRecordingListener;
 import org.springframework.batch.core.listener.StepListenerFactoryBean;
+import org.springframework.batch.core.metrics.BatchEventRecorder;
 import org.springframework.batch.core.scope.context.ChunkContext;
 import org.springframework.batch.core.step.FatalStepExecutionException;
 import org.springframework.batch.core.step.item.BatchRetryTemplate;
+import org.springframework.batch.core.step.item.BoundedRetryContextCache;
 import org.springframework.batch.core.step.item.ChunkMonitor;
 import org.springframework.batch.core.step.item.ChunkOrientedTasklet;
 import org.springframework.batch.core.step.item.ChunkProcessor;
 import org.springframework.batch.core.step.item.ChunkProvider;
+import org.springframework.batch.core.step.item.DeferringSleeper;
 import org.springframework.batch.core.step.item.FaultTolerantChunkProcessor;
 import org.springframework.batch.core.step.item.FaultTolerantChunkProvider;
 import org.springframework.batch.core.step.item.ForceRollbackForWriteSkipException;
@@ -57,13 +61,19 @@ import org.springframework.batch.core.step.skip.SkipLimitExceededException;
 import org.springframework.batch.core.step.skip.SkipListenerFailedException;
 import org.springframework.batch.core.step.skip.SkipPolicy;
 import org.springframework.batch.core.step.skip.SkipPolicyFailedException;
+import org.springframework.batch.core.step.skip.SkippedItem;
 import org.springframework.batch.core.step.tasklet.Tasklet;
 import org.springframework.batch.core.step.tasklet.TaskletStep;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.support.DeduplicatingItemProcessor;
 import org.springframework.batch.repeat.RepeatOperations;
 import org.springframework.batch.repeat.support.RepeatTemplate;
 import org.springframework.batch.support.ReflectionUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.PropertyAccessorFactory;
 import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.classify.BinaryExceptionClassifier;
 import org.springframework.classify.Classifier;
@@ -73,8 +83,10 @@ import org.springframework.retry.RetryException;
 import org.springframework.retry.RetryListener;
 import org.springframework.retry.RetryPolicy;
 import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.SleepingBackOffPolicy;
 import org.springframework.retry.policy.CompositeRetryPolicy;
 import org.springframework.retry.policy.ExceptionClassifierRetryPolicy;
+import org.springframework.retry.policy.MapRetryContextCache;
 import org.springframework.retry.policy.NeverRetryPolicy;
 import org.springframework.retry.policy.RetryContextCache;
 import org.springframework.retry.policy.SimpleRetryPolicy;
@@ -100,6 +112,8 @@ public class FaultTolerantStepBuilder<I, O> extends SimpleStepBuilder<I, O> {
 
 	private boolean streamIsReader;
 
+	private Set<ItemStream> readerStreams = new LinkedHashSet<>();
+
 	private int retryLimit = 0;
 
 	private BackOffPolicy backOffPolicy;
@@ -110,6 +124,10 @@ public class FaultTolerantStepBuilder<I, O> extends SimpleStepBuilder<I, O> {
 
 	private RetryContextCache retryContextCache;
 
+	private BoundedRetryContextCache chunkRetryContextCache;
+
+	private BoundedRetryContextCache itemRetryContextCache;
+
 	private KeyGenerator keyGenerator;
 
 	private Collection<Class<? extends Throwable>> noRollbackExceptionClasses = new LinkedHashSet<>();
@@ -130,8 +148,16 @@ public class FaultTolerantStepBuilder<I, O> extends SimpleStepBuilder<I, O> {
 
 	private SkipPolicy skipPolicy;
 
+	private ItemWriter<? super SkippedItem> skipSink;
+
 	private boolean processorTransactional = true;
 
+	private boolean bisectingScan = false;
+
+	private DeferringSleeper deferringSleeper;
+
+	private boolean checkReaderStateNotSaved = true;
+
 	/**
 	 * Create a new builder initialized with any properties in the parent. The parent is copied, so it can be re-used.
 	 *
@@ -153,6 +179,27 @@ public class FaultTolerantStepBuilder<I, O> extends SimpleStepBuilder<I, O> {
 	@Override
 	public TaskletStep build() {
 		registerStepListenerAsSkipListener();
+		BatchEventRecorder eventRecorder = getEventRecorder();
+		if (eventRecorder != null) {
+			listener((SkipListener<? super I, ? super O>) eventRecorder);
+			listener((RetryListener) eventRecorder);
+		}
+		if (skipSink != null) {
+			SkipRecordingListener skipRecordingListener = new SkipRecordingListener(skipSink);
+			listener((SkipListener<? super I, ? super O>) skipRecordingListener);
+			listener((ChunkListener) skipRecordingListener);
+		}
+		if (retryContextCache == null && (retryPolicy != null || retryLimit > 0)) {
+			// room for the process and write retries of the items of the chunks in progress
+			int concurrency = concurrent() ? getThrottleLimit() : 1;
+			int capacity = Math.max(MapRetryContextCache.DEFAULT_CAPACITY, 2 * getChunkSize() * concurrency);
+			chunkRetryContextCache = new BoundedRetryContextCache(capacity, concurrency);
+			chunkRetryContextCache.setName("chunk");
+			itemRetryContextCache = new BoundedRetryContextCache(capacity, concurrency);
+			itemRetryContextCache.setName("item");
+			listener((StepExecutionListener) chunkRetryContextCache);
+			listener((StepExecutionListener) itemRetryContextCache);
+		}
 		return super.build();
 	}
 
@@ -179,15 +226,55 @@ public class FaultTolerantStepBuilder<I, O> extends SimpleStepBuilder<I, O> {
 	protected Tasklet createTasklet() {
 		Assert.state(getReader() != null, "ItemReader must be provided");
 		Assert.state(getWriter() != null, "ItemWriter must be provided");
+		Assert.state(processorTransactional || !(getProcessor() instanceof DeduplicatingItemProcessor),
+				"A DeduplicatingItemProcessor must be transactional, so that the items of a chunk rolled back are processed again");
+		Assert.state(!processorTransactional || getProcessorTaskExecutor() == null,
+				"A processor task executor requires a non-transactional processor, as the items are processed outside of the transaction of the chunk");
 		addSpecialExceptions();
 		registerSkipListeners();
 		ChunkProvider<I> chunkProvider = createChunkProvider();
 		ChunkProcessor<I> chunkProcessor = createChunkProcessor();
-		ChunkOrientedTasklet<I> tasklet = new ChunkOrientedTasklet<>(chunkProvider, chunkProcessor);
+		ChunkOrientedTasklet<I> tasklet = new ChunkOrientedTasklet<>(pipeline(chunkProvider), chunkProcessor);
 		tasklet.setBuffering(!isReaderTransactionalQueue());
+		for (ItemStream stream : readerStreams) {
+			// the reader of a pipelined step is a stream of its chunk provider
+			if (stream != getReader() || getPipelineTaskExecutor() == null) {
+				chunkMonitor.registerItemStream(stream);
+			}
+		}
+		if (deferringSleeper != null) {
+			if (checkReaderStateNotSaved) {
+				assertReaderStateNotSaved();
+			}
+			tasklet.setDeferringSleeper(deferringSleeper);
+		}
 		return tasklet;
 	}
 
+	/**
+	 * The chunks read after a deferred chunk are committed before it, so a reader saving its state would be restarted
+	 * after the items of a deferred chunk that was never committed.
+	 */
+	private void assertReaderStateNotSaved() {
+		Set<Object> streams = new LinkedHashSet<>(readerStreams);
+		if (getReader() instanceof ItemStream) {
+			streams.add(getReader());
+		}
+		for (Object stream : streams) {
+			Object saveState;
+			try {
+				BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(stream);
+				saveState = wrapper.isReadableProperty("saveState") ? wrapper.getPropertyValue("saveState") : null;
+			}
+			catch (BeansException e) {
+				// e.g. a step scoped reader
+				saveState = null;
+			}
+			Assert.state(Boolean.FALSE.equals(saveState), "A non blocking back off requires the state of the reader "
+					+ stream + " not to be saved (saveState=false), since chunks are not committed in order");
+		}
+	}
+
 	/**
 	 * Registers objects using the annotation based listener configuration.
 	 *
@@ -311,8 +398,9 @@ public class FaultTolerantStepBuilder<I, O> extends SimpleStepBuilder<I, O> {
 	 * Provide an explicit retry context cache. Retry is stateful across transactions in the case of failures in item
 	 * processing or writing, so some information about the context for subsequent retries has to be stored.
 	 *
-	 * @param retryContextCache cache for retry contexts in between transactions (default to standard in-memory
-	 * implementation)
+	 * @param retryContextCache cache for retry contexts in between transactions (default to
+	 * {@link BoundedRetryContextCache}s sized from the chunk size and the number of threads if the step retries
+	 * items, standard in-memory implementation otherwise)
 	 * @return this for fluent chaining
 	 */
 	public FaultTolerantStepBuilder<I, O> retryContextCache(RetryContextCache retryContextCache) {
@@ -369,6 +457,22 @@ public class FaultTolerantStepBuilder<I, O> extends SimpleStepBuilder<I, O> {
 		return this;
 	}
 
+	/**
+	 * Record the skipped items with a writer, e.g. to an error table. The skips of a chunk are written at once before
+	 * the chunk is committed, instead of one by one by a skip listener. The writer cannot be an {@link ItemStream},
+	 * since the state of the streams is saved before the skips are written.
+	 *
+	 * @param skipSink the writer of the skipped items
+	 * @return this for fluent chaining
+	 * @since 4.3
+	 * @see SkipRecordingListener
+	 */
+	public FaultTolerantStepBuilder<I, O> skipSink(ItemWriter<? super SkippedItem> skipSink) {
+		Assert.isTrue(!(skipSink instanceof ItemStream), "The skip sink must not be an ItemStream");
+		this.skipSink = skipSink;
+		return this;
+	}
+
 	/**
 	 * Mark this exception as ignorable during item read or processing operations. Processing continues with no
 	 * additional callbacks (use skips instead if you need to be notified). Ignored during write because there is no
@@ -407,7 +511,9 @@ public class FaultTolerantStepBuilder<I, O> extends SimpleStepBuilder<I, O> {
 	/**
 	 * Mark the item processor as non-transactional (default is the opposite). If this flag is set the results of item
 	 * processing are cached across transactions in between retries and during skip processing, otherwise the processor
-	 * will be called in every transaction.
+	 * will be called in every transaction. A {@link DeduplicatingItemProcessor} cannot be non-transactional, and a
+	 * processor run by a {@link #processorTaskExecutor(org.springframework.core.task.TaskExecutor) processor task executor}
+	 * must be.
 	 *
 	 * @return this for fluent chaining
 	 */
@@ -416,6 +522,53 @@ public class FaultTolerantStepBuilder<I, O> extends SimpleStepBuilder<I, O> {
 		return this;
 	}
 
+	/**
+	 * Locate the items failing a chunk write by bisection of the chunk instead of writing its items one per
+	 * transaction. The skips and the skip listener callbacks are the same, with far fewer transactions when few items
+	 * of a large chunk fail, but the writer is called with the parts of the chunk that fail as well.
+	 *
+	 * @return this for fluent chaining
+	 * @since 4.3
+	 */
+	public FaultTolerantStepBuilder<I, O> bisectingScan() {
+		this.bisectingScan = true;
+		return this;
+	}
+
+	/**
+	 * Roll back a chunk that has to back off before a retry right away and defer its retry, instead of sleeping in its
+	 * transaction. The thread processes new chunks meanwhile, and only waits for the chunk, outside of any transaction,
+	 * once there are no more items to read. The retry and skip limits of the items are the same, but the chunks are not
+	 * written in the order they were read, so as for a multi-threaded step the state of the reader must not be saved: the
+	 * step fails to build if a reader registered as a stream does not have a {@code saveState} property set to false.
+	 * Only effective with a {@link SleepingBackOffPolicy}, such as the fixed or exponential ones, and for the exceptions
+	 * causing a rollback.
+	 *
+	 * @return this for fluent chaining
+	 * @since 4.3
+	 * @see #nonBlockingBackOff(boolean)
+	 */
+	public FaultTolerantStepBuilder<I, O> nonBlockingBackOff() {
+		return nonBlockingBackOff(true);
+	}
+
+	/**
+	 * Roll back a chunk that has to back off before a retry right away and defer its retry, like
+	 * {@link #nonBlockingBackOff()}, optionally without checking that the state of the reader is not saved. The check
+	 * cannot tell a reader that does not save its state when it has no {@code saveState} property or is a step scoped
+	 * proxy, in which case it can be skipped provided that the state of the reader is not saved.
+	 *
+	 * @param checkReaderStateNotSaved false not to check that the readers registered as streams do not save their
+	 * state
+	 * @return this for fluent chaining
+	 * @since 4.3
+	 */
+	public FaultTolerantStepBuilder<I, O> nonBlockingBackOff(boolean checkReaderStateNotSaved) {
+		this.deferringSleeper = new DeferringSleeper();
+		this.checkReaderStateNotSaved = checkReaderStateNotSaved;
+		return this;
+	}
+
 	@Override
 	public AbstractTaskletStepBuilder<SimpleStepBuilder<I, O>> stream(ItemStream stream) {
 		if (stream instanceof ItemReader<?>) {
@@ -424,8 +577,9 @@ public class FaultTolerantStepBuilder<I, O> extends SimpleStepBuilder<I, O> {
 				super.stream(chunkMonitor);
 			}
 			// In cases where multiple nested item readers are registered,
-			// they all want to get the open() and close() callbacks.
-			chunkMonitor.registerItemStream(stream);
+			// they all want to get the open() and close() callbacks
+			// (registered with the chunk monitor when the tasklet is created).
+			readerStreams.add(stream);
 		}
 		else {
 			super.stream(stream);
@@ -442,6 +596,10 @@ public class FaultTolerantStepBuilder<I, O> extends SimpleStepBuilder<I, O> {
 		chunkProvider.setMaxSkipsOnRead(Math.max(getChunkSize(), FaultTolerantChunkProvider.DEFAULT_MAX_SKIPS_ON_READ));
 		chunkProvider.setSkipPolicy(readSkipPolicy);
 		chunkProvider.setRollbackClassifier(getRollbackClassifier());
+		chunkProvider.setTimerSamplingInterval(getTimerSamplingInterval());
+		if (getMeterRegistry() != null) {
+			chunkProvider.setMeterRegistry(getMeterRegistry());
+		}
 		ArrayList<StepListener> listeners = new ArrayList<>(getItemListeners());
 		listeners.addAll(skipListeners);
 		chunkProvider.setListeners(listeners);
@@ -458,6 +616,12 @@ public class FaultTolerantStepBuilder<I, O> extends SimpleStepBuilder<I, O> {
 				getWriter(), batchRetryTemplate);
 		chunkProcessor.setBuffering(!isReaderTransactionalQueue());
 		chunkProcessor.setProcessorTransactional(processorTransactional);
+		chunkProcessor.setBisectingScan(bisectingScan);
+		chunkProcessor.setTaskExecutor(getProcessorTaskExecutor());
+		chunkProcessor.setTimerSamplingInterval(getTimerSamplingInterval());
+		if (getMeterRegistry() != null) {
+			chunkProcessor.setMeterRegistry(getMeterRegistry());
+		}
 
 		SkipPolicy writeSkipPolicy = createSkipPolicy();
 		writeSkipPolicy = getFatalExceptionAwareProxy(writeSkipPolicy);
@@ -607,7 +771,10 @@ public class FaultTolerantStepBuilder<I, O> extends SimpleStepBuilder<I, O> {
 		RetryPolicy retryPolicyWrapper = getFatalExceptionAwareProxy(retryPolicy);
 
 		BatchRetryTemplate batchRetryTemplate = new BatchRetryTemplate();
-		if (backOffPolicy != null) {
+		if (deferringSleeper != null && backOffPolicy instanceof SleepingBackOffPolicy) {
+			batchRetryTemplate.setBackOffPolicy(((SleepingBackOffPolicy<?>) backOffPolicy).withSleeper(deferringSleeper));
+		}
+		else if (backOffPolicy != null) {
 			batchRetryTemplate.setBackOffPolicy(backOffPolicy);
 		}
 		batchRetryTemplate.setRetryPolicy(retryPolicyWrapper);
@@ -623,6 +790,9 @@ public class FaultTolerantStepBuilder<I, O> extends SimpleStepBuilder<I, O> {
 		if (retryContextCache != null) {
 			batchRetryTemplate.setRetryContextCache(retryContextCache);
 		}
+		else if (chunkRetryContextCache != null) {
+			batchRetryTemplate.setRetryContextCaches(chunkRetryContextCache, itemRetryContextCache);
+		}
 
 		if (retryListeners != null) {
 			batchRetryTemplate.setListeners(retryListeners.toArray(new RetryListener[0]));
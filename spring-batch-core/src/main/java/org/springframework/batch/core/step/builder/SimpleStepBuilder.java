@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2018 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,6 +22,8 @@ import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.function.Function;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 import org.springframework.batch.core.ChunkListener;
 import org.springframework.batch.core.ItemProcessListener;
 import org.springframework.batch.core.ItemReadListener;
@@ -37,8 +39,14 @@ import org.springframework.batch.core.annotation.BeforeWrite;
 import org.springframework.batch.core.annotation.OnProcessError;
 import org.springframework.batch.core.annotation.OnReadError;
 import org.springframework.batch.core.annotation.OnWriteError;
+import org.springframework.batch.core.listener.AdaptiveCompletionPolicyListener;
+import org.springframework.batch.core.listener.ByteBudgetCompletionPolicyListener;
 import org.springframework.batch.core.listener.StepListenerFactoryBean;
+import org.springframework.batch.core.listener.StepProgressListener;
+import org.springframework.batch.core.metrics.BatchMetrics;
 import org.springframework.batch.core.step.item.ChunkOrientedTasklet;
+import org.springframework.batch.core.step.item.ChunkProvider;
+import org.springframework.batch.core.step.item.PipelinedChunkProvider;
 import org.springframework.batch.core.step.item.SimpleChunkProcessor;
 import org.springframework.batch.core.step.item.SimpleChunkProvider;
 import org.springframework.batch.core.step.tasklet.Tasklet;
@@ -47,12 +55,18 @@ import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemStream;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.ProgressAware;
 import org.springframework.batch.item.function.FunctionItemProcessor;
 import org.springframework.batch.repeat.CompletionPolicy;
 import org.springframework.batch.repeat.RepeatOperations;
+import org.springframework.batch.repeat.policy.AdaptiveCompletionPolicy;
+import org.springframework.batch.repeat.policy.ByteBudgetCompletionPolicy;
+import org.springframework.batch.repeat.policy.CompositeCompletionPolicy;
+import org.springframework.batch.repeat.policy.ItemSizeEstimator;
 import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
 import org.springframework.batch.repeat.support.RepeatTemplate;
 import org.springframework.batch.support.ReflectionUtils;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.util.Assert;
 
 /**
@@ -89,6 +103,18 @@ public class SimpleStepBuilder<I, O> extends AbstractTaskletStepBuilder<SimpleSt
 
 	private boolean readerTransactionalQueue = false;
 
+	private TaskExecutor processorTaskExecutor;
+
+	private TaskExecutor pipelineTaskExecutor;
+
+	private ByteBudgetCompletionPolicy<I> byteBudgetCompletionPolicy;
+
+	private int timerSamplingInterval = 1;
+
+	private MeterRegistry meterRegistry;
+
+	private boolean trackProgress = false;
+
 	/**
 	 * Create a new builder initialized with any properties in the parent. The parent is copied, so it can be re-used.
 	 *
@@ -113,6 +139,12 @@ public class SimpleStepBuilder<I, O> extends AbstractTaskletStepBuilder<SimpleSt
 		this.processor = parent.processor;
 		this.itemListeners = parent.itemListeners;
 		this.readerTransactionalQueue = parent.readerTransactionalQueue;
+		this.processorTaskExecutor = parent.processorTaskExecutor;
+		this.pipelineTaskExecutor = parent.pipelineTaskExecutor;
+		this.byteBudgetCompletionPolicy = parent.byteBudgetCompletionPolicy;
+		this.timerSamplingInterval = parent.timerSamplingInterval;
+		this.meterRegistry = parent.meterRegistry;
+		this.trackProgress = parent.trackProgress;
 	}
 
 	public FaultTolerantStepBuilder<I, O> faultTolerant() {
@@ -129,6 +161,22 @@ public class SimpleStepBuilder<I, O> extends AbstractTaskletStepBuilder<SimpleSt
 
 		registerStepListenerAsItemListener();
 		registerAsStreamsAndListeners(reader, processor, writer);
+		if (completionPolicy instanceof AdaptiveCompletionPolicy) {
+			AdaptiveCompletionPolicy adaptiveCompletionPolicy = (AdaptiveCompletionPolicy) completionPolicy;
+			listener((StepExecutionListener) new AdaptiveCompletionPolicyListener(adaptiveCompletionPolicy));
+		}
+		if (byteBudgetCompletionPolicy != null) {
+			listener(new ByteBudgetCompletionPolicyListener<>(byteBudgetCompletionPolicy));
+		}
+		else if (completionPolicy instanceof ByteBudgetCompletionPolicy) {
+			@SuppressWarnings("unchecked")
+			ByteBudgetCompletionPolicy<? super I> policy = (ByteBudgetCompletionPolicy<? super I>) completionPolicy;
+			listener(new ByteBudgetCompletionPolicyListener<>(policy));
+		}
+		if (trackProgress) {
+			listener((StepExecutionListener) new StepProgressListener(
+					reader instanceof ProgressAware ? (ProgressAware) reader : null));
+		}
 		return super.build();
 	}
 
@@ -163,7 +211,14 @@ public class SimpleStepBuilder<I, O> extends AbstractTaskletStepBuilder<SimpleSt
 		SimpleChunkProcessor<I, O> chunkProcessor = new SimpleChunkProcessor<>(getProcessor(), getWriter());
 		chunkProvider.setListeners(new ArrayList<>(itemListeners));
 		chunkProcessor.setListeners(new ArrayList<>(itemListeners));
-		ChunkOrientedTasklet<I> tasklet = new ChunkOrientedTasklet<>(chunkProvider, chunkProcessor);
+		chunkProcessor.setTaskExecutor(processorTaskExecutor);
+		chunkProvider.setTimerSamplingInterval(timerSamplingInterval);
+		chunkProcessor.setTimerSamplingInterval(timerSamplingInterval);
+		if (meterRegistry != null) {
+			chunkProvider.setMeterRegistry(meterRegistry);
+			chunkProcessor.setMeterRegistry(meterRegistry);
+		}
+		ChunkOrientedTasklet<I> tasklet = new ChunkOrientedTasklet<>(pipeline(chunkProvider), chunkProcessor);
 		tasklet.setBuffering(!readerTransactionalQueue);
 		return tasklet;
 	}
@@ -185,7 +240,8 @@ public class SimpleStepBuilder<I, O> extends AbstractTaskletStepBuilder<SimpleSt
 
 	/**
 	 * Sets a completion policy for the chunk processing. Items are read until this policy determines that a chunk is
-	 * complete, giving more control than with just the {@link #chunk(int) chunk size} (or commit interval).
+	 * complete, giving more control than with just the {@link #chunk(int) chunk size} (or commit interval). An
+	 * {@link AdaptiveCompletionPolicy} is fed with the step lifecycle by an {@link AdaptiveCompletionPolicyListener}.
 	 *
 	 * @param completionPolicy a completion policy for the chunk
 	 * @return this for fluent chaining
@@ -326,6 +382,106 @@ public class SimpleStepBuilder<I, O> extends AbstractTaskletStepBuilder<SimpleSt
 		return this;
 	}
 
+	/**
+	 * Process the items of each chunk concurrently with the given task executor, the outputs being written in the
+	 * order of the inputs. Unlike a {@link #taskExecutor(TaskExecutor) multi-threaded step}, items are still read and
+	 * written by a single thread, so the step stays restartable. The processor and the item process listeners must be
+	 * thread-safe, and the processor cannot be a {@link org.springframework.batch.item.ChunkAwareItemProcessor}. The
+	 * items are processed outside of the transaction of the chunk, so the processor must not use transactional
+	 * resources (a JDBC connection bound to the transaction, a JPA {@code EntityManager}, a Hibernate session...),
+	 * whose changes would not be rolled back with the chunk. The items after the first one that fails are not
+	 * processed. A fault-tolerant step requires a {@link FaultTolerantStepBuilder#processorNonTransactional()
+	 * non-transactional processor}.
+	 *
+	 * @param processorTaskExecutor the task executor processing the items, for example backed by a
+	 * {@link java.util.concurrent.ForkJoinPool}
+	 * @return this for fluent chaining
+	 * @since 4.3
+	 */
+	public SimpleStepBuilder<I, O> processorTaskExecutor(TaskExecutor processorTaskExecutor) {
+		this.processorTaskExecutor = processorTaskExecutor;
+		return this;
+	}
+
+	/**
+	 * Read the next chunk with the given task executor while the current chunk is processed, written and committed,
+	 * so that reading from one system overlaps writing to another. The state of the reader saved at each commit is
+	 * the state before the next chunk was read, so the step stays restartable. Not compatible with a
+	 * {@link #readerIsTransactionalQueue() transactional reader}, since the next chunk is read outside of its
+	 * transaction, nor with a {@link #taskExecutor(TaskExecutor) multi-threaded step}. The streams the reader
+	 * delegates to must not be registered as streams of the step, since their state would be saved after the items
+	 * read ahead: the reader has to open, update and close them itself.
+	 *
+	 * @param pipelineTaskExecutor the task executor reading the next chunk
+	 * @return this for fluent chaining
+	 * @see PipelinedChunkProvider
+	 * @since 4.3
+	 */
+	public SimpleStepBuilder<I, O> pipelineTaskExecutor(TaskExecutor pipelineTaskExecutor) {
+		this.pipelineTaskExecutor = pipelineTaskExecutor;
+		return this;
+	}
+
+	/**
+	 * Also complete a chunk once the estimated size of its items reaches a byte budget, whichever of the
+	 * {@link #chunk(int) chunk size} or {@link #chunk(CompletionPolicy) completion policy} and the byte budget comes
+	 * first. Useful when the size of the items varies a lot, to bound the memory used by a chunk.
+	 *
+	 * @param byteBudget the estimated size of the items of a chunk, in bytes
+	 * @param itemSizeEstimator the estimator of the size of the items
+	 * @return this for fluent chaining
+	 * @see ByteBudgetCompletionPolicy
+	 * @since 4.3
+	 */
+	public SimpleStepBuilder<I, O> chunkByteBudget(long byteBudget, ItemSizeEstimator<? super I> itemSizeEstimator) {
+		byteBudgetCompletionPolicy = new ByteBudgetCompletionPolicy<>(byteBudget);
+		byteBudgetCompletionPolicy.setItemSizeEstimator(itemSizeEstimator);
+		return this;
+	}
+
+	/**
+	 * Time only one item out of the given number in the <code>item.read</code> and <code>item.process</code> timers,
+	 * so that the metrics of steps reading and processing items fast cost close to nothing. The chunk and step timers
+	 * are not sampled.
+	 *
+	 * @param timerSamplingInterval the number of items out of which one is timed, defaults to 1
+	 * @return this for fluent chaining
+	 * @since 4.3
+	 */
+	public SimpleStepBuilder<I, O> timerSamplingInterval(int timerSamplingInterval) {
+		Assert.isTrue(timerSamplingInterval > 0, "The timer sampling interval must be positive");
+		this.timerSamplingInterval = timerSamplingInterval;
+		return this;
+	}
+
+	/**
+	 * Register the <code>item.read</code>, <code>item.process</code> and <code>chunk.write</code> timers of the step
+	 * in the given registry, rather than in the {@link BatchMetrics#getMeterRegistry() meter registry} of the batch
+	 * metrics.
+	 *
+	 * @param meterRegistry the registry of the timers
+	 * @return this for fluent chaining
+	 * @since 4.3
+	 */
+	public SimpleStepBuilder<I, O> meterRegistry(MeterRegistry meterRegistry) {
+		Assert.notNull(meterRegistry, "The meter registry must not be null");
+		this.meterRegistry = meterRegistry;
+		return this;
+	}
+
+	/**
+	 * Track the progress of the executions of the step with a {@link StepProgressListener}: the share of the input
+	 * read, if the reader is {@link ProgressAware}, the moving average of the items read per second and the estimated
+	 * time remaining are published as gauges and saved in the execution context after each chunk.
+	 *
+	 * @return this for fluent chaining
+	 * @since 4.3
+	 */
+	public SimpleStepBuilder<I, O> trackProgress() {
+		this.trackProgress = true;
+		return this;
+	}
+
 	/**
 	 * Instead of a {@link #chunk(int) chunk size} or {@link #chunk(CompletionPolicy) completion policy} you can provide
 	 * a complete repeat operations instance that handles the iteration over the item reader.
@@ -368,6 +524,48 @@ public class SimpleStepBuilder<I, O> extends AbstractTaskletStepBuilder<SimpleSt
 		return chunkSize;
 	}
 
+	protected TaskExecutor getProcessorTaskExecutor() {
+		return processorTaskExecutor;
+	}
+
+	protected TaskExecutor getPipelineTaskExecutor() {
+		return pipelineTaskExecutor;
+	}
+
+	protected int getTimerSamplingInterval() {
+		return timerSamplingInterval;
+	}
+
+	protected MeterRegistry getMeterRegistry() {
+		return meterRegistry;
+	}
+
+	/**
+	 * Wrap the chunk provider in a {@link PipelinedChunkProvider} if a {@link #pipelineTaskExecutor(TaskExecutor)
+	 * pipeline task executor} is set, registering it as the stream of the reader. The reader is moved under the
+	 * chunk provider even if it was also registered as a stream of the step, so that its state is saved at the
+	 * chunk boundaries rather than after the items read ahead.
+	 *
+	 * @param chunkProvider the chunk provider reading the items
+	 * @return the chunk provider to use in the tasklet
+	 * @since 4.3
+	 */
+	protected ChunkProvider<I> pipeline(ChunkProvider<I> chunkProvider) {
+		if (pipelineTaskExecutor == null) {
+			return chunkProvider;
+		}
+		Assert.state(!readerTransactionalQueue, "A pipelined step cannot read from a transactional queue");
+		Assert.state(!concurrent(), "A pipelined step cannot be multi-threaded");
+		PipelinedChunkProvider<I> pipelinedChunkProvider = new PipelinedChunkProvider<>(chunkProvider,
+				pipelineTaskExecutor);
+		if (reader instanceof ItemStream) {
+			getStreams().remove(reader);
+			pipelinedChunkProvider.registerItemStream((ItemStream) reader);
+		}
+		stream(pipelinedChunkProvider);
+		return pipelinedChunkProvider;
+	}
+
 	protected boolean isReaderTransactionalQueue() {
 		return readerTransactionalQueue;
 	}
@@ -377,27 +575,36 @@ public class SimpleStepBuilder<I, O> extends AbstractTaskletStepBuilder<SimpleSt
 	}
 
 	/**
-	 * @return a {@link CompletionPolicy} consistent with the chunk size and injected policy (if present).
+	 * @return a {@link CompletionPolicy} consistent with the chunk size, injected policy (if present) and byte budget (if
+	 * present).
 	 */
 	protected CompletionPolicy getChunkCompletionPolicy() {
 		Assert.state(!(completionPolicy != null && chunkSize > 0),
 				"You must specify either a chunkCompletionPolicy or a commitInterval but not both.");
 		Assert.state(chunkSize >= 0, "The commitInterval must be positive or zero (for default value).");
 
-		if (completionPolicy != null) {
-			return completionPolicy;
+		CompletionPolicy chunkCompletionPolicy = completionPolicy;
+		if (chunkCompletionPolicy == null) {
+			if (chunkSize == 0) {
+				logger.info("Setting commit interval to default value (" + DEFAULT_COMMIT_INTERVAL + ")");
+				chunkSize = DEFAULT_COMMIT_INTERVAL;
+			}
+			chunkCompletionPolicy = new SimpleCompletionPolicy(chunkSize);
 		}
-		if (chunkSize == 0) {
-			logger.info("Setting commit interval to default value (" + DEFAULT_COMMIT_INTERVAL + ")");
-			chunkSize = DEFAULT_COMMIT_INTERVAL;
+		if (byteBudgetCompletionPolicy != null) {
+			CompositeCompletionPolicy compositeCompletionPolicy = new CompositeCompletionPolicy();
+			compositeCompletionPolicy.setPolicies(
+					new CompletionPolicy[] { chunkCompletionPolicy, byteBudgetCompletionPolicy });
+			return compositeCompletionPolicy;
 		}
-		return new SimpleCompletionPolicy(chunkSize);
+		return chunkCompletionPolicy;
 	}
 
 	protected void registerAsStreamsAndListeners(ItemReader<? extends I> itemReader,
 			ItemProcessor<? super I, ? extends O> itemProcessor, ItemWriter<? super O> itemWriter) {
 		for (Object itemHandler : new Object[] { itemReader, itemWriter, itemProcessor }) {
-			if (itemHandler instanceof ItemStream) {
+			// the stream of the reader of a pipelined step is registered with its chunk provider
+			if (itemHandler instanceof ItemStream && (itemHandler != itemReader || pipelineTaskExecutor == null)) {
 				stream((ItemStream) itemHandler);
 			}
 			if (StepListenerFactoryBean.isListener(itemHandler)) {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2014 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,6 +22,7 @@ import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.annotation.AfterStep;
 import org.springframework.batch.core.annotation.BeforeStep;
 import org.springframework.batch.core.listener.StepListenerFactoryBean;
+import org.springframework.batch.core.metrics.BatchEventRecorder;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.AbstractStep;
 import org.springframework.batch.core.step.tasklet.TaskletStep;
@@ -113,6 +114,21 @@ public abstract class StepBuilderHelper<B extends StepBuilderHelper<B>> {
 		return result;
 	}
 
+	/**
+	 * Record the events of the step with a {@link BatchEventRecorder}: the step executions, chunks, rollbacks and job
+	 * repository updates, and the skips and retries of a fault tolerant step.
+	 *
+	 * @param eventRecorder the recorder of the events
+	 * @return this for fluent chaining
+	 * @since 4.3
+	 */
+	public B eventRecorder(BatchEventRecorder eventRecorder) {
+		properties.eventRecorder = eventRecorder;
+		@SuppressWarnings("unchecked")
+		B result = (B) this;
+		return result;
+	}
+
 	public B allowStartIfComplete(boolean allowStartIfComplete) {
 		properties.allowStartIfComplete = allowStartIfComplete;
 		@SuppressWarnings("unchecked")
@@ -132,6 +148,10 @@ public abstract class StepBuilderHelper<B extends StepBuilderHelper<B>> {
 		return properties.transactionManager;
 	}
 
+	protected BatchEventRecorder getEventRecorder() {
+		return properties.eventRecorder;
+	}
+
 	protected boolean isAllowStartIfComplete() {
 		return properties.allowStartIfComplete != null ? properties.allowStartIfComplete : false;
 	}
@@ -149,6 +169,7 @@ public abstract class StepBuilderHelper<B extends StepBuilderHelper<B>> {
 			}
 
 			step.setStartLimit(properties.startLimit);
+			step.setEventRecorder(properties.eventRecorder);
 
 			List<StepExecutionListener> listeners = properties.stepExecutionListeners;
 			if (!listeners.isEmpty()) {
@@ -176,6 +197,8 @@ public abstract class StepBuilderHelper<B extends StepBuilderHelper<B>> {
 
 		private PlatformTransactionManager transactionManager;
 
+		private BatchEventRecorder eventRecorder;
+
 		public CommonStepProperties() {
 		}
 
@@ -185,6 +208,7 @@ public abstract class StepBuilderHelper<B extends StepBuilderHelper<B>> {
 			this.allowStartIfComplete = properties.allowStartIfComplete;
 			this.jobRepository = properties.jobRepository;
 			this.transactionManager = properties.transactionManager;
+			this.eventRecorder = properties.eventRecorder;
 			this.stepExecutionListeners = new ArrayList<>(properties.stepExecutionListeners);
 		}
 
@@ -204,6 +228,14 @@ public abstract class StepBuilderHelper<B extends StepBuilderHelper<B>> {
 			this.transactionManager = transactionManager;
 		}
 
+		public BatchEventRecorder getEventRecorder() {
+			return eventRecorder;
+		}
+
+		public void setEventRecorder(BatchEventRecorder eventRecorder) {
+			this.eventRecorder = eventRecorder;
+		}
+
 		public String getName() {
 			return name;
 		}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2013 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -269,6 +269,22 @@ public class BatchRetryTemplate implements RetryOperations {
 		regular.setRetryContextCache(retryContextCache);
 	}
 
+	/**
+	 * Use separate caches for the retry contexts of whole chunks and of single
+	 * items. The contexts of both are cached under the keys of the items, so
+	 * the contexts of a chunk that failed would otherwise be found when its
+	 * items are then retried one by one.
+	 *
+	 * @param chunkRetryContextCache the cache for the retries of multiple items
+	 * @param itemRetryContextCache the cache for the retries of a single item
+	 * @since 4.3
+	 */
+	public void setRetryContextCaches(RetryContextCache chunkRetryContextCache,
+			RetryContextCache itemRetryContextCache) {
+		delegate.setRetryContextCache(chunkRetryContextCache);
+		regular.setRetryContextCache(itemRetryContextCache);
+	}
+
 	public void setRetryPolicy(RetryPolicy retryPolicy) {
 		this.retryPolicy = retryPolicy;
 		delegate.setRetryPolicy(retryPolicy);
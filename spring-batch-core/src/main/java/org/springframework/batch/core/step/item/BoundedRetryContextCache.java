@@ -0,0 +1,269 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core.step.item;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tag;
+
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.metrics.BatchMetrics;
+import org.springframework.lang.Nullable;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.policy.MapRetryContextCache;
+import org.springframework.retry.policy.RetryContextCache;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link RetryContextCache} for the stateful retries of a fault-tolerant step
+ * that evicts the least recently used retry contexts when it is full, instead
+ * of failing like a {@link MapRetryContextCache}.
+ *
+ * <p>
+ * The cache is split in segments, each guarded by its own lock, so that the
+ * threads of a multi-threaded step rarely contend for it, and the least
+ * recently used context of the segment of a key is evicted when the segment is
+ * full. An evicted context only loses the count of the retries of its item,
+ * which is then retried as a new one.
+ * </p>
+ *
+ * <p>
+ * Registered as a listener of its step, the cache is cleared when no execution
+ * of the step is running, and publishes its hits, misses, evictions and size
+ * as metrics meanwhile.
+ * </p>
+ *
+ * @since 4.3
+ */
+public class BoundedRetryContextCache implements RetryContextCache, StepExecutionListener {
+
+	private final Segment[] segments;
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private final LongAdder evictions = new LongAdder();
+
+	private final Set<StepExecution> stepExecutions = Collections.newSetFromMap(new IdentityHashMap<>());
+
+	private final List<Meter> meters = new ArrayList<>();
+
+	private String name = "retry";
+
+	/**
+	 * Create a cache with the capacity of a {@link MapRetryContextCache} and a
+	 * single segment.
+	 */
+	public BoundedRetryContextCache() {
+		this(MapRetryContextCache.DEFAULT_CAPACITY, 1);
+	}
+
+	/**
+	 * @param capacity the maximum number of retry contexts in the cache
+	 * @param concurrencyLevel the estimated number of threads using the cache,
+	 * rounded up to a power of two to get the number of segments
+	 */
+	public BoundedRetryContextCache(int capacity, int concurrencyLevel) {
+		Assert.isTrue(capacity > 0, "The capacity must be positive");
+		Assert.isTrue(concurrencyLevel > 0, "The concurrency level must be positive");
+		int size = 1;
+		while (size < concurrencyLevel && size < capacity) {
+			size <<= 1;
+		}
+		this.segments = new Segment[size];
+		int segmentCapacity = (capacity + size - 1) / size;
+		for (int i = 0; i < size; i++) {
+			this.segments[i] = new Segment(segmentCapacity);
+		}
+	}
+
+	/**
+	 * Set the name of the cache, used as the {@code cache.name} tag of its
+	 * metrics to tell apart the caches of a step. Defaults to "retry".
+	 *
+	 * @param name the name of the cache
+	 */
+	public void setName(String name) {
+		Assert.hasText(name, "The name must not be empty");
+		this.name = name;
+	}
+
+	@Override
+	public RetryContext get(Object key) {
+		Segment segment = segmentFor(key);
+		RetryContext context;
+		synchronized (segment) {
+			context = segment.get(key);
+		}
+		if (context != null) {
+			hits.increment();
+		}
+		return context;
+	}
+
+	@Override
+	public void put(Object key, RetryContext context) {
+		Segment segment = segmentFor(key);
+		synchronized (segment) {
+			segment.put(key, context);
+		}
+	}
+
+	@Override
+	public void remove(Object key) {
+		Segment segment = segmentFor(key);
+		synchronized (segment) {
+			segment.remove(key);
+		}
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		Segment segment = segmentFor(key);
+		boolean found;
+		synchronized (segment) {
+			found = segment.containsKey(key);
+		}
+		if (!found) {
+			misses.increment();
+		}
+		return found;
+	}
+
+	/**
+	 * @return the number of retry contexts in the cache
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Remove all the retry contexts from the cache.
+	 */
+	public void clear() {
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	/**
+	 * @return the number of retry contexts found in the cache for an item
+	 * being retried
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return the number of keys looked up without a retry context in the cache
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return the number of retry contexts evicted from the cache because it
+	 * was full
+	 */
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	@Override
+	public void beforeStep(StepExecution stepExecution) {
+		synchronized (stepExecutions) {
+			if (stepExecutions.isEmpty()) {
+				Tag jobNameTag = Tag.of("job.name", stepExecution.getJobExecution().getJobInstance().getJobName());
+				Tag stepNameTag = Tag.of("step.name", stepExecution.getStepName());
+				Tag cacheNameTag = Tag.of("cache.name", name);
+				meters.add(BatchMetrics.createFunctionCounter("retry.cache.hits",
+						"Retry contexts found in the cache", this, BoundedRetryContextCache::getHitCount,
+						jobNameTag, stepNameTag, cacheNameTag));
+				meters.add(BatchMetrics.createFunctionCounter("retry.cache.misses",
+						"Keys without a retry context in the cache", this, BoundedRetryContextCache::getMissCount,
+						jobNameTag, stepNameTag, cacheNameTag));
+				meters.add(BatchMetrics.createFunctionCounter("retry.cache.evictions",
+						"Retry contexts evicted from the full cache", this, BoundedRetryContextCache::getEvictionCount,
+						jobNameTag, stepNameTag, cacheNameTag));
+				meters.add(BatchMetrics.createGauge("retry.cache.size", "Retry contexts in the cache", this,
+						BoundedRetryContextCache::size, jobNameTag, stepNameTag, cacheNameTag));
+			}
+			stepExecutions.add(stepExecution);
+		}
+	}
+
+	@Nullable
+	@Override
+	public ExitStatus afterStep(StepExecution stepExecution) {
+		synchronized (stepExecutions) {
+			// the executions of a partitioned step share the cache
+			if (stepExecutions.remove(stepExecution) && stepExecutions.isEmpty()) {
+				clear();
+				for (Meter meter : meters) {
+					BatchMetrics.getMeterRegistry().remove(meter);
+				}
+				meters.clear();
+			}
+		}
+		return null;
+	}
+
+	private Segment segmentFor(@Nullable Object key) {
+		int hash = key == null ? 0 : key.hashCode();
+		return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+	}
+
+	@SuppressWarnings("serial")
+	private class Segment extends LinkedHashMap<Object, RetryContext> {
+
+		private final int capacity;
+
+		private Segment(int capacity) {
+			super(16, 0.75f, true);
+			this.capacity = capacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Object, RetryContext> eldest) {
+			if (size() > capacity) {
+				evictions.increment();
+				return true;
+			}
+			return false;
+		}
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2019 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.batch.core.step.item;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepProfile;
 import org.springframework.batch.core.scope.context.ChunkContext;
 import org.springframework.batch.core.step.tasklet.Tasklet;
 import org.springframework.batch.repeat.RepeatStatus;
@@ -42,6 +43,8 @@ public class ChunkOrientedTasklet<I> implements Tasklet {
 
 	private boolean buffering = true;
 
+	private DeferringSleeper deferringSleeper;
+
 	private static Log logger = LogFactory.getLog(ChunkOrientedTasklet.class);
 
 	public ChunkOrientedTasklet(ChunkProvider<I> chunkProvider, ChunkProcessor<I> chunkProcessor) {
@@ -61,6 +64,19 @@ public class ChunkOrientedTasklet<I> implements Tasklet {
 		this.buffering = buffering;
 	}
 
+	/**
+	 * The sleeper of the back off policy of the chunk processor, if it records
+	 * the back off periods of the retries instead of sleeping. The retry of a
+	 * chunk that failed is then deferred by the period recorded, so that the
+	 * thread can process other chunks meanwhile.
+	 *
+	 * @param deferringSleeper the sleeper of the back off policy
+	 * @since 4.3
+	 */
+	public void setDeferringSleeper(DeferringSleeper deferringSleeper) {
+		this.deferringSleeper = deferringSleeper;
+	}
+
 	@Nullable
 	@Override
 	public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
@@ -68,13 +84,30 @@ public class ChunkOrientedTasklet<I> implements Tasklet {
 		@SuppressWarnings("unchecked")
 		Chunk<I> inputs = (Chunk<I>) chunkContext.getAttribute(INPUTS_KEY);
 		if (inputs == null) {
-			inputs = chunkProvider.provide(contribution);
+			long start = System.nanoTime();
+			try {
+				inputs = chunkProvider.provide(contribution);
+			}
+			finally {
+				contribution.getStepExecution().getProfile().record(StepProfile.Phase.READ,
+						System.nanoTime() - start);
+			}
 			if (buffering) {
 				chunkContext.setAttribute(INPUTS_KEY, inputs);
 			}
 		}
 
-		chunkProcessor.process(contribution, inputs);
+		try {
+			chunkProcessor.process(contribution, inputs);
+		}
+		finally {
+			if (deferringSleeper != null) {
+				long backOffPeriod = deferringSleeper.takeBackOffPeriod();
+				if (backOffPeriod > 0) {
+					chunkContext.deferRetry(backOffPeriod);
+				}
+			}
+		}
 		chunkProvider.postProcess(contribution, inputs);
 
 		// Allow a message coming back from the processor to say that we
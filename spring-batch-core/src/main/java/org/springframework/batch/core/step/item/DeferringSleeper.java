@@ -0,0 +1,66 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core.step.item;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.retry.backoff.Sleeper;
+import org.springframework.retry.backoff.SleepingBackOffPolicy;
+
+/**
+ * A {@link Sleeper} for a {@link SleepingBackOffPolicy} that does not sleep but
+ * records the back off period of the current thread instead. The retry of a
+ * chunk is stateful, so the exception is rethrown right after the back off and
+ * the transaction of the chunk is rolled back, after which the
+ * {@link ChunkOrientedTasklet} takes the period recorded to
+ * {@link ChunkContext#deferRetry(long) defer the retry} of the chunk, instead of
+ * the thread sleeping with the transaction open.
+ *
+ * @since 4.3
+ * @see ChunkOrientedTasklet#setDeferringSleeper(DeferringSleeper)
+ */
+public class DeferringSleeper implements Sleeper {
+
+	private static final long serialVersionUID = 1L;
+
+	// the periods recorded are not serialized with the back off policy
+	private transient ThreadLocal<Long> backOffPeriods = new ThreadLocal<>();
+
+	@Override
+	public void sleep(long backOffPeriod) {
+		Long period = backOffPeriods.get();
+		backOffPeriods.set(period == null ? backOffPeriod : period + backOffPeriod);
+	}
+
+	/**
+	 * Return and clear the back off period recorded for the current thread.
+	 *
+	 * @return the back off period in milliseconds, 0 if none was recorded
+	 */
+	public long takeBackOffPeriod() {
+		Long period = backOffPeriods.get();
+		backOffPeriods.remove();
+		return period == null ? 0 : period;
+	}
+
+	private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
+		stream.defaultReadObject();
+		backOffPeriods = new ThreadLocal<>();
+	}
+
+}
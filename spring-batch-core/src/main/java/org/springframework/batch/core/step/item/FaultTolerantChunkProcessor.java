@@ -17,9 +17,9 @@
 package org.springframework.batch.core.step.item;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -73,6 +73,8 @@ public class FaultTolerantChunkProcessor<I, O> extends SimpleChunkProcessor<I, O
 
 	private boolean processorTransactional = true;
 
+	private boolean bisectingScan = false;
+
 	/**
 	 * The {@link KeyGenerator} to use to identify failed items across rollback.
 	 * Not used in the case of the {@link #setBuffering(boolean) buffering flag}
@@ -138,6 +140,25 @@ public class FaultTolerantChunkProcessor<I, O> extends SimpleChunkProcessor<I, O
 		this.processorTransactional = processorTransactional;
 	}
 
+	/**
+	 * Flag to say that a chunk whose write failed with a skippable exception
+	 * is scanned by bisection (defaults to false). Instead of writing the items
+	 * one per transaction, the first half of the part of the chunk known to
+	 * contain a failed item is written, and halved again when it fails, until
+	 * the failed item is written alone and skipped. The items left after a
+	 * skip are written together again, so k failed items in a chunk of n items
+	 * are located in about 2 k log2(n) transactions instead of n. The skips,
+	 * skip listener callbacks and retries are the same as with an item by item
+	 * scan, but the writer and its listeners also see the writes of the parts
+	 * of the chunk that failed.
+	 *
+	 * @param bisectingScan the flag value to set
+	 * @since 4.3
+	 */
+	public void setBisectingScan(boolean bisectingScan) {
+		this.bisectingScan = bisectingScan;
+	}
+
 	public FaultTolerantChunkProcessor(ItemProcessor<? super I, ? extends O> itemProcessor,
 			ItemWriter<? super O> itemWriter, BatchRetryTemplate batchRetryTemplate) {
 		super(itemProcessor, itemWriter);
@@ -218,15 +239,33 @@ public class FaultTolerantChunkProcessor<I, O> extends SimpleChunkProcessor<I, O
 		// final int scanLimit = processorTransactional && data.scanning() ? 1 :
 		// 0;
 
+		if (!inputs.isEmpty()) {
+			// Only the items written next are processed if scanning
+			doPrepare(data.scanning() ? inputs.getItems().subList(0, Math.min(data.scanSize, inputs.size()))
+					: inputs.getItems());
+		}
+
+		// Items are only processed concurrently the first time the chunk is
+		// processed, retries and scans process them one by one
+		final List<Callable<O>> results = (data.attempted() || data.scanning() || !cache.isEmpty()) ? null
+				: doProcessConcurrently(contribution, inputs.getItems());
+		data.attempted(true);
+		int index = 0;
+		int scanned = 0;
+
 		for (final Chunk<I>.ChunkIterator iterator = inputs.iterator(); iterator.hasNext();) {
 
 			final I item = iterator.next();
+			final AtomicReference<Callable<O>> result = new AtomicReference<>(
+					results != null ? results.get(index++) : null);
 
 			RetryCallback<O, Exception> retryCallback = new RetryCallback<O, Exception>() {
 
 				@Override
 				public O doWithRetry(RetryContext context) throws Exception {
-					Timer.Sample sample = BatchMetrics.createTimerSample();
+					// the result of a concurrent processing is only used by the first attempt
+					Callable<O> processed = result.getAndSet(null);
+					Timer.Sample sample = (processed == null ? startItemTimer(contribution.getStepExecution()) : null);
 					String status = BatchMetrics.STATUS_SUCCESS;
 					O output = null;
 					try {
@@ -236,7 +275,7 @@ public class FaultTolerantChunkProcessor<I, O> extends SimpleChunkProcessor<I, O
 							output = cached;
 						}
 						else {
-							output = doProcess(item);
+							output = (processed != null ? processed.call() : doProcess(item));
 							if (output == null) {
 								data.incrementFilterCount();
 							} else if (!processorTransactional && !data.scanning()) {
@@ -270,7 +309,9 @@ public class FaultTolerantChunkProcessor<I, O> extends SimpleChunkProcessor<I, O
 						}
 					}
 					finally {
-						stopTimer(sample, contribution.getStepExecution(), "item.process", status, "Item processing");
+						if (sample != null) {
+							stopTimer(sample, contribution.getStepExecution(), "item.process", status, "Item processing");
+						}
 					}
 					if (output == null) {
 						// No need to re-process filtered items
@@ -312,14 +353,13 @@ public class FaultTolerantChunkProcessor<I, O> extends SimpleChunkProcessor<I, O
 			}
 
 			/*
-			 * We only want to process the first item if there is a scan for a
-			 * failed item.
+			 * We only want to process the items written next if there is a
+			 * scan for a failed item.
 			 */
-			if (data.scanning()) {
+			if (data.scanning() && (++scanned >= data.scanSize || !iterator.hasNext())) {
 				while (cacheIterator != null && cacheIterator.hasNext()) {
 					outputs.add(cacheIterator.next());
 				}
-				// Only process the first item if scanning
 				break;
 			}
 		}
@@ -342,7 +382,7 @@ public class FaultTolerantChunkProcessor<I, O> extends SimpleChunkProcessor<I, O
 
 				if (!data.scanning()) {
 					chunkMonitor.setChunkSize(inputs.size());
-					Timer.Sample sample = BatchMetrics.createTimerSample();
+					Timer.Sample sample = startTimer(contribution.getStepExecution());
 					String status = BatchMetrics.STATUS_SUCCESS;
 					try {
 						doWrite(outputs.getItems());
@@ -430,7 +470,9 @@ public class FaultTolerantChunkProcessor<I, O> extends SimpleChunkProcessor<I, O
 					}
 
 					inputs.setBusy(true);
-					data.scanning(true);
+					if (!data.scanning()) {
+						startScan(data, outputs.size());
+					}
 					scan(contribution, inputs, outputs, chunkMonitor, true);
 					return null;
 				}
@@ -452,7 +494,9 @@ public class FaultTolerantChunkProcessor<I, O> extends SimpleChunkProcessor<I, O
 					 * start in the next transaction, so we can change the
 					 * processing behaviour.
 					 */
-					data.scanning(true);
+					if (!data.scanning()) {
+						startScan(data, outputs.size());
+					}
 				}
 				throw e;
 			}
@@ -603,16 +647,21 @@ public class FaultTolerantChunkProcessor<I, O> extends SimpleChunkProcessor<I, O
 			}
 		}
 
-		List<O> items = Collections.singletonList(outputIterator.next());
-		inputIterator.next();
+		int size = Math.min(data.scanSize, Math.min(inputs.size(), outputs.size()));
+		List<O> items = new ArrayList<>(outputs.getItems().subList(0, size));
 		try {
 			writeItems(items);
 			// If successful we are going to return and allow
 			// the driver to commit...
 			doAfterWrite(items);
-			contribution.incrementWriteCount(1);
-			inputIterator.remove();
-			outputIterator.remove();
+			contribution.incrementWriteCount(size);
+			for (int i = 0; i < size; i++) {
+				inputIterator.next();
+				inputIterator.remove();
+				outputIterator.next();
+				outputIterator.remove();
+			}
+			scanned(data, size, inputs.size());
 		}
 		catch (Exception e) {
 			try {
@@ -624,6 +673,20 @@ public class FaultTolerantChunkProcessor<I, O> extends SimpleChunkProcessor<I, O
 					cause = e.getCause();
 				}
 
+				if (size > 1) {
+					// The failed item is in this part of the chunk: roll back
+					// and write its first half in the next transaction
+					data.failedSize = size;
+					data.scanSize = half(size);
+					if (rollbackClassifier.classify(cause)) {
+						throw (Exception) cause;
+					}
+					throw new ForceRollbackForWriteSkipException(
+							"Force rollback on skippable exception so that skipped item can be located.", cause);
+				}
+
+				inputIterator.next();
+				outputIterator.next();
 				if (!shouldSkip(itemWriteSkipPolicy, cause, -1) && !rollbackClassifier.classify(cause)) {
 					inputIterator.remove();
 					outputIterator.remove();
@@ -631,12 +694,15 @@ public class FaultTolerantChunkProcessor<I, O> extends SimpleChunkProcessor<I, O
 				else {
 					checkSkipPolicy(inputIterator, outputIterator, cause, contribution, recovery);
 				}
+				scanned(data, 0, inputs.size());
 				if (rollbackClassifier.classify(cause)) {
 					throw (Exception) cause;
 				}
 			}
 		}
-		chunkMonitor.incrementOffset();
+		for (int i = 0; i < Math.max(size, 1); i++) {
+			chunkMonitor.incrementOffset();
+		}
 		if (outputs.isEmpty()) {
 			data.scanning(false);
 			inputs.setBusy(false);
@@ -644,6 +710,31 @@ public class FaultTolerantChunkProcessor<I, O> extends SimpleChunkProcessor<I, O
 		}
 	}
 
+	private void startScan(UserData<O> data, int size) {
+		data.scanning(true);
+		data.failedSize = size;
+		data.scanSize = bisectingScan ? half(size) : 1;
+	}
+
+	/**
+	 * Work out the number of items written by the next transaction of a scan,
+	 * once the given number of items has been written or, if none, the failed
+	 * item has been handled.
+	 */
+	private void scanned(UserData<O> data, int written, int remaining) {
+		if (!bisectingScan) {
+			return;
+		}
+		// The rest of the part known to fail still contains a failed item,
+		// after which nothing is known about the items left
+		data.failedSize = (written > 0 && data.failedSize > written) ? data.failedSize - written : 0;
+		data.scanSize = data.failedSize > 0 ? half(data.failedSize) : Math.max(remaining, 1);
+	}
+
+	private static int half(int size) {
+		return Math.max((size + 1) / 2, 1);
+	}
+
 	private static class UserData<O> {
 
 		private Chunk<O> outputs;
@@ -652,6 +743,15 @@ public class FaultTolerantChunkProcessor<I, O> extends SimpleChunkProcessor<I, O
 
 		private boolean scanning;
 
+		private boolean attempted;
+
+		// number of items written by the next transaction of a scan
+		private int scanSize = 1;
+
+		// number of items at the head of the chunk known to contain a failed
+		// item, 0 if unknown
+		private int failedSize;
+
 		public boolean scanning() {
 			return scanning;
 		}
@@ -660,6 +760,14 @@ public class FaultTolerantChunkProcessor<I, O> extends SimpleChunkProcessor<I, O
 			this.scanning = scanning;
 		}
 
+		public boolean attempted() {
+			return attempted;
+		}
+
+		public void attempted(boolean attempted) {
+			this.attempted = attempted;
+		}
+
 		public void incrementFilterCount() {
 			filterCount++;
 		}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.core.step.item;
+
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.support.CompositeItemStream;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.util.Assert;
+
+/**
+ * <p>
+ * {@link ChunkProvider} reading the next chunk with a {@link TaskExecutor} while
+ * the current chunk is processed, written and committed, so that the source and
+ * the target of a step are busy at the same time.
+ * </p>
+ *
+ * <p>
+ * The streams of the reader must be registered with this provider, which is
+ * itself registered as a stream of the step in their place: the state of the
+ * reader is captured when a chunk is provided, before the next chunk is read,
+ * and that state is saved when the chunk is committed. A restarted step
+ * therefore reads the chunk that was read ahead again, and the reader is never
+ * accessed by two threads at once. The streams the reader delegates to must
+ * not be registered as streams of the step either, but opened, updated and
+ * closed by the reader.
+ * </p>
+ *
+ * <p>
+ * The chunk read ahead is read outside of the transaction of the chunk it
+ * belongs to, and before the chunk listeners are called for it. This provider
+ * is therefore not compatible with transactional readers, such as readers of a
+ * transactional queue or cursors sharing the connection of the step. The read
+ * skips of a chunk read ahead are checked against the skip limit without the
+ * skips of the chunk being written.
+ * </p>
+ *
+ * @param <I> input item type
+ * @since 4.3
+ * @see ChunkOrientedTasklet
+ */
+public class PipelinedChunkProvider<I> implements ChunkProvider<I>, ItemStream {
+
+	private static final Log logger = LogFactory.getLog(PipelinedChunkProvider.class);
+
+	private final ChunkProvider<I> delegate;
+
+	private final TaskExecutor taskExecutor;
+
+	private final CompositeItemStream stream = new CompositeItemStream();
+
+	private FutureTask<ReadAhead> readAhead;
+
+	private ExecutionContext checkpoint;
+
+	/**
+	 * @param delegate the provider reading the chunks
+	 * @param taskExecutor the task executor reading the next chunk
+	 */
+	public PipelinedChunkProvider(ChunkProvider<I> delegate, TaskExecutor taskExecutor) {
+		Assert.notNull(delegate, "A delegate chunk provider is required");
+		Assert.notNull(taskExecutor, "A task executor is required");
+		this.delegate = delegate;
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * Register a stream of the reader, which should not be registered with the
+	 * step.
+	 *
+	 * @param stream the stream to register
+	 */
+	public void registerItemStream(ItemStream stream) {
+		this.stream.register(stream);
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) throws ItemStreamException {
+		stream.open(executionContext);
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) throws ItemStreamException {
+		if (checkpoint == null) {
+			// nothing read ahead yet
+			stream.update(executionContext);
+			return;
+		}
+		for (Map.Entry<String, Object> entry : checkpoint.entrySet()) {
+			executionContext.put(entry.getKey(), entry.getValue());
+		}
+	}
+
+	@Override
+	public void close() throws ItemStreamException {
+		try {
+			awaitReadAhead();
+		}
+		finally {
+			checkpoint = null;
+			stream.close();
+		}
+	}
+
+	@Override
+	public Chunk<I> provide(StepContribution contribution) throws Exception {
+		Chunk<I> inputs;
+		if (readAhead == null) {
+			inputs = delegate.provide(contribution);
+		}
+		else {
+			ReadAhead result = getReadAhead();
+			inputs = result.inputs;
+			for (int i = 0; i < result.contribution.getReadCount(); i++) {
+				contribution.incrementReadCount();
+			}
+			contribution.incrementReadSkipCount(result.contribution.getReadSkipCount());
+		}
+
+		// the reader is now positioned at the end of the chunk to commit
+		ExecutionContext checkpoint = new ExecutionContext();
+		stream.update(checkpoint);
+		this.checkpoint = checkpoint;
+
+		if (!inputs.isEnd()) {
+			readAhead(contribution.getStepExecution());
+		}
+		return inputs;
+	}
+
+	@Override
+	public void postProcess(StepContribution contribution, Chunk<I> chunk) {
+		delegate.postProcess(contribution, chunk);
+	}
+
+	private void readAhead(StepExecution stepExecution) {
+		readAhead = new FutureTask<>(() -> {
+			StepSynchronizationManager.register(stepExecution);
+			try {
+				StepContribution contribution = stepExecution.createStepContribution();
+				return new ReadAhead(delegate.provide(contribution), contribution);
+			}
+			finally {
+				StepSynchronizationManager.close();
+			}
+		});
+		taskExecutor.execute(readAhead);
+	}
+
+	private ReadAhead getReadAhead() throws Exception {
+		FutureTask<ReadAhead> task = readAhead;
+		readAhead = null;
+		try {
+			return task.get();
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		}
+	}
+
+	private void awaitReadAhead() {
+		if (readAhead == null) {
+			return;
+		}
+		try {
+			// the reader cannot be closed while it is read
+			getReadAhead();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		catch (Throwable e) {
+			logger.debug("Discarding the failed read ahead of the next chunk", e);
+		}
+	}
+
+	/**
+	 * A chunk read ahead, with the contribution holding its read counts.
+	 */
+	private final class ReadAhead {
+
+		private final Chunk<I> inputs;
+
+		private final StepContribution contribution;
+
+		private ReadAhead(Chunk<I> inputs, StepContribution contribution) {
+			this.inputs = inputs;
+			this.contribution = contribution;
+		}
+
+	}
+
+}
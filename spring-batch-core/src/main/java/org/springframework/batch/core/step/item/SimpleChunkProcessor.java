@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2019 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,37 +16,67 @@
 
 package org.springframework.batch.core.step.item;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 import org.springframework.batch.core.StepContribution;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.StepListener;
+import org.springframework.batch.core.StepProfile;
 import org.springframework.batch.core.listener.MulticasterBatchListener;
 import org.springframework.batch.core.metrics.BatchMetrics;
+import org.springframework.batch.core.metrics.StepTimers;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ChunkAwareItemProcessor;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 
 /**
  * Simple implementation of the {@link ChunkProcessor} interface that handles
  * basic item writing and processing. Any exceptions encountered will be
- * rethrown.
+ * rethrown. A {@link ChunkAwareItemProcessor} is prepared with the items of
+ * the chunk before they are processed. If a {@link TaskExecutor} is set, the
+ * items of a chunk are processed concurrently and their outputs are collected
+ * in the order of the inputs. The timers of a step execution are cached until
+ * the step ends.
  *
  * @see ChunkOrientedTasklet
  */
 public class SimpleChunkProcessor<I, O> implements ChunkProcessor<I>, InitializingBean {
 
+	private static final Log logger = LogFactory.getLog(SimpleChunkProcessor.class);
+
+	// thrown by the concurrent processing of an item following an item that failed
+	private static final RuntimeException NOT_PROCESSED = new ItemNotProcessedException();
+
 	private ItemProcessor<? super I, ? extends O> itemProcessor;
 
 	private ItemWriter<? super O> itemWriter;
 
 	private final MulticasterBatchListener<I, O> listener = new MulticasterBatchListener<>();
 
+	private TaskExecutor taskExecutor;
+
+	private int timerSamplingInterval = 1;
+
+	@Nullable
+	private MeterRegistry meterRegistry;
+
+	private StepTimers.Cache stepTimers = new StepTimers.Cache(timerSamplingInterval, null);
+
 	/**
 	 * Default constructor for ease of configuration.
 	 */
@@ -69,6 +99,7 @@ public class SimpleChunkProcessor<I, O> implements ChunkProcessor<I>, Initializi
 	 */
 	public void setItemProcessor(ItemProcessor<? super I, ? extends O> itemProcessor) {
 		this.itemProcessor = itemProcessor;
+		assertNotPreparedConcurrently();
 	}
 
 	/**
@@ -78,6 +109,60 @@ public class SimpleChunkProcessor<I, O> implements ChunkProcessor<I>, Initializi
 		this.itemWriter = itemWriter;
 	}
 
+	/**
+	 * Set a {@link TaskExecutor} to process the items of each chunk concurrently,
+	 * for example one backed by a {@link java.util.concurrent.ForkJoinPool} for CPU
+	 * intensive processing. The chunk thread waits for all the items of the chunk
+	 * to be processed, and the outputs are written in the order of the inputs, so
+	 * reading, writing and restart are not affected. The {@link ItemProcessor} and
+	 * the item process listeners must be thread-safe. Defaults to null, the items
+	 * being processed one after the other on the chunk thread. Not supported for
+	 * a {@link ChunkAwareItemProcessor}, which processes the items on the thread
+	 * that prepared them.
+	 * <p>
+	 * The items are processed outside of the transaction of the chunk, so the
+	 * processor must not use transactional resources (such as a JDBC connection
+	 * bound to the transaction, a JPA <code>EntityManager</code> or a Hibernate
+	 * session): it would not see the changes of the chunk, and its own changes
+	 * would not be rolled back with it. As when the items are processed one after
+	 * the other, the items after the first one that fails are not processed.
+	 *
+	 * @param taskExecutor the {@link TaskExecutor} processing the items
+	 * @since 4.3
+	 */
+	public void setTaskExecutor(TaskExecutor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+		assertNotPreparedConcurrently();
+	}
+
+	/**
+	 * Time only one item out of the given number when processing, to make the
+	 * <code>item.process</code> timer cheaper when items are processed fast.
+	 * Defaults to 1, all the items being timed.
+	 *
+	 * @param timerSamplingInterval the number of items out of which one is timed
+	 * @since 4.3
+	 */
+	public void setTimerSamplingInterval(int timerSamplingInterval) {
+		Assert.isTrue(timerSamplingInterval > 0, "The timer sampling interval must be positive");
+		this.timerSamplingInterval = timerSamplingInterval;
+		this.stepTimers = new StepTimers.Cache(timerSamplingInterval, meterRegistry);
+	}
+
+	/**
+	 * Register the timers of the processed items and written chunks in the
+	 * given registry instead of the {@link BatchMetrics#getMeterRegistry()
+	 * meter registry} of the batch metrics.
+	 *
+	 * @param meterRegistry the registry of the timers
+	 * @since 4.3
+	 */
+	public void setMeterRegistry(MeterRegistry meterRegistry) {
+		Assert.notNull(meterRegistry, "The meter registry must not be null");
+		this.meterRegistry = meterRegistry;
+		this.stepTimers = new StepTimers.Cache(timerSamplingInterval, meterRegistry);
+	}
+
 	/**
 	 * Check mandatory properties.
 	 *
@@ -86,6 +171,13 @@ public class SimpleChunkProcessor<I, O> implements ChunkProcessor<I>, Initializi
 	@Override
 	public void afterPropertiesSet() throws Exception {
 		Assert.notNull(itemWriter, "ItemWriter must be set");
+		assertNotPreparedConcurrently();
+	}
+
+	private void assertNotPreparedConcurrently() {
+		Assert.state(taskExecutor == null || !(itemProcessor instanceof ChunkAwareItemProcessor),
+				"A ChunkAwareItemProcessor cannot process the items of a chunk concurrently with a TaskExecutor, "
+						+ "since the items are prepared on the chunk thread");
 	}
 
 	/**
@@ -142,6 +234,41 @@ public class SimpleChunkProcessor<I, O> implements ChunkProcessor<I>, Initializi
 
 	}
 
+	/**
+	 * Give the items about to be processed to the {@link ItemProcessor} if it is
+	 * a {@link ChunkAwareItemProcessor}. A failed preparation is only logged since
+	 * the items can still be processed one by one.
+	 *
+	 * @param items the input items about to be processed
+	 */
+	protected final void doPrepare(List<I> items) {
+		if (!(itemProcessor instanceof ChunkAwareItemProcessor) || items.isEmpty()) {
+			return;
+		}
+		try {
+			((ChunkAwareItemProcessor<? super I, ? extends O>) itemProcessor).prepare(items);
+		}
+		catch (Exception e) {
+			logger.debug("Failed to prepare the items of the chunk, processing them one by one", e);
+		}
+	}
+
+	/**
+	 * Let a {@link ChunkAwareItemProcessor} release what it prepared, once the
+	 * items are processed. A failed release is only logged.
+	 */
+	private void doRelease() {
+		if (!(itemProcessor instanceof ChunkAwareItemProcessor)) {
+			return;
+		}
+		try {
+			((ChunkAwareItemProcessor<? super I, ? extends O>) itemProcessor).release();
+		}
+		catch (RuntimeException e) {
+			logger.debug("Failed to release the prepared items of the chunk", e);
+		}
+	}
+
 	/**
 	 * Surrounds the actual write call with listener callbacks.
 	 *
@@ -205,16 +332,32 @@ public class SimpleChunkProcessor<I, O> implements ChunkProcessor<I>, Initializi
 			return;
 		}
 
+		StepProfile profile = contribution.getStepExecution().getProfile();
+
 		// Make the transformation, calling remove() on the inputs iterator if
 		// any items are filtered. Might throw exception and cause rollback.
-		Chunk<O> outputs = transform(contribution, inputs);
+		Chunk<O> outputs;
+		long start = System.nanoTime();
+		try {
+			outputs = transform(contribution, inputs);
+		}
+		finally {
+			doRelease();
+			profile.record(StepProfile.Phase.PROCESS, System.nanoTime() - start);
+		}
 
 		// Adjust the filter count based on available data
 		contribution.incrementFilterCount(getFilterCount(inputs, outputs));
 
 		// Adjust the outputs if necessary for housekeeping purposes, and then
 		// write them out...
-		write(contribution, inputs, getAdjustedOutputs(inputs, outputs));
+		start = System.nanoTime();
+		try {
+			write(contribution, inputs, getAdjustedOutputs(inputs, outputs));
+		}
+		finally {
+			profile.record(StepProfile.Phase.WRITE, System.nanoTime() - start);
+		}
 
 	}
 
@@ -288,7 +431,7 @@ public class SimpleChunkProcessor<I, O> implements ChunkProcessor<I>, Initializi
 	 * @throws Exception if there is a problem
 	 */
 	protected void write(StepContribution contribution, Chunk<I> inputs, Chunk<O> outputs) throws Exception {
-		Timer.Sample sample = BatchMetrics.createTimerSample();
+		Timer.Sample sample = startTimer(contribution.getStepExecution());
 		String status = BatchMetrics.STATUS_SUCCESS;
 		try {
 			doWrite(outputs.getItems());
@@ -310,25 +453,40 @@ public class SimpleChunkProcessor<I, O> implements ChunkProcessor<I>, Initializi
 
 	protected Chunk<O> transform(StepContribution contribution, Chunk<I> inputs) throws Exception {
 		Chunk<O> outputs = new Chunk<>();
+		doPrepare(inputs.getItems());
+		List<Callable<O>> results = doProcessConcurrently(contribution, inputs.getItems());
+		int index = 0;
 		for (Chunk<I>.ChunkIterator iterator = inputs.iterator(); iterator.hasNext();) {
 			final I item = iterator.next();
+			Callable<O> result = (results != null ? results.get(index++) : null);
 			O output;
-			Timer.Sample sample = BatchMetrics.createTimerSample();
-			String status = BatchMetrics.STATUS_SUCCESS;
-			try {
-				output = doProcess(item);
-			}
-			catch (Exception e) {
-				/*
-				 * For a simple chunk processor (no fault tolerance) we are done
-				 * here, so prevent any more processing of these inputs.
-				 */
-				inputs.clear();
-				status = BatchMetrics.STATUS_FAILURE;
-				throw e;
+			if (result != null) {
+				try {
+					output = result.call();
+				}
+				catch (Exception e) {
+					inputs.clear();
+					throw e;
+				}
 			}
-			finally {
-				stopTimer(sample, contribution.getStepExecution(), "item.process", status, "Item processing");
+			else {
+				Timer.Sample sample = startItemTimer(contribution.getStepExecution());
+				String status = BatchMetrics.STATUS_SUCCESS;
+				try {
+					output = doProcess(item);
+				}
+				catch (Exception e) {
+					/*
+					 * For a simple chunk processor (no fault tolerance) we are done
+					 * here, so prevent any more processing of these inputs.
+					 */
+					inputs.clear();
+					status = BatchMetrics.STATUS_FAILURE;
+					throw e;
+				}
+				finally {
+					stopTimer(sample, contribution.getStepExecution(), "item.process", status, "Item processing");
+				}
 			}
 			if (output != null) {
 				outputs.add(output);
@@ -340,12 +498,140 @@ public class SimpleChunkProcessor<I, O> implements ChunkProcessor<I>, Initializi
 		return outputs;
 	}
 
-	protected void stopTimer(Timer.Sample sample, StepExecution stepExecution, String metricName, String status, String description) {
-		sample.stop(BatchMetrics.createTimer(metricName, description + " duration",
-				Tag.of("job.name", stepExecution.getJobExecution().getJobInstance().getJobName()),
-				Tag.of("step.name", stepExecution.getStepName()),
-				Tag.of("status", status)
-		));
+	/**
+	 * Process the items concurrently with the {@link TaskExecutor}, if any, and
+	 * wait for all of them to be processed.
+	 *
+	 * @param contribution the current step contribution
+	 * @param items the input items
+	 * @return one callable per input item, in the same order, returning the output
+	 * of the item or throwing the exception of its processing, or null if the items
+	 * should be processed one after the other. The callables of the items after the
+	 * first one that failed are null if these items were not processed.
+	 * @throws InterruptedException if the chunk thread is interrupted while waiting
+	 * @since 4.3
+	 */
+	@Nullable
+	protected final List<Callable<O>> doProcessConcurrently(StepContribution contribution, List<I> items)
+			throws InterruptedException {
+		if (taskExecutor == null || items.size() < 2) {
+			return null;
+		}
+		StepExecution stepExecution = contribution.getStepExecution();
+		// the index of the first item that failed, the items after it are not processed
+		AtomicInteger failedIndex = new AtomicInteger(Integer.MAX_VALUE);
+		List<FutureTask<O>> tasks = new ArrayList<>(items.size());
+		for (int i = 0; i < items.size() && failedIndex.get() == Integer.MAX_VALUE; i++) {
+			int index = i;
+			I item = items.get(i);
+			FutureTask<O> task = new FutureTask<>(() -> {
+				if (failedIndex.get() < index) {
+					throw NOT_PROCESSED;
+				}
+				StepSynchronizationManager.register(stepExecution);
+				Timer.Sample sample = startItemTimer(stepExecution);
+				String status = BatchMetrics.STATUS_SUCCESS;
+				try {
+					return doProcess(item);
+				}
+				catch (Exception e) {
+					failedIndex.accumulateAndGet(index, Math::min);
+					status = BatchMetrics.STATUS_FAILURE;
+					throw e;
+				}
+				finally {
+					stopTimer(sample, stepExecution, "item.process", status, "Item processing");
+					StepSynchronizationManager.close();
+				}
+			});
+			tasks.add(task);
+			taskExecutor.execute(task);
+		}
+
+		List<Callable<O>> results = new ArrayList<>(items.size());
+		boolean failed = false;
+		try {
+			for (int i = 0; i < items.size(); i++) {
+				FutureTask<O> task = i < tasks.size() ? tasks.get(i) : null;
+				if (failed && (task == null || task.cancel(false))) {
+					results.add(null);
+					continue;
+				}
+				try {
+					task.get();
+				}
+				catch (ExecutionException e) {
+					if (e.getCause() == NOT_PROCESSED) {
+						results.add(null);
+						continue;
+					}
+					// rethrown by the callable of the item
+					failed = true;
+				}
+				results.add(() -> getResult(task));
+			}
+		}
+		catch (InterruptedException e) {
+			for (FutureTask<O> task : tasks) {
+				task.cancel(true);
+			}
+			throw e;
+		}
+		return results;
+	}
+
+	private O getResult(FutureTask<O> task) throws Exception {
+		try {
+			return task.get();
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Start timing something timed every time, like the write of a chunk.
+	 *
+	 * @param stepExecution the current step execution
+	 * @return a new timer sample
+	 * @since 4.3
+	 */
+	protected Timer.Sample startTimer(StepExecution stepExecution) {
+		return stepTimers.get(stepExecution).startSample();
+	}
+
+	/**
+	 * Start timing the processing of an item, unless it is not sampled.
+	 *
+	 * @param stepExecution the current step execution
+	 * @return a new timer sample, or null if the item is not sampled
+	 * @see #setTimerSamplingInterval(int)
+	 * @since 4.3
+	 */
+	@Nullable
+	protected Timer.Sample startItemTimer(StepExecution stepExecution) {
+		return stepTimers.get(stepExecution).startItemSample();
+	}
+
+	protected void stopTimer(@Nullable Timer.Sample sample, StepExecution stepExecution, String metricName, String status, String description) {
+		stepTimers.get(stepExecution).stop(sample, metricName, description + " duration", status);
+	}
+
+	private static final class ItemNotProcessedException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		private ItemNotProcessedException() {
+			super("Not processed after the failure of a previous item", null, false, false);
+		}
+
 	}
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2019 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,8 +18,7 @@ package org.springframework.batch.core.step.item;
 
 import java.util.List;
 
-import io.micrometer.core.instrument.Metrics;
-import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -28,12 +27,14 @@ import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.StepListener;
 import org.springframework.batch.core.listener.MulticasterBatchListener;
 import org.springframework.batch.core.metrics.BatchMetrics;
+import org.springframework.batch.core.metrics.StepTimers;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.repeat.RepeatCallback;
 import org.springframework.batch.repeat.RepeatContext;
 import org.springframework.batch.repeat.RepeatOperations;
 import org.springframework.batch.repeat.RepeatStatus;
 import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
 
 /**
  * Simple implementation of the ChunkProvider interface that does basic chunk
@@ -54,11 +55,46 @@ public class SimpleChunkProvider<I> implements ChunkProvider<I> {
 
 	private final RepeatOperations repeatOperations;
 
+	private int timerSamplingInterval = 1;
+
+	@Nullable
+	private MeterRegistry meterRegistry;
+
+	private StepTimers.Cache stepTimers = new StepTimers.Cache(timerSamplingInterval, null);
+
 	public SimpleChunkProvider(ItemReader<? extends I> itemReader, RepeatOperations repeatOperations) {
 		this.itemReader = itemReader;
 		this.repeatOperations = repeatOperations;
 	}
 
+	/**
+	 * Time only one item out of the given number when reading, to make the
+	 * <code>item.read</code> timer cheaper when items are read fast. Defaults to
+	 * 1, all the items being timed.
+	 *
+	 * @param timerSamplingInterval the number of items out of which one is timed
+	 * @since 4.3
+	 */
+	public void setTimerSamplingInterval(int timerSamplingInterval) {
+		Assert.isTrue(timerSamplingInterval > 0, "The timer sampling interval must be positive");
+		this.timerSamplingInterval = timerSamplingInterval;
+		this.stepTimers = new StepTimers.Cache(timerSamplingInterval, meterRegistry);
+	}
+
+	/**
+	 * Register the timers of the read items in the given registry instead of
+	 * the {@link BatchMetrics#getMeterRegistry() meter registry} of the batch
+	 * metrics.
+	 *
+	 * @param meterRegistry the registry of the timers
+	 * @since 4.3
+	 */
+	public void setMeterRegistry(MeterRegistry meterRegistry) {
+		Assert.notNull(meterRegistry, "The meter registry must not be null");
+		this.meterRegistry = meterRegistry;
+		this.stepTimers = new StepTimers.Cache(timerSamplingInterval, meterRegistry);
+	}
+
 	/**
 	 * Register some {@link StepListener}s with the handler. Each will get the
 	 * callbacks in the order specified at the correct stage.
@@ -120,7 +156,8 @@ public class SimpleChunkProvider<I> implements ChunkProvider<I> {
 			@Override
 			public RepeatStatus doInIteration(final RepeatContext context) throws Exception {
 				I item = null;
-				Timer.Sample sample = Timer.start(Metrics.globalRegistry);
+				StepTimers timers = stepTimers.get(contribution.getStepExecution());
+				Timer.Sample sample = timers.startItemSample();
 				String status = BatchMetrics.STATUS_SUCCESS;
 				try {
 					item = read(contribution, inputs);
@@ -132,7 +169,7 @@ public class SimpleChunkProvider<I> implements ChunkProvider<I> {
 					return RepeatStatus.FINISHED;
 				}
 				finally {
-					stopTimer(sample, contribution.getStepExecution(), status);
+					timers.stop(sample, "item.read", "Item reading duration", status);
 				}
 				if (item == null) {
 					inputs.setEnd();
@@ -149,14 +186,6 @@ public class SimpleChunkProvider<I> implements ChunkProvider<I> {
 
 	}
 
-	private void stopTimer(Timer.Sample sample, StepExecution stepExecution, String status) {
-		sample.stop(BatchMetrics.createTimer("item.read", "Item reading duration",
-				Tag.of("job.name", stepExecution.getJobExecution().getJobInstance().getJobName()),
-				Tag.of("step.name", stepExecution.getStepName()),
-				Tag.of("status", status)
-		));
-	}
-
 	@Override
 	public void postProcess(StepContribution contribution, Chunk<I> chunk) {
 		// do nothing
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core.step.skip;
+
+import org.springframework.batch.core.SkipListener;
+import org.springframework.batch.core.listener.SkipRecordingListener;
+import org.springframework.lang.Nullable;
+
+/**
+ * An item skipped by a fault-tolerant step, as recorded by a
+ * {@link SkipRecordingListener}. The properties follow the JavaBeans
+ * conventions, so that the skipped items can be written with the bean mapping
+ * of a standard item writer, e.g. to an error table.
+ *
+ * @since 4.3
+ */
+public class SkippedItem {
+
+	/**
+	 * The phases of a chunk in which an item can be skipped.
+	 */
+	public enum Phase {
+
+		/**
+		 * The item could not be read, see {@link SkipListener#onSkipInRead(Throwable)}.
+		 */
+		READ,
+
+		/**
+		 * The item could not be processed, see
+		 * {@link SkipListener#onSkipInProcess(Object, Throwable)}.
+		 */
+		PROCESS,
+
+		/**
+		 * The item could not be written, see
+		 * {@link SkipListener#onSkipInWrite(Object, Throwable)}.
+		 */
+		WRITE
+
+	}
+
+	private final Long jobExecutionId;
+
+	private final Long stepExecutionId;
+
+	private final String stepName;
+
+	private final Phase phase;
+
+	private final Object item;
+
+	private final Throwable exception;
+
+	/**
+	 * @param jobExecutionId the id of the job execution, if known
+	 * @param stepExecutionId the id of the step execution, if known
+	 * @param stepName the name of the step, if known
+	 * @param phase the phase in which the item was skipped
+	 * @param item the item, null when it could not be read
+	 * @param exception the cause of the skip
+	 */
+	public SkippedItem(@Nullable Long jobExecutionId, @Nullable Long stepExecutionId, @Nullable String stepName,
+			Phase phase, @Nullable Object item, Throwable exception) {
+		this.jobExecutionId = jobExecutionId;
+		this.stepExecutionId = stepExecutionId;
+		this.stepName = stepName;
+		this.phase = phase;
+		this.item = item;
+		this.exception = exception;
+	}
+
+	@Nullable
+	public Long getJobExecutionId() {
+		return jobExecutionId;
+	}
+
+	@Nullable
+	public Long getStepExecutionId() {
+		return stepExecutionId;
+	}
+
+	@Nullable
+	public String getStepName() {
+		return stepName;
+	}
+
+	public Phase getPhase() {
+		return phase;
+	}
+
+	/**
+	 * @return the skipped item, null if it could not be read
+	 */
+	@Nullable
+	public Object getItem() {
+		return item;
+	}
+
+	public Throwable getException() {
+		return exception;
+	}
+
+	/**
+	 * @return the class name of the cause of the skip
+	 */
+	public String getExceptionClassName() {
+		return exception.getClass().getName();
+	}
+
+	/**
+	 * @return the message of the cause of the skip
+	 */
+	@Nullable
+	public String getExceptionMessage() {
+		return exception.getMessage();
+	}
+
+	@Override
+	public String toString() {
+		return "SkippedItem: phase=" + phase + ", stepName=" + stepName + ", stepExecutionId=" + stepExecutionId
+				+ ", item=" + item + ", exception=" + exception;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2018 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,6 +15,7 @@
  */
 package org.springframework.batch.core.step.tasklet;
 
+import io.micrometer.core.instrument.Tag;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.batch.core.BatchStatus;
@@ -23,7 +24,10 @@ import org.springframework.batch.core.JobInterruptedException;
 import org.springframework.batch.core.StepContribution;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.StepProfile;
 import org.springframework.batch.core.listener.CompositeChunkListener;
+import org.springframework.batch.core.metrics.BatchEventRecorder;
+import org.springframework.batch.core.metrics.BatchMetrics;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.scope.context.ChunkContext;
 import org.springframework.batch.core.scope.context.StepContextRepeatCallback;
@@ -51,7 +55,9 @@ import org.springframework.transaction.support.TransactionSynchronizationManager
 import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.Assert;
 
+import java.util.Locale;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Simple implementation of executing the step as a call to a {@link Tasklet},
@@ -101,8 +107,16 @@ public class TaskletStep extends AbstractStep {
 
 	private Tasklet tasklet;
 
+	private boolean saveProfile = false;
+
 	public static final String TASKLET_TYPE_KEY = "batch.taskletType";
 
+	/**
+	 * Key of the summary of the {@link StepProfile} in the execution context of
+	 * the step, if {@link #setSaveProfile(boolean) saved}.
+	 */
+	public static final String PROFILE_KEY = "batch.profile";
+
 	/**
 	 * Default constructor.
 	 */
@@ -229,6 +243,19 @@ public class TaskletStep extends AbstractStep {
 		this.interruptionPolicy = interruptionPolicy;
 	}
 
+	/**
+	 * Flag to save the summary of the {@link StepExecution#getProfile() profile}
+	 * of the step execution in its execution context, under the
+	 * {@link #PROFILE_KEY} key, when the step ends. Defaults to false, the
+	 * profile being only logged and published as metrics.
+	 *
+	 * @param saveProfile true to save the profile summary
+	 * @since 4.3
+	 */
+	public void setSaveProfile(boolean saveProfile) {
+		this.saveProfile = saveProfile;
+	}
+
 	/**
 	 * Process the step and update its context so that progress can be monitored
 	 * by the caller. The step is broken down into chunks, each one executing in
@@ -255,40 +282,83 @@ public class TaskletStep extends AbstractStep {
 		// in parallel without needing the lock
 		final Semaphore semaphore = createSemaphore();
 
-		stepOperations.iterate(new StepContextRepeatCallback(stepExecution) {
+		try {
+			stepOperations.iterate(new StepContextRepeatCallback(stepExecution) {
 
-			@Override
-			public RepeatStatus doInChunkContext(RepeatContext repeatContext, ChunkContext chunkContext)
-					throws Exception {
+				@Override
+				public RepeatStatus doInChunkContext(RepeatContext repeatContext, ChunkContext chunkContext)
+						throws Exception {
 
-				StepExecution stepExecution = chunkContext.getStepContext().getStepExecution();
+					StepExecution stepExecution = chunkContext.getStepContext().getStepExecution();
 
-				// Before starting a new transaction, check for
-				// interruption.
-				interruptionPolicy.checkInterrupted(stepExecution);
+					// Before starting a new transaction, check for
+					// interruption.
+					interruptionPolicy.checkInterrupted(stepExecution);
 
-				RepeatStatus result;
-				try {
-					result = new TransactionTemplate(transactionManager, transactionAttribute)
-					.execute(new ChunkTransactionCallback(chunkContext, semaphore));
-				}
-				catch (UncheckedTransactionException e) {
-					// Allow checked exceptions to be thrown inside callback
-					throw (Exception) e.getCause();
-				}
+					RepeatStatus result;
+					ChunkTransactionCallback callback = new ChunkTransactionCallback(chunkContext, semaphore);
+					long start = System.nanoTime();
+					try {
+						try {
+							result = new TransactionTemplate(transactionManager, transactionAttribute)
+							.execute(callback);
+						}
+						catch (UncheckedTransactionException e) {
+							// Allow checked exceptions to be thrown inside callback
+							throw (Exception) e.getCause();
+						}
+						finally {
+							callback.transactionTime += System.nanoTime() - start;
+						}
+
+						long listenerStart = System.nanoTime();
+						chunkListener.afterChunk(chunkContext);
+						callback.listenersTime += System.nanoTime() - listenerStart;
+					}
+					finally {
+						callback.recordProfile();
+						callback.recordEvent(BatchEventRecorder.Type.CHUNK, callback.start, callback.items);
+					}
 
-				chunkListener.afterChunk(chunkContext);
+					// Check for interruption after transaction as well, so that
+					// the interrupted exception is correctly propagated up to
+					// caller
+					interruptionPolicy.checkInterrupted(stepExecution);
 
-				// Check for interruption after transaction as well, so that
-				// the interrupted exception is correctly propagated up to
-				// caller
-				interruptionPolicy.checkInterrupted(stepExecution);
+					return result == null ? RepeatStatus.FINISHED : result;
+				}
 
-				return result == null ? RepeatStatus.FINISHED : result;
-			}
+			});
+		}
+		finally {
+			endProfile(stepExecution);
+		}
 
-		});
+	}
 
+	/**
+	 * Log the profile of the step execution, publish it as metrics and save it
+	 * in the execution context if required.
+	 */
+	private void endProfile(StepExecution stepExecution) {
+		StepProfile profile = stepExecution.getProfile();
+		if (profile.getTotal() == 0) {
+			return;
+		}
+		String summary = profile.getSummary();
+		logger.info("Step: [" + stepExecution.getStepName() + "] profile: " + summary);
+		Tag jobNameTag = Tag.of("job.name", stepExecution.getJobExecution().getJobInstance().getJobName());
+		Tag stepNameTag = Tag.of("step.name", stepExecution.getStepName());
+		for (StepProfile.Phase phase : StepProfile.Phase.values()) {
+			if (profile.getCount(phase) > 0) {
+				BatchMetrics.createTimer("step.phase", "Time spent by steps in a phase of their chunks", jobNameTag,
+						stepNameTag, Tag.of("phase", phase.name().toLowerCase(Locale.ROOT)))
+						.record(profile.getTotal(phase), TimeUnit.NANOSECONDS);
+			}
+		}
+		if (saveProfile) {
+			stepExecution.getExecutionContext().putString(PROFILE_KEY, summary);
+		}
 	}
 
 	/**
@@ -338,12 +408,24 @@ public class TaskletStep extends AbstractStep {
 
 		private boolean stepExecutionUpdated = false;
 
-		private StepExecution oldVersion;
+		private StepExecutionSnapshot oldVersion;
 
 		private boolean locked = false;
 
 		private final Semaphore semaphore;
 
+		// time spent in the phases of the chunk handled by the step, the time
+		// of the transaction being reduced by the time of its callbacks
+		private long transactionTime;
+
+		private long listenersTime;
+
+		private long repositoryTime;
+
+		private final long start = System.nanoTime();
+
+		private long items;
+
 		public ChunkTransactionCallback(ChunkContext chunkContext, Semaphore semaphore) {
 			this.chunkContext = chunkContext;
 			this.stepExecution = chunkContext.getStepContext().getStepExecution();
@@ -359,12 +441,17 @@ public class TaskletStep extends AbstractStep {
 						// execution data.
 						logger.info("Commit failed while step execution data was already updated. "
 								+ "Reverting to old version.");
-						copy(oldVersion, stepExecution);
+						oldVersion.restore(stepExecution);
 						if (status == TransactionSynchronization.STATUS_ROLLED_BACK) {
 							rollback(stepExecution);
 						}
 					}
+					long listenerStart = System.nanoTime();
 					chunkListener.afterChunkError(chunkContext);
+					long listenerTime = System.nanoTime() - listenerStart;
+					listenersTime += listenerTime;
+					transactionTime -= listenerTime;
+					recordEvent(BatchEventRecorder.Type.ROLLBACK, start, items);
 				}
 
 				if (status == TransactionSynchronization.STATUS_UNKNOWN) {
@@ -385,20 +472,45 @@ public class TaskletStep extends AbstractStep {
 			}
 		}
 
+		private void recordProfile() {
+			StepProfile profile = stepExecution.getProfile();
+			profile.record(StepProfile.Phase.TRANSACTION, transactionTime);
+			profile.record(StepProfile.Phase.CHUNK_LISTENERS, listenersTime);
+			profile.record(StepProfile.Phase.REPOSITORY, repositoryTime);
+		}
+
+		private void recordEvent(BatchEventRecorder.Type type, long start, long items) {
+			BatchEventRecorder eventRecorder = getEventRecorder();
+			if (eventRecorder != null) {
+				eventRecorder.record(type, stepExecution, start, items);
+			}
+		}
+
 		@Override
 		public RepeatStatus doInTransaction(TransactionStatus status) {
+			long start = System.nanoTime();
+			try {
+				return doInChunkTransaction();
+			}
+			finally {
+				transactionTime -= System.nanoTime() - start;
+			}
+		}
+
+		private RepeatStatus doInChunkTransaction() {
 			TransactionSynchronizationManager.registerSynchronization(this);
 
 			RepeatStatus result = RepeatStatus.CONTINUABLE;
 
 			StepContribution contribution = stepExecution.createStepContribution();
 
-			chunkListener.beforeChunk(chunkContext);
+			// The tasklet may change the execution context directly, and the
+			// streams change it on update, so it is copied for every chunk
+			ExecutionContext executionContext = new ExecutionContext(stepExecution.getExecutionContext());
 
-			// In case we need to push it back to its old value
-			// after a commit fails...
-			oldVersion = new StepExecution(stepExecution.getStepName(), stepExecution.getJobExecution());
-			copy(stepExecution, oldVersion);
+			long listenerStart = System.nanoTime();
+			chunkListener.beforeChunk(chunkContext);
+			listenersTime += System.nanoTime() - listenerStart;
 
 			try {
 
@@ -421,7 +533,9 @@ public class TaskletStep extends AbstractStep {
 					// If the step operations are asynchronous then we need
 					// to synchronize changes to the step execution (at a
 					// minimum). Take the lock *before* changing the step
-					// execution.
+					// execution. It is held until the transaction completes,
+					// since the streams update the shared execution context
+					// and the step execution is saved with its version.
 					try {
 						semaphore.acquire();
 						locked = true;
@@ -433,19 +547,33 @@ public class TaskletStep extends AbstractStep {
 						Thread.currentThread().interrupt();
 					}
 
+					// In case we need to push it back to its old value
+					// after a commit fails. The counts are taken with the
+					// lock so that reverting does not lose the chunks
+					// committed by other threads in the meantime.
+					oldVersion = new StepExecutionSnapshot(stepExecution, executionContext);
+
 					// Apply the contribution to the step
 					// even if unsuccessful
 					if (logger.isDebugEnabled()) {
 						logger.debug("Applying contribution: " + contribution);
 					}
 					stepExecution.apply(contribution);
+					items = contribution.getReadCount() + contribution.getReadSkipCount();
 
 				}
 
 				stepExecutionUpdated = true;
 
-				stream.update(stepExecution.getExecutionContext());
+				long repositoryStart = System.nanoTime();
+				try {
+					stream.update(stepExecution.getExecutionContext());
+				}
+				finally {
+					repositoryTime += System.nanoTime() - repositoryStart;
+				}
 
+				repositoryStart = System.nanoTime();
 				try {
 					// Going to attempt a commit. If it fails this flag will
 					// stay false and we can use that later.
@@ -463,6 +591,10 @@ public class TaskletStep extends AbstractStep {
 					logger.error(msg, e);
 					throw new FatalStepExecutionException(msg, e);
 				}
+				finally {
+					repositoryTime += System.nanoTime() - repositoryStart;
+					recordEvent(BatchEventRecorder.Type.REPOSITORY, repositoryStart, 0);
+				}
 			}
 			catch (Error e) {
 				if (logger.isDebugEnabled()) {
@@ -498,12 +630,39 @@ public class TaskletStep extends AbstractStep {
 			}
 		}
 
-		private void copy(final StepExecution source, final StepExecution target) {
-			target.setVersion(source.getVersion());
-			target.setWriteCount(source.getWriteCount());
-			target.setFilterCount(source.getFilterCount());
-			target.setCommitCount(source.getCommitCount());
-			target.setExecutionContext(new ExecutionContext(source.getExecutionContext()));
+	}
+
+	/**
+	 * The state of a step execution restored when the commit of a chunk fails
+	 * after the step execution was updated: the counts changed by the chunk and
+	 * a copy of the execution context taken before it.
+	 */
+	private static class StepExecutionSnapshot {
+
+		private final Integer version;
+
+		private final int writeCount;
+
+		private final int filterCount;
+
+		private final int commitCount;
+
+		private final ExecutionContext executionContext;
+
+		private StepExecutionSnapshot(StepExecution stepExecution, ExecutionContext executionContext) {
+			this.version = stepExecution.getVersion();
+			this.writeCount = stepExecution.getWriteCount();
+			this.filterCount = stepExecution.getFilterCount();
+			this.commitCount = stepExecution.getCommitCount();
+			this.executionContext = executionContext;
+		}
+
+		private void restore(StepExecution stepExecution) {
+			stepExecution.setVersion(version);
+			stepExecution.setWriteCount(writeCount);
+			stepExecution.setFilterCount(filterCount);
+			stepExecution.setCommitCount(commitCount);
+			stepExecution.setExecutionContext(executionContext);
 		}
 
 	}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core;
+
+import org.junit.Test;
+
+import org.springframework.batch.core.StepProfile.Phase;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StepProfileTests {
+
+	private final StepProfile profile = new StepProfile();
+
+	@Test
+	public void testEmptyProfile() {
+		assertEquals(0, profile.getCount(Phase.READ));
+		assertEquals(0, profile.getPercentile(Phase.READ, 0.5));
+		assertEquals(0, profile.getTotal());
+		assertEquals("", profile.getSummary());
+	}
+
+	@Test
+	public void testTotals() {
+		profile.record(Phase.READ, 300);
+		profile.record(Phase.READ, 100);
+		profile.record(Phase.WRITE, 600);
+
+		assertEquals(2, profile.getCount(Phase.READ));
+		assertEquals(400, profile.getTotal(Phase.READ));
+		assertEquals(300, profile.getMax(Phase.READ));
+		assertEquals(1000, profile.getTotal());
+		assertEquals(0, profile.getCount(Phase.PROCESS));
+	}
+
+	@Test
+	public void testPercentiles() {
+		for (int i = 1; i <= 100; i++) {
+			profile.record(Phase.WRITE, i * 1000000L);
+		}
+
+		assertPercentile(50000000L, profile.getPercentile(Phase.WRITE, 0.5));
+		assertPercentile(90000000L, profile.getPercentile(Phase.WRITE, 0.9));
+		assertPercentile(99000000L, profile.getPercentile(Phase.WRITE, 0.99));
+		assertEquals(100000000L, profile.getPercentile(Phase.WRITE, 1));
+		assertEquals(100000000L, profile.getMax(Phase.WRITE));
+	}
+
+	@Test
+	public void testSmallDurations() {
+		for (int i = 0; i < 8; i++) {
+			profile.record(Phase.READ, i);
+		}
+		profile.record(Phase.READ, -1);
+
+		assertEquals(3, profile.getPercentile(Phase.READ, 0.5));
+		assertEquals(7, profile.getPercentile(Phase.READ, 1));
+	}
+
+	@Test
+	public void testSummary() {
+		profile.record(Phase.READ, 1000000);
+		profile.record(Phase.WRITE, 3000000);
+
+		assertEquals("read=1.000ms (25.0%, 1 chunks, p50=1.000ms, p90=1.000ms, p99=1.000ms, max=1.000ms), "
+				+ "write=3.000ms (75.0%, 1 chunks, p50=3.000ms, p90=3.000ms, p99=3.000ms, max=3.000ms)",
+				profile.getSummary());
+	}
+
+	private void assertPercentile(long expected, long actual) {
+		assertTrue("Expected about " + expected + " but was " + actual,
+				actual >= expected && actual <= expected * 1.25);
+	}
+
+}
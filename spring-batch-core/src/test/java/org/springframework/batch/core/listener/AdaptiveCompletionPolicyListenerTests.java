@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core.listener;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.policy.AdaptiveCompletionPolicy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests for {@link AdaptiveCompletionPolicyListener}.
+ */
+public class AdaptiveCompletionPolicyListenerTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private final AdaptiveCompletionPolicy completionPolicy = new AdaptiveCompletionPolicy(4, 100);
+
+	private final AdaptiveCompletionPolicyListener listener = new AdaptiveCompletionPolicyListener(completionPolicy);
+
+	private final StepExecution stepExecution = new JobExecution(new JobInstance(1L, "job"), new JobParameters())
+			.createStepExecution("step");
+
+	@Before
+	public void setUp() {
+		Metrics.globalRegistry.add(registry);
+	}
+
+	@After
+	public void tearDown() {
+		listener.afterStep(stepExecution);
+		Metrics.globalRegistry.remove(registry);
+	}
+
+	@Test
+	public void testChunkSizeIsPublished() {
+		listener.beforeStep(stepExecution);
+
+		assertEquals(4, registry.get("spring.batch.chunk.size").tag("job.name", "job").tag("step.name", "step")
+				.gauge().value(), 0);
+
+		listener.afterStep(stepExecution);
+
+		assertNull(registry.find("spring.batch.chunk.size").tag("job.name", "job").tag("step.name", "step").gauge());
+	}
+
+	@Test
+	public void testPolicyIsResetBeforeStep() {
+		completionPolicy.setInitialChunkSize(10);
+		runChunk();
+		runChunk();
+		assertEquals(20, completionPolicy.getChunkSize());
+
+		listener.beforeStep(stepExecution);
+
+		assertEquals(10, completionPolicy.getChunkSize());
+	}
+
+	@Test
+	public void testChunkSizeIsReducedAfterChunkError() {
+		completionPolicy.setInitialChunkSize(10);
+		runChunk();
+
+		listener.afterChunkError(null);
+		runChunk();
+
+		assertEquals(5, completionPolicy.getChunkSize());
+	}
+
+	private void runChunk() {
+		RepeatContext context = completionPolicy.start(null);
+		while (!completionPolicy.isComplete(context)) {
+			completionPolicy.update(context);
+		}
+	}
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core.listener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.support.LookupCache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link LookupCacheListener}.
+ */
+public class LookupCacheListenerTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private final LookupCache<String, Integer> cache = new LookupCache<>(10);
+
+	private final LookupCacheListener<String, Integer> listener = new LookupCacheListener<>();
+
+	private final StepExecution stepExecution = new JobExecution(1L).createStepExecution("step");
+
+	@Before
+	public void setUp() throws Exception {
+		Metrics.globalRegistry.add(registry);
+		listener.setCache(cache);
+		listener.setName("codes");
+		listener.afterPropertiesSet();
+	}
+
+	@After
+	public void tearDown() {
+		Metrics.globalRegistry.remove(registry);
+	}
+
+	@Test
+	public void testCacheIsClearedAndWarmedUpBeforeStep() {
+		cache.put("stale", 0);
+		listener.setWarmUpLoader(() -> Collections.singletonMap("a", 1));
+
+		listener.beforeStep(stepExecution);
+
+		assertFalse(cache.containsKey("stale"));
+		assertEquals(Integer.valueOf(1), cache.get("a"));
+	}
+
+	@Test
+	public void testCacheIsKeptWhenNotClearedBeforeStep() {
+		cache.put("shared", 0);
+		listener.setClearBeforeStep(false);
+
+		listener.beforeStep(stepExecution);
+
+		assertTrue(cache.containsKey("shared"));
+	}
+
+	@Test
+	public void testFailedWarmUp() {
+		listener.setWarmUpLoader(() -> {
+			throw new IllegalStateException("database down");
+		});
+
+		try {
+			listener.beforeStep(stepExecution);
+			fail("Expected StepListenerFailedException");
+		}
+		catch (StepListenerFailedException e) {
+			assertEquals("database down", e.getCause().getMessage());
+		}
+	}
+
+	@Test
+	public void testHitsAndMissesArePublished() {
+		listener.beforeStep(stepExecution);
+		cache.put("a", 1);
+		cache.get("a");
+		cache.get("a");
+		cache.get("b");
+
+		assertEquals(2, registry.get("spring.batch.lookup.cache.hits").tag("name", "codes").functionCounter().count(), 0);
+		assertEquals(1, registry.get("spring.batch.lookup.cache.misses").tag("name", "codes").functionCounter().count(), 0);
+		assertEquals(0, registry.get("spring.batch.lookup.cache.evictions").tag("name", "codes").functionCounter().count(), 0);
+
+		listener.afterStep(stepExecution);
+		assertNull(registry.find("spring.batch.lookup.cache.hits").functionCounter());
+	}
+
+	@Test
+	public void testCacheSharedByPartitions() {
+		StepExecution partition = stepExecution.getJobExecution().createStepExecution("step:partition1");
+		List<Integer> warmUps = new ArrayList<>();
+		listener.setWarmUpLoader(() -> {
+			warmUps.add(1);
+			return Collections.singletonMap("a", 1);
+		});
+
+		listener.beforeStep(stepExecution);
+		cache.put("b", 2);
+		listener.beforeStep(partition);
+		listener.afterStep(stepExecution);
+
+		// the cache is only cleared and warmed up before the first partition
+		assertEquals(1, warmUps.size());
+		assertTrue(cache.containsKey("b"));
+		assertNotNull(registry.find("spring.batch.lookup.cache.hits").functionCounter());
+
+		listener.afterStep(partition);
+		assertNull(registry.find("spring.batch.lookup.cache.hits").functionCounter());
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2013 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,7 +19,9 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 
 import org.junit.Test;
 import org.springframework.core.Ordered;
@@ -128,6 +130,26 @@ public class OrderedCompositeTests {
 		assertEquals(item, iterator.next());
 	}
 
+	@Test
+	public void testItemsAreSnapshots() {
+		list.setItems(Arrays.asList((Object) "1", "2"));
+		List<Object> items = list.items();
+		List<Object> reversed = list.reversedItems();
+		list.add("3");
+		assertEquals(Arrays.asList("1", "2"), items);
+		assertEquals(Arrays.asList("2", "1"), reversed);
+		assertEquals(Arrays.asList("1", "2", "3"), list.items());
+		assertEquals(Arrays.asList("3", "2", "1"), list.reversedItems());
+	}
+
+	@Test
+	public void testSetNoItems() {
+		list.setItems(Arrays.asList((Object) "1"));
+		list.setItems(Collections.emptyList());
+		assertEquals(0, list.items().size());
+		assertFalse(list.reverse().hasNext());
+	}
+
 	@Order(0)
 	private static class OrderedObject {
 
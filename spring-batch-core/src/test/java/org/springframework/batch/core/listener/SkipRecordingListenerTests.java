@@ -0,0 +1,201 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core.listener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.core.step.skip.SkippedItem;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link SkipRecordingListener}.
+ */
+public class SkipRecordingListenerTests {
+
+	private final List<List<SkippedItem>> written = new ArrayList<>();
+
+	private final SkipRecordingListener listener = new SkipRecordingListener(items -> written.add(new ArrayList<>(items)));
+
+	private final StepExecution stepExecution = new StepExecution("step", new JobExecution(1L), 2L);
+
+	private final ChunkContext chunkContext = new ChunkContext(new StepContext(stepExecution));
+
+	@After
+	public void tearDown() {
+		StepSynchronizationManager.close();
+	}
+
+	@Test
+	public void testSkipsOfChunkWrittenAtOnce() {
+		StepSynchronizationManager.register(stepExecution);
+		Exception readFailure = new IllegalStateException("read");
+		listener.beforeChunk(chunkContext);
+		listener.onSkipInRead(readFailure);
+		listener.onSkipInProcess("foo", new IllegalStateException("process"));
+		listener.onSkipInWrite("bar", new IllegalStateException("write"));
+
+		assertTrue(written.isEmpty());
+		listener.afterChunk(chunkContext);
+
+		assertEquals(1, written.size());
+		List<SkippedItem> items = written.get(0);
+		assertEquals(3, items.size());
+		assertEquals(SkippedItem.Phase.READ, items.get(0).getPhase());
+		assertNull(items.get(0).getItem());
+		assertSame(readFailure, items.get(0).getException());
+		assertEquals(SkippedItem.Phase.PROCESS, items.get(1).getPhase());
+		assertEquals("foo", items.get(1).getItem());
+		assertEquals(SkippedItem.Phase.WRITE, items.get(2).getPhase());
+		assertEquals("bar", items.get(2).getItem());
+		assertEquals(Long.valueOf(1), items.get(2).getJobExecutionId());
+		assertEquals(Long.valueOf(2), items.get(2).getStepExecutionId());
+		assertEquals("step", items.get(2).getStepName());
+		assertEquals(IllegalStateException.class.getName(), items.get(2).getExceptionClassName());
+		assertEquals("write", items.get(2).getExceptionMessage());
+
+		// nothing to write for a chunk without skips
+		listener.afterChunk(chunkContext);
+		assertEquals(1, written.size());
+	}
+
+	@Test
+	public void testSkipsOfRolledBackChunkDiscarded() {
+		listener.onSkipInWrite("foo", new IllegalStateException("write"));
+		listener.afterChunkError(chunkContext);
+		listener.onSkipInWrite("bar", new IllegalStateException("write"));
+		listener.afterChunk(chunkContext);
+
+		assertEquals(1, written.size());
+		assertEquals(1, written.get(0).size());
+		assertEquals("bar", written.get(0).get(0).getItem());
+		assertNull(written.get(0).get(0).getStepExecutionId());
+	}
+
+	@Test
+	public void testSinkFailure() {
+		SkipRecordingListener listener = new SkipRecordingListener(items -> {
+			throw new Exception("Planned failure in sink!");
+		});
+		listener.onSkipInRead(new IllegalStateException("read"));
+		try {
+			listener.afterChunk(chunkContext);
+			fail("Expected StepListenerFailedException");
+		}
+		catch (StepListenerFailedException e) {
+			assertEquals("Planned failure in sink!", e.getCause().getMessage());
+		}
+	}
+
+	@Test
+	public void testSkipsWrittenBeforeCommit() {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(new ResourcelessTransactionManager());
+		transactionTemplate.execute(status -> {
+			listener.onSkipInProcess("foo", new IllegalStateException("process"));
+			listener.onSkipInWrite("bar", new IllegalStateException("write"));
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					assertEquals(1, written.size());
+				}
+			});
+			assertTrue(written.isEmpty());
+			return null;
+		});
+		listener.afterChunk(chunkContext);
+
+		assertEquals(1, written.size());
+		assertEquals(2, written.get(0).size());
+	}
+
+	@Test
+	public void testSkipsOfRolledBackTransactionDiscarded() {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(new ResourcelessTransactionManager());
+		transactionTemplate.execute(status -> {
+			listener.onSkipInWrite("foo", new IllegalStateException("write"));
+			status.setRollbackOnly();
+			return null;
+		});
+		listener.afterChunkError(chunkContext);
+		transactionTemplate.execute(status -> {
+			listener.onSkipInWrite("bar", new IllegalStateException("write"));
+			return null;
+		});
+
+		assertEquals(1, written.size());
+		assertEquals("bar", written.get(0).get(0).getItem());
+	}
+
+	@Test
+	public void testSinkFailureRollsBackTransaction() {
+		SkipRecordingListener listener = new SkipRecordingListener(items -> {
+			throw new Exception("Planned failure in sink!");
+		});
+		List<Integer> completions = new ArrayList<>();
+		try {
+			new TransactionTemplate(new ResourcelessTransactionManager()).execute(status -> {
+				listener.onSkipInRead(new IllegalStateException("read"));
+				TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+					@Override
+					public void afterCompletion(int status) {
+						completions.add(status);
+					}
+				});
+				return null;
+			});
+			fail("Expected StepListenerFailedException");
+		}
+		catch (StepListenerFailedException e) {
+			assertEquals("Planned failure in sink!", e.getCause().getMessage());
+		}
+		assertEquals(Collections.singletonList(TransactionSynchronization.STATUS_ROLLED_BACK), completions);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testItemStreamSinkRejected() {
+		new SkipRecordingListener(new StreamSink());
+	}
+
+	private static class StreamSink extends ItemStreamSupport implements ItemWriter<SkippedItem> {
+
+		@Override
+		public void write(List<? extends SkippedItem> items) {
+		}
+
+	}
+
+}
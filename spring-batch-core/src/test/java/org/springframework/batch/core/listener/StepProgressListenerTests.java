@@ -0,0 +1,162 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core.listener;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepProgress;
+import org.springframework.batch.core.metrics.BatchMetrics;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ProgressAware;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link StepProgressListener}.
+ */
+public class StepProgressListenerTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private final Input input = new Input();
+
+	private final StepExecution stepExecution = new JobExecution(new JobInstance(1L, "job"), new JobParameters())
+			.createStepExecution("step");
+
+	private final ChunkContext chunkContext = new ChunkContext(new StepContext(stepExecution));
+
+	@Before
+	public void setUp() {
+		BatchMetrics.setMeterRegistry(registry);
+	}
+
+	@After
+	public void tearDown() {
+		BatchMetrics.setMeterRegistry(Metrics.globalRegistry);
+	}
+
+	@Test
+	public void testProgressIsPublished() throws Exception {
+		StepProgressListener listener = new StepProgressListener(input);
+		listener.beforeStep(stepExecution);
+
+		runChunk(listener, 25);
+
+		StepProgress progress = StepProgress.from(stepExecution.getExecutionContext());
+		assertEquals(0.25, progress.getProgress(), 0);
+		assertTrue(progress.getRate() > 0);
+		assertTrue(progress.getRemaining() > 0);
+		assertEquals(0.25, registry.get("spring.batch.step.progress").tag("job.name", "job").tag("step.name", "step")
+				.gauge().value(), 0);
+		assertEquals(progress.getRate(), registry.get("spring.batch.step.rate").gauge().value(), 0);
+		assertEquals(progress.getRemaining(), registry.get("spring.batch.step.remaining").gauge().value(), 0);
+
+		runChunk(listener, 50);
+
+		assertEquals(0.75, StepProgress.from(stepExecution.getExecutionContext()).getProgress(), 0);
+
+		listener.afterStep(stepExecution);
+
+		assertNull(registry.find("spring.batch.step.progress").gauge());
+		assertNull(registry.find("spring.batch.step.rate").gauge());
+		assertNull(registry.find("spring.batch.step.remaining").gauge());
+	}
+
+	@Test
+	public void testCompletedStep() throws Exception {
+		StepProgressListener listener = new StepProgressListener(input);
+		listener.beforeStep(stepExecution);
+		runChunk(listener, 40);
+		input.completed = 0;
+		input.total = ProgressAware.UNKNOWN;
+		stepExecution.setStatus(BatchStatus.COMPLETED);
+
+		listener.afterStep(stepExecution);
+
+		StepProgress progress = StepProgress.from(stepExecution.getExecutionContext());
+		assertEquals(1, progress.getProgress(), 0);
+		assertEquals(0, progress.getRemaining(), 0);
+	}
+
+	@Test
+	public void testUnknownProgress() throws Exception {
+		StepProgressListener listener = new StepProgressListener(null);
+		listener.beforeStep(stepExecution);
+
+		runChunk(listener, 10);
+
+		StepProgress progress = StepProgress.from(stepExecution.getExecutionContext());
+		assertEquals(StepProgress.UNKNOWN, progress.getProgress(), 0);
+		assertEquals(StepProgress.UNKNOWN, progress.getRemaining(), 0);
+		assertTrue(progress.getRate() > 0);
+		assertTrue(Double.isNaN(registry.get("spring.batch.step.progress").gauge().value()));
+		listener.afterStep(stepExecution);
+	}
+
+	@Test
+	public void testProgressFromExecutionContext() {
+		ExecutionContext executionContext = new ExecutionContext();
+		assertNull(StepProgress.from(executionContext));
+
+		new StepProgress(0.5, 10, 60).saveTo(executionContext);
+
+		StepProgress progress = StepProgress.from(executionContext);
+		assertEquals(0.5, progress.getProgress(), 0);
+		assertEquals(10, progress.getRate(), 0);
+		assertEquals(60, progress.getRemaining(), 0);
+		assertEquals("StepProgress: [progress=50.0%, rate=10.0 items/s, remaining=60s]", progress.toString());
+	}
+
+	private void runChunk(StepProgressListener listener, int items) throws InterruptedException {
+		listener.beforeChunk(chunkContext);
+		Thread.sleep(10);
+		input.completed += items;
+		stepExecution.setReadCount(stepExecution.getReadCount() + items);
+		listener.afterChunk(chunkContext);
+	}
+
+	private static class Input implements ProgressAware {
+
+		private long total = 100;
+
+		private long completed;
+
+		@Override
+		public long getTotalWork() {
+			return total;
+		}
+
+		@Override
+		public long getCompletedWork() {
+			return completed;
+		}
+
+	}
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core.metrics;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.metrics.BatchEventRecorder.Event;
+import org.springframework.batch.core.metrics.BatchEventRecorder.Type;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.MapJobRepositoryFactoryBean;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.support.ListItemReader;
+import org.springframework.batch.item.support.ListItemWriter;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.ClassUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link BatchEventRecorder}.
+ */
+public class BatchEventRecorderTests {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final BatchEventRecorder recorder = new BatchEventRecorder(3);
+
+	@Test
+	public void testRecord() throws Exception {
+		long start = System.nanoTime();
+		recorder.record(Type.CHUNK, 1, "step", start, 10);
+
+		List<Event> events = recorder.getEvents(null);
+
+		assertEquals(1, events.size());
+		Event event = events.get(0);
+		assertEquals(Type.CHUNK, event.getType());
+		assertEquals(1, event.getJobExecutionId());
+		assertEquals("step", event.getName());
+		assertEquals(Thread.currentThread().getName(), event.getThread());
+		assertEquals(start, event.getStartNanos());
+		assertTrue(event.getDuration() >= 0);
+		assertEquals(10, event.getItems());
+		assertTrue(Math.abs(event.getStartMicros() / 1000 - System.currentTimeMillis()) < 1000);
+	}
+
+	@Test
+	public void testFlightRecorder() {
+		assertFalse((boolean) ReflectionTestUtils.getField(recorder, "flightRecorderEnabled"));
+		// the events are defined at runtime, when the flight recorder is available
+		assertEquals(ClassUtils.isPresent("jdk.jfr.EventFactory", null), FlightRecorderEvents.isAvailable());
+
+		recorder.setFlightRecorderEnabled(true);
+		recorder.record(Type.CHUNK, 1, "step", System.nanoTime(), 10);
+
+		assertEquals(FlightRecorderEvents.isAvailable(), ReflectionTestUtils.getField(recorder, "flightRecorderEnabled"));
+		assertEquals(1, recorder.getEvents(null).size());
+	}
+
+	@Test
+	public void testOldestEventsAreOverwritten() {
+		for (int i = 0; i < 5; i++) {
+			recorder.record(Type.CHUNK, 1, "step", System.nanoTime(), i);
+		}
+
+		List<Event> events = recorder.getEvents(null);
+
+		assertEquals(3, events.size());
+		assertEquals(2, events.get(0).getItems());
+		assertEquals(4, events.get(2).getItems());
+	}
+
+	@Test
+	public void testEventsOfThreadsAndJobExecutions() throws Exception {
+		recorder.record(Type.STEP, 1, "step1", System.nanoTime(), 0);
+		Thread thread = new Thread(() -> {
+			recorder.record(Type.STEP, 2, "step2", System.nanoTime(), 0);
+			recorder.record(Type.STEP, 1, "step3", System.nanoTime(), 0);
+		}, "other");
+		thread.start();
+		thread.join();
+
+		List<Event> events = recorder.getEvents(1L);
+
+		assertEquals(2, events.size());
+		assertEquals("step1", events.get(0).getName());
+		assertEquals("step3", events.get(1).getName());
+		assertEquals("other", events.get(1).getThread());
+		assertEquals(3, recorder.getEvents(null).size());
+	}
+
+	@Test
+	public void testDump() throws Exception {
+		recorder.record(Type.SKIP, 1, "a \"step\"", System.nanoTime(), 1);
+		StringWriter writer = new StringWriter();
+
+		recorder.dump(null, writer);
+
+		Event event = recorder.getEvents(null).get(0);
+		assertEquals("{\"type\":\"skip\",\"jobExecutionId\":1,\"name\":\"a \\\"step\\\"\",\"thread\":\""
+				+ Thread.currentThread().getName() + "\",\"start\":" + event.getStartMicros() + ",\"duration\":"
+				+ event.getDuration() + ",\"items\":1}\n", writer.toString());
+	}
+
+	@Test
+	public void testJobEventsAreDumped() throws Exception {
+		BatchEventRecorder recorder = new BatchEventRecorder();
+		recorder.setDumpDirectory(folder.getRoot());
+		JobRepository jobRepository = new MapJobRepositoryFactoryBean().getObject();
+		JobExecution jobExecution = jobRepository.createJobExecution("job", new JobParameters());
+
+		new JobBuilder("job")
+				.repository(jobRepository)
+				.eventRecorder(recorder)
+				.start(new StepBuilder("step")
+						.repository(jobRepository)
+						.transactionManager(new ResourcelessTransactionManager())
+						.eventRecorder(recorder)
+						.<Integer, Integer>chunk(2)
+						.reader(new ListItemReader<>(Arrays.asList(1, 2, 3)))
+						.writer(new ListItemWriter<>())
+						.build())
+				.build()
+				.execute(jobExecution);
+
+		assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+		List<String> lines = Files.readAllLines(new File(folder.getRoot(), "job-" + jobExecution.getId() + ".json")
+				.toPath(), StandardCharsets.UTF_8);
+		assertEquals(recorder.getEvents(jobExecution.getId()).size(), lines.size());
+		assertTrue(lines.get(0).startsWith("{\"type\":\"job\""));
+		assertTrue(lines.get(0).endsWith("\"items\":3}"));
+		assertTrue(lines.get(1).startsWith("{\"type\":\"step\""));
+		assertEquals(2, lines.stream().filter(line -> line.startsWith("{\"type\":\"chunk\"")).count());
+		assertEquals(2, lines.stream().filter(line -> line.startsWith("{\"type\":\"repository\"")).count());
+	}
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core.metrics;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link StepTimers}.
+ */
+public class StepTimersTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private final StepExecution stepExecution = new JobExecution(new JobInstance(1L, "job"), new JobParameters())
+			.createStepExecution("step");
+
+	@Before
+	public void setUp() {
+		BatchMetrics.setMeterRegistry(registry);
+	}
+
+	@After
+	public void tearDown() {
+		BatchMetrics.setMeterRegistry(Metrics.globalRegistry);
+	}
+
+	@Test
+	public void testTimersAreCached() {
+		StepTimers timers = new StepTimers(stepExecution, 1);
+
+		Timer timer = timers.getTimer("item.read", "Item reading duration", BatchMetrics.STATUS_SUCCESS);
+
+		assertSame(timer, timers.getTimer("item.read", "Item reading duration", BatchMetrics.STATUS_SUCCESS));
+		assertSame(timer, registry.get("spring.batch.item.read").tag("job.name", "job").tag("step.name", "step")
+				.tag("status", BatchMetrics.STATUS_SUCCESS).timer());
+		assertEquals(1, registry.getMeters().size());
+	}
+
+	@Test
+	public void testStop() {
+		StepTimers timers = new StepTimers(stepExecution, 1);
+
+		timers.stop(timers.startItemSample(), "item.process", "Item processing duration", BatchMetrics.STATUS_FAILURE);
+		timers.stop(null, "item.process", "Item processing duration", BatchMetrics.STATUS_FAILURE);
+
+		assertEquals(1, registry.get("spring.batch.item.process").tag("status", BatchMetrics.STATUS_FAILURE).timer()
+				.count());
+		assertNull(registry.find("spring.batch.item.process").tag("status", BatchMetrics.STATUS_SUCCESS).timer());
+	}
+
+	@Test
+	public void testItemSampling() {
+		StepTimers timers = new StepTimers(stepExecution, 3);
+
+		for (int i = 0; i < 10; i++) {
+			timers.stop(timers.startItemSample(), "item.read", "Item reading duration", BatchMetrics.STATUS_SUCCESS);
+			timers.stop(timers.startSample(), "chunk.write", "Chunk writing duration", BatchMetrics.STATUS_SUCCESS);
+		}
+
+		assertEquals(4, registry.get("spring.batch.item.read").timer().count());
+		assertEquals(10, registry.get("spring.batch.chunk.write").timer().count());
+	}
+
+	@Test
+	public void testIsFor() {
+		StepTimers timers = new StepTimers(stepExecution, 1);
+
+		assertTrue(timers.isFor(stepExecution));
+		assertFalse(timers.isFor(stepExecution.getJobExecution().createStepExecution("step")));
+		BatchMetrics.setMeterRegistry(new SimpleMeterRegistry());
+		assertFalse(timers.isFor(stepExecution));
+	}
+
+	@Test
+	public void testCacheSharedByStepExecutions() {
+		StepTimers.Cache cache = new StepTimers.Cache(1, null);
+		StepExecution partition = stepExecution.getJobExecution().createStepExecution("step:partition1");
+
+		StepSynchronizationManager.register(stepExecution);
+		StepTimers timers;
+		try {
+			timers = cache.get(stepExecution);
+			assertSame(timers, cache.get(stepExecution));
+			assertSame(registry, ReflectionTestUtils.getField(timers, "meterRegistry"));
+			StepSynchronizationManager.register(partition);
+			try {
+				assertTrue(cache.get(partition).isFor(partition));
+				assertSame(timers, cache.get(stepExecution));
+				assertEquals(2, cache.size());
+			}
+			finally {
+				StepSynchronizationManager.release();
+			}
+			assertEquals(1, cache.size());
+		}
+		finally {
+			// the step context is closed when the step ends
+			StepSynchronizationManager.release();
+		}
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testCacheWithoutStepContext() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		StepTimers.Cache cache = new StepTimers.Cache(1, meterRegistry);
+
+		StepTimers timers = cache.get(stepExecution);
+		timers.stop(timers.startSample(), "chunk.write", "Chunk writing duration", BatchMetrics.STATUS_SUCCESS);
+
+		assertSame(timers, cache.get(stepExecution));
+		assertEquals(0, cache.size());
+		assertEquals(1, meterRegistry.get("spring.batch.chunk.write").timer().count());
+		assertTrue(registry.getMeters().isEmpty());
+		// the given registry is used whatever the registry of the batch metrics
+		BatchMetrics.setMeterRegistry(new SimpleMeterRegistry());
+		assertTrue(timers.isFor(stepExecution));
+	}
+
+}
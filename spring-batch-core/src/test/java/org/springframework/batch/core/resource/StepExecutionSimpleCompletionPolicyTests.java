@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2013 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -71,4 +71,27 @@ public class StepExecutionSimpleCompletionPolicyTests extends TestCase {
 		assertFalse(policy.isComplete(context));
 	}
 
+	public void testAdaptiveCommitInterval() throws Exception {
+		JobParameters jobParameters = new JobParametersBuilder().addLong("commit.interval", 2L)
+				.addLong("commit.interval.max", 50L).toJobParameters();
+		JobExecution jobExecution = new JobExecution(jobInstance, jobParameters);
+		policy.setMaxKeyName("commit.interval.max");
+		StepExecution stepExecution = jobExecution.createStepExecution("bar");
+		policy.beforeStep(stepExecution);
+		assertTrue(policy.toString().startsWith("AdaptiveCompletionPolicy: chunkSize=2"));
+
+		RepeatContext context = policy.start(null);
+		policy.update(context);
+		assertFalse(policy.isComplete(context));
+		policy.update(context);
+		assertTrue(policy.isComplete(context));
+
+		// a rollback halves the next commit interval
+		policy.afterChunkError(null);
+		context = policy.start(null);
+		policy.update(context);
+		assertTrue(policy.isComplete(context));
+		policy.afterStep(stepExecution);
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2007 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -52,6 +52,15 @@ public class ChunkContextTests {
 		assertTrue(context.isComplete());
 	}
 
+	@Test
+	public void testDeferRetry() {
+		assertEquals(0, context.getRetryDelay());
+		context.deferRetry(10000);
+		assertTrue(context.getRetryDelay() > 9000 && context.getRetryDelay() <= 10000);
+		context.deferRetry(-1);
+		assertEquals(0, context.getRetryDelay());
+	}
+
 	@Test
 	public void testToString() {
 		String value = context.toString();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2007 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,11 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.After;
 import org.junit.Test;
 import org.springframework.batch.core.ExitStatus;
@@ -79,4 +84,36 @@ public class StepContextRepeatCallbackTests {
 		assertFalse(removedAttribute);
 	}
 
+	@Test
+	public void testDeferredRetry() throws Exception {
+		List<Object> chunks = new ArrayList<>();
+		StepContextRepeatCallback callback = new StepContextRepeatCallback(stepExecution) {
+			@Override
+			public RepeatStatus doInChunkContext(RepeatContext context, ChunkContext chunkContext) throws Exception {
+				if (chunks.isEmpty()) {
+					chunkContext.setAttribute("chunk", "deferred");
+					chunks.add("deferred");
+					chunkContext.deferRetry(100);
+					throw new IllegalStateException("Planned failure");
+				}
+				chunks.add(chunkContext.hasAttribute("chunk") ? chunkContext.getAttribute("chunk") : "new");
+				chunkContext.setComplete();
+				return RepeatStatus.FINISHED;
+			}
+		};
+		long start = System.nanoTime();
+		try {
+			callback.doInIteration(null);
+		}
+		catch (IllegalStateException e) {
+			assertEquals("Planned failure", e.getMessage());
+		}
+		// a new chunk is processed meanwhile, and the step is not finished
+		assertEquals(RepeatStatus.CONTINUABLE, callback.doInIteration(null));
+		// there are no more chunks, so the deferred one is waited for
+		assertEquals(RepeatStatus.FINISHED, callback.doInIteration(null));
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+		assertEquals(Arrays.asList("deferred", "new", "deferred"), chunks);
+	}
+
 }
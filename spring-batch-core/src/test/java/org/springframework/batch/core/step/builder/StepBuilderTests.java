@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2019 the original author or authors.
+ * Copyright 2012-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,9 +16,14 @@
 package org.springframework.batch.core.step.builder;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 import org.junit.Test;
 
 import org.springframework.batch.core.BatchStatus;
@@ -26,6 +31,8 @@ import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.StepProfile;
+import org.springframework.batch.core.StepProgress;
 import org.springframework.batch.core.annotation.AfterChunk;
 import org.springframework.batch.core.annotation.AfterChunkError;
 import org.springframework.batch.core.annotation.AfterProcess;
@@ -39,18 +46,33 @@ import org.springframework.batch.core.annotation.BeforeStep;
 import org.springframework.batch.core.annotation.BeforeWrite;
 import org.springframework.batch.core.configuration.xml.DummyItemReader;
 import org.springframework.batch.core.configuration.xml.DummyItemWriter;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.explore.support.MapJobExplorerFactoryBean;
 import org.springframework.batch.core.job.SimpleJob;
+import org.springframework.batch.core.metrics.BatchEventRecorder;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.repository.support.MapJobRepositoryFactoryBean;
+import org.springframework.batch.core.step.skip.SkippedItem;
+import org.springframework.batch.core.step.tasklet.TaskletStep;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.batch.item.support.DeduplicatingItemProcessor;
 import org.springframework.batch.item.support.ListItemReader;
 import org.springframework.batch.item.support.ListItemWriter;
 import org.springframework.batch.item.support.PassThroughItemProcessor;
+import org.springframework.batch.repeat.policy.AdaptiveCompletionPolicy;
 import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.lang.Nullable;
+import org.springframework.retry.backoff.FixedBackOffPolicy;
 import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * @author Dave Syer
@@ -247,6 +269,601 @@ public class StepBuilderTests {
 		assertEquals("3", writtenItems.get(2));
 	}
 
+	@Test
+	public void testProcessorTaskExecutor() throws Exception {
+		testProcessorTaskExecutor(false);
+		testProcessorTaskExecutor(true);
+	}
+
+	private void testProcessorTaskExecutor(boolean faultTolerant) throws Exception {
+		JobRepository jobRepository = new MapJobRepositoryFactoryBean().getObject();
+		StepExecution execution = jobRepository.createJobExecution("foo", new JobParameters()).createStepExecution("step");
+		jobRepository.add(execution);
+		PlatformTransactionManager transactionManager = new ResourcelessTransactionManager();
+
+		ListItemWriter<Integer> itemWriter = new ListItemWriter<>();
+		SimpleStepBuilder<Integer, Integer> builder = new StepBuilder("step")
+				.repository(jobRepository)
+				.transactionManager(transactionManager)
+				.<Integer, Integer>chunk(4)
+				.reader(new ListItemReader<>(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10)))
+				.processor((ItemProcessor<Integer, Integer>) item -> item % 3 == 0 ? null : item * 10)
+				.writer(itemWriter)
+				.processorTaskExecutor(new SimpleAsyncTaskExecutor());
+		if (faultTolerant) {
+			builder = builder.faultTolerant().processorNonTransactional();
+		}
+		builder.build().execute(execution);
+
+		assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+		assertEquals(Arrays.asList(10, 20, 40, 50, 70, 80, 100), itemWriter.getWrittenItems());
+		assertEquals(3, execution.getFilterCount());
+		assertEquals(7, execution.getWriteCount());
+	}
+
+	@Test
+	public void testProcessorTaskExecutorRequiresNonTransactionalProcessor() throws Exception {
+		FaultTolerantStepBuilder<Integer, Integer> builder = new StepBuilder("step")
+				.repository(new MapJobRepositoryFactoryBean().getObject())
+				.transactionManager(new ResourcelessTransactionManager())
+				.<Integer, Integer>chunk(4)
+				.reader(new ListItemReader<>(Arrays.asList(1, 2, 3)))
+				.writer(new ListItemWriter<>())
+				.processorTaskExecutor(new SimpleAsyncTaskExecutor())
+				.faultTolerant();
+		try {
+			builder.build();
+			fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			assertTrue(e.getMessage().contains("non-transactional"));
+		}
+
+		builder.processorNonTransactional().build();
+	}
+
+	@Test
+	public void testBisectingScan() throws Exception {
+		JobRepository jobRepository = new MapJobRepositoryFactoryBean().getObject();
+		StepExecution execution = jobRepository.createJobExecution("foo", new JobParameters()).createStepExecution("step");
+		jobRepository.add(execution);
+		PlatformTransactionManager transactionManager = new ResourcelessTransactionManager();
+
+		List<Integer> written = new ArrayList<>();
+		List<Integer> items = new ArrayList<>();
+		for (int i = 1; i <= 16; i++) {
+			items.add(i);
+		}
+		new StepBuilder("step")
+				.repository(jobRepository)
+				.transactionManager(transactionManager)
+				.<Integer, Integer>chunk(8)
+				.reader(new ListItemReader<>(items))
+				.writer(chunk -> {
+					if (chunk.contains(6) || chunk.contains(13)) {
+						throw new IllegalArgumentException("Planned failure!");
+					}
+					written.addAll(chunk);
+				})
+				.faultTolerant()
+				.skip(IllegalArgumentException.class)
+				.skipLimit(2)
+				.bisectingScan()
+				.build()
+				.execute(execution);
+
+		assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+		assertEquals(Arrays.asList(1, 2, 3, 4, 5, 7, 8, 9, 10, 11, 12, 14, 15, 16), written);
+		assertEquals(2, execution.getWriteSkipCount());
+		assertEquals(14, execution.getWriteCount());
+	}
+
+	@Test
+	public void testNonBlockingBackOff() throws Exception {
+		JobRepository jobRepository = new MapJobRepositoryFactoryBean().getObject();
+		StepExecution execution = jobRepository.createJobExecution("foo", new JobParameters()).createStepExecution("step");
+		jobRepository.add(execution);
+		PlatformTransactionManager transactionManager = new ResourcelessTransactionManager();
+		FixedBackOffPolicy backOffPolicy = new FixedBackOffPolicy();
+		backOffPolicy.setBackOffPeriod(100);
+
+		List<Integer> written = new ArrayList<>();
+		long start = System.currentTimeMillis();
+		new StepBuilder("step")
+				.repository(jobRepository)
+				.transactionManager(transactionManager)
+				.<Integer, Integer>chunk(1)
+				.reader(new ListItemReader<>(Arrays.asList(1, 2, 3)))
+				.writer(chunk -> {
+					if (chunk.contains(1) && !written.contains(-1)) {
+						written.add(-1);
+						throw new IllegalStateException("Planned failure!");
+					}
+					written.addAll(chunk);
+				})
+				.faultTolerant()
+				.retry(IllegalStateException.class)
+				.retryLimit(2)
+				.backOffPolicy(backOffPolicy)
+				.nonBlockingBackOff()
+				.build()
+				.execute(execution);
+
+		assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+		// the items read after the failed chunk are written during its back off
+		assertEquals(Arrays.asList(-1, 2, 3, 1), written);
+		assertEquals(3, execution.getWriteCount());
+		assertEquals(1, execution.getRollbackCount());
+		assertTrue(System.currentTimeMillis() - start >= 100);
+	}
+
+	@Test
+	public void testNonBlockingBackOffRequiresReaderStateNotSaved() throws Exception {
+		JobRepository jobRepository = new MapJobRepositoryFactoryBean().getObject();
+		AbstractItemCountingItemStreamItemReader<Integer> reader = new AbstractItemCountingItemStreamItemReader<Integer>() {
+			@Nullable
+			@Override
+			protected Integer doRead() {
+				return null;
+			}
+
+			@Override
+			protected void doOpen() {
+			}
+
+			@Override
+			protected void doClose() {
+			}
+		};
+		FaultTolerantStepBuilder<Integer, Integer> builder = new StepBuilder("step")
+				.repository(jobRepository)
+				.transactionManager(new ResourcelessTransactionManager())
+				.<Integer, Integer>chunk(1)
+				.reader(reader)
+				.writer(new ListItemWriter<>())
+				.faultTolerant()
+				.retry(IllegalStateException.class)
+				.retryLimit(2)
+				.backOffPolicy(new FixedBackOffPolicy())
+				.nonBlockingBackOff();
+
+		try {
+			builder.build();
+			fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			assertTrue(e.getMessage().contains("saveState=false"));
+		}
+		// the check can be skipped, e.g. for a reader without a saveState property
+		builder.nonBlockingBackOff(false).build();
+
+		reader.setSaveState(false);
+		builder.nonBlockingBackOff().build();
+	}
+
+	@Test
+	public void testDeduplicatingProcessorAfterRollback() throws Exception {
+		JobRepository jobRepository = new MapJobRepositoryFactoryBean().getObject();
+		StepExecution execution = jobRepository.createJobExecution("foo", new JobParameters()).createStepExecution("step");
+		jobRepository.add(execution);
+		PlatformTransactionManager transactionManager = new ResourcelessTransactionManager();
+
+		DeduplicatingItemProcessor<Integer> processor = new DeduplicatingItemProcessor<>();
+		processor.setKeyExtractor(Integer::longValue);
+		processor.setSaveState(false);
+		processor.afterPropertiesSet();
+		AtomicBoolean failed = new AtomicBoolean();
+		List<Integer> written = new ArrayList<>();
+		new StepBuilder("step")
+				.repository(jobRepository)
+				.transactionManager(transactionManager)
+				.<Integer, Integer>chunk(4)
+				.reader(new ListItemReader<>(Arrays.asList(1, 2, 3, 2, 4, 5, 6, 4)))
+				.processor(processor)
+				.writer(chunk -> {
+					if (chunk.contains(3) && !failed.getAndSet(true)) {
+						throw new IllegalStateException("Planned failure in writer!");
+					}
+					if (chunk.contains(5)) {
+						throw new IllegalArgumentException("Planned failure in writer!");
+					}
+					written.addAll(chunk);
+				})
+				.faultTolerant()
+				.retry(IllegalStateException.class)
+				.retryLimit(2)
+				.skip(IllegalArgumentException.class)
+				.skipLimit(1)
+				.build()
+				.execute(execution);
+
+		assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+		// the items processed again after a rollback are not taken for duplicates
+		assertEquals(Arrays.asList(1, 2, 3, 4, 6), written);
+		assertEquals(1, execution.getWriteSkipCount());
+	}
+
+	@Test
+	public void testDeduplicatingProcessorMustBeTransactional() throws Exception {
+		DeduplicatingItemProcessor<Integer> processor = new DeduplicatingItemProcessor<>();
+		processor.setKeyExtractor(Integer::longValue);
+		processor.setSaveState(false);
+		try {
+			new StepBuilder("step")
+					.repository(new MapJobRepositoryFactoryBean().getObject())
+					.transactionManager(new ResourcelessTransactionManager())
+					.<Integer, Integer>chunk(1)
+					.reader(new ListItemReader<>(Arrays.asList(1, 2)))
+					.processor(processor)
+					.writer(new ListItemWriter<>())
+					.faultTolerant()
+					.processorNonTransactional()
+					.build();
+			fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			assertTrue(e.getMessage().contains("must be transactional"));
+		}
+	}
+
+	@Test
+	public void testSkipSink() throws Exception {
+		JobRepository jobRepository = new MapJobRepositoryFactoryBean().getObject();
+		StepExecution execution = jobRepository.createJobExecution("foo", new JobParameters()).createStepExecution("step");
+		jobRepository.add(execution);
+		PlatformTransactionManager transactionManager = new ResourcelessTransactionManager();
+
+		List<SkippedItem> skippedItems = new ArrayList<>();
+		List<Integer> sinkCalls = new ArrayList<>();
+		new StepBuilder("step")
+				.repository(jobRepository)
+				.transactionManager(transactionManager)
+				.<Integer, Integer>chunk(3)
+				.reader(new ListItemReader<>(Arrays.asList(1, 2, 3, 4, 5, 6)))
+				.processor((ItemProcessor<Integer, Integer>) item -> {
+					if (item == 2 || item == 3) {
+						throw new IllegalArgumentException("Planned failure in processor!");
+					}
+					return item;
+				})
+				.writer(chunk -> {
+					if (chunk.contains(5)) {
+						throw new IllegalStateException("Planned failure in writer!");
+					}
+				})
+				.faultTolerant()
+				.skip(IllegalArgumentException.class)
+				.skip(IllegalStateException.class)
+				.skipLimit(3)
+				.skipSink(items -> {
+					// the skips of a chunk are written at once in its transaction
+					assertTrue(TransactionSynchronizationManager.isActualTransactionActive());
+					sinkCalls.add(items.size());
+					skippedItems.addAll(items);
+				})
+				.build()
+				.execute(execution);
+
+		assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+		// the items of the last chunk are written one by one after the write failure
+		assertEquals(Arrays.asList(2, 1), sinkCalls);
+		assertEquals(SkippedItem.Phase.PROCESS, skippedItems.get(0).getPhase());
+		assertEquals(2, skippedItems.get(0).getItem());
+		assertEquals(3, skippedItems.get(1).getItem());
+		assertEquals(SkippedItem.Phase.WRITE, skippedItems.get(2).getPhase());
+		assertEquals(5, skippedItems.get(2).getItem());
+		assertEquals("step", skippedItems.get(2).getStepName());
+		assertEquals(execution.getId(), skippedItems.get(2).getStepExecutionId());
+		assertEquals("Planned failure in writer!", skippedItems.get(2).getExceptionMessage());
+	}
+
+	@Test
+	public void testTimerSamplingInterval() throws Exception {
+		JobRepository jobRepository = new MapJobRepositoryFactoryBean().getObject();
+		StepExecution execution = jobRepository.createJobExecution("foo", new JobParameters()).createStepExecution("step");
+		jobRepository.add(execution);
+		PlatformTransactionManager transactionManager = new ResourcelessTransactionManager();
+
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		new StepBuilder("step")
+				.repository(jobRepository)
+				.transactionManager(transactionManager)
+				.<Integer, Integer>chunk(4)
+				.reader(new ListItemReader<>(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10)))
+				.processor((ItemProcessor<Integer, Integer>) item -> item)
+				.writer(new ListItemWriter<>())
+				.timerSamplingInterval(5)
+				.meterRegistry(registry)
+				.build()
+				.execute(execution);
+
+		assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+		// the 11 reads include the one returning null
+		assertEquals(3, registry.get("spring.batch.item.read").timer().count());
+		assertEquals(2, registry.get("spring.batch.item.process").timer().count());
+		assertEquals(3, registry.get("spring.batch.chunk.write").timer().count());
+	}
+
+	@Test
+	public void testFaultTolerantMeterRegistry() throws Exception {
+		JobRepository jobRepository = new MapJobRepositoryFactoryBean().getObject();
+		StepExecution execution = jobRepository.createJobExecution("foo", new JobParameters()).createStepExecution("step");
+		jobRepository.add(execution);
+		PlatformTransactionManager transactionManager = new ResourcelessTransactionManager();
+
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		new StepBuilder("step")
+				.repository(jobRepository)
+				.transactionManager(transactionManager)
+				.<Integer, Integer>chunk(4)
+				.reader(new ListItemReader<>(Arrays.asList(1, 2, 3, 4, 5)))
+				.processor((ItemProcessor<Integer, Integer>) item -> item)
+				.writer(new ListItemWriter<>())
+				.meterRegistry(registry)
+				.faultTolerant()
+				.build()
+				.execute(execution);
+
+		assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+		assertEquals(6, registry.get("spring.batch.item.read").timer().count());
+		assertEquals(5, registry.get("spring.batch.item.process").timer().count());
+		assertEquals(2, registry.get("spring.batch.chunk.write").timer().count());
+	}
+
+	@Test
+	public void testProfile() throws Exception {
+		JobRepository jobRepository = new MapJobRepositoryFactoryBean().getObject();
+		StepExecution execution = jobRepository.createJobExecution("foo", new JobParameters()).createStepExecution("step");
+		jobRepository.add(execution);
+		PlatformTransactionManager transactionManager = new ResourcelessTransactionManager();
+
+		new StepBuilder("step")
+				.repository(jobRepository)
+				.transactionManager(transactionManager)
+				.<Integer, Integer>chunk(4)
+				.reader(new ListItemReader<>(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10)))
+				.writer(new ListItemWriter<>())
+				.saveProfile()
+				.build()
+				.execute(execution);
+
+		assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+		StepProfile profile = execution.getProfile();
+		for (StepProfile.Phase phase : StepProfile.Phase.values()) {
+			assertEquals(phase.name(), 3, profile.getCount(phase));
+		}
+		assertEquals(profile.getSummary(), execution.getExecutionContext().getString(TaskletStep.PROFILE_KEY));
+	}
+
+	@Test
+	public void testTrackProgress() throws Exception {
+		MapJobRepositoryFactoryBean repositoryFactory = new MapJobRepositoryFactoryBean();
+		JobRepository jobRepository = repositoryFactory.getObject();
+		StepExecution execution = jobRepository.createJobExecution("foo", new JobParameters()).createStepExecution("step");
+		jobRepository.add(execution);
+		PlatformTransactionManager transactionManager = new ResourcelessTransactionManager();
+
+		new StepBuilder("step")
+				.repository(jobRepository)
+				.transactionManager(transactionManager)
+				.<Integer, Integer>chunk(4)
+				.reader(new ListItemReader<>(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10)))
+				.writer(new ListItemWriter<>())
+				.trackProgress()
+				.build()
+				.execute(execution);
+
+		assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+		JobExplorer jobExplorer = new MapJobExplorerFactoryBean(repositoryFactory).getObject();
+		StepProgress progress = jobExplorer.getStepProgress(execution.getJobExecutionId(), execution.getId());
+		assertEquals(1, progress.getProgress(), 0);
+		assertEquals(0, progress.getRemaining(), 0);
+	}
+
+	@Test
+	public void testEventRecorder() throws Exception {
+		JobRepository jobRepository = new MapJobRepositoryFactoryBean().getObject();
+		StepExecution execution = jobRepository.createJobExecution("foo", new JobParameters()).createStepExecution("step");
+		jobRepository.add(execution);
+		PlatformTransactionManager transactionManager = new ResourcelessTransactionManager();
+		BatchEventRecorder recorder = new BatchEventRecorder();
+		List<Integer> failed = new ArrayList<>();
+
+		new StepBuilder("step")
+				.repository(jobRepository)
+				.transactionManager(transactionManager)
+				.eventRecorder(recorder)
+				.<Integer, Integer>chunk(4)
+				.reader(new ListItemReader<>(Arrays.asList(1, 2, 3, 4, 5, 6)))
+				.processor((ItemProcessor<Integer, Integer>) item -> {
+					if (item == 2 && !failed.contains(item)) {
+						failed.add(item);
+						throw new IllegalStateException("retry " + item);
+					}
+					return item;
+				})
+				.writer(items -> {
+					if (items.contains(5)) {
+						throw new IllegalArgumentException("skip 5");
+					}
+				})
+				.faultTolerant()
+				.retry(IllegalStateException.class)
+				.retryLimit(2)
+				.skip(IllegalArgumentException.class)
+				.skipLimit(1)
+				.build()
+				.execute(execution);
+
+		assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+		List<BatchEventRecorder.Event> events = recorder.getEvents(execution.getJobExecutionId());
+		assertEquals(1, count(events, BatchEventRecorder.Type.STEP));
+		assertEquals(1, count(events, BatchEventRecorder.Type.SKIP));
+		// the processing of 2 is retried, the writing of 5 is recovered by a skip
+		assertEquals(2, count(events, BatchEventRecorder.Type.RETRY));
+		assertEquals(count(events, BatchEventRecorder.Type.CHUNK) - execution.getCommitCount(),
+				count(events, BatchEventRecorder.Type.ROLLBACK));
+		assertEquals(execution.getRollbackCount(), count(events, BatchEventRecorder.Type.ROLLBACK));
+		assertEquals(execution.getCommitCount(), count(events, BatchEventRecorder.Type.REPOSITORY));
+	}
+
+	private long count(List<BatchEventRecorder.Event> events, BatchEventRecorder.Type type) {
+		return events.stream().filter(event -> event.getType() == type).count();
+	}
+
+	@Test
+	public void testPipelineTaskExecutor() throws Exception {
+		testPipelineTaskExecutor(false);
+		testPipelineTaskExecutor(true);
+	}
+
+	private void testPipelineTaskExecutor(boolean faultTolerant) throws Exception {
+		JobRepository jobRepository = new MapJobRepositoryFactoryBean().getObject();
+		StepExecution execution = jobRepository.createJobExecution("foo", new JobParameters()).createStepExecution("step");
+		jobRepository.add(execution);
+		PlatformTransactionManager transactionManager = new ResourcelessTransactionManager();
+
+		List<Integer> items = Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+		ListItemWriter<Integer> itemWriter = new ListItemWriter<>();
+		SimpleStepBuilder<Integer, Integer> builder = new StepBuilder("step")
+				.repository(jobRepository)
+				.transactionManager(transactionManager)
+				.<Integer, Integer>chunk(3)
+				.reader(new ListItemReader<>(items))
+				.writer(itemWriter)
+				.pipelineTaskExecutor(new SimpleAsyncTaskExecutor());
+		if (faultTolerant) {
+			builder = builder.faultTolerant();
+		}
+		builder.build().execute(execution);
+
+		assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+		assertEquals(items, itemWriter.getWrittenItems());
+		assertEquals(10, execution.getReadCount());
+		assertEquals(10, execution.getWriteCount());
+		assertEquals(4, execution.getCommitCount());
+	}
+
+	@Test
+	public void testPipelinedStepRestartedAfterReadAhead() throws Exception {
+		testPipelinedStepRestartedAfterReadAhead(false);
+		testPipelinedStepRestartedAfterReadAhead(true);
+	}
+
+	private void testPipelinedStepRestartedAfterReadAhead(boolean faultTolerant) throws Exception {
+		JobRepository jobRepository = new MapJobRepositoryFactoryBean().getObject();
+		StepExecution execution = jobRepository.createJobExecution("foo", new JobParameters()).createStepExecution("step");
+		jobRepository.add(execution);
+
+		List<Integer> items = Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+		AtomicInteger opened = new AtomicInteger();
+		AbstractItemCountingItemStreamItemReader<Integer> reader = new AbstractItemCountingItemStreamItemReader<Integer>() {
+			@Nullable
+			@Override
+			protected Integer doRead() {
+				return getCurrentItemCount() <= items.size() ? items.get(getCurrentItemCount() - 1) : null;
+			}
+
+			@Override
+			protected void doOpen() {
+				opened.incrementAndGet();
+			}
+
+			@Override
+			protected void doClose() {
+			}
+		};
+		reader.setName("reader");
+		AtomicBoolean failed = new AtomicBoolean();
+		List<Integer> written = new ArrayList<>();
+		SimpleStepBuilder<Integer, Integer> builder = new StepBuilder("step")
+				.repository(jobRepository)
+				.transactionManager(new ResourcelessTransactionManager())
+				.<Integer, Integer>chunk(3)
+				.reader(reader)
+				.writer(chunk -> {
+					if (chunk.contains(7) && failed.compareAndSet(false, true)) {
+						throw new IllegalStateException("Planned failure in writer!");
+					}
+					written.addAll(chunk);
+				})
+				.pipelineTaskExecutor(new SimpleAsyncTaskExecutor());
+		// the reader is also registered explicitly, it must still only be a stream of the chunk provider
+		builder.stream(reader);
+		if (faultTolerant) {
+			builder = builder.faultTolerant();
+		}
+		TaskletStep step = builder.build();
+		step.execute(execution);
+
+		assertEquals(BatchStatus.FAILED, execution.getStatus());
+		assertEquals(1, opened.get());
+		assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6), written);
+		// the state saved is the one of the last chunk committed, not the one after the items read ahead
+		assertEquals(6, execution.getExecutionContext().getInt("reader.read.count"));
+
+		StepExecution restarted = jobRepository.createJobExecution("bar", new JobParameters())
+				.createStepExecution("step");
+		restarted.setExecutionContext(new ExecutionContext(execution.getExecutionContext()));
+		jobRepository.add(restarted);
+		step.execute(restarted);
+
+		assertEquals(BatchStatus.COMPLETED, restarted.getStatus());
+		assertEquals(2, opened.get());
+		assertEquals(items, written);
+	}
+
+	@Test
+	public void testAdaptiveCompletionPolicy() throws Exception {
+		JobRepository jobRepository = new MapJobRepositoryFactoryBean().getObject();
+		StepExecution execution = jobRepository.createJobExecution("foo", new JobParameters()).createStepExecution("step");
+		jobRepository.add(execution);
+		PlatformTransactionManager transactionManager = new ResourcelessTransactionManager();
+
+		AdaptiveCompletionPolicy completionPolicy = new AdaptiveCompletionPolicy(1, 5);
+		// grow the chunk size, which the step resets
+		completionPolicy.update(completionPolicy.start(null));
+		completionPolicy.start(null);
+		assertEquals(5, completionPolicy.getChunkSize());
+
+		List<Integer> chunkSizes = new ArrayList<>();
+		new StepBuilder("step")
+				.repository(jobRepository)
+				.transactionManager(transactionManager)
+				.<Integer, Integer>chunk(completionPolicy)
+				.reader(new ListItemReader<>(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10)))
+				.writer(items -> chunkSizes.add(items.size()))
+				.build()
+				.execute(execution);
+
+		assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+		assertEquals(10, execution.getWriteCount());
+		assertEquals(Integer.valueOf(1), chunkSizes.get(0));
+	}
+
+	@Test
+	public void testChunkByteBudget() throws Exception {
+		JobRepository jobRepository = new MapJobRepositoryFactoryBean().getObject();
+		StepExecution execution = jobRepository.createJobExecution("foo", new JobParameters()).createStepExecution("step");
+		jobRepository.add(execution);
+		PlatformTransactionManager transactionManager = new ResourcelessTransactionManager();
+
+		List<Integer> chunkSizes = new ArrayList<>();
+		new StepBuilder("step")
+				.repository(jobRepository)
+				.transactionManager(transactionManager)
+				.<String, String>chunk(3)
+				.chunkByteBudget(10, String::length)
+				.reader(new ListItemReader<>(Arrays.asList("a", "b", "c", "d", "0123456789", "e", "abcdef", "ghijkl")))
+				.writer(items -> chunkSizes.add(items.size()))
+				.build()
+				.execute(execution);
+
+		assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+		assertEquals(8, execution.getWriteCount());
+		assertEquals(Arrays.asList(3, 2, 3), chunkSizes);
+	}
+
 	public static class InterfaceBasedStepExecutionListener implements StepExecutionListener {
 
 		static int beforeStepCount = 0;
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core.step.item;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.metrics.BatchMetrics;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.context.RetryContextSupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link BoundedRetryContextCache}.
+ */
+public class BoundedRetryContextCacheTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private final JobExecution jobExecution = new JobExecution(new JobInstance(1L, "job"), new JobParameters());
+
+	@Before
+	public void setUp() {
+		BatchMetrics.setMeterRegistry(registry);
+	}
+
+	@After
+	public void tearDown() {
+		BatchMetrics.setMeterRegistry(Metrics.globalRegistry);
+	}
+
+	@Test
+	public void testPutAndGet() {
+		BoundedRetryContextCache cache = new BoundedRetryContextCache();
+		RetryContext context = new RetryContextSupport(null);
+
+		assertFalse(cache.containsKey("foo"));
+		cache.put("foo", context);
+
+		assertTrue(cache.containsKey("foo"));
+		assertSame(context, cache.get("foo"));
+		assertNull(cache.get("bar"));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		cache.remove("foo");
+		assertFalse(cache.containsKey("foo"));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedContextsAreEvicted() {
+		BoundedRetryContextCache cache = new BoundedRetryContextCache(2, 1);
+		cache.put("foo", new RetryContextSupport(null));
+		cache.put("bar", new RetryContextSupport(null));
+		cache.get("foo");
+
+		cache.put("spam", new RetryContextSupport(null));
+
+		assertEquals(2, cache.size());
+		assertTrue(cache.containsKey("foo"));
+		assertFalse(cache.containsKey("bar"));
+		assertTrue(cache.containsKey("spam"));
+		assertEquals(1, cache.getEvictionCount());
+	}
+
+	@Test
+	public void testCapacityIsSharedBySegments() {
+		BoundedRetryContextCache cache = new BoundedRetryContextCache(64, 5);
+		for (int i = 0; i < 1000; i++) {
+			cache.put(i, new RetryContextSupport(null));
+		}
+
+		// 8 segments of 8 contexts
+		assertEquals(64, cache.size());
+		assertEquals(1000 - 64, cache.getEvictionCount());
+	}
+
+	@Test
+	public void testScopedToStepExecutions() {
+		BoundedRetryContextCache cache = new BoundedRetryContextCache();
+		StepExecution first = jobExecution.createStepExecution("step");
+		StepExecution second = jobExecution.createStepExecution("step");
+
+		cache.beforeStep(first);
+		cache.beforeStep(second);
+		cache.put("foo", new RetryContextSupport(null));
+		cache.get("foo");
+		cache.afterStep(first);
+
+		assertEquals(1, cache.size());
+		assertEquals(1, registry.get("spring.batch.retry.cache.hits").tag("job.name", "job").tag("step.name", "step")
+				.tag("cache.name", "retry")
+				.functionCounter().count(), 0.001);
+		assertEquals(1, registry.get("spring.batch.retry.cache.size").gauge().value(), 0.001);
+
+		cache.afterStep(second);
+
+		assertEquals(0, cache.size());
+		assertTrue(registry.getMeters().isEmpty());
+		cache.afterStep(second);
+	}
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core.step.item;
+
+import org.junit.Test;
+
+import org.springframework.util.SerializationUtils;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for {@link DeferringSleeper}.
+ */
+public class DeferringSleeperTests {
+
+	private final DeferringSleeper sleeper = new DeferringSleeper();
+
+	@Test
+	public void testBackOffPeriodsAdded() {
+		sleeper.sleep(100);
+		sleeper.sleep(200);
+
+		assertEquals(300, sleeper.takeBackOffPeriod());
+		assertEquals(0, sleeper.takeBackOffPeriod());
+	}
+
+	@Test
+	public void testSerialization() {
+		sleeper.sleep(100);
+
+		DeferringSleeper copy = (DeferringSleeper) SerializationUtils.deserialize(SerializationUtils.serialize(sleeper));
+
+		// the periods recorded are not serialized
+		assertEquals(0, copy.takeBackOffPeriod());
+		copy.sleep(200);
+		assertEquals(200, copy.takeBackOffPeriod());
+		assertEquals(100, sleeper.takeBackOffPeriod());
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2008-2019 the original author or authors.
+ * Copyright 2008-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,12 +17,17 @@ package org.springframework.batch.core.step.item;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -32,12 +37,15 @@ import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.StepContribution;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.listener.ItemListenerSupport;
+import org.springframework.batch.core.listener.SkipListenerSupport;
 import org.springframework.batch.core.step.skip.AlwaysSkipItemSkipPolicy;
 import org.springframework.batch.core.step.skip.LimitCheckingItemSkipPolicy;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.support.LookupItemProcessor;
 import org.springframework.batch.item.support.PassThroughItemProcessor;
 import org.springframework.classify.BinaryExceptionClassifier;
+import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.lang.Nullable;
 import org.springframework.retry.RetryException;
@@ -640,6 +648,165 @@ public class FaultTolerantChunkProcessorTests {
 		assertEquals("[1, 2, skip, skip, 3, fail, fail, 4, 5]", processedItems.toString());
 	}
 
+	@Test
+	public void testProcessSkipWithFailedChunkLookup() throws Exception {
+		final List<List<String>> lookups = new ArrayList<>();
+		LookupItemProcessor<String, String, String, String> lookupProcessor = new LookupItemProcessor<>();
+		lookupProcessor.setKeyExtractor(item -> item);
+		lookupProcessor.setLoader(keys -> {
+			lookups.add(new ArrayList<>(keys));
+			if (keys.contains("fail")) {
+				throw new IllegalArgumentException("Expected Skippable Exception!");
+			}
+			Map<String, String> values = new HashMap<>();
+			keys.forEach(key -> values.put(key, key + "!"));
+			return values;
+		});
+		lookupProcessor.setCombiner((item, value) -> value);
+		lookupProcessor.afterPropertiesSet();
+		processor.setItemProcessor(lookupProcessor);
+		processor.setProcessSkipPolicy(new AlwaysSkipItemSkipPolicy());
+		processor.afterPropertiesSet();
+
+		Chunk<String> inputs = new Chunk<>(Arrays.asList("1", "fail", "2"));
+		try {
+			processor.process(contribution, inputs);
+			fail("Expected IllegalArgumentException");
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals("Expected Skippable Exception!", e.getMessage());
+		}
+		processor.process(contribution, inputs);
+
+		assertEquals("[1!, 2!]", list.toString());
+		assertEquals(1, contribution.getProcessSkipCount());
+		// the failed chunk lookups are followed by item lookups to find the item to skip
+		assertEquals("[[1, fail, 2], [1], [fail], [1, fail, 2], [1], [2]]", lookups.toString());
+	}
+
+	@Test
+	public void testProcessSkipWithConcurrentProcessing() throws Exception {
+		final List<String> processed = Collections.synchronizedList(new ArrayList<>());
+		processor.setItemProcessor(new ItemProcessor<String, String>() {
+			@Nullable
+			@Override
+			public String process(String item) throws Exception {
+				processed.add(item);
+				if (item.equals("fail")) {
+					throw new IllegalArgumentException("Expected Skippable Exception!");
+				}
+				return item.equals("skip") ? null : item;
+			}
+		});
+		processor.setProcessSkipPolicy(new AlwaysSkipItemSkipPolicy());
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		processor.setTaskExecutor(new TaskExecutorAdapter(executor));
+		processor.afterPropertiesSet();
+
+		Chunk<String> inputs = new Chunk<>(Arrays.asList("1", "fail", "skip", "2"));
+		try {
+			processor.process(contribution, inputs);
+			fail("Expected IllegalArgumentException");
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals("Expected Skippable Exception!", e.getMessage());
+		}
+		// the items after the failed one were not processed the first time
+		assertEquals(Arrays.asList("1", "fail"), processed);
+		processor.process(contribution, inputs);
+		executor.shutdown();
+
+		assertEquals("[1, 2]", list.toString());
+		assertEquals(1, contribution.getProcessSkipCount());
+		assertEquals(1, contribution.getFilterCount());
+		// the failed item is skipped without being processed again
+		assertEquals(1, Collections.frequency(processed, "fail"));
+		assertEquals(5, processed.size());
+	}
+
+	@Test
+	public void testWriteSkipWithBisectingScan() throws Exception {
+		final List<String> writes = new ArrayList<>();
+		final List<String> skips = new ArrayList<>();
+		processor.setItemWriter(new ItemWriter<String>() {
+			@Override
+			public void write(List<? extends String> items) throws Exception {
+				writes.add(items.toString());
+				if (items.contains("fail")) {
+					throw new RuntimeException("Planned failure!");
+				}
+				list.addAll(items);
+			}
+		});
+		processor.setListeners(Arrays.asList(new SkipListenerSupport<String, String>() {
+			@Override
+			public void onSkipInWrite(String item, Throwable t) {
+				skips.add(item);
+			}
+		}));
+		processor.setWriteSkipPolicy(new AlwaysSkipItemSkipPolicy());
+		processor.setBisectingScan(true);
+
+		Chunk<String> chunk = new Chunk<>(Arrays.asList("1", "2", "3", "4", "5", "fail", "7", "8"));
+		assertEquals(6, processUntilComplete(chunk));
+
+		assertEquals("[[1, 2, 3, 4, 5, fail, 7, 8], [1, 2, 3, 4], [5, fail], [5], [fail], [7, 8]]",
+				writes.toString());
+		assertEquals("[1, 2, 3, 4, 5, 7, 8]", list.toString());
+		assertEquals("[fail]", skips.toString());
+		assertEquals(1, contribution.getWriteSkipCount());
+		assertEquals(7, contribution.getWriteCount());
+	}
+
+	@Test
+	public void testWriteSkipsWithBisectingScanMatchItemByItemScan() throws Exception {
+		List<String> items = new ArrayList<>();
+		for (int i = 0; i < 64; i++) {
+			items.add(i % 20 == 7 ? "fail" : String.valueOf(i));
+		}
+		final List<String> skips = new ArrayList<>();
+		processor.setListeners(Arrays.asList(new SkipListenerSupport<String, String>() {
+			@Override
+			public void onSkipInWrite(String item, Throwable t) {
+				skips.add(item);
+			}
+		}));
+		processor.setWriteSkipPolicy(new AlwaysSkipItemSkipPolicy());
+
+		int itemByItemTransactions = processUntilComplete(new Chunk<>(items));
+		List<String> itemByItem = new ArrayList<>(list);
+		list.clear();
+		processor.setBisectingScan(true);
+		int bisectingTransactions = processUntilComplete(new Chunk<>(items));
+
+		assertEquals(itemByItem, list);
+		assertEquals("[fail, fail, fail, fail, fail, fail]", skips.toString());
+		assertEquals(6, contribution.getWriteSkipCount());
+		assertEquals(2 * 61, contribution.getWriteCount());
+		assertEquals(65, itemByItemTransactions);
+		assertEquals(25, bisectingTransactions);
+	}
+
+	/**
+	 * Process a chunk in as many transactions as needed.
+	 *
+	 * @return the number of transactions
+	 */
+	private int processUntilComplete(Chunk<String> chunk) throws Exception {
+		int transactions = 0;
+		while (transactions < 1000 && (transactions == 0 || !processor.isComplete(chunk))) {
+			transactions++;
+			try {
+				processor.process(contribution, chunk);
+			}
+			catch (RuntimeException e) {
+				assertEquals("Planned failure!", e.getMessage());
+			}
+		}
+		assertTrue(processor.isComplete(chunk));
+		return transactions;
+	}
+
 	protected void processAndExpectPlannedRuntimeException(Chunk<String> chunk)
 			throws Exception {
 		try {
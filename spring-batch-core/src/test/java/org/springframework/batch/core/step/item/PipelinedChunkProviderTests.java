@@ -0,0 +1,152 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core.step.item;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+import org.springframework.batch.repeat.support.RepeatTemplate;
+import org.springframework.core.task.SyncTaskExecutor;
+
+public class PipelinedChunkProviderTests {
+
+	private StepExecution stepExecution = new StepExecution("foo", new JobExecution(new JobInstance(123L, "job"),
+			new JobParameters()));
+
+	private ExecutionContext executionContext = new ExecutionContext();
+
+	private StringReader reader = new StringReader(Arrays.asList("a", "b", "c", "d", "e"));
+
+	private PipelinedChunkProvider<String> provider;
+
+	@Before
+	public void setUp() {
+		RepeatTemplate repeatTemplate = new RepeatTemplate();
+		repeatTemplate.setCompletionPolicy(new SimpleCompletionPolicy(2));
+		// a synchronous executor reads the next chunk before the current one is returned
+		provider = new PipelinedChunkProvider<>(new SimpleChunkProvider<>(reader, repeatTemplate),
+				new SyncTaskExecutor());
+		provider.registerItemStream(reader);
+		provider.open(executionContext);
+	}
+
+	@Test
+	public void testProvide() throws Exception {
+		StepContribution contribution = stepExecution.createStepContribution();
+		assertEquals(Arrays.asList("a", "b"), provider.provide(contribution).getItems());
+		assertEquals(2, contribution.getReadCount());
+
+		contribution = stepExecution.createStepContribution();
+		assertEquals(Arrays.asList("c", "d"), provider.provide(contribution).getItems());
+		assertEquals(2, contribution.getReadCount());
+
+		contribution = stepExecution.createStepContribution();
+		Chunk<String> chunk = provider.provide(contribution);
+		assertEquals(Arrays.asList("e"), chunk.getItems());
+		assertTrue(chunk.isEnd());
+		assertEquals(1, contribution.getReadCount());
+		provider.close();
+	}
+
+	@Test
+	public void testUpdateSavesTheStateOfTheCurrentChunk() throws Exception {
+		provider.provide(stepExecution.createStepContribution());
+		provider.update(executionContext);
+		assertEquals(2, executionContext.getInt("reader.read.count"));
+
+		provider.provide(stepExecution.createStepContribution());
+		provider.update(executionContext);
+		assertEquals(4, executionContext.getInt("reader.read.count"));
+		provider.close();
+
+		// the restarted reader reads the chunk read ahead again
+		reader = new StringReader(Arrays.asList("a", "b", "c", "d", "e"));
+		setUp();
+		Chunk<String> chunk = provider.provide(stepExecution.createStepContribution());
+		assertEquals(Arrays.asList("e"), chunk.getItems());
+		provider.close();
+	}
+
+	@Test
+	public void testReadAheadFailure() throws Exception {
+		reader.failOn = "c";
+		assertEquals(Arrays.asList("a", "b"), provider.provide(stepExecution.createStepContribution()).getItems());
+		try {
+			provider.provide(stepExecution.createStepContribution());
+			fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			assertEquals("Planned failure", e.getMessage());
+		}
+		provider.update(executionContext);
+		assertEquals(2, executionContext.getInt("reader.read.count"));
+		provider.close();
+		assertFalse(reader.open);
+	}
+
+	private static class StringReader extends AbstractItemCountingItemStreamItemReader<String> {
+
+		private final List<String> items;
+
+		private String failOn;
+
+		private boolean open;
+
+		private StringReader(List<String> items) {
+			this.items = items;
+			setName("reader");
+		}
+
+		@Override
+		protected String doRead() throws Exception {
+			if (getCurrentItemCount() > items.size()) {
+				return null;
+			}
+			String item = items.get(getCurrentItemCount() - 1);
+			if (item.equals(failOn)) {
+				throw new IllegalStateException("Planned failure");
+			}
+			return item;
+		}
+
+		@Override
+		protected void doOpen() throws Exception {
+			open = true;
+		}
+
+		@Override
+		protected void doClose() throws Exception {
+			open = false;
+		}
+
+	}
+
+}
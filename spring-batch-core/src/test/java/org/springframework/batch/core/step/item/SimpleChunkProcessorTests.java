@@ -1,5 +1,5 @@
 /*
- * Copyright 2008-2019 the original author or authors.
+ * Copyright 2008-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,10 +16,18 @@
 package org.springframework.batch.core.step.item;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -28,9 +36,14 @@ import org.springframework.batch.core.JobInstance;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.StepContribution;
 import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ChunkAwareItemProcessor;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.support.LookupItemProcessor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.lang.Nullable;
+import org.springframework.test.util.ReflectionTestUtils;
 
 public class SimpleChunkProcessorTests {
 
@@ -76,4 +89,171 @@ public class SimpleChunkProcessorTests {
 		assertEquals(2, contribution.getWriteCount());
 	}
 
+	@Test
+	public void testTimersForgottenAtStepEnd() throws Exception {
+		StepSynchronizationManager.register(contribution.getStepExecution());
+		try {
+			Chunk<String> chunk = new Chunk<>();
+			chunk.add("foo");
+			processor.process(contribution, chunk);
+			assertEquals(1, getCachedStepTimers().size());
+		}
+		finally {
+			// the step context is closed when the step ends
+			StepSynchronizationManager.release();
+		}
+		assertTrue(getCachedStepTimers().isEmpty());
+	}
+
+	private Map<?, ?> getCachedStepTimers() {
+		return (Map<?, ?>) ReflectionTestUtils.getField(ReflectionTestUtils.getField(processor, "stepTimers"), "timers");
+	}
+
+	@Test
+	public void testProcessWithChunkAwareItemProcessor() throws Exception {
+		final List<String> prepared = new ArrayList<>();
+		final List<String> released = new ArrayList<>();
+		processor.setItemProcessor(new ChunkAwareItemProcessor<String, String>() {
+			@Override
+			public void prepare(List<? extends String> items) throws Exception {
+				prepared.addAll(items);
+			}
+
+			@Override
+			public void release() {
+				released.addAll(prepared);
+			}
+
+			@Nullable
+			@Override
+			public String process(String item) throws Exception {
+				return prepared.contains(item) ? item.toUpperCase() : item;
+			}
+		});
+		Chunk<String> chunk = new Chunk<>();
+		chunk.add("foo");
+		chunk.add("bar");
+		processor.process(contribution, chunk);
+		assertEquals(Arrays.asList("foo", "bar"), prepared);
+		assertEquals(Arrays.asList("FOO", "BAR"), list);
+		// released once the items are processed
+		assertEquals(prepared, released);
+	}
+
+	@Test
+	public void testChunkAwareItemProcessorNotProcessedConcurrently() throws Exception {
+		LookupItemProcessor<String, String, String, String> lookupProcessor = new LookupItemProcessor<>();
+		lookupProcessor.setKeyExtractor(item -> item);
+		lookupProcessor.setLoader(keys -> Collections.emptyMap());
+		lookupProcessor.setCombiner((item, value) -> item);
+		TaskExecutorAdapter taskExecutor = new TaskExecutorAdapter(Runnable::run);
+
+		processor.setItemProcessor(lookupProcessor);
+		try {
+			processor.setTaskExecutor(taskExecutor);
+			fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			assertTrue(e.getMessage().contains("ChunkAwareItemProcessor"));
+		}
+
+		SimpleChunkProcessor<String, String> concurrentProcessor = new SimpleChunkProcessor<>(null, list::addAll);
+		concurrentProcessor.setTaskExecutor(taskExecutor);
+		try {
+			concurrentProcessor.setItemProcessor(lookupProcessor);
+			fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			assertTrue(e.getMessage().contains("ChunkAwareItemProcessor"));
+		}
+	}
+
+	@Test
+	public void testProcessConcurrently() throws Exception {
+		final Set<String> threads = ConcurrentHashMap.newKeySet();
+		processor.setItemProcessor(new ItemProcessor<String, String>() {
+			@Nullable
+			@Override
+			public String process(String item) throws Exception {
+				threads.add(Thread.currentThread().getName());
+				// the first items finish last
+				Thread.sleep(10L * (5 - item.length()));
+				return item.startsWith("err") ? null : item;
+			}
+		});
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		processor.setTaskExecutor(new TaskExecutorAdapter(executor));
+		try {
+			Chunk<String> chunk = new Chunk<>(Arrays.asList("a", "bb", "err", "dddd"));
+			processor.process(contribution, chunk);
+		}
+		finally {
+			executor.shutdown();
+		}
+		assertEquals(Arrays.asList("a", "bb", "dddd"), list);
+		assertEquals(1, contribution.getFilterCount());
+		assertEquals(3, contribution.getWriteCount());
+		assertTrue(!threads.contains(Thread.currentThread().getName()));
+	}
+
+	@Test
+	public void testItemsAfterFailureNotProcessedConcurrently() throws Exception {
+		final List<String> processed = Collections.synchronizedList(new ArrayList<>());
+		processor.setItemProcessor(new ItemProcessor<String, String>() {
+			@Nullable
+			@Override
+			public String process(String item) throws Exception {
+				processed.add(item);
+				if (item.equals("fail")) {
+					throw new IllegalStateException(item);
+				}
+				return item;
+			}
+		});
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		processor.setTaskExecutor(new TaskExecutorAdapter(executor));
+		Chunk<String> chunk = new Chunk<>(Arrays.asList("foo", "fail", "bar", "spam"));
+		try {
+			processor.process(contribution, chunk);
+			fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			assertEquals("fail", e.getMessage());
+		}
+		finally {
+			executor.shutdown();
+		}
+		assertEquals(Arrays.asList("foo", "fail"), processed);
+		assertTrue(list.isEmpty());
+	}
+
+	@Test
+	public void testProcessConcurrentlyRethrowsFirstFailure() throws Exception {
+		processor.setItemProcessor(new ItemProcessor<String, String>() {
+			@Nullable
+			@Override
+			public String process(String item) throws Exception {
+				if (item.startsWith("fail")) {
+					throw new IllegalStateException(item);
+				}
+				return item;
+			}
+		});
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		processor.setTaskExecutor(new TaskExecutorAdapter(executor));
+		Chunk<String> chunk = new Chunk<>(Arrays.asList("foo", "fail1", "bar", "fail2"));
+		try {
+			processor.process(contribution, chunk);
+			fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			assertEquals("fail1", e.getMessage());
+		}
+		finally {
+			executor.shutdown();
+		}
+		assertTrue(chunk.isEmpty());
+		assertTrue(list.isEmpty());
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2019 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -753,6 +753,40 @@ public class TaskletStepTests {
 		assertEquals("Bar", ex.getMessage());
 	}
 
+	@SuppressWarnings("serial")
+	@Test
+	public void testStepExecutionRevertedForCommitFailedException() throws Exception {
+
+		step.setStepOperations(new RepeatTemplate());
+		step.setTransactionManager(new ResourcelessTransactionManager() {
+			private int commits = 0;
+			@Override
+			protected void doCommit(DefaultTransactionStatus status) throws TransactionException {
+				if (++commits == 2) {
+					throw new RuntimeException("Foo");
+				}
+			}
+		});
+		step.setStreams(new ItemStream[] { new ItemStreamSupport() {
+			private int updates = 0;
+			@Override
+			public void update(ExecutionContext executionContext) throws ItemStreamException {
+				executionContext.putInt("updates", ++updates);
+			}
+		} });
+
+		JobExecution jobExecutionContext = new JobExecution(jobInstance, jobParameters);
+		StepExecution stepExecution = new StepExecution(step.getName(), jobExecutionContext);
+
+		step.execute(stepExecution);
+		assertEquals(BatchStatus.FAILED, stepExecution.getStatus());
+		assertEquals("Foo", stepExecution.getFailureExceptions().get(0).getMessage());
+		assertEquals(1, stepExecution.getCommitCount());
+		assertEquals(1, stepExecution.getWriteCount());
+		assertEquals(1, stepExecution.getRollbackCount());
+		assertEquals(2, stepExecution.getExecutionContext().getInt("updates"));
+	}
+
 	@Test
 	public void testStatusForFinalUpdateFailedException() throws Exception {
 
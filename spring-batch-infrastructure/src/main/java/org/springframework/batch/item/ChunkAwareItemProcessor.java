@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.item;
+
+import java.util.List;
+
+/**
+ * Extension of the {@link ItemProcessor} that is given all the items of a chunk
+ * before they are processed one by one, for example to load the reference data
+ * needed by the whole chunk with a single query instead of one query per item.
+ *
+ * <p>
+ * {@link #prepare(List)} is only an optimization: {@link #process(Object)} must
+ * still produce the right result for an item that was not prepared, since a step
+ * processes failed items again on their own to apply skip and retry policies
+ * item by item. An exception thrown by {@link #prepare(List)} is therefore not
+ * fatal, the items are then processed without preparation.
+ * </p>
+ *
+ * @param <I> type of input item
+ * @param <O> type of output item
+ * @since 4.3
+ */
+public interface ChunkAwareItemProcessor<I, O> extends ItemProcessor<I, O> {
+
+	/**
+	 * Prepare the processing of the given items, which are then passed to
+	 * {@link #process(Object)} in the same order, on the same thread.
+	 *
+	 * @param items the items about to be processed
+	 * @throws Exception if the preparation fails
+	 */
+	void prepare(List<? extends I> items) throws Exception;
+
+	/**
+	 * Release what was prepared on the current thread, once the prepared items
+	 * are processed, whether their processing succeeded or not. Does nothing by
+	 * default.
+	 */
+	default void release() {
+	}
+
+}
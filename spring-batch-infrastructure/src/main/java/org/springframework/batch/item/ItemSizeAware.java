@@ -0,0 +1,34 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.item;
+
+/**
+ * Interface of the items able to tell their size, for example the length of the
+ * content of a document, used to estimate the memory retained by the items of a
+ * chunk.
+ *
+ * @since 4.3
+ * @see org.springframework.batch.repeat.policy.DefaultItemSizeEstimator
+ */
+public interface ItemSizeAware {
+
+	/**
+	 * @return the estimated size of the item in bytes
+	 */
+	long getItemSize();
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.item;
+
+/**
+ * Interface for readers that know the total size of their input, so that the
+ * progress of the step reading them can be reported.
+ *
+ * <p>
+ * The size can be counted in items or in any unit growing with the items read,
+ * like the bytes of a file: only the ratio of the completed work to the total
+ * work is meaningful. Both are read by the thread reading the items, after a
+ * chunk, so implementations do not need to be thread-safe.
+ * </p>
+ *
+ * @since 4.3
+ */
+public interface ProgressAware {
+
+	/**
+	 * Returned by {@link #getTotalWork()} when the total size of the input is not
+	 * known (yet).
+	 */
+	long UNKNOWN = -1;
+
+	/**
+	 * @return the total size of the input, or {@link #UNKNOWN}
+	 */
+	long getTotalWork();
+
+	/**
+	 * @return the size of the input read so far, in the unit of
+	 * {@link #getTotalWork()}
+	 */
+	long getCompletedWork();
+
+}
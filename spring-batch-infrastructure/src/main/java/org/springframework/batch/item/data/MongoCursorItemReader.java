@@ -0,0 +1,351 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.item.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.util.json.ParameterBindingDocumentCodec;
+import org.springframework.data.mongodb.util.json.ParameterBindingJsonReader;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * <p>
+ * Restartable {@link ItemReader} that streams documents from MongoDB through a
+ * single server side cursor, obtained from
+ * {@link MongoOperations#stream(Query, Class)}.
+ * </p>
+ *
+ * <p>
+ * Unlike the {@link MongoItemReader}, which issues one <code>skip</code>/<code>limit</code>
+ * query per page and therefore gets slower as the job advances, documents are
+ * fetched in batches of {@link #setBatchSize(int)} documents from one cursor
+ * that is opened in {@link #open(ExecutionContext)} and closed in
+ * {@link #close()}.
+ * </p>
+ *
+ * <p>
+ * Documents are always read in ascending order of the {@link #setSortKey(String)
+ * sort key} (<code>_id</code> by default), which should be unique and indexed.
+ * The sort key value of the last item read is saved in the
+ * {@link ExecutionContext}, so a restarted reader resumes with a
+ * <code>$gt</code> condition on the sort key instead of reading and discarding
+ * the items already processed.
+ * </p>
+ *
+ * <p>
+ * If you set JSON String query {@link #setQuery(String)} then it executes the
+ * JSON to retrieve the requested documents. The JSON query supports parameter
+ * substitution via ?&lt;index&gt; placeholders where the &lt;index&gt; indicates
+ * the index of the parameterValue to substitute. If you set a {@link Query}
+ * object {@link #setQuery(Query)} then its criteria and field specification are
+ * used, any sort or paging information it carries is ignored.
+ * </p>
+ *
+ * <p>
+ * The implementation is <b>not</b> thread-safe.
+ * </p>
+ *
+ * @param <T> type of items returned by the reader
+ * @since 4.3
+ * @see MongoItemReader
+ */
+public class MongoCursorItemReader<T> extends AbstractItemCountingItemStreamItemReader<T> implements InitializingBean {
+
+	private static final String START_AFTER_VALUE = "start.after";
+
+	private static final String START_AFTER_FIELD = "value";
+
+	private static final JsonWriterSettings JSON_WRITER_SETTINGS = JsonWriterSettings.builder()
+			.outputMode(JsonMode.EXTENDED).build();
+
+	private MongoOperations template;
+
+	private Query query;
+
+	private String queryString;
+
+	private Class<? extends T> type;
+
+	private String sortKey = "_id";
+
+	private int batchSize = 0;
+
+	private String hint;
+
+	private String fields;
+
+	private String collection;
+
+	private List<Object> parameterValues = new ArrayList<>();
+
+	private CloseableIterator<? extends T> cursor;
+
+	private T lastItem;
+
+	private Object startAfterValue;
+
+	public MongoCursorItemReader() {
+		super();
+		setName(ClassUtils.getShortName(MongoCursorItemReader.class));
+	}
+
+	/**
+	 * Used to perform operations against the MongoDB instance.  Also
+	 * handles the mapping of documents to objects.
+	 *
+	 * @param template the MongoOperations instance to use
+	 * @see MongoOperations
+	 */
+	public void setTemplate(MongoOperations template) {
+		this.template = template;
+	}
+
+	/**
+	 * A Mongo Query to be used. Only its criteria and field specification are
+	 * taken into account.
+	 *
+	 * @param query Mongo Query to be used.
+	 */
+	public void setQuery(Query query) {
+		this.query = query;
+	}
+
+	/**
+	 * A JSON formatted MongoDB query.  Parameterization of the provided query is allowed
+	 * via ?&lt;index&gt; placeholders where the &lt;index&gt; indicates the index of the
+	 * parameterValue to substitute.
+	 *
+	 * @param queryString JSON formatted Mongo query
+	 */
+	public void setQuery(String queryString) {
+		this.queryString = queryString;
+	}
+
+	/**
+	 * The type of object to be returned for each {@link #read()} call.
+	 *
+	 * @param type the type of object to return
+	 */
+	public void setTargetType(Class<? extends T> type) {
+		this.type = type;
+	}
+
+	/**
+	 * {@link List} of values to be substituted in for each of the
+	 * parameters in the query.
+	 *
+	 * @param parameterValues values
+	 */
+	public void setParameterValues(List<Object> parameterValues) {
+		Assert.notNull(parameterValues, "Parameter values must not be null");
+		this.parameterValues = parameterValues;
+	}
+
+	/**
+	 * JSON defining the fields to be returned from the matching documents
+	 * by MongoDB. The sort key has to be part of the returned fields.
+	 *
+	 * @param fields JSON string that identifies the fields to return.
+	 */
+	public void setFields(String fields) {
+		this.fields = fields;
+	}
+
+	/**
+	 * The document field used to order the documents and to resume a restarted
+	 * read. The values of this field should be unique and the field should be
+	 * indexed. Nested fields can be referenced with the dot notation.
+	 * Defaults to <code>_id</code>.
+	 *
+	 * @param sortKey name of the document field to sort by
+	 */
+	public void setSortKey(String sortKey) {
+		this.sortKey = sortKey;
+	}
+
+	/**
+	 * The number of documents to return per batch of the server side cursor.
+	 * Defaults to 0, which means the driver default is used.
+	 *
+	 * @param batchSize the number of documents per cursor batch
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * @param collection Mongo collection to be queried.
+	 */
+	public void setCollection(String collection) {
+		this.collection = collection;
+	}
+
+	/**
+	 * JSON String telling MongoDB what index to use.
+	 *
+	 * @param hint string indicating what index to use.
+	 */
+	public void setHint(String hint) {
+		this.hint = hint;
+	}
+
+	/**
+	 * Checks mandatory properties
+	 *
+	 * @see InitializingBean#afterPropertiesSet()
+	 */
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		Assert.state(template != null, "An implementation of MongoOperations is required.");
+		Assert.state(type != null, "A type to convert the input into is required.");
+		Assert.state(queryString != null || query != null, "A query is required.");
+		Assert.state(StringUtils.hasText(sortKey), "A sort key is required.");
+		Assert.state(batchSize >= 0, "The batch size must not be negative.");
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) throws ItemStreamException {
+		if (isSaveState()) {
+			String startAfter = executionContext.getString(getExecutionContextKey(START_AFTER_VALUE), null);
+			if (startAfter != null) {
+				startAfterValue = Document.parse(startAfter).get(START_AFTER_FIELD);
+			}
+		}
+
+		super.open(executionContext);
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) throws ItemStreamException {
+		super.update(executionContext);
+		if (isSaveState() && lastItem != null) {
+			// the sort key is only extracted when the state is saved, not for every item
+			executionContext.putString(getExecutionContextKey(START_AFTER_VALUE),
+					new Document(START_AFTER_FIELD, extractSortKeyValue(lastItem)).toJson(JSON_WRITER_SETTINGS));
+		}
+	}
+
+	@Override
+	protected void doOpen() throws Exception {
+		Query cursorQuery = createQuery();
+
+		if (StringUtils.hasText(collection)) {
+			cursor = template.stream(cursorQuery, type, collection);
+		}
+		else {
+			cursor = template.stream(cursorQuery, type);
+		}
+	}
+
+	@Override
+	protected T doRead() throws Exception {
+		if (!cursor.hasNext()) {
+			return null;
+		}
+		lastItem = cursor.next();
+		return lastItem;
+	}
+
+	@Override
+	protected void jumpToItem(int itemIndex) throws Exception {
+		if (startAfterValue == null) {
+			super.jumpToItem(itemIndex);
+		}
+		// otherwise the cursor already starts after the last item read
+	}
+
+	@Override
+	protected void doClose() throws Exception {
+		if (cursor != null) {
+			cursor.close();
+			cursor = null;
+		}
+		lastItem = null;
+		startAfterValue = null;
+	}
+
+	private Query createQuery() {
+		Document queryObject;
+		Document fieldsObject;
+
+		if (queryString != null) {
+			queryObject = replacePlaceholders(queryString, parameterValues);
+			fieldsObject = StringUtils.hasText(fields) ? Document.parse(fields) : new Document();
+		}
+		else {
+			queryObject = query.getQueryObject();
+			fieldsObject = query.getFieldsObject();
+		}
+
+		if (startAfterValue != null) {
+			Document startAfter = new Document(sortKey, new Document("$gt", startAfterValue));
+			queryObject = queryObject.isEmpty() ? startAfter : new Document("$and", Arrays.asList(queryObject, startAfter));
+		}
+
+		Query cursorQuery = new BasicQuery(queryObject, fieldsObject).with(Sort.by(Sort.Direction.ASC, sortKey));
+
+		if (batchSize > 0) {
+			cursorQuery.cursorBatchSize(batchSize);
+		}
+
+		if (StringUtils.hasText(hint)) {
+			cursorQuery.withHint(hint);
+		}
+
+		return cursorQuery;
+	}
+
+	private Object extractSortKeyValue(T item) {
+		Document document;
+		if (item instanceof Document) {
+			document = (Document) item;
+		}
+		else {
+			document = new Document();
+			template.getConverter().write(item, document);
+		}
+		Object value = document.getEmbedded(Arrays.asList(sortKey.split("\\.")), Object.class);
+		Assert.state(value != null, "No value found for sort key '" + sortKey + "' in item: " + item);
+		return value;
+	}
+
+	private Document replacePlaceholders(String input, List<Object> values) {
+		ParameterBindingJsonReader reader = new ParameterBindingJsonReader(input, values.toArray());
+		DecoderContext decoderContext = DecoderContext.builder().build();
+		return new ParameterBindingDocumentCodec().decode(reader, decoderContext);
+	}
+
+}
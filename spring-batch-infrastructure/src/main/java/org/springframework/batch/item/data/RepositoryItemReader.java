@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2019 the original author or authors.
+ * Copyright 2012-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@ package org.springframework.batch.item.data;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -24,9 +25,11 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
 import org.springframework.batch.item.adapter.AbstractMethodInvokingDelegator.InvocationTargetThrowableWrapper;
 import org.springframework.batch.item.adapter.DynamicMethodInvocationException;
 import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -56,6 +59,20 @@ import org.springframework.util.MethodInvoker;
  * </p>
  *
  * <p>
+ * By default pages are requested by page number, which most stores translate into
+ * an offset that gets slower to skip as the reader progresses. When a
+ * {@link #setKeysetMethodName(String) keyset method} is set, only the first page is
+ * read with {@link #setMethodName(String) the configured method}, and every
+ * following page is read with the keyset method, which receives the sort property
+ * values of the last item read (in sort order, after the configured arguments and
+ * before the {@link Pageable}) and is expected to return the items that follow
+ * them, for example <code>findByIdGreaterThan(Long id, Pageable pageable)</code>.
+ * The combination of the sort properties has to be unique. The last sort values are
+ * saved in the {@link ExecutionContext} so that a restart does not need to skip over
+ * the items already read.
+ * </p>
+ *
+ * <p>
  * This implementation is thread-safe between calls to {@link #open(ExecutionContext)}, but remember to use
  * <code>saveState=false</code> if used in a multi-threaded client (no restart available).
  * </p>
@@ -75,6 +92,8 @@ import org.springframework.util.MethodInvoker;
  */
 public class RepositoryItemReader<T> extends AbstractItemCountingItemStreamItemReader<T> implements InitializingBean {
 
+	private static final String START_AFTER_VALUE = "start.after";
+
 	protected Log logger = LogFactory.getLog(getClass());
 
 	private PagingAndSortingRepository<?, ?> repository;
@@ -95,6 +114,12 @@ public class RepositoryItemReader<T> extends AbstractItemCountingItemStreamItemR
 
 	private String methodName;
 
+	private String keysetMethodName;
+
+	private Map<String, Object> startAfterValues = new LinkedHashMap<>();
+
+	private Map<String, Object> previousStartAfterValues;
+
 	public RepositoryItemReader() {
 		setName(ClassUtils.getShortName(RepositoryItemReader.class));
 	}
@@ -144,6 +169,18 @@ public class RepositoryItemReader<T> extends AbstractItemCountingItemStreamItemR
 		this.methodName = methodName;
 	}
 
+	/**
+	 * Specifies what method on the repository to call to read the pages following
+	 * the first one with keyset paging. This method must take the sort property
+	 * values of the last item read after the other arguments, and
+	 * {@link org.springframework.data.domain.Pageable} as the <em>last</em> argument.
+	 *
+	 * @param keysetMethodName name of the method to invoke
+	 */
+	public void setKeysetMethodName(String keysetMethodName) {
+		this.keysetMethodName = keysetMethodName;
+	}
+
 	@Override
 	public void afterPropertiesSet() throws Exception {
 		Assert.state(repository != null, "A PagingAndSortingRepository is required");
@@ -186,6 +223,13 @@ public class RepositoryItemReader<T> extends AbstractItemCountingItemStreamItemR
 	@Override
 	protected void jumpToItem(int itemLastIndex) throws Exception {
 		synchronized (lock) {
+			if (keysetMethodName != null) {
+				// the saved sort values already point to the current page
+				current = itemLastIndex % pageSize;
+				results = doPageRead();
+				page++;
+				return;
+			}
 			page = (itemLastIndex - 1) / pageSize;
 			current = (itemLastIndex - 1) % pageSize;
 
@@ -204,9 +248,11 @@ public class RepositoryItemReader<T> extends AbstractItemCountingItemStreamItemR
 	 */
 	@SuppressWarnings("unchecked")
 	protected List<T> doPageRead() throws Exception {
-		Pageable pageRequest = PageRequest.of(page, pageSize, sort);
+		boolean keyset = keysetMethodName != null;
+		boolean firstPage = !keyset || startAfterValues.isEmpty();
+		Pageable pageRequest = PageRequest.of(keyset ? 0 : page, pageSize, sort);
 
-		MethodInvoker invoker = createMethodInvoker(repository, methodName);
+		MethodInvoker invoker = createMethodInvoker(repository, firstPage ? methodName : keysetMethodName);
 
 		List<Object> parameters = new ArrayList<>();
 
@@ -214,13 +260,55 @@ public class RepositoryItemReader<T> extends AbstractItemCountingItemStreamItemR
 			parameters.addAll(arguments);
 		}
 
+		if(!firstPage) {
+			parameters.addAll(startAfterValues.values());
+		}
+
 		parameters.add(pageRequest);
 
 		invoker.setArguments(parameters.toArray());
 
 		Page<T> curPage = (Page<T>) doInvoke(invoker);
 
-		return curPage.getContent();
+		List<T> content = curPage.getContent();
+
+		if(keyset) {
+			previousStartAfterValues = startAfterValues;
+			if(!content.isEmpty()) {
+				startAfterValues = extractSortValues(content.get(content.size() - 1));
+			}
+		}
+
+		return content;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void open(ExecutionContext executionContext) throws ItemStreamException {
+		if (keysetMethodName != null && isSaveState()) {
+			startAfterValues = (Map<String, Object>) executionContext.get(getExecutionContextKey(START_AFTER_VALUE));
+
+			if (startAfterValues == null) {
+				startAfterValues = new LinkedHashMap<>();
+			}
+		}
+
+		super.open(executionContext);
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) throws ItemStreamException {
+		super.update(executionContext);
+		if (keysetMethodName != null && isSaveState()) {
+			if (getCurrentItemCount() % pageSize == 0) {
+				// restart on next page
+				executionContext.put(getExecutionContextKey(START_AFTER_VALUE), startAfterValues);
+			}
+			else if (previousStartAfterValues != null) {
+				// restart on current page
+				executionContext.put(getExecutionContextKey(START_AFTER_VALUE), previousStartAfterValues);
+			}
+		}
 	}
 
 	@Override
@@ -233,7 +321,18 @@ public class RepositoryItemReader<T> extends AbstractItemCountingItemStreamItemR
 			current = 0;
 			page = 0;
 			results = null;
+			startAfterValues = new LinkedHashMap<>();
+			previousStartAfterValues = null;
+		}
+	}
+
+	private Map<String, Object> extractSortValues(T item) {
+		BeanWrapperImpl beanWrapper = new BeanWrapperImpl(item);
+		Map<String, Object> values = new LinkedHashMap<>();
+		for (Sort.Order order : sort) {
+			values.put(order.getProperty(), beanWrapper.getPropertyValue(order.getProperty()));
 		}
+		return values;
 	}
 
 	private Sort convertToSort(Map<String, Sort.Direction> sorts) {
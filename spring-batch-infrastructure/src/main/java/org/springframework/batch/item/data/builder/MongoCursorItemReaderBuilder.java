@@ -0,0 +1,305 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.item.data.builder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.batch.item.data.MongoCursorItemReader;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * A builder implementation for the {@link MongoCursorItemReader}
+ *
+ * @since 4.3
+ * @see MongoCursorItemReader
+ */
+public class MongoCursorItemReaderBuilder<T> {
+
+	private MongoOperations template;
+
+	private String jsonQuery;
+
+	private Class<? extends T> targetType;
+
+	private String sortKey = "_id";
+
+	private int batchSize;
+
+	private String hint;
+
+	private String fields;
+
+	private String collection;
+
+	private List<Object> parameterValues = new ArrayList<>();
+
+	private boolean saveState = true;
+
+	private String name;
+
+	private int maxItemCount = Integer.MAX_VALUE;
+
+	private int currentItemCount;
+
+	private Query query;
+
+	/**
+	 * Configure if the state of the {@link org.springframework.batch.item.ItemStreamSupport}
+	 * should be persisted within the {@link org.springframework.batch.item.ExecutionContext}
+	 * for restart purposes.
+	 *
+	 * @param saveState defaults to true
+	 * @return The current instance of the builder.
+	 */
+	public MongoCursorItemReaderBuilder<T> saveState(boolean saveState) {
+		this.saveState = saveState;
+
+		return this;
+	}
+
+	/**
+	 * The name used to calculate the key within the
+	 * {@link org.springframework.batch.item.ExecutionContext}. Required if
+	 * {@link #saveState(boolean)} is set to true.
+	 *
+	 * @param name name of the reader instance
+	 * @return The current instance of the builder.
+	 * @see org.springframework.batch.item.ItemStreamSupport#setName(String)
+	 */
+	public MongoCursorItemReaderBuilder<T> name(String name) {
+		this.name = name;
+
+		return this;
+	}
+
+	/**
+	 * Configure the max number of items to be read.
+	 *
+	 * @param maxItemCount the max items to be read
+	 * @return The current instance of the builder.
+	 * @see org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader#setMaxItemCount(int)
+	 */
+	public MongoCursorItemReaderBuilder<T> maxItemCount(int maxItemCount) {
+		this.maxItemCount = maxItemCount;
+
+		return this;
+	}
+
+	/**
+	 * Index for the current item. Used on restarts to indicate where to start from.
+	 *
+	 * @param currentItemCount current index
+	 * @return this instance for method chaining
+	 * @see org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader#setCurrentItemCount(int)
+	 */
+	public MongoCursorItemReaderBuilder<T> currentItemCount(int currentItemCount) {
+		this.currentItemCount = currentItemCount;
+
+		return this;
+	}
+
+	/**
+	 * Used to perform operations against the MongoDB instance. Also handles the mapping
+	 * of documents to objects.
+	 *
+	 * @param template the MongoOperations instance to use
+	 * @return The current instance of the builder
+	 * @see MongoCursorItemReader#setTemplate(MongoOperations)
+	 */
+	public MongoCursorItemReaderBuilder<T> template(MongoOperations template) {
+		this.template = template;
+
+		return this;
+	}
+
+	/**
+	 * A JSON formatted MongoDB jsonQuery. Parameterization of the provided jsonQuery is allowed
+	 * via ?&lt;index&gt; placeholders where the &lt;index&gt; indicates the index of the
+	 * parameterValue to substitute.
+	 *
+	 * @param query JSON formatted Mongo jsonQuery
+	 * @return The current instance of the builder
+	 * @see MongoCursorItemReader#setQuery(String)
+	 */
+	public MongoCursorItemReaderBuilder<T> jsonQuery(String query) {
+		this.jsonQuery = query;
+
+		return this;
+	}
+
+	/**
+	 * The type of object to be returned for each {@link MongoCursorItemReader#read()} call.
+	 *
+	 * @param targetType the type of object to return
+	 * @return The current instance of the builder
+	 * @see MongoCursorItemReader#setTargetType(Class)
+	 */
+	public MongoCursorItemReaderBuilder<T> targetType(Class<? extends T> targetType) {
+		this.targetType = targetType;
+
+		return this;
+	}
+
+	/**
+	 * {@link List} of values to be substituted in for each of the parameters in the
+	 * query.
+	 *
+	 * @param parameterValues values
+	 * @return The current instance of the builder
+	 * @see MongoCursorItemReader#setParameterValues(List)
+	 */
+	public MongoCursorItemReaderBuilder<T> parameterValues(List<Object> parameterValues) {
+		this.parameterValues = parameterValues;
+
+		return this;
+	}
+
+	/**
+	 * Values to be substituted in for each of the parameters in the query.
+	 *
+	 * @param parameterValues values
+	 * @return The current instance of the builder
+	 * @see MongoCursorItemReader#setParameterValues(List)
+	 */
+	public MongoCursorItemReaderBuilder<T> parameterValues(Object... parameterValues) {
+		return parameterValues(Arrays.asList(parameterValues));
+	}
+
+	/**
+	 * JSON defining the fields to be returned from the matching documents by MongoDB.
+	 *
+	 * @param fields JSON string that identifies the fields to return.
+	 * @return The current instance of the builder
+	 * @see MongoCursorItemReader#setFields(String)
+	 */
+	public MongoCursorItemReaderBuilder<T> fields(String fields) {
+		this.fields = fields;
+
+		return this;
+	}
+
+	/**
+	 * The unique, indexed document field used to order the documents and to resume
+	 * a restarted read.
+	 *
+	 * @param sortKey name of the document field, defaults to <code>_id</code>
+	 * @return The current instance of the builder
+	 * @see MongoCursorItemReader#setSortKey(String)
+	 */
+	public MongoCursorItemReaderBuilder<T> sortKey(String sortKey) {
+		this.sortKey = sortKey;
+
+		return this;
+	}
+
+	/**
+	 * The number of documents to return per batch of the server side cursor.
+	 *
+	 * @param batchSize the number of documents, defaults to the driver default
+	 * @return The current instance of the builder
+	 * @see MongoCursorItemReader#setBatchSize(int)
+	 */
+	public MongoCursorItemReaderBuilder<T> batchSize(int batchSize) {
+		this.batchSize = batchSize;
+
+		return this;
+	}
+
+	/**
+	 * Establish an optional collection that can be queried.
+	 *
+	 * @param collection Mongo collection to be queried.
+	 * @return The current instance of the builder
+	 * @see MongoCursorItemReader#setCollection(String)
+	 */
+	public MongoCursorItemReaderBuilder<T> collection(String collection) {
+		this.collection = collection;
+
+		return this;
+	}
+
+	/**
+	 * JSON String telling MongoDB what index to use.
+	 *
+	 * @param hint string indicating what index to use.
+	 * @return The current instance of the builder
+	 * @see MongoCursorItemReader#setHint(String)
+	 */
+	public MongoCursorItemReaderBuilder<T> hint(String hint) {
+		this.hint = hint;
+
+		return this;
+	}
+
+	/**
+	 * Provide a Spring Data Mongo {@link Query}.  This will take precedence over a JSON
+	 * configured query.
+	 *
+	 * @param query Query to execute
+	 * @return this instance for method chaining
+	 * @see MongoCursorItemReader#setQuery(Query)
+	 */
+	public MongoCursorItemReaderBuilder<T> query(Query query) {
+		this.query = query;
+
+		return this;
+	}
+
+	/**
+	 * Validates and builds a {@link MongoCursorItemReader}.
+	 *
+	 * @return a {@link MongoCursorItemReader}
+	 */
+	public MongoCursorItemReader<T> build() {
+		Assert.notNull(this.template, "template is required.");
+		if (this.saveState) {
+			Assert.hasText(this.name, "A name is required when saveState is set to true");
+		}
+		Assert.notNull(this.targetType, "targetType is required.");
+		Assert.state(StringUtils.hasText(this.jsonQuery) || this.query != null, "A query is required");
+		Assert.hasText(this.sortKey, "sortKey is required.");
+		Assert.isTrue(this.batchSize >= 0, "batchSize must not be negative.");
+
+		MongoCursorItemReader<T> reader = new MongoCursorItemReader<>();
+		reader.setTemplate(this.template);
+		reader.setTargetType(this.targetType);
+		if (this.query != null) {
+			reader.setQuery(this.query);
+		}
+		else {
+			reader.setQuery(this.jsonQuery);
+		}
+		reader.setSortKey(this.sortKey);
+		reader.setBatchSize(this.batchSize);
+		reader.setHint(this.hint);
+		reader.setFields(this.fields);
+		reader.setCollection(this.collection);
+		reader.setParameterValues(this.parameterValues);
+
+		reader.setName(this.name);
+		reader.setSaveState(this.saveState);
+		reader.setCurrentItemCount(this.currentItemCount);
+		reader.setMaxItemCount(this.maxItemCount);
+
+		return reader;
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2017-2018 the original author or authors.
+ * Copyright 2017-2020 the original author or authors.
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -53,6 +53,8 @@ public class RepositoryItemReaderBuilder<T> {
 
 	private String methodName;
 
+	private String keysetMethodName;
+
 	private RepositoryMethodReference<?> repositoryMethodReference;
 
 	private boolean saveState = true;
@@ -196,6 +198,22 @@ public class RepositoryItemReaderBuilder<T> {
 		return this;
 	}
 
+	/**
+	 * Specifies what method on the repository to call to read the pages following the
+	 * first one with keyset paging. This method must take the sort property values of
+	 * the last item read after the other arguments, and
+	 * {@link org.springframework.data.domain.Pageable} as the <em>last</em> argument.
+	 *
+	 * @param keysetMethodName name of the method to invoke.
+	 * @return The current instance of the builder.
+	 * @see RepositoryItemReader#setKeysetMethodName(String)
+	 */
+	public RepositoryItemReaderBuilder<T> keysetMethodName(String keysetMethodName) {
+		this.keysetMethodName = keysetMethodName;
+
+		return this;
+	}
+
 	/**
 	 * Specifies a repository and the type-safe method to call for the reader. The method
 	 * configured via this mechanism must take
@@ -245,6 +263,7 @@ public class RepositoryItemReaderBuilder<T> {
 		reader.setArguments(this.arguments);
 		reader.setRepository(this.repository);
 		reader.setMethodName(this.methodName);
+		reader.setKeysetMethodName(this.keysetMethodName);
 		reader.setPageSize(this.pageSize);
 		reader.setCurrentItemCount(this.currentItemCount);
 		reader.setMaxItemCount(this.maxItemCount);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2019 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,8 @@
 
 package org.springframework.batch.item.database;
 
+import java.sql.Blob;
+import java.sql.Clob;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -87,6 +89,17 @@ import org.springframework.util.Assert;
  * </p>
  *
  * <p>
+ * Instead of a static {@link #setFetchSize(int) fetch size}, the fetch size can
+ * be adapted to the width of the rows by setting a
+ * {@link #setFetchBufferSize(long) fetch buffer size}. The size of the rows of
+ * the first fetch is then estimated from their column values, and the fetch size
+ * of the {@link ResultSet} is set to the number of rows fitting in the buffer
+ * (bounded by the {@link #setMaxFetchSize(int) max fetch size}) for the
+ * following fetches. This keeps the memory used by the driver predictable while
+ * minimizing the number of round trips for narrow rows.
+ * </p>
+ *
+ * <p>
  * Calling close on this {@link ItemStream} will cause all resources it is
  * currently using to be freed. (Connection, ResultSet, etc). It is then illegal
  * to call {@link #read()} again until it has been re-opened.
@@ -113,6 +126,13 @@ implements InitializingBean {
 	protected final Log log = LogFactory.getLog(getClass());
 
 	public static final int VALUE_NOT_SET = -1;
+
+	private static final int DEFAULT_ADAPTIVE_INITIAL_FETCH_SIZE = 100;
+
+	private static final int DEFAULT_MAX_FETCH_SIZE = 10000;
+
+	private static final int ESTIMATED_SCALAR_SIZE = 16;
+
 	private Connection con;
 
 	protected ResultSet rs;
@@ -121,6 +141,16 @@ implements InitializingBean {
 
 	private int fetchSize = VALUE_NOT_SET;
 
+	private long fetchBufferSize = VALUE_NOT_SET;
+
+	private int maxFetchSize = DEFAULT_MAX_FETCH_SIZE;
+
+	private int currentFetchSize = VALUE_NOT_SET;
+
+	private int sampledRows = VALUE_NOT_SET;
+
+	private long sampledBytes;
+
 	private int maxRows = VALUE_NOT_SET;
 
 	private int queryTimeout = VALUE_NOT_SET;
@@ -154,6 +184,8 @@ implements InitializingBean {
 	@Override
 	public void afterPropertiesSet() throws Exception {
 		Assert.notNull(dataSource, "DataSource must be provided");
+		Assert.state(fetchBufferSize == VALUE_NOT_SET || fetchBufferSize > 0, "The fetch buffer size must be positive");
+		Assert.state(maxFetchSize > 0, "The max fetch size must be positive");
 	}
 
 	/**
@@ -188,8 +220,16 @@ implements InitializingBean {
 	 * @see #setQueryTimeout
 	 */
 	protected void applyStatementSettings(PreparedStatement stmt) throws SQLException {
-		if (fetchSize != VALUE_NOT_SET) {
-			stmt.setFetchSize(fetchSize);
+		currentFetchSize = fetchSize;
+		if (isAdaptiveFetchSize()) {
+			sampledRows = 0;
+			sampledBytes = 0;
+			if (currentFetchSize == VALUE_NOT_SET) {
+				currentFetchSize = Math.min(DEFAULT_ADAPTIVE_INITIAL_FETCH_SIZE, maxFetchSize);
+			}
+		}
+		if (currentFetchSize != VALUE_NOT_SET) {
+			stmt.setFetchSize(currentFetchSize);
 			stmt.setFetchDirection(ResultSet.FETCH_FORWARD);
 		}
 		if (maxRows != VALUE_NOT_SET) {
@@ -279,6 +319,41 @@ implements InitializingBean {
 		this.fetchSize = fetchSize;
 	}
 
+	/**
+	 * Enables the adaptive fetch size: the approximate number of bytes the rows
+	 * of one fetch should take. The fetch size is adapted after the first fetch
+	 * (of {@link #setFetchSize(int) fetch size} rows, or 100 rows if not set)
+	 * to the number of rows of the measured average size fitting in this buffer.
+	 * The columns of the sampled rows are read a second time with
+	 * {@link ResultSet#getObject(int)}, so the row mapper should not consume
+	 * column streams when this option is used.
+	 *
+	 * @param fetchBufferSize the number of bytes to buffer per fetch
+	 * @see ResultSet#setFetchSize(int)
+	 */
+	public void setFetchBufferSize(long fetchBufferSize) {
+		this.fetchBufferSize = fetchBufferSize;
+	}
+
+	/**
+	 * Upper bound of the adaptive fetch size. Defaults to 10000.
+	 *
+	 * @param maxFetchSize the maximum number of rows per fetch
+	 * @see #setFetchBufferSize(long)
+	 */
+	public void setMaxFetchSize(int maxFetchSize) {
+		this.maxFetchSize = maxFetchSize;
+	}
+
+	/**
+	 * @return the fetch size currently applied to the cursor, either the
+	 * configured one or the one chosen by the adaptive fetch size, or
+	 * {@link #VALUE_NOT_SET} if the driver default is used
+	 */
+	public int getCurrentFetchSize() {
+		return currentFetchSize;
+	}
+
 	/**
 	 * Sets the limit for the maximum number of rows that any
 	 * <code>ResultSet</code> object can contain to the given number.
@@ -394,6 +469,7 @@ implements InitializingBean {
 	@Override
 	protected void doClose() throws Exception {
 		initialized = false;
+		sampledRows = VALUE_NOT_SET;
 		JdbcUtils.closeResultSet(this.rs);
 		rs = null;
 		cleanupOnClose();
@@ -479,6 +555,9 @@ implements InitializingBean {
 			int currentRow = getCurrentItemCount();
 			T item = readCursor(rs, currentRow);
 			verifyCursorPosition(currentRow);
+			if (isAdaptiveFetchSize() && sampledRows >= 0) {
+				sampleRow();
+			}
 			return item;
 		}
 		catch (SQLException se) {
@@ -486,6 +565,62 @@ implements InitializingBean {
 		}
 	}
 
+	private boolean isAdaptiveFetchSize() {
+		return fetchBufferSize != VALUE_NOT_SET;
+	}
+
+	/**
+	 * Add the estimated size of the current row to the sample, and adapt the
+	 * fetch size once the rows of the first fetch have been sampled.
+	 */
+	private void sampleRow() {
+		try {
+			sampledBytes += estimateRowSize(rs);
+			if (++sampledRows < currentFetchSize) {
+				return;
+			}
+			long averageRowSize = Math.max(1, sampledBytes / sampledRows);
+			int adaptedFetchSize = (int) Math.max(1, Math.min(maxFetchSize, fetchBufferSize / averageRowSize));
+			rs.setFetchSize(adaptedFetchSize);
+			if (log.isDebugEnabled()) {
+				log.debug("Adapted the fetch size from " + currentFetchSize + " to " + adaptedFetchSize
+						+ " rows for an estimated row size of " + averageRowSize + " bytes");
+			}
+			currentFetchSize = adaptedFetchSize;
+		}
+		catch (SQLException e) {
+			log.warn("Unable to adapt the fetch size, keeping a fetch size of " + currentFetchSize, e);
+		}
+		sampledRows = VALUE_NOT_SET;
+	}
+
+	/**
+	 * Estimate the size in memory of the values of the current row.
+	 */
+	private static long estimateRowSize(ResultSet rs) throws SQLException {
+		int columnCount = rs.getMetaData().getColumnCount();
+		long size = 0;
+		for (int i = 1; i <= columnCount; i++) {
+			Object value = rs.getObject(i);
+			if (value instanceof CharSequence) {
+				size += 2L * ((CharSequence) value).length();
+			}
+			else if (value instanceof byte[]) {
+				size += ((byte[]) value).length;
+			}
+			else if (value instanceof Clob) {
+				size += 2L * ((Clob) value).length();
+			}
+			else if (value instanceof Blob) {
+				size += ((Blob) value).length();
+			}
+			else {
+				size += ESTIMATED_SCALAR_SIZE;
+			}
+		}
+		return size;
+	}
+
 	/**
 	 * Read the cursor and map to the type of object this reader should return. This method must be
 	 * overridden by subclasses.
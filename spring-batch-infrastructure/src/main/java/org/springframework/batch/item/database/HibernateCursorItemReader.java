@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2019 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,6 +15,7 @@
  */
 package org.springframework.batch.item.database;
 
+import java.util.HashMap;
 import java.util.Map;
 
 import org.hibernate.ScrollableResults;
@@ -26,10 +27,12 @@ import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.batch.item.ItemStreamException;
 import org.springframework.batch.item.database.orm.HibernateQueryProvider;
 import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
 
 /**
  * {@link ItemStreamReader} for reading database records built on top of Hibernate. It
@@ -47,7 +50,17 @@ import org.springframework.util.ClassUtils;
  * objects or standard hibernate {@link Session} for more advanced mappings or
  * when caching is desired. When stateful session is used it will be cleared in
  * the {@link #update(ExecutionContext)} method without being flushed (no data
- * modifications are expected).
+ * modifications are expected). A stateful session can also be cleared every
+ * {@link #setClearInterval(int) clear interval} items, so that its first-level
+ * cache does not grow with the size of a chunk.
+ * </p>
+ *
+ * <p>
+ * By default a restarted reader scrolls forward through the items already read.
+ * When a {@link #setSortKey(String) sort key} is set, the query string is
+ * ordered by that key and the key of the last item read is saved in the
+ * {@link ExecutionContext}, so a restarted reader only selects the items after
+ * it (<code>WHERE key &gt; :last</code>) instead of replaying them.
  * </p>
  *
  * The implementation is <b>not</b> thread-safe.
@@ -58,6 +71,10 @@ import org.springframework.util.ClassUtils;
 public class HibernateCursorItemReader<T> extends AbstractItemCountingItemStreamItemReader<T> 
         implements InitializingBean {
 
+	private static final String START_AFTER_VALUE = "start.after";
+
+	private static final String SORT_KEY_PARAMETER = "_sortKey";
+
 	private HibernateItemReaderHelper<T> helper = new HibernateItemReaderHelper<>();
 
 	public HibernateCursorItemReader() {
@@ -72,9 +89,27 @@ public class HibernateCursorItemReader<T> extends AbstractItemCountingItemStream
 
 	private Map<String, Object> parameterValues;
 
+	private String queryString;
+
+	private String sortKey;
+
+	private int clearInterval;
+
+	private int readsSinceClear;
+
+	private T lastItem;
+
+	private Object startAfterValue;
+
 	@Override
 	public void afterPropertiesSet() throws Exception {
 		Assert.state(fetchSize >= 0, "fetchSize must not be negative");
+		Assert.state(clearInterval >= 0, "clearInterval must not be negative");
+		if (sortKey != null) {
+			Assert.state(StringUtils.hasText(queryString), "A query string is required when a sort key is set");
+			Assert.state(OrmQueryUtils.indexOfKeyword(queryString, "order") < 0,
+					"The query string must not contain an ORDER BY clause when a sort key is set");
+		}
 		helper.afterPropertiesSet();
 	}
 
@@ -128,9 +163,39 @@ public class HibernateCursorItemReader<T> extends AbstractItemCountingItemStream
 	 * @param queryString HQL query string
 	 */
 	public void setQueryString(String queryString) {
+		this.queryString = queryString;
 		helper.setQueryString(queryString);
 	}
 
+	/**
+	 * The property used to order the items and to restart the reader without
+	 * replaying the items already read. The key must be qualified by the
+	 * identification variable of the selected entity (for example
+	 * <code>f.id</code>), the remainder of the path being the bean property of
+	 * the entity holding the key value. The key values have to be unique, and
+	 * the {@link #setQueryString(String) query string} must not have an ORDER BY
+	 * clause since it is generated from the sort key. Only supported with a
+	 * query string selecting the entity, not a projection.
+	 *
+	 * @param sortKey the unique key to order the items by, in ascending order
+	 */
+	public void setSortKey(String sortKey) {
+		this.sortKey = sortKey;
+	}
+
+	/**
+	 * The number of items after which a stateful session is cleared while
+	 * reading, in addition to the clearing on {@link #update(ExecutionContext)}.
+	 * Items read before the session is cleared are detached, so they should not
+	 * rely on lazy loading afterwards. Has no effect with a
+	 * {@link StatelessSession}. Defaults to 0 (only cleared on update).
+	 *
+	 * @param clearInterval the number of items between two clears of the session
+	 */
+	public void setClearInterval(int clearInterval) {
+		this.clearInterval = clearInterval;
+	}
+
 	/**
 	 * The Hibernate SessionFactory to use the create a session.
 	 *
@@ -154,12 +219,18 @@ public class HibernateCursorItemReader<T> extends AbstractItemCountingItemStream
 	@Nullable
 	@Override
 	protected T doRead() throws Exception {
+		if (clearInterval > 0 && ++readsSinceClear > clearInterval) {
+			helper.clear();
+			readsSinceClear = 1;
+		}
 		if (cursor.next()) {
 			Object[] data = cursor.get();
 
 			if (data.length > 1) {
 				// If there are multiple items this must be a projection
 				// and T is an array type.
+				Assert.state(sortKey == null,
+						"A sort key is not supported with a projection, the query must select the entity holding the key");
 				@SuppressWarnings("unchecked")
 				T item = (T) data;
 				return item;
@@ -171,6 +242,7 @@ public class HibernateCursorItemReader<T> extends AbstractItemCountingItemStream
 				// if T is an array type but there's not much else we can do...
 				@SuppressWarnings("unchecked")
 				T item = (T) data[0];
+				lastItem = item;
 				return item;
 			}
 
@@ -184,10 +256,33 @@ public class HibernateCursorItemReader<T> extends AbstractItemCountingItemStream
 	@Override
 	protected void doOpen() throws Exception {
 		Assert.state(!initialized, "Cannot open an already opened ItemReader, call close first");
-		cursor = helper.getForwardOnlyCursor(fetchSize, parameterValues);
+		if (sortKey != null) {
+			String orderBy = " ORDER BY " + sortKey;
+			Map<String, Object> parameters = (parameterValues != null ? new HashMap<>(parameterValues) : new HashMap<>());
+			if (startAfterValue != null) {
+				helper.setQueryString(OrmQueryUtils.addCondition(queryString, sortKey + " > :" + SORT_KEY_PARAMETER) + orderBy);
+				parameters.put(SORT_KEY_PARAMETER, startAfterValue);
+			}
+			else {
+				helper.setQueryString(queryString + orderBy);
+			}
+			cursor = helper.getForwardOnlyCursor(fetchSize, parameters);
+		}
+		else {
+			cursor = helper.getForwardOnlyCursor(fetchSize, parameterValues);
+		}
 		initialized = true;
 	}
 
+	@Override
+	public void open(ExecutionContext executionContext) throws ItemStreamException {
+		if (sortKey != null && isSaveState()) {
+			startAfterValue = executionContext.get(getExecutionContextKey(START_AFTER_VALUE));
+		}
+
+		super.open(executionContext);
+	}
+
 	/**
 	 * Update the context and clear the session if stateful.
 	 *
@@ -197,14 +292,19 @@ public class HibernateCursorItemReader<T> extends AbstractItemCountingItemStream
 	@Override
 	public void update(ExecutionContext executionContext) throws ItemStreamException {
 		super.update(executionContext);
+		if (sortKey != null && isSaveState() && lastItem != null) {
+			executionContext.put(getExecutionContextKey(START_AFTER_VALUE), extractSortKeyValue(lastItem));
+		}
 		helper.clear();
+		readsSinceClear = 0;
 	}
 
 	/**
 	 * Wind forward through the result set to the item requested. Also clears
 	 * the session every now and then (if stateful) to avoid memory problems.
 	 * The frequency of session clearing is the larger of the fetch size (if
-	 * set) and 100.
+	 * set) and 100. Nothing is done if the cursor was opened after a saved
+	 * sort key value.
 	 *
 	 * @param itemIndex the first item to read
 	 * @throws Exception if there is a problem
@@ -212,6 +312,10 @@ public class HibernateCursorItemReader<T> extends AbstractItemCountingItemStream
 	 */
 	@Override
 	protected void jumpToItem(int itemIndex) throws Exception {
+		if (startAfterValue != null) {
+			// the cursor already starts after the last item read
+			return;
+		}
 		int flushSize = Math.max(fetchSize, 100);
 		helper.jumpToItem(cursor, itemIndex, flushSize);
 	}
@@ -231,5 +335,13 @@ public class HibernateCursorItemReader<T> extends AbstractItemCountingItemStream
 		}
 
 		initialized = false;
+		lastItem = null;
+		startAfterValue = null;
+		readsSinceClear = 0;
+	}
+
+	private Object extractSortKeyValue(T item) {
+		int aliasEnd = sortKey.indexOf('.');
+		return new BeanWrapperImpl(item).getPropertyValue(aliasEnd < 0 ? sortKey : sortKey.substring(aliasEnd + 1));
 	}
 }
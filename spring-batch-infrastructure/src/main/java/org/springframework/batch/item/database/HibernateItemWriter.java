@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2017 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,12 +15,14 @@
  */
 package org.springframework.batch.item.database;
 
+import java.sql.Connection;
 import java.util.List;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
 import org.hibernate.context.spi.CurrentSessionContext;
 
 import org.springframework.batch.item.ItemWriter;
@@ -36,6 +38,17 @@ import org.springframework.util.Assert;
  * default (see {@link #setClearSession(boolean) clearSession} property).<br>
  * <br>
  *
+ * For large chunks, the session can also be flushed (and cleared) every
+ * {@link #setFlushInterval(int) flushInterval} items, and a
+ * {@link #setJdbcBatchSize(Integer) JDBC batch size} can be set on the session
+ * so that the flushed statements are sent in JDBC batches. Alternatively, the
+ * items can be inserted with a {@link StatelessSession} (see
+ * {@link #setUseStatelessSession(boolean) useStatelessSession} property), which
+ * has no first-level cache and performs no dirty checking. The stateless session
+ * uses the JDBC connection of the current session, so it participates in the
+ * same transaction.<br>
+ * <br>
+ *
  * The writer is thread-safe once properties are set (normal singleton behavior)
  * if a {@link CurrentSessionContext} that uses only one session per thread is
  * used.
@@ -54,6 +67,12 @@ public class HibernateItemWriter<T> implements ItemWriter<T>, InitializingBean {
 
 	private boolean clearSession = true;
 
+	private int flushInterval = 0;
+
+	private boolean useStatelessSession = false;
+
+	private Integer jdbcBatchSize;
+
 	/**
 	 * Flag to indicate that the session should be cleared and flushed at the
 	 * end of the write (default true).
@@ -65,6 +84,43 @@ public class HibernateItemWriter<T> implements ItemWriter<T>, InitializingBean {
 		this.clearSession = clearSession;
 	}
 
+	/**
+	 * Set the number of items after which the session is flushed (and cleared if
+	 * {@link #setClearSession(boolean) clearSession} is set) during a write, in
+	 * addition to the flush at the end of the write. Defaults to 0, which means the
+	 * session is only flushed once at the end of the write.
+	 *
+	 * @param flushInterval the number of items between flushes
+	 */
+	public void setFlushInterval(int flushInterval) {
+		this.flushInterval = flushInterval;
+	}
+
+	/**
+	 * Flag to indicate that items should be inserted with a
+	 * {@link StatelessSession} sharing the connection of the current session
+	 * instead of being saved or updated in the current session (default false).
+	 * Items are expected to be new entities in that case.
+	 *
+	 * @param useStatelessSession the flag value to set
+	 */
+	public void setUseStatelessSession(boolean useStatelessSession) {
+		this.useStatelessSession = useStatelessSession;
+	}
+
+	/**
+	 * The JDBC batch size to use for the session(s) used by this writer,
+	 * overriding the <code>hibernate.jdbc.batch_size</code> setting of the
+	 * {@link SessionFactory}. The previous batch size of the current session is
+	 * restored after each write. Defaults to null (use the session factory
+	 * setting).
+	 *
+	 * @param jdbcBatchSize the JDBC batch size
+	 */
+	public void setJdbcBatchSize(Integer jdbcBatchSize) {
+		this.jdbcBatchSize = jdbcBatchSize;
+	}
+
 	/**
 	 * Set the Hibernate SessionFactory to be used internally.
 	 *
@@ -81,6 +137,7 @@ public class HibernateItemWriter<T> implements ItemWriter<T>, InitializingBean {
 	public void afterPropertiesSet() {
 		Assert.state(sessionFactory != null,
 				"SessionFactory must be provided");
+		Assert.state(flushInterval >= 0, "The flush interval must not be negative");
 	}
 
 	/**
@@ -91,10 +148,25 @@ public class HibernateItemWriter<T> implements ItemWriter<T>, InitializingBean {
 	 */
 	@Override
 	public void write(List<? extends T> items) {
-		doWrite(sessionFactory, items);
-		sessionFactory.getCurrentSession().flush();
-		if(clearSession) {
-			sessionFactory.getCurrentSession().clear();
+		if (useStatelessSession) {
+			doWriteStateless(sessionFactory, items);
+			return;
+		}
+		if (jdbcBatchSize == null) {
+			doWrite(sessionFactory, items);
+			flush(sessionFactory.getCurrentSession());
+			return;
+		}
+		// the current session is shared with the other users of the transaction
+		Session currentSession = sessionFactory.getCurrentSession();
+		Integer previousJdbcBatchSize = currentSession.getJdbcBatchSize();
+		currentSession.setJdbcBatchSize(jdbcBatchSize);
+		try {
+			doWrite(sessionFactory, items);
+			flush(currentSession);
+		}
+		finally {
+			currentSession.setJdbcBatchSize(previousJdbcBatchSize);
 		}
 	}
 
@@ -119,6 +191,9 @@ public class HibernateItemWriter<T> implements ItemWriter<T>, InitializingBean {
 				if (!currentSession.contains(item)) {
 					currentSession.saveOrUpdate(item);
 					saveOrUpdateCount++;
+					if (flushInterval > 0 && saveOrUpdateCount % flushInterval == 0) {
+						flush(currentSession);
+					}
 				}
 			}
 			if (logger.isDebugEnabled()) {
@@ -129,6 +204,44 @@ public class HibernateItemWriter<T> implements ItemWriter<T>, InitializingBean {
 		}
 	}
 
+	/**
+	 * Do perform the actual write operation using a {@link StatelessSession}
+	 * opened on the JDBC connection of the current session.
+	 * This can be overridden in a subclass if necessary.
+	 *
+	 * @param sessionFactory Hibernate SessionFactory to be used
+	 * @param items the list of items to use for the write
+	 */
+	protected void doWriteStateless(SessionFactory sessionFactory, List<? extends T> items) {
+		if (logger.isDebugEnabled()) {
+			logger.debug("Writing to Hibernate with a stateless session and " + items.size()
+					+ " items.");
+		}
+
+		if (!items.isEmpty()) {
+			Connection connection = sessionFactory.getCurrentSession().doReturningWork(jdbcConnection -> jdbcConnection);
+			StatelessSession statelessSession = sessionFactory.openStatelessSession(connection);
+			try {
+				if (jdbcBatchSize != null) {
+					statelessSession.setJdbcBatchSize(jdbcBatchSize);
+				}
+				for (T item : items) {
+					statelessSession.insert(item);
+				}
+			}
+			finally {
+				statelessSession.close();
+			}
+		}
+	}
+
+	private void flush(Session session) {
+		session.flush();
+		if (clearSession) {
+			session.clear();
+		}
+	}
+
 	/**
 	 * Do perform the actual write operation using {@link HibernateOperations}.
 	 * This can be overridden in a subclass if necessary.
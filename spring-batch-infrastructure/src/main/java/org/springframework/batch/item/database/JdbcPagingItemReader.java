@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2018 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -31,6 +31,7 @@ import javax.sql.DataSource;
 
 import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ProgressAware;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
@@ -69,13 +70,18 @@ import org.springframework.util.ClassUtils;
  * available).
  * </p>
  * 
+ * <p>
+ * The progress of the reader is reported in items when a
+ * {@link #setCountQuery(String) count query} is set.
+ * </p>
+ * 
  * @author Thomas Risberg
  * @author Dave Syer
  * @author Michael Minella
  * @author Mahmoud Ben Hassine
  * @since 2.0
  */
-public class JdbcPagingItemReader<T> extends AbstractPagingItemReader<T> implements InitializingBean {
+public class JdbcPagingItemReader<T> extends AbstractPagingItemReader<T> implements InitializingBean, ProgressAware {
 	private static final String START_AFTER_VALUE = "start.after";
 
 	public static final int VALUE_NOT_SET = -1;
@@ -100,6 +106,10 @@ public class JdbcPagingItemReader<T> extends AbstractPagingItemReader<T> impleme
 
 	private int fetchSize = VALUE_NOT_SET;
 
+	private String countQuery;
+
+	private long totalWork = UNKNOWN;
+
 	public JdbcPagingItemReader() {
 		setName(ClassUtils.getShortName(JdbcPagingItemReader.class));
 	}
@@ -158,6 +168,20 @@ public class JdbcPagingItemReader<T> extends AbstractPagingItemReader<T> impleme
 		this.parameterValues = parameterValues;
 	}
 
+	/**
+	 * A query counting the rows to read, with the parameters of the query of the
+	 * {@link #setQueryProvider(PagingQueryProvider) query provider}, e.g.
+	 * <code>SELECT COUNT(*) FROM CUSTOMER WHERE STATUS = :status</code>. It is
+	 * executed once when the reader is opened, to report the progress of the
+	 * reader. No count query is executed by default.
+	 * 
+	 * @param countQuery the SQL query returning the number of rows to read
+	 * @since 4.3
+	 */
+	public void setCountQuery(String countQuery) {
+		this.countQuery = countQuery;
+	}
+
 	/**
 	 * Check mandatory properties.
 	 * @see org.springframework.beans.factory.InitializingBean#afterPropertiesSet()
@@ -262,6 +286,38 @@ public class JdbcPagingItemReader<T> extends AbstractPagingItemReader<T> impleme
 		super.open(executionContext);
 	}
 
+	@Override
+	protected void doOpen() throws Exception {
+		super.doOpen();
+		if (countQuery != null) {
+			Long count;
+			if (parameterValues != null && parameterValues.size() > 0) {
+				if (this.queryProvider.isUsingNamedParameters()) {
+					count = namedParameterJdbcTemplate.queryForObject(countQuery,
+							getParameterMap(parameterValues, null), Long.class);
+				}
+				else {
+					count = getJdbcTemplate().queryForObject(countQuery, Long.class,
+							getParameterList(parameterValues, null).toArray());
+				}
+			}
+			else {
+				count = getJdbcTemplate().queryForObject(countQuery, Long.class);
+			}
+			totalWork = count != null ? count : UNKNOWN;
+		}
+	}
+
+	@Override
+	public long getTotalWork() {
+		return totalWork;
+	}
+
+	@Override
+	public long getCompletedWork() {
+		return getCurrentItemCount();
+	}
+
 	@Override
 	protected void doJumpToPage(int itemIndex) {
 		/*
@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2013 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -42,6 +42,15 @@ import java.util.List;
  * The writer is thread-safe after its properties are set (normal singleton
  * behaviour), so it can be used to write in multiple concurrent transactions.
  *
+ * By default every item of a chunk is added to the persistence context and the
+ * entity manager is flushed once, at the end of the write. With large chunks or
+ * long transactions, the persistence context (and the dirty checking performed
+ * on flush) can be bounded with {@link #setFlushInterval(int) flushInterval} and
+ * {@link #setClearPersistenceContext(boolean) clearPersistenceContext}. When
+ * combined with {@link #setUsePersist(boolean) usePersist} and a JDBC batch size
+ * configured on the JPA provider (e.g. <code>hibernate.jdbc.batch_size</code>),
+ * each flush results in JDBC batch inserts.
+ *
  * @author Thomas Risberg
  *
  */
@@ -51,6 +60,8 @@ public class JpaItemWriter<T> implements ItemWriter<T>, InitializingBean {
 
 	private EntityManagerFactory entityManagerFactory;
 	private boolean usePersist = false;
+	private int flushInterval = 0;
+	private boolean clearPersistenceContext = false;
 
 	/**
 	 * Set the EntityManager to be used internally.
@@ -70,12 +81,35 @@ public class JpaItemWriter<T> implements ItemWriter<T>, InitializingBean {
 		this.usePersist = usePersist;
 	}
 
+	/**
+	 * Set the number of items after which the entity manager is flushed during a
+	 * write, in addition to the flush at the end of the write. Defaults to 0, which
+	 * means the entity manager is only flushed once at the end of the write.
+	 *
+	 * @param flushInterval the number of items between flushes
+	 */
+	public void setFlushInterval(int flushInterval) {
+		this.flushInterval = flushInterval;
+	}
+
+	/**
+	 * Set whether the persistence context should be cleared after each flush so that
+	 * written entities are detached and no longer dirty checked. Defaults to false.
+	 *
+	 * @param clearPersistenceContext whether to clear the persistence context after
+	 * each flush
+	 */
+	public void setClearPersistenceContext(boolean clearPersistenceContext) {
+		this.clearPersistenceContext = clearPersistenceContext;
+	}
+
 	/**
 	 * Check mandatory properties - there must be an entityManagerFactory.
 	 */
 	@Override
 	public void afterPropertiesSet() throws Exception {
 		Assert.notNull(entityManagerFactory, "An EntityManagerFactory is required");
+		Assert.isTrue(flushInterval >= 0, "The flush interval must not be negative");
 	}
 
 	/**
@@ -91,7 +125,7 @@ public class JpaItemWriter<T> implements ItemWriter<T>, InitializingBean {
 			throw new DataAccessResourceFailureException("Unable to obtain a transactional EntityManager");
 		}
 		doWrite(entityManager, items);
-		entityManager.flush();
+		flush(entityManager);
 	}
 
 	/**
@@ -118,6 +152,9 @@ public class JpaItemWriter<T> implements ItemWriter<T>, InitializingBean {
 						entityManager.merge(item);
 					}					
 					addedToContextCount++;
+					if (flushInterval > 0 && addedToContextCount % flushInterval == 0) {
+						flush(entityManager);
+					}
 				}
 			}
 			if (logger.isDebugEnabled()) {
@@ -128,4 +165,11 @@ public class JpaItemWriter<T> implements ItemWriter<T>, InitializingBean {
 
 	}
 
+	private void flush(EntityManager entityManager) {
+		entityManager.flush();
+		if (clearPersistenceContext) {
+			entityManager.clear();
+		}
+	}
+
 }
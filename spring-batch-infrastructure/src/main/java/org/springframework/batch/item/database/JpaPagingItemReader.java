@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2013 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,9 @@
 
 package org.springframework.batch.item.database;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -27,7 +29,10 @@ import javax.persistence.EntityTransaction;
 import javax.persistence.Query;
 
 import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
 import org.springframework.batch.item.database.orm.JpaQueryProvider;
+import org.springframework.batch.item.database.support.SqlPagingQueryUtils;
+import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
@@ -71,6 +76,17 @@ import org.springframework.util.ClassUtils;
  * </p>
  *
  * <p>
+ * By default pages are requested with increasing offsets, which makes each page
+ * slower to read than the previous one on large tables. When
+ * {@link #setSortKeys(Map) sort keys} are set, the reader switches to keyset
+ * (a.k.a. seek) paging instead: the query string is ordered by the sort keys and
+ * each page after the first one is restricted to the rows following the sort key
+ * values of the last item read, the same way {@link JdbcPagingItemReader} does.
+ * The last sort key values are saved in the {@link ExecutionContext} so that a
+ * restart does not need to skip over the items already read.
+ * </p>
+ *
+ * <p>
  * The implementation is thread-safe in between calls to
  * {@link #open(ExecutionContext)}, but remember to use
  * <code>saveState=false</code> if used in a multi-threaded client (no restart
@@ -85,6 +101,10 @@ import org.springframework.util.ClassUtils;
  */
 public class JpaPagingItemReader<T> extends AbstractPagingItemReader<T> {
 
+	private static final String START_AFTER_VALUE = "start.after";
+
+	private static final String SORT_KEY_PARAMETER_PREFIX = "_sortKey";
+
 	private EntityManagerFactory entityManagerFactory;
 
 	private EntityManager entityManager;
@@ -99,6 +119,16 @@ public class JpaPagingItemReader<T> extends AbstractPagingItemReader<T> {
 	
 	private boolean transacted = true;//default value
 
+	private Map<String, Order> sortKeys;
+
+	private String firstPageQueryString;
+
+	private String remainingPagesQueryString;
+
+	private Map<String, Object> startAfterValues = new LinkedHashMap<>();
+
+	private Map<String, Object> previousStartAfterValues;
+
 	public JpaPagingItemReader() {
 		setName(ClassUtils.getShortName(JpaPagingItemReader.class));
 	}
@@ -108,7 +138,10 @@ public class JpaPagingItemReader<T> extends AbstractPagingItemReader<T> {
 	 * queryProvider).
 	 */
 	private Query createQuery() {
-		if (queryProvider == null) {
+		if (sortKeys != null) {
+			return createKeysetQuery();
+		}
+		else if (queryProvider == null) {
 			return entityManager.createQuery(queryString);
 		}
 		else {
@@ -142,6 +175,21 @@ public class JpaPagingItemReader<T> extends AbstractPagingItemReader<T> {
 		this.transacted = transacted;
 	}	
 
+	/**
+	 * Enable keyset paging with the given sort keys. The keys are JPQL paths
+	 * qualified by the identification variable of the selected entity (for example
+	 * <code>f.id</code>), the remainder of the path being the bean property of the
+	 * entity holding the key value. The combination of the keys has to be unique,
+	 * and the query string must not have an ORDER BY clause since it is generated
+	 * from the sort keys. Not supported with a {@link JpaQueryProvider}.
+	 *
+	 * @param sortKeys the sort keys in order of precedence (should be an ordered
+	 * map such as a {@link LinkedHashMap})
+	 */
+	public void setSortKeys(Map<String, Order> sortKeys) {
+		this.sortKeys = sortKeys;
+	}
+
 	@Override
 	public void afterPropertiesSet() throws Exception {
 		super.afterPropertiesSet();
@@ -150,6 +198,10 @@ public class JpaPagingItemReader<T> extends AbstractPagingItemReader<T> {
 			Assert.notNull(entityManagerFactory, "EntityManager is required when queryProvider is null");
 			Assert.hasLength(queryString, "Query string is required when queryProvider is null");
 		}
+		if (sortKeys != null) {
+			Assert.state(queryProvider == null, "Sort keys are not supported with a queryProvider");
+			Assert.notEmpty(sortKeys, "Sort keys must not be empty");
+		}
 	}
 
 	/**
@@ -180,6 +232,12 @@ public class JpaPagingItemReader<T> extends AbstractPagingItemReader<T> {
 			queryProvider.setEntityManager(entityManager);
 		}
 
+		if (sortKeys != null) {
+			String sortClause = " ORDER BY " + SqlPagingQueryUtils.buildSortClause(sortKeys);
+			firstPageQueryString = queryString + sortClause;
+			remainingPagesQueryString = addSortConditions(queryString) + sortClause;
+		}
+
 	}
 
 	@Override
@@ -196,7 +254,8 @@ public class JpaPagingItemReader<T> extends AbstractPagingItemReader<T> {
 			entityManager.clear();
 		}//end if
 
-		Query query = createQuery().setFirstResult(getPage() * getPageSize()).setMaxResults(getPageSize());
+		int firstResult = (sortKeys != null ? 0 : getPage() * getPageSize());
+		Query query = createQuery().setFirstResult(firstResult).setMaxResults(getPageSize());
 
 		if (parameterValues != null) {
 			for (Map.Entry<String, Object> me : parameterValues.entrySet()) {
@@ -221,16 +280,100 @@ public class JpaPagingItemReader<T> extends AbstractPagingItemReader<T> {
 			results.addAll(query.getResultList());
 			tx.commit();
 		}//end if
+
+		if (sortKeys != null) {
+			previousStartAfterValues = startAfterValues;
+			if (!results.isEmpty()) {
+				startAfterValues = extractSortKeyValues(results.get(results.size() - 1));
+			}
+		}
 	}
 
 	@Override
 	protected void doJumpToPage(int itemIndex) {
 	}
 
+	@Override
+	@SuppressWarnings("unchecked")
+	public void open(ExecutionContext executionContext) {
+		if (sortKeys != null && isSaveState()) {
+			startAfterValues = (Map<String, Object>) executionContext.get(getExecutionContextKey(START_AFTER_VALUE));
+
+			if (startAfterValues == null) {
+				startAfterValues = new LinkedHashMap<>();
+			}
+		}
+
+		super.open(executionContext);
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) throws ItemStreamException {
+		super.update(executionContext);
+		if (sortKeys != null && isSaveState()) {
+			if (getCurrentItemCount() % getPageSize() == 0) {
+				// restart on next page
+				executionContext.put(getExecutionContextKey(START_AFTER_VALUE), startAfterValues);
+			}
+			else if (previousStartAfterValues != null) {
+				// restart on current page
+				executionContext.put(getExecutionContextKey(START_AFTER_VALUE), previousStartAfterValues);
+			}
+		}
+	}
+
 	@Override
 	protected void doClose() throws Exception {
 		entityManager.close();
+		startAfterValues = new LinkedHashMap<>();
+		previousStartAfterValues = null;
 		super.doClose();
 	}
 
+	private Query createKeysetQuery() {
+		if (startAfterValues.isEmpty()) {
+			return entityManager.createQuery(firstPageQueryString);
+		}
+		Query query = entityManager.createQuery(remainingPagesQueryString);
+		int i = 0;
+		for (Object value : startAfterValues.values()) {
+			query.setParameter(SORT_KEY_PARAMETER_PREFIX + i++, value);
+		}
+		return query;
+	}
+
+	private Map<String, Object> extractSortKeyValues(T item) {
+		BeanWrapperImpl beanWrapper = new BeanWrapperImpl(item);
+		Map<String, Object> values = new LinkedHashMap<>();
+		for (String sortKey : sortKeys.keySet()) {
+			int aliasEnd = sortKey.indexOf('.');
+			values.put(sortKey, beanWrapper.getPropertyValue(aliasEnd < 0 ? sortKey : sortKey.substring(aliasEnd + 1)));
+		}
+		return values;
+	}
+
+	/**
+	 * Add the keyset conditions to the query string, either to its existing WHERE
+	 * clause or as a new one.
+	 */
+	private String addSortConditions(String query) {
+		List<Map.Entry<String, Order>> keys = new ArrayList<>(sortKeys.entrySet());
+		StringBuilder conditions = new StringBuilder("(");
+		for (int i = 0; i < keys.size(); i++) {
+			if (i > 0) {
+				conditions.append(" OR ");
+			}
+			conditions.append("(");
+			for (int j = 0; j < i; j++) {
+				conditions.append(keys.get(j).getKey()).append(" = :").append(SORT_KEY_PARAMETER_PREFIX).append(j).append(" AND ");
+			}
+			conditions.append(keys.get(i).getKey());
+			conditions.append(keys.get(i).getValue() == Order.DESCENDING ? " < :" : " > :");
+			conditions.append(SORT_KEY_PARAMETER_PREFIX).append(i).append(")");
+		}
+		conditions.append(")");
+
+		return OrmQueryUtils.addCondition(query, conditions.toString());
+	}
+
 }
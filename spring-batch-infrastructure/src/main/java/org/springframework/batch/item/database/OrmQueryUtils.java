@@ -0,0 +1,84 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.item.database;
+
+import org.springframework.util.Assert;
+
+/**
+ * Utility methods to add keyset conditions to JPQL and HQL query strings.
+ *
+ * @since 4.3
+ */
+abstract class OrmQueryUtils {
+
+	/**
+	 * Add a condition to the query string, either to its existing top level
+	 * WHERE clause or as a new one. The query string must not have an ORDER BY
+	 * clause.
+	 *
+	 * @param query the JPQL or HQL query string
+	 * @param condition the condition to add
+	 * @return the query string restricted by the condition
+	 */
+	static String addCondition(String query, String condition) {
+		Assert.state(indexOfKeyword(query, "order") < 0,
+				"The query string must not contain an ORDER BY clause when sort keys are set");
+
+		int where = indexOfKeyword(query, "where");
+		if (where < 0) {
+			return query + " WHERE " + condition;
+		}
+		return query.substring(0, where) + "WHERE (" + query.substring(where + "where".length()).trim() + ") AND "
+				+ condition;
+	}
+
+	/**
+	 * Find the given keyword in the query string, outside of quotes and
+	 * parentheses (i.e. not in a sub-query).
+	 *
+	 * @param query the query string
+	 * @param keyword the keyword to look for, case insensitive
+	 * @return the index of the keyword or -1 if not found
+	 */
+	static int indexOfKeyword(String query, String keyword) {
+		int depth = 0;
+		char quote = 0;
+		for (int i = 0; i < query.length(); i++) {
+			char c = query.charAt(i);
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+				}
+			}
+			else if (c == '\'' || c == '"') {
+				quote = c;
+			}
+			else if (c == '(') {
+				depth++;
+			}
+			else if (c == ')') {
+				depth--;
+			}
+			else if (depth == 0 && query.regionMatches(true, i, keyword, 0, keyword.length())
+					&& (i == 0 || Character.isWhitespace(query.charAt(i - 1)))
+					&& (i + keyword.length() == query.length() || Character.isWhitespace(query.charAt(i + keyword.length())))) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2017-2018 the original author or authors.
+ * Copyright 2017-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -49,6 +49,10 @@ public class HibernateCursorItemReaderBuilder<T> {
 
 	private int fetchSize;
 
+	private String sortKey;
+
+	private int clearInterval;
+
 	private HibernateQueryProvider<T> queryProvider;
 
 	private String queryString;
@@ -165,6 +169,34 @@ public class HibernateCursorItemReaderBuilder<T> {
 		return this;
 	}
 
+	/**
+	 * The unique property, qualified by the identification variable of the selected
+	 * entity (for example <code>f.id</code>), used to order the items of the query
+	 * string and to restart without replaying the items already read.
+	 *
+	 * @param sortKey the sort key
+	 * @return this instance for method chaining
+	 * @see HibernateCursorItemReader#setSortKey(String)
+	 */
+	public HibernateCursorItemReaderBuilder<T> sortKey(String sortKey) {
+		this.sortKey = sortKey;
+
+		return this;
+	}
+
+	/**
+	 * The number of items after which a stateful session is cleared while reading.
+	 *
+	 * @param clearInterval the number of items, 0 to only clear on update
+	 * @return this instance for method chaining
+	 * @see HibernateCursorItemReader#setClearInterval(int)
+	 */
+	public HibernateCursorItemReaderBuilder<T> clearInterval(int clearInterval) {
+		this.clearInterval = clearInterval;
+
+		return this;
+	}
+
 	/**
 	 * A query provider.  This should be set only if {@link #queryString(String)} and
 	 * {@link #queryName(String)} have not been set.
@@ -246,6 +278,7 @@ public class HibernateCursorItemReaderBuilder<T> {
 	 */
 	public HibernateCursorItemReader<T> build() {
 		Assert.state(this.fetchSize >= 0, "fetchSize must not be negative");
+		Assert.state(this.clearInterval >= 0, "clearInterval must not be negative");
 		Assert.state(this.sessionFactory != null, "A SessionFactory must be provided");
 
 		if(this.saveState) {
@@ -253,9 +286,15 @@ public class HibernateCursorItemReaderBuilder<T> {
 					"A name is required when saveState is set to true.");
 		}
 
+		if(this.sortKey != null) {
+			Assert.state(StringUtils.hasText(this.queryString) && this.queryProvider == null
+					&& !StringUtils.hasText(this.queryName), "A sortKey is only supported with a queryString");
+		}
+
 		HibernateCursorItemReader<T> reader = new HibernateCursorItemReader<>();
 
 		reader.setFetchSize(this.fetchSize);
+		reader.setClearInterval(this.clearInterval);
 		reader.setParameterValues(this.parameterValues);
 
 		if(this.queryProvider != null) {
@@ -266,6 +305,7 @@ public class HibernateCursorItemReaderBuilder<T> {
 		}
 		else if(StringUtils.hasText(this.queryString)) {
 			reader.setQueryString(this.queryString);
+			reader.setSortKey(this.sortKey);
 		}
 		else if(StringUtils.hasText(this.nativeQuery) && this.nativeClass != null) {
 			HibernateNativeQueryProvider<T> provider = new HibernateNativeQueryProvider<>();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2017 the original author or authors.
+ * Copyright 2017-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -33,6 +33,12 @@ public class HibernateItemWriterBuilder<T> {
 
 	private SessionFactory sessionFactory;
 
+	private int flushInterval = 0;
+
+	private boolean useStatelessSession = false;
+
+	private Integer jdbcBatchSize;
+
 	/**
 	 * If set to false, the {@link org.hibernate.Session} will not be cleared at the end
 	 * of the chunk.
@@ -60,6 +66,47 @@ public class HibernateItemWriterBuilder<T> {
 		return this;
 	}
 
+	/**
+	 * Set the number of items after which the {@link org.hibernate.Session} is flushed
+	 * (and cleared if {@link #clearSession(boolean)} is set) during a write.
+	 *
+	 * @param flushInterval defaults to 0 (flush once at the end of the write)
+	 * @return this instance for method chaining
+	 * @see HibernateItemWriter#setFlushInterval(int)
+	 */
+	public HibernateItemWriterBuilder<T> flushInterval(int flushInterval) {
+		this.flushInterval = flushInterval;
+
+		return this;
+	}
+
+	/**
+	 * If set to true, items are inserted with a {@link org.hibernate.StatelessSession}
+	 * sharing the connection of the current {@link org.hibernate.Session}.
+	 *
+	 * @param useStatelessSession defaults to false
+	 * @return this instance for method chaining
+	 * @see HibernateItemWriter#setUseStatelessSession(boolean)
+	 */
+	public HibernateItemWriterBuilder<T> useStatelessSession(boolean useStatelessSession) {
+		this.useStatelessSession = useStatelessSession;
+
+		return this;
+	}
+
+	/**
+	 * The JDBC batch size to use for the session(s) used by the writer.
+	 *
+	 * @param jdbcBatchSize defaults to the session factory setting
+	 * @return this instance for method chaining
+	 * @see HibernateItemWriter#setJdbcBatchSize(Integer)
+	 */
+	public HibernateItemWriterBuilder<T> jdbcBatchSize(Integer jdbcBatchSize) {
+		this.jdbcBatchSize = jdbcBatchSize;
+
+		return this;
+	}
+
 	/**
 	 * Returns a fully built {@link HibernateItemWriter}
 	 *
@@ -68,10 +115,15 @@ public class HibernateItemWriterBuilder<T> {
 	public HibernateItemWriter<T> build() {
 		Assert.state(this.sessionFactory != null,
 				"SessionFactory must be provided");
+		Assert.state(this.flushInterval >= 0,
+				"The flush interval must not be negative");
 
 		HibernateItemWriter<T> writer = new HibernateItemWriter<>();
 		writer.setSessionFactory(this.sessionFactory);
 		writer.setClearSession(this.clearSession);
+		writer.setFlushInterval(this.flushInterval);
+		writer.setUseStatelessSession(this.useStatelessSession);
+		writer.setJdbcBatchSize(this.jdbcBatchSize);
 
 		return writer;
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 the original author or authors.
+ * Copyright 2016-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,6 +23,7 @@ import org.springframework.batch.item.database.BeanPropertyItemSqlParameterSourc
 import org.springframework.batch.item.database.ItemPreparedStatementSetter;
 import org.springframework.batch.item.database.ItemSqlParameterSourceProvider;
 import org.springframework.batch.item.database.JdbcBatchItemWriter;
+import org.springframework.batch.item.database.support.BeanPropertyItemPreparedStatementSetter;
 import org.springframework.batch.item.database.support.ColumnMapItemPreparedStatementSetter;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
@@ -51,6 +52,8 @@ public class JdbcBatchItemWriterBuilder<T> {
 
 	private BigInteger mapped = new BigInteger("0");
 
+	private Class<? extends T> beanMappedType;
+
 	/**
 	 * Configure the {@link DataSource} to be used.
 	 *
@@ -162,6 +165,22 @@ public class JdbcBatchItemWriterBuilder<T> {
 		return this;
 	}
 
+	/**
+	 * Creates a {@link BeanPropertyItemPreparedStatementSetter} for the given item type
+	 * to be used as your {@link ItemPreparedStatementSetter}. The named SQL statement is
+	 * parsed and the item type introspected once, and the writer is configured with the
+	 * resulting positional SQL statement.
+	 *
+	 * @param itemType the type of the items to write
+	 * @return The current instance of the builder for chaining
+	 * @see BeanPropertyItemPreparedStatementSetter
+	 */
+	public JdbcBatchItemWriterBuilder<T> beanMapped(Class<? extends T> itemType) {
+		this.beanMappedType = itemType;
+
+		return beanMapped();
+	}
+
 	/**
 	 * Validates configuration and builds the {@link JdbcBatchItemWriter}.
 	 *
@@ -185,6 +204,11 @@ public class JdbcBatchItemWriterBuilder<T> {
 
 		if(mappedValue == 1) {
 			((JdbcBatchItemWriter<Map<String,Object>>)writer).setItemPreparedStatementSetter(new ColumnMapItemPreparedStatementSetter());
+		} else if(mappedValue == 2 && this.beanMappedType != null) {
+			BeanPropertyItemPreparedStatementSetter<T> setter =
+					new BeanPropertyItemPreparedStatementSetter<>(this.beanMappedType, this.sql);
+			writer.setSql(setter.getSql());
+			writer.setItemPreparedStatementSetter(setter);
 		} else if(mappedValue == 2) {
 			writer.setItemSqlParameterSourceProvider(new BeanPropertyItemSqlParameterSourceProvider<>());
 		}
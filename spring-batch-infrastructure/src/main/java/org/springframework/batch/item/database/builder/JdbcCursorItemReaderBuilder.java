@@ -44,6 +44,10 @@ public class JdbcCursorItemReaderBuilder<T> {
 
 	private int fetchSize = AbstractCursorItemReader.VALUE_NOT_SET;
 
+	private long fetchBufferSize = AbstractCursorItemReader.VALUE_NOT_SET;
+
+	private int maxFetchSize = AbstractCursorItemReader.VALUE_NOT_SET;
+
 	private int maxRows = AbstractCursorItemReader.VALUE_NOT_SET;
 
 	private int queryTimeout = AbstractCursorItemReader.VALUE_NOT_SET;
@@ -153,6 +157,33 @@ public class JdbcCursorItemReaderBuilder<T> {
 		return this;
 	}
 
+	/**
+	 * Enables the adaptive fetch size: the approximate number of bytes the rows of
+	 * one fetch should take.
+	 *
+	 * @param fetchBufferSize the number of bytes to buffer per fetch
+	 * @return this instance for method chaining
+	 * @see JdbcCursorItemReader#setFetchBufferSize(long)
+	 */
+	public JdbcCursorItemReaderBuilder<T> fetchBufferSize(long fetchBufferSize) {
+		this.fetchBufferSize = fetchBufferSize;
+
+		return this;
+	}
+
+	/**
+	 * The upper bound of the adaptive fetch size.
+	 *
+	 * @param maxFetchSize the maximum number of rows per fetch
+	 * @return this instance for method chaining
+	 * @see JdbcCursorItemReader#setMaxFetchSize(int)
+	 */
+	public JdbcCursorItemReaderBuilder<T> maxFetchSize(int maxFetchSize) {
+		this.maxFetchSize = maxFetchSize;
+
+		return this;
+	}
+
 	/**
 	 * The max number of rows the {@link java.sql.ResultSet} can contain
 	 *
@@ -367,6 +398,10 @@ public class JdbcCursorItemReaderBuilder<T> {
 		reader.setDataSource(this.dataSource);
 		reader.setDriverSupportsAbsolute(this.driverSupportsAbsolute);
 		reader.setFetchSize(this.fetchSize);
+		reader.setFetchBufferSize(this.fetchBufferSize);
+		if (this.maxFetchSize != AbstractCursorItemReader.VALUE_NOT_SET) {
+			reader.setMaxFetchSize(this.maxFetchSize);
+		}
 		reader.setIgnoreWarnings(this.ignoreWarnings);
 		reader.setMaxItemCount(this.maxItemCount);
 		reader.setMaxRows(this.maxRows);
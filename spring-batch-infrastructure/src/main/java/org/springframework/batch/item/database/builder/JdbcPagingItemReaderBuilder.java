@@ -1,5 +1,5 @@
 /*
- * Copyright 2017 the original author or authors.
+ * Copyright 2017-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -61,6 +61,8 @@ public class JdbcPagingItemReaderBuilder<T> {
 
 	private Map<String, Object> parameterValues;
 
+	private String countQuery;
+
 	private int pageSize = 10;
 
 	private String groupClause;
@@ -188,6 +190,20 @@ public class JdbcPagingItemReaderBuilder<T> {
 		return this;
 	}
 
+	/**
+	 * A query counting the rows to read, to report the progress of the reader.
+	 *
+	 * @param countQuery the SQL query returning the number of rows to read
+	 * @return this instance for method chaining
+	 * @see JdbcPagingItemReader#setCountQuery(String)
+	 * @since 4.3
+	 */
+	public JdbcPagingItemReaderBuilder<T> countQuery(String countQuery) {
+		this.countQuery = countQuery;
+
+		return this;
+	}
+
 	/**
 	 * The number of records to request per page/query.  Defaults to 10.  Must be greater
 	 * than zero.
@@ -310,6 +326,7 @@ public class JdbcPagingItemReaderBuilder<T> {
 		reader.setDataSource(this.dataSource);
 		reader.setFetchSize(this.fetchSize);
 		reader.setParameterValues(this.parameterValues);
+		reader.setCountQuery(this.countQuery);
 
 		if(this.queryProvider == null) {
 			Assert.hasLength(this.selectClause, "selectClause is required when not providing a PagingQueryProvider");
@@ -31,6 +31,8 @@ public class JpaItemWriterBuilder<T> {
 
 	private EntityManagerFactory entityManagerFactory;
 	private boolean usePersist = false;
+	private int flushInterval = 0;
+	private boolean clearPersistenceContext = false;
 
 	/**
 	 * The JPA {@link EntityManagerFactory} to obtain an entity manager from. Required.
@@ -58,6 +60,33 @@ public class JpaItemWriterBuilder<T> {
 		return this;
 	}
 
+	/**
+	 * Set the number of items after which the entity manager is flushed during a
+	 * write.
+	 *
+	 * @param flushInterval defaults to 0 (flush once at the end of the write)
+	 * @return this instance for method chaining
+	 * @see JpaItemWriter#setFlushInterval(int)
+	 */
+	public JpaItemWriterBuilder<T> flushInterval(int flushInterval) {
+		this.flushInterval = flushInterval;
+
+		return this;
+	}
+
+	/**
+	 * Set whether the persistence context should be cleared after each flush.
+	 *
+	 * @param clearPersistenceContext defaults to false
+	 * @return this instance for method chaining
+	 * @see JpaItemWriter#setClearPersistenceContext(boolean)
+	 */
+	public JpaItemWriterBuilder<T> clearPersistenceContext(boolean clearPersistenceContext) {
+		this.clearPersistenceContext = clearPersistenceContext;
+
+		return this;
+	}
+
 	/**
 	 * Returns a fully built {@link JpaItemWriter}.
 	 *
@@ -66,10 +95,14 @@ public class JpaItemWriterBuilder<T> {
 	public JpaItemWriter<T> build() {
 		Assert.state(this.entityManagerFactory != null,
 				"EntityManagerFactory must be provided");
+		Assert.state(this.flushInterval >= 0,
+				"The flush interval must not be negative");
 
 		JpaItemWriter<T> writer = new JpaItemWriter<>();
 		writer.setEntityManagerFactory(this.entityManagerFactory);
 		writer.setUsePersist(this.usePersist);
+		writer.setFlushInterval(this.flushInterval);
+		writer.setClearPersistenceContext(this.clearPersistenceContext);
 
 		return writer;
 	}
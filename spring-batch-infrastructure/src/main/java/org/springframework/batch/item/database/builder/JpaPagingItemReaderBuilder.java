@@ -1,5 +1,5 @@
 /*
- * Copyright 2017 the original author or authors.
+ * Copyright 2017-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ import java.util.Map;
 import javax.persistence.EntityManagerFactory;
 
 import org.springframework.batch.item.database.JpaPagingItemReader;
+import org.springframework.batch.item.database.Order;
 import org.springframework.batch.item.database.orm.JpaQueryProvider;
 import org.springframework.util.Assert;
 
@@ -53,6 +54,8 @@ public class JpaPagingItemReaderBuilder<T> {
 
 	private int currentItemCount;
 
+	private Map<String, Order> sortKeys;
+
 	/**
 	 * Configure if the state of the {@link org.springframework.batch.item.ItemStreamSupport}
 	 * should be persisted within the {@link org.springframework.batch.item.ExecutionContext}
@@ -164,6 +167,22 @@ public class JpaPagingItemReaderBuilder<T> {
 		return this;
 	}
 
+	/**
+	 * The keys to sort by to read pages with keyset paging instead of offsets.  The
+	 * keys must be qualified by the identification variable of the selected entity
+	 * (for example <code>f.id</code>) and the query string must not have an ORDER BY
+	 * clause.
+	 *
+	 * @param sortKeys the sort keys in order of precedence
+	 * @return this instance for method chaining
+	 * @see JpaPagingItemReader#setSortKeys(Map)
+	 */
+	public JpaPagingItemReaderBuilder<T> sortKeys(Map<String, Order> sortKeys) {
+		this.sortKeys = sortKeys;
+
+		return this;
+	}
+
 	/**
 	 * Indicates if a transaction should be created around the read (true by default).
 	 * Can be set to false in cases where JPA implementation doesn't support a particular
@@ -210,6 +229,9 @@ public class JpaPagingItemReaderBuilder<T> {
 		if(this.queryProvider == null) {
 			Assert.hasLength(this.queryString, "Query string is required when queryProvider is null");
 		}
+		if(this.sortKeys != null) {
+			Assert.state(this.queryProvider == null, "Sort keys are not supported with a queryProvider");
+		}
 
 		JpaPagingItemReader<T> reader = new JpaPagingItemReader<>();
 
@@ -219,6 +241,7 @@ public class JpaPagingItemReaderBuilder<T> {
 		reader.setEntityManagerFactory(this.entityManagerFactory);
 		reader.setQueryProvider(this.queryProvider);
 		reader.setTransacted(this.transacted);
+		reader.setSortKeys(this.sortKeys);
 		reader.setCurrentItemCount(this.currentItemCount);
 		reader.setMaxItemCount(this.maxItemCount);
 		reader.setSaveState(this.saveState);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2017-2018 the original author or authors.
+ * Copyright 2017-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -49,6 +49,10 @@ public class StoredProcedureItemReaderBuilder<T> {
 
 	private int fetchSize = VALUE_NOT_SET;
 
+	private long fetchBufferSize = VALUE_NOT_SET;
+
+	private int maxFetchSize = VALUE_NOT_SET;
+
 	private int maxRows = VALUE_NOT_SET;
 
 	private int queryTimeout = VALUE_NOT_SET;
@@ -156,6 +160,33 @@ public class StoredProcedureItemReaderBuilder<T> {
 		return this;
 	}
 
+	/**
+	 * Enables the adaptive fetch size: the approximate number of bytes the rows of
+	 * one fetch should take.
+	 *
+	 * @param fetchBufferSize the number of bytes to buffer per fetch
+	 * @return this instance for method chaining
+	 * @see StoredProcedureItemReader#setFetchBufferSize(long)
+	 */
+	public StoredProcedureItemReaderBuilder<T> fetchBufferSize(long fetchBufferSize) {
+		this.fetchBufferSize = fetchBufferSize;
+
+		return this;
+	}
+
+	/**
+	 * The upper bound of the adaptive fetch size.
+	 *
+	 * @param maxFetchSize the maximum number of rows per fetch
+	 * @return this instance for method chaining
+	 * @see StoredProcedureItemReader#setMaxFetchSize(int)
+	 */
+	public StoredProcedureItemReaderBuilder<T> maxFetchSize(int maxFetchSize) {
+		this.maxFetchSize = maxFetchSize;
+
+		return this;
+	}
+
 	/**
 	 * The max number of rows the {@link java.sql.ResultSet} can contain
 	 *
@@ -348,6 +379,10 @@ public class StoredProcedureItemReaderBuilder<T> {
 		itemReader.setDataSource(this.dataSource);
 		itemReader.setDriverSupportsAbsolute(this.driverSupportsAbsolute);
 		itemReader.setFetchSize(this.fetchSize);
+		itemReader.setFetchBufferSize(this.fetchBufferSize);
+		if (this.maxFetchSize != VALUE_NOT_SET) {
+			itemReader.setMaxFetchSize(this.maxFetchSize);
+		}
 		itemReader.setIgnoreWarnings(this.ignoreWarnings);
 		itemReader.setMaxItemCount(this.maxItemCount);
 		itemReader.setMaxRows(this.maxRows);
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.item.database.support;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.batch.item.database.BeanPropertyItemSqlParameterSourceProvider;
+import org.springframework.batch.item.database.ItemPreparedStatementSetter;
+import org.springframework.batch.item.database.ItemSqlParameterSourceProvider;
+import org.springframework.batch.item.database.JdbcParameterUtils;
+import org.springframework.beans.BeanUtils;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.jdbc.core.namedparam.AbstractSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.EmptySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+import org.springframework.jdbc.core.namedparam.ParsedSql;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * <p>{@link ItemPreparedStatementSetter} that binds the JavaBean properties of an item
+ * to the named parameters of an SQL statement, for example
+ * <code>INSERT INTO FOO (ID, NAME) VALUES (:id, :name)</code>.</p>
+ *
+ * <p>Unlike the {@link BeanPropertyItemSqlParameterSourceProvider}, which introspects
+ * every item and resolves every parameter by name on every row, the SQL statement is
+ * parsed and the item type is introspected once, when this setter is created. Each
+ * parameter position is bound to a pre-resolved getter {@link MethodHandle} and JDBC
+ * type, and values are set positionally on the {@link PreparedStatement}. The
+ * {@link #getSql() positional SQL} has to be used in place of the original named
+ * statement, for example with the
+ * {@link org.springframework.batch.item.database.JdbcBatchItemWriter}.</p>
+ *
+ * <p>This class also implements {@link ItemSqlParameterSourceProvider} so that it can
+ * be used as a cheaper drop-in replacement of the
+ * {@link BeanPropertyItemSqlParameterSourceProvider} when the original named SQL
+ * statement is kept.</p>
+ *
+ * <p>Only simple (non-nested) bean properties are supported. The getters of an item
+ * type that is not public are made accessible, as by a
+ * {@link org.springframework.beans.BeanWrapper}. The setter is thread-safe once
+ * created.</p>
+ *
+ * @param <T> type of the items
+ * @since 4.3
+ * @see BeanPropertyItemSqlParameterSourceProvider
+ */
+public class BeanPropertyItemPreparedStatementSetter<T> implements ItemPreparedStatementSetter<T>,
+		ItemSqlParameterSourceProvider<T> {
+
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	private final String sql;
+
+	private final MethodHandle[] getters;
+
+	private final int[] sqlTypes;
+
+	private final Map<String, Integer> parameterIndexes = new HashMap<>();
+
+	/**
+	 * Create a new {@link BeanPropertyItemPreparedStatementSetter}.
+	 *
+	 * @param itemType the type of the items to bind, must not be null
+	 * @param sql the SQL statement with named parameters, must not be null
+	 */
+	public BeanPropertyItemPreparedStatementSetter(Class<? extends T> itemType, String sql) {
+		Assert.notNull(itemType, "The item type must not be null");
+		Assert.hasText(sql, "The SQL statement must not be empty");
+
+		List<String> namedParameters = new ArrayList<>();
+		int parameterCount = JdbcParameterUtils.countParameterPlaceholders(sql, namedParameters);
+		if (parameterCount != namedParameters.size()) {
+			throw new InvalidDataAccessApiUsageException("You can't use both named parameters and classic \"?\" placeholders: " + sql);
+		}
+
+		ParsedSql parsedSql = NamedParameterUtils.parseSqlStatement(sql);
+		this.sql = NamedParameterUtils.substituteNamedParameters(parsedSql, null);
+		List<SqlParameter> parameters = NamedParameterUtils.buildSqlParameterList(parsedSql, new EmptySqlParameterSource());
+
+		this.getters = new MethodHandle[parameters.size()];
+		this.sqlTypes = new int[parameters.size()];
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		for (int i = 0; i < parameters.size(); i++) {
+			String name = parameters.get(i).getName();
+			PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(itemType, name);
+			Method readMethod = (descriptor != null ? descriptor.getReadMethod() : null);
+			if (readMethod == null) {
+				throw new InvalidDataAccessApiUsageException("No readable property '" + name + "' found on " + itemType.getName());
+			}
+			try {
+				// e.g. the public getter of a package-private item type
+				ReflectionUtils.makeAccessible(readMethod);
+				this.getters[i] = lookup.unreflect(readMethod).asType(GETTER_TYPE);
+			}
+			catch (IllegalAccessException | SecurityException e) {
+				throw new InvalidDataAccessApiUsageException("Property '" + name + "' of " + itemType.getName() + " is not accessible", e);
+			}
+			this.sqlTypes[i] = StatementCreatorUtils.javaTypeToSqlParameterType(descriptor.getPropertyType());
+			this.parameterIndexes.putIfAbsent(name, i);
+		}
+	}
+
+	/**
+	 * @return the SQL statement with the named parameters replaced by '?' placeholders
+	 */
+	public String getSql() {
+		return this.sql;
+	}
+
+	@Override
+	public void setValues(T item, PreparedStatement ps) throws SQLException {
+		for (int i = 0; i < this.getters.length; i++) {
+			StatementCreatorUtils.setParameterValue(ps, i + 1, this.sqlTypes[i], getValue(i, item));
+		}
+	}
+
+	@Override
+	public SqlParameterSource createSqlParameterSource(T item) {
+		return new AbstractSqlParameterSource() {
+
+			@Override
+			public boolean hasValue(String paramName) {
+				return parameterIndexes.containsKey(paramName);
+			}
+
+			@Override
+			public Object getValue(String paramName) {
+				Integer index = parameterIndexes.get(paramName);
+				if (index == null) {
+					throw new IllegalArgumentException("No value registered for key '" + paramName + "'");
+				}
+				return BeanPropertyItemPreparedStatementSetter.this.getValue(index, item);
+			}
+
+			@Override
+			public int getSqlType(String paramName) {
+				Integer index = parameterIndexes.get(paramName);
+				return (index != null ? sqlTypes[index] : super.getSqlType(paramName));
+			}
+
+			@Override
+			public String[] getParameterNames() {
+				return parameterIndexes.keySet().toArray(new String[0]);
+			}
+		};
+	}
+
+	private Object getValue(int index, T item) {
+		try {
+			return (Object) this.getters[index].invokeExact((Object) item);
+		}
+		catch (RuntimeException | Error e) {
+			throw e;
+		}
+		catch (Throwable e) {
+			throw new IllegalStateException("Unable to read a property of item: " + item, e);
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2019 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,6 +23,7 @@ import java.nio.charset.Charset;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ProgressAware;
 import org.springframework.batch.item.ReaderNotOpenException;
 import org.springframework.batch.item.file.separator.RecordSeparatorPolicy;
 import org.springframework.batch.item.file.separator.SimpleRecordSeparatorPolicy;
@@ -39,12 +40,15 @@ import org.springframework.util.StringUtils;
  * {@link #setRecordSeparatorPolicy(RecordSeparatorPolicy)} and mapped to item using {@link #setLineMapper(LineMapper)}.
  * If an exception is thrown during line mapping it is rethrown as {@link FlatFileParseException} adding information
  * about the problematic line and its line number.
+ * <p>
+ * When the resource is a file, the progress is reported in bytes of the file, estimated from the characters of the
+ * lines read, so it is exact for single byte encodings with one character line separators.
  * 
  * @author Robert Kasanicky
  * @author Mahmoud Ben Hassine
  */
 public class FlatFileItemReader<T> extends AbstractItemCountingItemStreamItemReader<T> implements
-		ResourceAwareItemReaderItemStream<T>, InitializingBean {
+		ResourceAwareItemReaderItemStream<T>, InitializingBean, ProgressAware {
 
 	private static final Log logger = LogFactory.getLog(FlatFileItemReader.class);
 
@@ -61,6 +65,10 @@ public class FlatFileItemReader<T> extends AbstractItemCountingItemStreamItemRea
 
 	private int lineCount = 0;
 
+	private long totalWork = UNKNOWN;
+
+	private long charactersRead = 0;
+
 	private String[] comments = DEFAULT_COMMENT_PREFIXES;
 
 	private boolean noInput = false;
@@ -204,13 +212,13 @@ public class FlatFileItemReader<T> extends AbstractItemCountingItemStreamItemRea
 		String line = null;
 
 		try {
-			line = this.reader.readLine();
+			line = nextLine();
 			if (line == null) {
 				return null;
 			}
 			lineCount++;
 			while (isComment(line)) {
-				line = reader.readLine();
+				line = nextLine();
 				if (line == null) {
 					return null;
 				}
@@ -229,6 +237,15 @@ public class FlatFileItemReader<T> extends AbstractItemCountingItemStreamItemRea
 		return line;
 	}
 
+	@Nullable
+	private String nextLine() throws IOException {
+		String line = this.reader.readLine();
+		if (line != null) {
+			charactersRead += line.length() + 1;
+		}
+		return line;
+	}
+
 	private boolean isComment(String line) {
 		for (String prefix : comments) {
 			if (line.startsWith(prefix)) {
@@ -241,6 +258,8 @@ public class FlatFileItemReader<T> extends AbstractItemCountingItemStreamItemRea
 	@Override
 	protected void doClose() throws Exception {
 		lineCount = 0;
+		charactersRead = 0;
+		totalWork = UNKNOWN;
 		if (reader != null) {
 			reader.close();
 		}
@@ -270,6 +289,15 @@ public class FlatFileItemReader<T> extends AbstractItemCountingItemStreamItemRea
 		}
 
 		reader = bufferedReaderFactory.create(resource, encoding);
+		if (resource.isFile()) {
+			// other resources may have to be read to get their length
+			try {
+				totalWork = resource.contentLength();
+			}
+			catch (IOException e) {
+				logger.debug("Unable to get the size of the resource " + resource.getDescription(), e);
+			}
+		}
 		for (int i = 0; i < linesToSkip; i++) {
 			String line = readLine();
 			if (skippedLinesCallback != null) {
@@ -291,11 +319,21 @@ public class FlatFileItemReader<T> extends AbstractItemCountingItemStreamItemRea
 		}
 	}
 
+	@Override
+	public long getTotalWork() {
+		return totalWork;
+	}
+
+	@Override
+	public long getCompletedWork() {
+		return totalWork == UNKNOWN ? charactersRead : Math.min(charactersRead, totalWork);
+	}
+
 	private String applyRecordSeparatorPolicy(String line) throws IOException {
 
 		String record = line;
 		while (line != null && !recordSeparatorPolicy.isEndOfRecord(record)) {
-			line = this.reader.readLine();
+			line = nextLine();
 			if (line == null) {
 				if (StringUtils.hasText(record)) {
 					// A record was partially complete since it hasn't ended but
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.item.support;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@link LookupLoader} decorator keeping the loaded values in a {@link LookupCache},
+ * so that only the keys not yet cached are loaded by the delegate, all at once.
+ * Keys the delegate has no value for are cached as well.
+ *
+ * <p>
+ * Used as the loader of a {@link LookupItemProcessor}, this caches the lookups
+ * across chunks (and across the threads sharing the cache) instead of looking up
+ * the same reference data for every chunk.
+ * </p>
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ * @since 4.3
+ */
+public class CachingLookupLoader<K, V> implements LookupLoader<K, V> {
+
+	private final LookupLoader<K, V> delegate;
+
+	private final LookupCache<K, V> cache;
+
+	/**
+	 * @param delegate the {@link LookupLoader} loading the values not yet cached
+	 * @param cache the {@link LookupCache} keeping the loaded values
+	 */
+	public CachingLookupLoader(LookupLoader<K, V> delegate, LookupCache<K, V> cache) {
+		Assert.notNull(delegate, "The delegate must not be null");
+		Assert.notNull(cache, "The cache must not be null");
+		this.delegate = delegate;
+		this.cache = cache;
+	}
+
+	@Override
+	public Map<K, V> load(Collection<K> keys) throws Exception {
+		Map<K, V> values = cache.getAll(keys);
+		if (values.size() == keys.size()) {
+			return values;
+		}
+
+		Set<K> missingKeys = new LinkedHashSet<>();
+		for (K key : keys) {
+			if (!values.containsKey(key)) {
+				missingKeys.add(key);
+			}
+		}
+		Map<K, V> loadedValues = new HashMap<>(delegate.load(missingKeys));
+		for (K key : missingKeys) {
+			loadedValues.putIfAbsent(key, null);
+		}
+		cache.putAll(loadedValues);
+		values.putAll(loadedValues);
+		return values;
+	}
+
+}
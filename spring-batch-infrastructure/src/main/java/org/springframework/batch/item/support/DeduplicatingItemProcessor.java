@@ -0,0 +1,365 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.item.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.ToLongFunction;
+
+import org.springframework.batch.item.ChunkAwareItemProcessor;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * <p>
+ * {@link ItemProcessor} filtering out the items whose <code>long</code> key was
+ * already seen in the step, for example to drop the duplicate ids of a feed.
+ * </p>
+ *
+ * <p>
+ * The keys seen are held in an open addressing hash set stored outside of the
+ * heap, costing about 8 to 24 bytes per key without any object allocation, so
+ * hundreds of millions of keys can be tracked. Keys that are not numeric can be
+ * mapped to a <code>long</code> with a 64 bits hash, at the cost of a small
+ * probability of collision.
+ * </p>
+ *
+ * <p>
+ * The keys of a chunk are only reserved while it is processed, and are added to
+ * the set at the next {@link #update(ExecutionContext) checkpoint}, so the
+ * processor has to be registered as a stream of the step, which the step
+ * builders do when it is the processor of the step. Since the processor is
+ * {@link #prepare(List) prepared} each time the items of a chunk are processed,
+ * the items of a chunk processed again by a fault-tolerant step after a
+ * rollback, to retry or scan it, are let through again instead of being taken
+ * for duplicates of themselves.
+ * </p>
+ *
+ * <p>
+ * When the state is saved, the new keys are also appended to a
+ * {@link #setJournal(File) journal file} that is flushed at each checkpoint, and
+ * whose length is saved in the {@link ExecutionContext}. A restarted processor
+ * reloads the keys journaled up to the last checkpoint, so the items of the
+ * chunks already committed are still filtered out while the items of the
+ * chunk that failed are not.
+ * </p>
+ *
+ * <p>
+ * The number of distinct keys and the load factor of the hash set can be
+ * monitored with {@link #getDistinctCount()} and {@link #getLoadFactor()}.
+ * The implementation is thread-safe.
+ * </p>
+ *
+ * @param <T> type of the items
+ * @since 4.3
+ */
+public class DeduplicatingItemProcessor<T> extends ItemStreamSupport
+		implements ChunkAwareItemProcessor<T, T>, InitializingBean {
+
+	private static final String JOURNAL_LENGTH = "journal.length";
+
+	private static final int JOURNAL_BUFFER_SIZE = 64 * 1024;
+
+	private ToLongFunction<? super T> keyExtractor;
+
+	private File journal;
+
+	private long initialCapacity = 1 << 20;
+
+	private double maxLoadFactor = 0.7;
+
+	private boolean saveState = true;
+
+	private OffHeapLongHashSet keys;
+
+	private ConcurrentMap<Long, ChunkKeys> reservedKeys;
+
+	private ThreadLocal<ChunkKeys> chunkKeys;
+
+	private FileChannel journalChannel;
+
+	private ByteBuffer journalBuffer;
+
+	public DeduplicatingItemProcessor() {
+		setName(ClassUtils.getShortName(DeduplicatingItemProcessor.class));
+	}
+
+	/**
+	 * @param keyExtractor the function returning the key of an item
+	 */
+	public void setKeyExtractor(ToLongFunction<? super T> keyExtractor) {
+		this.keyExtractor = keyExtractor;
+	}
+
+	/**
+	 * The file the keys are journaled to, required when the state is saved. It is
+	 * truncated when the processor is not restarted, and should not be shared by
+	 * concurrent steps, for example by including the job instance id in its path.
+	 *
+	 * @param journal the journal file
+	 */
+	public void setJournal(File journal) {
+		this.journal = journal;
+	}
+
+	/**
+	 * @param initialCapacity the initial number of slots of the hash set, defaults
+	 * to about one million
+	 */
+	public void setInitialCapacity(long initialCapacity) {
+		this.initialCapacity = initialCapacity;
+	}
+
+	/**
+	 * @param maxLoadFactor the load factor above which the hash set doubles,
+	 * defaults to 0.7
+	 */
+	public void setMaxLoadFactor(double maxLoadFactor) {
+		this.maxLoadFactor = maxLoadFactor;
+	}
+
+	/**
+	 * Set the flag that determines whether the keys are journaled for restart.
+	 * Defaults to true.
+	 *
+	 * @param saveState flag value
+	 */
+	public void setSaveState(boolean saveState) {
+		this.saveState = saveState;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		Assert.state(keyExtractor != null, "A key extractor is required.");
+		Assert.state(!saveState || journal != null, "A journal file is required when the state is saved.");
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) throws ItemStreamException {
+		super.open(executionContext);
+		keys = new OffHeapLongHashSet(initialCapacity, maxLoadFactor);
+		reservedKeys = new ConcurrentHashMap<>();
+		// the keys reserved by the threads of a previous execution are forgotten
+		chunkKeys = new ThreadLocal<>();
+		if (!saveState) {
+			return;
+		}
+		try {
+			journalChannel = FileChannel.open(journal.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+					StandardOpenOption.WRITE);
+			journalBuffer = ByteBuffer.allocateDirect(JOURNAL_BUFFER_SIZE);
+			long length = 0;
+			if (executionContext.containsKey(getExecutionContextKey(JOURNAL_LENGTH))) {
+				// the length may have been deserialized as an integer
+				length = ((Number) executionContext.get(getExecutionContextKey(JOURNAL_LENGTH))).longValue();
+				loadJournal(length);
+			}
+			journalChannel.truncate(length);
+			journalChannel.position(length);
+		}
+		catch (IOException e) {
+			throw new ItemStreamException("Failed to open the journal " + journal, e);
+		}
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) throws ItemStreamException {
+		super.update(executionContext);
+		ChunkKeys current = (chunkKeys != null ? chunkKeys.get() : null);
+		if (current != null) {
+			publish(current);
+		}
+		if (journalChannel == null) {
+			return;
+		}
+		synchronized (this) {
+			try {
+				flushJournal();
+				journalChannel.force(false);
+				executionContext.putLong(getExecutionContextKey(JOURNAL_LENGTH), journalChannel.position());
+			}
+			catch (IOException e) {
+				throw new ItemStreamException("Failed to flush the journal " + journal, e);
+			}
+		}
+	}
+
+	@Override
+	public void close() throws ItemStreamException {
+		super.close();
+		keys = null;
+		reservedKeys = null;
+		chunkKeys = null;
+		journalBuffer = null;
+		if (journalChannel != null) {
+			try {
+				journalChannel.close();
+			}
+			catch (IOException e) {
+				throw new ItemStreamException("Failed to close the journal " + journal, e);
+			}
+			finally {
+				journalChannel = null;
+			}
+		}
+	}
+
+	/**
+	 * Start processing the items of a chunk on the current thread. The keys
+	 * reserved by a previous processing of the chunk, which was rolled back, can
+	 * be reserved again once.
+	 */
+	@Override
+	public void prepare(List<? extends T> items) {
+		ChunkKeys current = chunkKeys.get();
+		if (current != null) {
+			current.reprocessable.addAll(current.processed);
+			current.processed.clear();
+		}
+	}
+
+	@Nullable
+	@Override
+	public T process(T item) throws Exception {
+		long key = keyExtractor.applyAsLong(item);
+		if (keys.contains(key)) {
+			return null;
+		}
+		ChunkKeys current = chunkKeys.get();
+		if (current == null) {
+			current = new ChunkKeys();
+			chunkKeys.set(current);
+		}
+		ChunkKeys owner = reservedKeys.putIfAbsent(key, current);
+		if (owner == null) {
+			// the key may have been published since it was looked up
+			if (keys.contains(key)) {
+				reservedKeys.remove(key);
+				return null;
+			}
+		}
+		else if (owner != current || !current.reprocessable.remove(key)) {
+			return null;
+		}
+		current.processed.add(key);
+		return item;
+	}
+
+	/**
+	 * @return the number of distinct keys seen, or 0 if the processor is not open
+	 */
+	public long getDistinctCount() {
+		OffHeapLongHashSet keys = this.keys;
+		ConcurrentMap<Long, ChunkKeys> reservedKeys = this.reservedKeys;
+		return (keys != null ? keys.size() + reservedKeys.size() : 0);
+	}
+
+	/**
+	 * @return the load factor of the hash set of the keys seen, or 0 if the
+	 * processor is not open
+	 */
+	public double getLoadFactor() {
+		OffHeapLongHashSet keys = this.keys;
+		return (keys != null ? keys.getLoadFactor() : 0);
+	}
+
+	/**
+	 * Add the keys of the items processed in the chunk to the set and journal
+	 * them, before releasing their reservation.
+	 */
+	private void publish(ChunkKeys current) {
+		for (Long key : current.processed) {
+			keys.add(key);
+		}
+		if (journalChannel != null) {
+			synchronized (this) {
+				try {
+					for (Long key : current.processed) {
+						if (!journalBuffer.hasRemaining()) {
+							flushJournal();
+						}
+						journalBuffer.putLong(key);
+					}
+				}
+				catch (IOException e) {
+					throw new ItemStreamException("Failed to write to the journal " + journal, e);
+				}
+			}
+		}
+		for (Long key : current.processed) {
+			reservedKeys.remove(key);
+		}
+		current.processed.clear();
+		if (current.reprocessable.isEmpty()) {
+			chunkKeys.remove();
+		}
+	}
+
+	private void loadJournal(long length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(JOURNAL_BUFFER_SIZE);
+		long position = 0;
+		while (position < length) {
+			buffer.clear();
+			buffer.limit((int) Math.min(buffer.capacity(), length - position));
+			int read = journalChannel.read(buffer, position);
+			if (read < 0) {
+				throw new IOException("The journal is shorter than the " + length + " bytes saved at the last checkpoint");
+			}
+			position += read;
+			buffer.flip();
+			while (buffer.remaining() >= Long.BYTES) {
+				keys.add(buffer.getLong());
+			}
+			// keep a key split over two reads for the next read
+			position -= buffer.remaining();
+		}
+	}
+
+	private void flushJournal() throws IOException {
+		journalBuffer.flip();
+		while (journalBuffer.hasRemaining()) {
+			journalChannel.write(journalBuffer);
+		}
+		journalBuffer.clear();
+	}
+
+	/**
+	 * The keys reserved by the chunk processed on a thread.
+	 */
+	private static class ChunkKeys {
+
+		private final Set<Long> processed = new HashSet<>();
+
+		private final Set<Long> reprocessable = new HashSet<>();
+
+	}
+
+}
@@ -0,0 +1,542 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.item.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.serializer.DefaultDeserializer;
+import org.springframework.core.serializer.DefaultSerializer;
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * <p>
+ * Restartable {@link ItemReader} grouping the items of a delegate reader by key
+ * and returning one item per group, the items of the group being folded with a
+ * {@link #setReducer(BinaryOperator) reducer} (for example summing the amounts of
+ * the orders of each customer). Unlike grouping consecutive items, the delegate
+ * does not need to be sorted by key.
+ * </p>
+ *
+ * <p>
+ * When opened, the reader consumes the whole delegate, folding the items in a map
+ * of at most {@link #setMaxGroupsInMemory(int)} groups. When a new group does not
+ * fit in the map any more, the partial groups of the map are spilled to
+ * {@link #setPartitionCount(int)} temporary files, each group going to the file of
+ * the hash of its key, and the map is emptied. If the input had to be spilled,
+ * the groups are then folded and returned one partition file at a time. A
+ * partition holding more groups than fit in memory is split again in
+ * {@link #setPartitionCount(int)} files, hashing the keys with a different seed,
+ * until each partition fits in memory (or its keys cannot be told apart by their
+ * hash code). Groups are returned in the order their first item was read when
+ * nothing was spilled, and partition by partition otherwise.
+ * </p>
+ *
+ * <p>
+ * The spilled items are written with a {@link Serializer} and read back with a
+ * {@link Deserializer}, by default using Java serialization. The reducer must be
+ * associative, as partial groups of the same key may be folded together.
+ * </p>
+ *
+ * <p>
+ * When the input was spilled, the partition files and the position reached are
+ * saved in the {@link ExecutionContext}, so a restarted reader resumes from the
+ * partition files instead of reading the delegate again. Otherwise the input fits
+ * in memory and is simply grouped again. The partition files are deleted once the
+ * end of the input has been saved (or on close when the state is not saved), and
+ * the ones created since the state was last saved are deleted on close.
+ * </p>
+ *
+ * <p>
+ * The implementation is <b>not</b> thread-safe.
+ * </p>
+ *
+ * @param <T> type of items read and returned by the reader
+ * @since 4.3
+ */
+public class GroupingItemReader<T> extends AbstractItemCountingItemStreamItemReader<T> implements InitializingBean {
+
+	private static final Log logger = LogFactory.getLog(GroupingItemReader.class);
+
+	private static final String PARTITIONS = "group.partitions";
+
+	private static final String PARTITION_INDEX = "group.partition.index";
+
+	private static final String GROUP_INDEX = "group.index";
+
+	private static final String PARTITION_LEVELS = "group.partition.levels";
+
+	private static final String SPLIT_PARTITIONS = "group.partitions.split";
+
+	private ItemReader<? extends T> delegate;
+
+	private Function<? super T, ?> keyExtractor;
+
+	private BinaryOperator<T> reducer;
+
+	private int maxGroupsInMemory = 10000;
+
+	private int partitionCount = 16;
+
+	private File tempDirectory;
+
+	private Serializer<? super T> serializer = new DefaultSerializer();
+
+	@SuppressWarnings("unchecked")
+	private Deserializer<? extends T> deserializer = (Deserializer<? extends T>) new DefaultDeserializer();
+
+	private ExecutionContext executionContext;
+
+	private List<File> partitions = new ArrayList<>();
+
+	private List<Integer> partitionLevels = new ArrayList<>();
+
+	private List<File> splitPartitions = new ArrayList<>();
+
+	private Set<File> savedPartitions = new HashSet<>();
+
+	private boolean restarted;
+
+	private int partitionIndex;
+
+	private int groupIndex;
+
+	private Map<Object, T> groups = new LinkedHashMap<>();
+
+	private Iterator<T> groupIterator = Collections.emptyIterator();
+
+	private boolean exhausted;
+
+	private boolean exhaustedStateSaved;
+
+	public GroupingItemReader() {
+		setName(ClassUtils.getShortName(GroupingItemReader.class));
+	}
+
+	/**
+	 * The reader of the items to group. If it is an {@link ItemStream}, it is
+	 * opened and closed by this reader, its state is not saved.
+	 *
+	 * @param delegate the {@link ItemReader} of the items to group
+	 */
+	public void setDelegate(ItemReader<? extends T> delegate) {
+		this.delegate = delegate;
+	}
+
+	/**
+	 * @param keyExtractor the function returning the key of the group of an item,
+	 * its <code>hashCode</code> has to be stable across JVMs to support restart,
+	 * and spread enough for the partitions to be split
+	 */
+	public void setKeyExtractor(Function<? super T, ?> keyExtractor) {
+		this.keyExtractor = keyExtractor;
+	}
+
+	/**
+	 * The function folding two items (or partial groups) of the same group into
+	 * one. It must be associative.
+	 *
+	 * @param reducer the function folding the items of a group
+	 */
+	public void setReducer(BinaryOperator<T> reducer) {
+		this.reducer = reducer;
+	}
+
+	/**
+	 * The maximum number of groups kept in memory at once. Defaults to 10000.
+	 *
+	 * @param maxGroupsInMemory the number of groups
+	 */
+	public void setMaxGroupsInMemory(int maxGroupsInMemory) {
+		this.maxGroupsInMemory = maxGroupsInMemory;
+	}
+
+	/**
+	 * The number of files the groups are spilled to when they do not fit in memory,
+	 * and the number of files a partition holding too many groups is split in.
+	 * Defaults to 16.
+	 *
+	 * @param partitionCount the number of partition files
+	 */
+	public void setPartitionCount(int partitionCount) {
+		this.partitionCount = partitionCount;
+	}
+
+	/**
+	 * @param tempDirectory the directory of the partition files, defaults to the
+	 * default temporary directory
+	 */
+	public void setTempDirectory(File tempDirectory) {
+		this.tempDirectory = tempDirectory;
+	}
+
+	/**
+	 * @param serializer the {@link Serializer} writing the items to the partition
+	 * files
+	 */
+	public void setSerializer(Serializer<? super T> serializer) {
+		this.serializer = serializer;
+	}
+
+	/**
+	 * @param deserializer the {@link Deserializer} reading the items from the
+	 * partition files, the counterpart of the {@link #setSerializer(Serializer)
+	 * serializer}
+	 */
+	public void setDeserializer(Deserializer<? extends T> deserializer) {
+		this.deserializer = deserializer;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		Assert.state(delegate != null, "A delegate reader is required.");
+		Assert.state(keyExtractor != null, "A key extractor is required.");
+		Assert.state(reducer != null, "A reducer is required.");
+		Assert.state(maxGroupsInMemory > 0, "The maximum number of groups in memory must be positive.");
+		Assert.state(partitionCount > 0, "The partition count must be positive.");
+		Assert.state(serializer != null, "A serializer is required.");
+		Assert.state(deserializer != null, "A deserializer is required.");
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) throws ItemStreamException {
+		this.executionContext = executionContext;
+		if (isSaveState() && executionContext.containsKey(getExecutionContextKey(PARTITIONS))) {
+			String[] paths = StringUtils.delimitedListToStringArray(
+					executionContext.getString(getExecutionContextKey(PARTITIONS)), File.pathSeparator);
+			for (String path : paths) {
+				File partition = new File(path);
+				if (!partition.exists()) {
+					throw new ItemStreamException("The partition " + partition + " of the restarted reader no longer exists");
+				}
+				partitions.add(partition);
+			}
+			if (executionContext.containsKey(getExecutionContextKey(PARTITION_LEVELS))) {
+				for (String level : StringUtils.commaDelimitedListToStringArray(
+						executionContext.getString(getExecutionContextKey(PARTITION_LEVELS)))) {
+					partitionLevels.add(Integer.valueOf(level));
+				}
+			}
+			else {
+				partitionLevels.addAll(Collections.nCopies(partitions.size(), 0));
+			}
+			if (executionContext.containsKey(getExecutionContextKey(SPLIT_PARTITIONS))) {
+				for (String path : StringUtils.delimitedListToStringArray(
+						executionContext.getString(getExecutionContextKey(SPLIT_PARTITIONS)), File.pathSeparator)) {
+					splitPartitions.add(new File(path));
+				}
+			}
+			savedPartitions.addAll(partitions);
+			savedPartitions.addAll(splitPartitions);
+			partitionIndex = executionContext.getInt(getExecutionContextKey(PARTITION_INDEX));
+			groupIndex = executionContext.getInt(getExecutionContextKey(GROUP_INDEX));
+			restarted = true;
+		}
+
+		super.open(executionContext);
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) throws ItemStreamException {
+		super.update(executionContext);
+		if (isSaveState() && !partitions.isEmpty()) {
+			executionContext.putString(getExecutionContextKey(PARTITIONS),
+					StringUtils.collectionToDelimitedString(partitions, File.pathSeparator));
+			executionContext.putInt(getExecutionContextKey(PARTITION_INDEX), partitionIndex);
+			executionContext.putInt(getExecutionContextKey(GROUP_INDEX), groupIndex);
+			executionContext.putString(getExecutionContextKey(PARTITION_LEVELS),
+					StringUtils.collectionToCommaDelimitedString(partitionLevels));
+			if (!splitPartitions.isEmpty()) {
+				// a state saved before the split may still be restarted from
+				executionContext.putString(getExecutionContextKey(SPLIT_PARTITIONS),
+						StringUtils.collectionToDelimitedString(splitPartitions, File.pathSeparator));
+			}
+			savedPartitions = new HashSet<>(partitions);
+			savedPartitions.addAll(splitPartitions);
+			exhaustedStateSaved = exhausted;
+		}
+	}
+
+	@Override
+	protected void doOpen() throws Exception {
+		if (restarted) {
+			int skippedGroups = groupIndex;
+			loadPartition(partitionIndex);
+			for (; groupIndex < skippedGroups && groupIterator.hasNext(); groupIndex++) {
+				groupIterator.next();
+			}
+		}
+		else {
+			groupInput();
+			if (partitions.isEmpty()) {
+				groupIterator = groups.values().iterator();
+			}
+			else {
+				loadPartition(0);
+			}
+		}
+	}
+
+	@Nullable
+	@Override
+	protected T doRead() throws Exception {
+		while (!groupIterator.hasNext()) {
+			if (partitionIndex + 1 >= partitions.size()) {
+				exhausted = true;
+				return null;
+			}
+			loadPartition(partitionIndex + 1);
+		}
+		groupIndex++;
+		return groupIterator.next();
+	}
+
+	@Override
+	protected void jumpToItem(int itemIndex) throws Exception {
+		if (!restarted) {
+			super.jumpToItem(itemIndex);
+		}
+		// otherwise the partition files are already positioned after the last group read
+	}
+
+	@Override
+	protected void doClose() throws Exception {
+		if (!isSaveState() || exhaustedStateSaved) {
+			deletePartitions(partitions);
+			deletePartitions(splitPartitions);
+		}
+		else {
+			// the partitions created since the state was saved are not restarted from
+			List<File> unsavedPartitions = new ArrayList<>(partitions);
+			unsavedPartitions.addAll(splitPartitions);
+			unsavedPartitions.removeAll(savedPartitions);
+			deletePartitions(unsavedPartitions);
+		}
+		partitions = new ArrayList<>();
+		partitionLevels = new ArrayList<>();
+		splitPartitions = new ArrayList<>();
+		savedPartitions = new HashSet<>();
+		groups = new LinkedHashMap<>();
+		groupIterator = Collections.emptyIterator();
+		restarted = false;
+		partitionIndex = 0;
+		groupIndex = 0;
+		exhausted = false;
+		exhaustedStateSaved = false;
+		executionContext = null;
+	}
+
+	private void groupInput() throws Exception {
+		List<SpillFileWriter<T>> writers = new ArrayList<>();
+		if (delegate instanceof ItemStream) {
+			((ItemStream) delegate).open(executionContext);
+		}
+		try {
+			T item;
+			while ((item = delegate.read()) != null) {
+				Object key = keyExtractor.apply(item);
+				if (key == null) {
+					throw new IllegalStateException("No group key for item: " + item);
+				}
+				T group = groups.get(key);
+				if (group != null) {
+					groups.put(key, reducer.apply(group, item));
+				}
+				else {
+					if (groups.size() == maxGroupsInMemory) {
+						spill(writers);
+					}
+					groups.put(key, item);
+				}
+			}
+			if (!writers.isEmpty()) {
+				spill(writers);
+			}
+		}
+		finally {
+			for (SpillFileWriter<T> writer : writers) {
+				writer.close();
+			}
+			if (delegate instanceof ItemStream) {
+				((ItemStream) delegate).close();
+			}
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug(partitions.isEmpty() ? "Grouped the input in memory in " + groups.size() + " groups"
+					: "Spilled the input to " + partitions.size() + " partitions");
+		}
+	}
+
+	private void spill(List<SpillFileWriter<T>> writers) throws IOException {
+		if (writers.isEmpty()) {
+			for (int i = 0; i < partitionCount; i++) {
+				File partition = File.createTempFile("group-", ".partition", tempDirectory);
+				partitions.add(partition);
+				partitionLevels.add(0);
+				writers.add(new SpillFileWriter<>(partition, serializer));
+			}
+		}
+		for (Map.Entry<Object, T> group : groups.entrySet()) {
+			writers.get(partition(group.getKey(), 0)).write(group.getValue());
+		}
+		groups.clear();
+	}
+
+	private void loadPartition(int index) throws IOException {
+		while (!readPartition(index, maxGroupsInMemory)) {
+			if (!splitPartition(index)) {
+				readPartition(index, Integer.MAX_VALUE);
+				if (logger.isWarnEnabled()) {
+					logger.warn("The partition " + index + " holds " + groups.size() + " groups, more than the maximum "
+							+ "number of groups in memory, but cannot be split as their keys have the same hash code");
+				}
+				break;
+			}
+			// the partition is replaced by its sub-partitions, the first one is read next
+		}
+		partitionIndex = index;
+		groupIndex = 0;
+		groupIterator = groups.values().iterator();
+	}
+
+	/**
+	 * @return false if the partition holds more than the given number of groups,
+	 * which are then only partially read
+	 */
+	private boolean readPartition(int index, int maxGroups) throws IOException {
+		groups = new LinkedHashMap<>();
+		try (SpillFileReader<T> reader = new SpillFileReader<>(partitions.get(index), 0, deserializer)) {
+			T item;
+			while ((item = reader.read()) != null) {
+				groups.merge(keyExtractor.apply(item), item, reducer);
+				if (groups.size() > maxGroups) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Split a partition in sub-partitions, hashing the keys with the seed of the
+	 * next level. The split partition is only deleted with the other partitions,
+	 * since the state saved before the split still refers to it.
+	 *
+	 * @return false if all the keys of the partition fall in the same sub-partition
+	 */
+	private boolean splitPartition(int index) throws IOException {
+		File partition = partitions.get(index);
+		int level = partitionLevels.get(index) + 1;
+		List<File> subPartitions = new ArrayList<>();
+		List<File> nonEmptySubPartitions = new ArrayList<>();
+		try {
+			int[] itemCounts = new int[partitionCount];
+			List<SpillFileWriter<T>> writers = new ArrayList<>();
+			try {
+				for (int i = 0; i < partitionCount; i++) {
+					File subPartition = File.createTempFile("group-", ".partition", tempDirectory);
+					subPartitions.add(subPartition);
+					writers.add(new SpillFileWriter<>(subPartition, serializer));
+				}
+				try (SpillFileReader<T> reader = new SpillFileReader<>(partition, 0, deserializer)) {
+					T item;
+					while ((item = reader.read()) != null) {
+						int i = partition(keyExtractor.apply(item), level);
+						writers.get(i).write(item);
+						itemCounts[i]++;
+					}
+				}
+			}
+			finally {
+				for (SpillFileWriter<T> writer : writers) {
+					writer.close();
+				}
+			}
+			for (int i = 0; i < partitionCount; i++) {
+				if (itemCounts[i] > 0) {
+					nonEmptySubPartitions.add(subPartitions.get(i));
+				}
+			}
+			if (nonEmptySubPartitions.size() < 2) {
+				nonEmptySubPartitions.clear();
+				return false;
+			}
+		}
+		finally {
+			subPartitions.removeAll(nonEmptySubPartitions);
+			deletePartitions(subPartitions);
+		}
+		partitions.remove(index);
+		partitions.addAll(index, nonEmptySubPartitions);
+		partitionLevels.remove(index);
+		partitionLevels.addAll(index, Collections.nCopies(nonEmptySubPartitions.size(), level));
+		splitPartitions.add(partition);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Split the partition " + index + " in " + nonEmptySubPartitions.size() + " partitions");
+		}
+		return true;
+	}
+
+	/**
+	 * The partition of a key at a level, the hash code of the key being mixed with
+	 * a seed for the levels of the split partitions.
+	 */
+	private int partition(Object key, int level) {
+		int hash = key.hashCode();
+		if (level > 0) {
+			// finalizer of MurmurHash3, so that the keys of a partition are spread again
+			hash += level * 0x9E3779B9;
+			hash ^= hash >>> 16;
+			hash *= 0x85EBCA6B;
+			hash ^= hash >>> 13;
+			hash *= 0xC2B2AE35;
+			hash ^= hash >>> 16;
+		}
+		return Math.floorMod(hash, partitionCount);
+	}
+
+	private void deletePartitions(List<File> files) throws IOException {
+		for (File file : files) {
+			Files.deleteIfExists(file.toPath());
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2019 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,18 +21,22 @@ import java.util.List;
 
 import org.springframework.aop.support.AopUtils;
 import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ProgressAware;
 import org.springframework.lang.Nullable;
 
 /**
  * An {@link ItemReader} that pulls data from a list. Useful for testing.
+ * Reports its progress in items, the total being the size of the list.
  * 
  * @author Dave Syer
  * 
  */
-public class ListItemReader<T> implements ItemReader<T> {
+public class ListItemReader<T> implements ItemReader<T>, ProgressAware {
 
 	private List<T> list;
 
+	private final int totalWork;
+
 	public ListItemReader(List<T> list) {
 		// If it is a proxy we assume it knows how to deal with its own state.
 		// (It's probably transaction aware.)
@@ -42,6 +46,7 @@ public class ListItemReader<T> implements ItemReader<T> {
 		else {
 			this.list = new ArrayList<>(list);
 		}
+		this.totalWork = this.list.size();
 	}
 
     @Nullable
@@ -53,4 +58,14 @@ public class ListItemReader<T> implements ItemReader<T> {
 		return null;
 	}
 
+	@Override
+	public long getTotalWork() {
+		return totalWork;
+	}
+
+	@Override
+	public long getCompletedWork() {
+		return Math.max(totalWork - list.size(), 0);
+	}
+
 }
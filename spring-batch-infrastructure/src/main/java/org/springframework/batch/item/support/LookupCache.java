@@ -0,0 +1,384 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.item.support;
+
+import java.lang.reflect.Array;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.util.Assert;
+
+/**
+ * Bounded in-memory cache of looked up values, typically reference data such as
+ * currency or product codes that are looked up again and again across chunks.
+ *
+ * <p>
+ * The cache holds at most {@link #getMaximumSize() maximum size} entries, the
+ * least recently used (LRU) or least frequently used (LFU) entries being evicted
+ * first, and entries optionally expire after a time to live. A key without value
+ * can be cached as well (see {@link #put(Object, Object)} with a null value), so
+ * that missing reference data is not looked up again.
+ * </p>
+ *
+ * <p>
+ * The cache is thread-safe, and can be shared by the threads of a multi-threaded
+ * step or by the partitions of a partitioned step. The entries are spread over
+ * independently locked segments, so that threads working on different keys do not
+ * contend for a single lock. Bounds and eviction order are applied per segment, so
+ * they are only approximate for caches of 128 entries or more.
+ * </p>
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ * @since 4.3
+ * @see CachingLookupLoader
+ */
+public class LookupCache<K, V> {
+
+	/**
+	 * The order in which entries are evicted when the cache is full.
+	 */
+	public enum EvictionPolicy {
+
+		/**
+		 * Evict the least recently used entry.
+		 */
+		LRU,
+
+		/**
+		 * Evict the least frequently used entry.
+		 */
+		LFU
+
+	}
+
+	private static final int MAX_SEGMENTS = 16;
+
+	private static final int MIN_SEGMENT_SIZE = 64;
+
+	private final int maximumSize;
+
+	private final long timeToLiveNanos;
+
+	private final EvictionPolicy evictionPolicy;
+
+	private final Segment[] segments;
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+	private final LongAdder evictionCount = new LongAdder();
+
+	/**
+	 * Create a LRU cache without time to live.
+	 *
+	 * @param maximumSize the maximum number of entries
+	 */
+	public LookupCache(int maximumSize) {
+		this(maximumSize, null, EvictionPolicy.LRU);
+	}
+
+	/**
+	 * Create a new {@link LookupCache}.
+	 *
+	 * @param maximumSize the maximum number of entries
+	 * @param timeToLive the time after which an entry expires, null for no expiry
+	 * @param evictionPolicy the order in which entries are evicted when the cache
+	 * is full
+	 */
+	@SuppressWarnings("unchecked")
+	public LookupCache(int maximumSize, Duration timeToLive, EvictionPolicy evictionPolicy) {
+		Assert.isTrue(maximumSize > 0, "The maximum size must be positive");
+		Assert.isTrue(timeToLive == null || !timeToLive.isNegative() && !timeToLive.isZero(),
+				"The time to live must be positive");
+		Assert.notNull(evictionPolicy, "The eviction policy must not be null");
+		this.maximumSize = maximumSize;
+		this.timeToLiveNanos = (timeToLive != null ? timeToLive.toNanos() : 0);
+		this.evictionPolicy = evictionPolicy;
+
+		int segmentCount = Math.min(MAX_SEGMENTS, Integer.highestOneBit(Math.max(1, maximumSize / MIN_SEGMENT_SIZE)));
+		// the segments are inner classes of a generic class, which cannot be created as a typed array
+		this.segments = (Segment[]) Array.newInstance(Segment.class, segmentCount);
+		for (int i = 0; i < segmentCount; i++) {
+			int segmentSize = maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0);
+			this.segments[i] = new Segment(segmentSize);
+		}
+	}
+
+	/**
+	 * Get the cached values of the given keys.
+	 *
+	 * @param keys the keys to look for
+	 * @return the cached values by key, including the keys cached without value
+	 * (mapped to null), keys not in the cache are absent
+	 */
+	public Map<K, V> getAll(Collection<? extends K> keys) {
+		Map<K, V> values = new HashMap<>();
+		for (K key : keys) {
+			Entry<V> entry = segmentFor(key).get(key);
+			if (entry != null) {
+				values.put(key, entry.value);
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * @param key the key to look for
+	 * @return true if the key is cached, with or without a value
+	 */
+	public boolean containsKey(K key) {
+		return segmentFor(key).get(key) != null;
+	}
+
+	/**
+	 * @param key the key to look for
+	 * @return the cached value, or null if the key is not cached or cached
+	 * without value
+	 */
+	public V get(K key) {
+		Entry<V> entry = segmentFor(key).get(key);
+		return (entry != null ? entry.value : null);
+	}
+
+	/**
+	 * Cache a value, evicting an entry if the cache is full.
+	 *
+	 * @param key the key, must not be null
+	 * @param value the value, null to remember that the key has no value
+	 */
+	public void put(K key, V value) {
+		Assert.notNull(key, "The key must not be null");
+		segmentFor(key).put(key, value);
+	}
+
+	/**
+	 * Cache several values at once, for example to warm up the cache.
+	 *
+	 * @param values the values by key
+	 */
+	public void putAll(Map<? extends K, ? extends V> values) {
+		for (Map.Entry<? extends K, ? extends V> entry : values.entrySet()) {
+			put(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Remove all the entries. The statistics are kept.
+	 */
+	public void clear() {
+		for (Segment segment : segments) {
+			segment.clear();
+		}
+	}
+
+	/**
+	 * @return the number of entries, including expired entries not yet removed
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	/**
+	 * @return the maximum number of entries
+	 */
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * @return the number of lookups that found the key in the cache
+	 */
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	/**
+	 * @return the number of lookups that did not find the key in the cache
+	 */
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	/**
+	 * @return the number of entries evicted because the cache was full
+	 */
+	public long getEvictionCount() {
+		return evictionCount.sum();
+	}
+
+	private Segment segmentFor(Object key) {
+		int hash = key.hashCode();
+		hash ^= (hash >>> 16);
+		return segments[hash & (segments.length - 1)];
+	}
+
+	private static final class Entry<V> {
+
+		private final V value;
+
+		private final long expiration;
+
+		private long frequency;
+
+		private Entry(V value, long expiration) {
+			this.value = value;
+			this.expiration = expiration;
+		}
+
+	}
+
+	private final class Segment {
+
+		private final ReentrantLock lock = new ReentrantLock();
+
+		private final int capacity;
+
+		// access ordered for LRU, the eldest entry being evicted first
+		private final LinkedHashMap<K, Entry<V>> entries;
+
+		// keys by frequency for LFU, the eldest key of the lowest frequency being evicted first
+		private final TreeMap<Long, LinkedHashSet<K>> frequencies;
+
+		private Segment(int capacity) {
+			this.capacity = capacity;
+			this.entries = new LinkedHashMap<>(16, 0.75f, evictionPolicy == EvictionPolicy.LRU);
+			this.frequencies = (evictionPolicy == EvictionPolicy.LFU ? new TreeMap<>() : null);
+		}
+
+		private Entry<V> get(K key) {
+			lock.lock();
+			try {
+				Entry<V> entry = entries.get(key);
+				if (entry != null && timeToLiveNanos > 0 && System.nanoTime() - entry.expiration > 0) {
+					entries.remove(key);
+					removeFrequency(key, entry.frequency);
+					entry = null;
+				}
+				if (entry == null) {
+					missCount.increment();
+					return null;
+				}
+				if (frequencies != null) {
+					removeFrequency(key, entry.frequency);
+					addFrequency(key, entry.frequency + 1);
+				}
+				entry.frequency++;
+				hitCount.increment();
+				return entry;
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+		private void put(K key, V value) {
+			Entry<V> entry = new Entry<>(value, timeToLiveNanos > 0 ? System.nanoTime() + timeToLiveNanos : 0);
+			lock.lock();
+			try {
+				if (frequencies != null && !entries.containsKey(key) && entries.size() >= capacity) {
+					evictLeastFrequentlyUsed();
+				}
+				Entry<V> previous = entries.put(key, entry);
+				if (previous != null) {
+					entry.frequency = previous.frequency;
+				}
+				else if (frequencies != null) {
+					addFrequency(key, 0);
+				}
+				else if (entries.size() > capacity) {
+					evictLeastRecentlyUsed();
+				}
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+		private void evictLeastRecentlyUsed() {
+			Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+			iterator.next();
+			iterator.remove();
+			evictionCount.increment();
+		}
+
+		private void evictLeastFrequentlyUsed() {
+			Map.Entry<Long, LinkedHashSet<K>> lowest = frequencies.firstEntry();
+			Iterator<K> iterator = lowest.getValue().iterator();
+			K key = iterator.next();
+			iterator.remove();
+			if (lowest.getValue().isEmpty()) {
+				frequencies.remove(lowest.getKey());
+			}
+			entries.remove(key);
+			evictionCount.increment();
+		}
+
+		private void addFrequency(K key, long frequency) {
+			frequencies.computeIfAbsent(frequency, f -> new LinkedHashSet<>()).add(key);
+		}
+
+		private void removeFrequency(K key, long frequency) {
+			if (frequencies == null) {
+				return;
+			}
+			LinkedHashSet<K> keys = frequencies.get(frequency);
+			keys.remove(key);
+			if (keys.isEmpty()) {
+				frequencies.remove(frequency);
+			}
+		}
+
+		private void clear() {
+			lock.lock();
+			try {
+				entries.clear();
+				if (frequencies != null) {
+					frequencies.clear();
+				}
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+		private int size() {
+			lock.lock();
+			try {
+				return entries.size();
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+	}
+
+}
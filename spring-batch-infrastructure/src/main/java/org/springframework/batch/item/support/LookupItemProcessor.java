@@ -0,0 +1,141 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.item.support;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.springframework.batch.item.ChunkAwareItemProcessor;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ItemProcessor} enriching each item with a value looked up by a key of
+ * the item, for example a reference data row looked up by a product code.
+ *
+ * <p>
+ * When the items of a chunk are {@link #prepare(List) prepared}, the distinct keys
+ * of all the items are looked up at once with the {@link LookupLoader}, so a chunk
+ * of 1000 items costs one query instead of 1000. An item that was not prepared
+ * (for example when a failed chunk is processed again item by item to find the
+ * item to skip) is looked up on its own.
+ * </p>
+ *
+ * <p>
+ * The looked up values are kept per thread until the items of the chunk are
+ * processed and the values {@link #release() released}, so the processor can be
+ * shared by the threads of a multi-threaded step.
+ * </p>
+ *
+ * @param <I> type of input item
+ * @param <K> type of the lookup keys
+ * @param <V> type of the looked up values
+ * @param <O> type of output item
+ * @since 4.3
+ */
+public class LookupItemProcessor<I, K, V, O> implements ChunkAwareItemProcessor<I, O>, InitializingBean {
+
+	private Function<? super I, ? extends K> keyExtractor;
+
+	private LookupLoader<K, V> loader;
+
+	private BiFunction<? super I, ? super V, ? extends O> combiner;
+
+	private final ThreadLocal<Map<K, V>> preparedValues = new ThreadLocal<>();
+
+	/**
+	 * @param keyExtractor the function returning the lookup key of an item
+	 */
+	public void setKeyExtractor(Function<? super I, ? extends K> keyExtractor) {
+		this.keyExtractor = keyExtractor;
+	}
+
+	/**
+	 * @param loader the {@link LookupLoader} used to load the values of the keys
+	 */
+	public void setLoader(LookupLoader<K, V> loader) {
+		this.loader = loader;
+	}
+
+	/**
+	 * The function combining an item with its looked up value (null if the key
+	 * has no value) into the output item. Returning null filters the item.
+	 *
+	 * @param combiner the function creating the output item
+	 */
+	public void setCombiner(BiFunction<? super I, ? super V, ? extends O> combiner) {
+		this.combiner = combiner;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		Assert.notNull(keyExtractor, "A key extractor is required");
+		Assert.notNull(loader, "A loader is required");
+		Assert.notNull(combiner, "A combiner is required");
+	}
+
+	@Override
+	public void prepare(List<? extends I> items) throws Exception {
+		preparedValues.remove();
+		Set<K> keys = new LinkedHashSet<>();
+		for (I item : items) {
+			K key = keyExtractor.apply(item);
+			if (key != null) {
+				keys.add(key);
+			}
+		}
+		if (!keys.isEmpty()) {
+			Map<K, V> values = new HashMap<>(loader.load(keys));
+			// remember the keys without value so that they are not looked up again
+			for (K key : keys) {
+				values.putIfAbsent(key, null);
+			}
+			preparedValues.set(values);
+		}
+	}
+
+	@Override
+	public void release() {
+		preparedValues.remove();
+	}
+
+	@Nullable
+	@Override
+	public O process(I item) throws Exception {
+		K key = keyExtractor.apply(item);
+		V value = null;
+		if (key != null) {
+			Map<K, V> values = preparedValues.get();
+			if (values != null && values.containsKey(key)) {
+				value = values.get(key);
+			}
+			else {
+				value = loader.load(Collections.singleton(key)).get(key);
+			}
+		}
+		return combiner.apply(item, value);
+	}
+
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.item.support;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Strategy to load the values of several keys at once, for example with a single
+ * <code>SELECT ... WHERE CODE IN (:keys)</code> query.
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ * @since 4.3
+ * @see LookupItemProcessor
+ */
+@FunctionalInterface
+public interface LookupLoader<K, V> {
+
+	/**
+	 * Load the values of the given keys.
+	 *
+	 * @param keys the distinct keys to look up, never empty
+	 * @return the values by key, keys without value can be absent
+	 * @throws Exception if the values cannot be loaded
+	 */
+	Map<K, V> load(Collection<K> keys) throws Exception;
+
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.item.support;
+
+import java.nio.ByteBuffer;
+
+import org.springframework.util.Assert;
+
+/**
+ * Set of <code>long</code> values stored outside of the heap, in direct
+ * {@link ByteBuffer}s, with open addressing and linear probing. Unlike a
+ * <code>HashSet&lt;Long&gt;</code>, a value costs no object but an 8 bytes slot of
+ * the table, so hundreds of millions of values can be held without pressure on
+ * the garbage collector.
+ *
+ * <p>
+ * The table is split in pages so that it can grow beyond the 2GB limit of a
+ * single buffer, and doubles when the {@link #getLoadFactor() load factor}
+ * exceeds the maximum load factor. The set is thread-safe.
+ * </p>
+ *
+ * @since 4.3
+ */
+final class OffHeapLongHashSet {
+
+	private static final int PAGE_SHIFT = 24;
+
+	private static final long PAGE_SLOTS = 1L << PAGE_SHIFT;
+
+	private static final long EMPTY = 0L;
+
+	private final double maxLoadFactor;
+
+	private ByteBuffer[] pages;
+
+	private long capacity;
+
+	private long size;
+
+	// zero marks the empty slots, so it is tracked apart
+	private boolean containsZero;
+
+	/**
+	 * @param initialCapacity the initial number of slots, rounded up to a power of two
+	 * @param maxLoadFactor the load factor above which the table doubles
+	 */
+	OffHeapLongHashSet(long initialCapacity, double maxLoadFactor) {
+		Assert.isTrue(initialCapacity > 0, "The initial capacity must be positive");
+		Assert.isTrue(maxLoadFactor > 0 && maxLoadFactor < 1, "The maximum load factor must be between 0 and 1");
+		this.maxLoadFactor = maxLoadFactor;
+		allocate(Math.max(2, Long.highestOneBit(initialCapacity - 1) << 1));
+	}
+
+	/**
+	 * @param value the value to add
+	 * @return true if the value was not in the set
+	 */
+	synchronized boolean add(long value) {
+		if (value == EMPTY) {
+			if (containsZero) {
+				return false;
+			}
+			containsZero = true;
+			size++;
+			return true;
+		}
+		if (!insert(value)) {
+			return false;
+		}
+		size++;
+		if (size > capacity * maxLoadFactor) {
+			resize();
+		}
+		return true;
+	}
+
+	synchronized boolean contains(long value) {
+		if (value == EMPTY) {
+			return containsZero;
+		}
+		long mask = capacity - 1;
+		for (long slot = mix(value) & mask;; slot = (slot + 1) & mask) {
+			long current = get(slot);
+			if (current == EMPTY) {
+				return false;
+			}
+			if (current == value) {
+				return true;
+			}
+		}
+	}
+
+	synchronized void clear() {
+		for (ByteBuffer page : pages) {
+			for (int i = 0; i < page.capacity(); i += Long.BYTES) {
+				page.putLong(i, EMPTY);
+			}
+		}
+		size = 0;
+		containsZero = false;
+	}
+
+	synchronized long size() {
+		return size;
+	}
+
+	synchronized long getCapacity() {
+		return capacity;
+	}
+
+	synchronized double getLoadFactor() {
+		return (double) size / capacity;
+	}
+
+	private boolean insert(long value) {
+		long mask = capacity - 1;
+		for (long slot = mix(value) & mask;; slot = (slot + 1) & mask) {
+			long current = get(slot);
+			if (current == EMPTY) {
+				put(slot, value);
+				return true;
+			}
+			if (current == value) {
+				return false;
+			}
+		}
+	}
+
+	private void resize() {
+		ByteBuffer[] oldPages = pages;
+		allocate(capacity << 1);
+		for (ByteBuffer page : oldPages) {
+			for (int i = 0; i < page.capacity(); i += Long.BYTES) {
+				long value = page.getLong(i);
+				if (value != EMPTY) {
+					insert(value);
+				}
+			}
+		}
+	}
+
+	private void allocate(long slots) {
+		int pageCount = (int) ((slots + PAGE_SLOTS - 1) >>> PAGE_SHIFT);
+		int pageSlots = (int) Math.min(slots, PAGE_SLOTS);
+		pages = new ByteBuffer[pageCount];
+		for (int i = 0; i < pageCount; i++) {
+			// direct buffers are zeroed, that is filled with empty slots
+			pages[i] = ByteBuffer.allocateDirect(pageSlots * Long.BYTES);
+		}
+		capacity = slots;
+	}
+
+	private long get(long slot) {
+		return pages[(int) (slot >>> PAGE_SHIFT)].getLong((int) (slot & (PAGE_SLOTS - 1)) * Long.BYTES);
+	}
+
+	private void put(long slot, long value) {
+		pages[(int) (slot >>> PAGE_SHIFT)].putLong((int) (slot & (PAGE_SLOTS - 1)) * Long.BYTES, value);
+	}
+
+	private static long mix(long value) {
+		// finalizer of MurmurHash3, spreading sequential ids over the table
+		value ^= value >>> 33;
+		value *= 0xff51afd7ed558ccdL;
+		value ^= value >>> 33;
+		value *= 0xc4ceb3f99b28e845L;
+		value ^= value >>> 33;
+		return value;
+	}
+
+}
@@ -0,0 +1,458 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.item.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.serializer.DefaultDeserializer;
+import org.springframework.core.serializer.DefaultSerializer;
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * <p>
+ * Restartable {@link ItemReader} returning the items of a delegate reader sorted
+ * with a {@link Comparator}, even when they do not fit in memory.
+ * </p>
+ *
+ * <p>
+ * When opened, the reader consumes the whole delegate, sorting the items by runs
+ * of at most {@link #setMaxItemsInMemory(int)} items that are written to
+ * temporary files. The runs are then merged while reading, so that only one item
+ * per run is kept in memory. When there are more runs than the
+ * {@link #setMergeFactor(int) merge factor}, they are first merged by groups into
+ * longer runs, as many times as needed, so that no more runs than the merge factor
+ * are ever open at once. Items equal according to the comparator are returned in
+ * the order they were read from the delegate.
+ * </p>
+ *
+ * <p>
+ * Items are written to the runs with a {@link Serializer} and read back with a
+ * {@link Deserializer}, by default using Java serialization. Providing a compact
+ * binary encoding of the items reduces the disk usage and speeds the sort up
+ * considerably.
+ * </p>
+ *
+ * <p>
+ * The runs and the position reached in each run are saved in the
+ * {@link ExecutionContext}, so a restarted reader resumes merging the existing
+ * runs instead of reading the delegate again. The runs are therefore kept when
+ * the reader is closed before its state was saved at the end of the input, and
+ * are only deleted once the sorted input has been fully read and committed (or
+ * on close when the state is not saved). Runs that were never saved, for example
+ * when the sort fails, are deleted on close as well.
+ * </p>
+ *
+ * <p>
+ * The implementation is <b>not</b> thread-safe.
+ * </p>
+ *
+ * @param <T> type of items returned by the reader
+ * @since 4.3
+ */
+public class SortingItemReader<T> extends AbstractItemCountingItemStreamItemReader<T> implements InitializingBean {
+
+	private static final Log logger = LogFactory.getLog(SortingItemReader.class);
+
+	private static final String RUNS = "sort.runs";
+
+	private static final String RUN_OFFSETS = "sort.run.offsets";
+
+	private ItemReader<? extends T> delegate;
+
+	private Comparator<? super T> comparator;
+
+	private int maxItemsInMemory = 10000;
+
+	private int mergeFactor = 64;
+
+	private File tempDirectory;
+
+	private Serializer<? super T> serializer = new DefaultSerializer();
+
+	@SuppressWarnings("unchecked")
+	private Deserializer<? extends T> deserializer = (Deserializer<? extends T>) new DefaultDeserializer();
+
+	private ExecutionContext executionContext;
+
+	private List<File> runs = new ArrayList<>();
+
+	private long[] restartOffsets;
+
+	private PriorityQueue<RunReader> mergeQueue;
+
+	private final List<RunReader> runReaders = new ArrayList<>();
+
+	private boolean exhausted;
+
+	private boolean exhaustedStateSaved;
+
+	private boolean runsSaved;
+
+	public SortingItemReader() {
+		setName(ClassUtils.getShortName(SortingItemReader.class));
+	}
+
+	/**
+	 * The reader of the items to sort. If it is an {@link ItemStream}, it is
+	 * opened and closed by this reader, its state is not saved.
+	 *
+	 * @param delegate the {@link ItemReader} of the unsorted items
+	 */
+	public void setDelegate(ItemReader<? extends T> delegate) {
+		this.delegate = delegate;
+	}
+
+	/**
+	 * @param comparator the {@link Comparator} defining the order of the items
+	 */
+	public void setComparator(Comparator<? super T> comparator) {
+		this.comparator = comparator;
+	}
+
+	/**
+	 * The maximum number of items sorted in memory at once, and therefore the
+	 * number of items per run. Defaults to 10000.
+	 *
+	 * @param maxItemsInMemory the number of items per run
+	 */
+	public void setMaxItemsInMemory(int maxItemsInMemory) {
+		this.maxItemsInMemory = maxItemsInMemory;
+	}
+
+	/**
+	 * The maximum number of runs merged at once, and therefore of files open at
+	 * once. Defaults to 64.
+	 *
+	 * @param mergeFactor the maximum number of runs merged at once, at least 2
+	 */
+	public void setMergeFactor(int mergeFactor) {
+		this.mergeFactor = mergeFactor;
+	}
+
+	/**
+	 * @param tempDirectory the directory of the runs, defaults to the default
+	 * temporary directory
+	 */
+	public void setTempDirectory(File tempDirectory) {
+		this.tempDirectory = tempDirectory;
+	}
+
+	/**
+	 * @param serializer the {@link Serializer} writing the items to the runs
+	 */
+	public void setSerializer(Serializer<? super T> serializer) {
+		this.serializer = serializer;
+	}
+
+	/**
+	 * @param deserializer the {@link Deserializer} reading the items from the
+	 * runs, the counterpart of the {@link #setSerializer(Serializer) serializer}
+	 */
+	public void setDeserializer(Deserializer<? extends T> deserializer) {
+		this.deserializer = deserializer;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		Assert.state(delegate != null, "A delegate reader is required.");
+		Assert.state(comparator != null, "A comparator is required.");
+		Assert.state(maxItemsInMemory > 0, "The maximum number of items in memory must be positive.");
+		Assert.state(mergeFactor > 1, "The merge factor must be at least 2.");
+		Assert.state(serializer != null, "A serializer is required.");
+		Assert.state(deserializer != null, "A deserializer is required.");
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) throws ItemStreamException {
+		this.executionContext = executionContext;
+		if (isSaveState() && executionContext.containsKey(getExecutionContextKey(RUNS))) {
+			String[] paths = StringUtils.delimitedListToStringArray(
+					executionContext.getString(getExecutionContextKey(RUNS)), File.pathSeparator);
+			String[] offsets = StringUtils.commaDelimitedListToStringArray(
+					executionContext.getString(getExecutionContextKey(RUN_OFFSETS)));
+			restartOffsets = new long[paths.length];
+			for (int i = 0; i < paths.length; i++) {
+				File run = new File(paths[i]);
+				if (!run.exists()) {
+					throw new ItemStreamException("The sorted run " + run + " of the restarted reader no longer exists");
+				}
+				runs.add(run);
+				restartOffsets[i] = Long.parseLong(offsets[i]);
+			}
+			runsSaved = true;
+		}
+
+		super.open(executionContext);
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) throws ItemStreamException {
+		super.update(executionContext);
+		if (isSaveState() && mergeQueue != null) {
+			StringBuilder offsets = new StringBuilder();
+			for (RunReader runReader : runReaders) {
+				if (offsets.length() > 0) {
+					offsets.append(',');
+				}
+				offsets.append(runReader.head != null ? runReader.headOffset : -1);
+			}
+			executionContext.putString(getExecutionContextKey(RUNS),
+					StringUtils.collectionToDelimitedString(runs, File.pathSeparator));
+			executionContext.putString(getExecutionContextKey(RUN_OFFSETS), offsets.toString());
+			runsSaved = true;
+			exhaustedStateSaved = exhausted;
+		}
+	}
+
+	@Override
+	protected void doOpen() throws Exception {
+		if (restartOffsets == null) {
+			try {
+				sortRuns();
+				mergeRuns();
+			}
+			catch (Exception e) {
+				// the runs were not saved yet, so they cannot be restarted from
+				deleteRuns(runs, e);
+				runs = new ArrayList<>();
+				throw e;
+			}
+		}
+		mergeQueue = new PriorityQueue<>(Math.max(1, runs.size()));
+		for (int i = 0; i < runs.size(); i++) {
+			long offset = (restartOffsets != null ? restartOffsets[i] : 0);
+			RunReader runReader = new RunReader(i, runs.get(i), offset);
+			runReaders.add(runReader);
+			if (runReader.advance()) {
+				mergeQueue.add(runReader);
+			}
+		}
+	}
+
+	@Nullable
+	@Override
+	protected T doRead() throws Exception {
+		RunReader runReader = mergeQueue.poll();
+		if (runReader == null) {
+			exhausted = true;
+			return null;
+		}
+		T item = runReader.head;
+		if (runReader.advance()) {
+			mergeQueue.add(runReader);
+		}
+		return item;
+	}
+
+	@Override
+	protected void jumpToItem(int itemIndex) throws Exception {
+		if (restartOffsets == null) {
+			super.jumpToItem(itemIndex);
+		}
+		// otherwise each run already starts after the last item read
+	}
+
+	@Override
+	protected void doClose() throws Exception {
+		for (RunReader runReader : runReaders) {
+			runReader.close();
+		}
+		if (!isSaveState() || exhaustedStateSaved || !runsSaved) {
+			deleteRuns(runs);
+		}
+		runReaders.clear();
+		runs = new ArrayList<>();
+		mergeQueue = null;
+		restartOffsets = null;
+		exhausted = false;
+		exhaustedStateSaved = false;
+		runsSaved = false;
+		executionContext = null;
+	}
+
+	private void sortRuns() throws Exception {
+		if (delegate instanceof ItemStream) {
+			((ItemStream) delegate).open(executionContext);
+		}
+		try {
+			List<T> items = new ArrayList<>(Math.min(maxItemsInMemory, 1024));
+			T item;
+			while ((item = delegate.read()) != null) {
+				items.add(item);
+				if (items.size() == maxItemsInMemory) {
+					writeRun(items);
+					items.clear();
+				}
+			}
+			if (!items.isEmpty()) {
+				writeRun(items);
+			}
+		}
+		finally {
+			if (delegate instanceof ItemStream) {
+				((ItemStream) delegate).close();
+			}
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Sorted the input in " + runs.size() + " runs of at most " + maxItemsInMemory + " items");
+		}
+	}
+
+	/**
+	 * Merge the runs by groups of {@link #setMergeFactor(int) merge factor} runs
+	 * until there are no more runs than the merge factor. The groups are made of
+	 * consecutive runs so that equal items keep the order of the delegate.
+	 */
+	private void mergeRuns() throws IOException {
+		int passes = 0;
+		while (runs.size() > mergeFactor) {
+			List<File> merged = new ArrayList<>();
+			try {
+				for (int i = 0; i < runs.size(); i += mergeFactor) {
+					List<File> group = runs.subList(i, Math.min(i + mergeFactor, runs.size()));
+					if (group.size() == 1) {
+						merged.add(group.get(0));
+					}
+					else {
+						File run = File.createTempFile("sort-", ".run", tempDirectory);
+						merged.add(run);
+						mergeRuns(group, run);
+						deleteRuns(group);
+					}
+				}
+			}
+			catch (IOException e) {
+				deleteRuns(merged, e);
+				throw e;
+			}
+			runs = merged;
+			passes++;
+		}
+		if (passes > 0 && logger.isDebugEnabled()) {
+			logger.debug("Merged the sorted runs in " + passes + " passes down to " + runs.size() + " runs");
+		}
+	}
+
+	private void mergeRuns(List<File> group, File run) throws IOException {
+		List<RunReader> readers = new ArrayList<>(group.size());
+		PriorityQueue<RunReader> queue = new PriorityQueue<>(group.size());
+		try (SpillFileWriter<T> writer = new SpillFileWriter<>(run, serializer)) {
+			for (int i = 0; i < group.size(); i++) {
+				RunReader reader = new RunReader(i, group.get(i), 0);
+				readers.add(reader);
+				if (reader.advance()) {
+					queue.add(reader);
+				}
+			}
+			RunReader reader;
+			while ((reader = queue.poll()) != null) {
+				writer.write(reader.head);
+				if (reader.advance()) {
+					queue.add(reader);
+				}
+			}
+		}
+		finally {
+			for (RunReader reader : readers) {
+				reader.close();
+			}
+		}
+	}
+
+	private void deleteRuns(List<File> runs) throws IOException {
+		for (File run : runs) {
+			Files.deleteIfExists(run.toPath());
+		}
+	}
+
+	private void deleteRuns(List<File> runs, Exception failure) {
+		try {
+			deleteRuns(runs);
+		}
+		catch (IOException e) {
+			failure.addSuppressed(e);
+		}
+	}
+
+	private void writeRun(List<T> items) throws IOException {
+		items.sort(comparator);
+		File run = File.createTempFile("sort-", ".run", tempDirectory);
+		runs.add(run);
+		try (SpillFileWriter<T> writer = new SpillFileWriter<>(run, serializer)) {
+			for (T item : items) {
+				writer.write(item);
+			}
+		}
+	}
+
+	/**
+	 * Reader of one sorted run, holding the next item of the run.
+	 */
+	private final class RunReader implements Comparable<RunReader> {
+
+		private final int index;
+
+		private final SpillFileReader<T> reader;
+
+		private T head;
+
+		private long headOffset;
+
+		private RunReader(int index, File run, long offset) throws IOException {
+			this.index = index;
+			// a negative offset means the run was exhausted before the restart
+			this.reader = new SpillFileReader<>(run, offset, deserializer);
+		}
+
+		private boolean advance() throws IOException {
+			head = reader.read();
+			headOffset = reader.getItemOffset();
+			return head != null;
+		}
+
+		private void close() throws IOException {
+			reader.close();
+		}
+
+		@Override
+		public int compareTo(RunReader other) {
+			int result = comparator.compare(head, other.head);
+			return (result != 0 ? result : Integer.compare(index, other.index));
+		}
+
+	}
+
+}
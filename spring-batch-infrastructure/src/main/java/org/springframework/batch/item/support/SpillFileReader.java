@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.item.support;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.lang.Nullable;
+
+/**
+ * Reader of the items written to a temporary file by a {@link SpillFileWriter},
+ * keeping track of the offset of each item so that reading can be resumed there.
+ *
+ * @param <T> type of the items
+ * @since 4.3
+ */
+final class SpillFileReader<T> implements Closeable {
+
+	private final Deserializer<? extends T> deserializer;
+
+	private final DataInputStream in;
+
+	private long offset;
+
+	private long itemOffset;
+
+	/**
+	 * @param file the file to read
+	 * @param offset the offset of the first item to read, or a negative value to
+	 * start at the end of the file
+	 * @param deserializer the deserializer of the items
+	 */
+	SpillFileReader(File file, long offset, Deserializer<? extends T> deserializer) throws IOException {
+		this.deserializer = deserializer;
+		FileInputStream fileInputStream = new FileInputStream(file);
+		if (offset < 0) {
+			offset = fileInputStream.getChannel().size();
+		}
+		fileInputStream.getChannel().position(offset);
+		this.in = new DataInputStream(new BufferedInputStream(fileInputStream));
+		this.offset = offset;
+	}
+
+	/**
+	 * @return the next item, or null at the end of the file
+	 */
+	@Nullable
+	T read() throws IOException {
+		int length;
+		try {
+			length = in.readInt();
+		}
+		catch (EOFException e) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		itemOffset = offset;
+		offset += 4 + length;
+		return deserializer.deserialize(new ByteArrayInputStream(bytes));
+	}
+
+	/**
+	 * @return the offset of the last item read
+	 */
+	long getItemOffset() {
+		return itemOffset;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+}
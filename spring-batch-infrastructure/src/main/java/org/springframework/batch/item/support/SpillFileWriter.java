@@ -0,0 +1,62 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.item.support;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.springframework.core.serializer.Serializer;
+
+/**
+ * Writer of the items spilled to a temporary file by the readers that cannot keep
+ * all their input in memory. Each item is prefixed with the length of its
+ * serialized form, so that it can be read back with a {@link SpillFileReader}.
+ *
+ * @param <T> type of the items
+ * @since 4.3
+ */
+final class SpillFileWriter<T> implements Closeable {
+
+	private final Serializer<? super T> serializer;
+
+	private final DataOutputStream out;
+
+	private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+	SpillFileWriter(File file, Serializer<? super T> serializer) throws IOException {
+		this.serializer = serializer;
+		this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+	}
+
+	void write(T item) throws IOException {
+		buffer.reset();
+		serializer.serialize(item, buffer);
+		out.writeInt(buffer.size());
+		buffer.writeTo(out);
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+
+}
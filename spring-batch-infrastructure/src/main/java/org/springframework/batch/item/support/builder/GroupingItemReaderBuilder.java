@@ -0,0 +1,214 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.item.support.builder;
+
+import java.io.File;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.support.GroupingItemReader;
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
+import org.springframework.util.Assert;
+
+/**
+ * A builder implementation for the {@link GroupingItemReader}.
+ *
+ * @since 4.3
+ * @see GroupingItemReader
+ */
+public class GroupingItemReaderBuilder<T> {
+
+	private ItemReader<? extends T> delegate;
+
+	private Function<? super T, ?> keyExtractor;
+
+	private BinaryOperator<T> reducer;
+
+	private int maxGroupsInMemory = 10000;
+
+	private int partitionCount = 16;
+
+	private File tempDirectory;
+
+	private Serializer<? super T> serializer;
+
+	private Deserializer<? extends T> deserializer;
+
+	private boolean saveState = true;
+
+	private String name;
+
+	/**
+	 * Configure if the state of the {@link org.springframework.batch.item.ItemStreamSupport}
+	 * should be persisted within the {@link org.springframework.batch.item.ExecutionContext}
+	 * for restart purposes.
+	 *
+	 * @param saveState defaults to true
+	 * @return The current instance of the builder.
+	 */
+	public GroupingItemReaderBuilder<T> saveState(boolean saveState) {
+		this.saveState = saveState;
+
+		return this;
+	}
+
+	/**
+	 * The name used to calculate the key within the
+	 * {@link org.springframework.batch.item.ExecutionContext}. Required if
+	 * {@link #saveState(boolean)} is set to true.
+	 *
+	 * @param name name of the reader instance
+	 * @return The current instance of the builder.
+	 * @see org.springframework.batch.item.ItemStreamSupport#setName(String)
+	 */
+	public GroupingItemReaderBuilder<T> name(String name) {
+		this.name = name;
+
+		return this;
+	}
+
+	/**
+	 * The reader of the items to group.
+	 *
+	 * @param delegate the delegate to set
+	 * @return The current instance of the builder.
+	 * @see GroupingItemReader#setDelegate(ItemReader)
+	 */
+	public GroupingItemReaderBuilder<T> delegate(ItemReader<? extends T> delegate) {
+		this.delegate = delegate;
+
+		return this;
+	}
+
+	/**
+	 * The function returning the key of the group of an item.
+	 *
+	 * @param keyExtractor the key extractor to use
+	 * @return The current instance of the builder.
+	 * @see GroupingItemReader#setKeyExtractor(Function)
+	 */
+	public GroupingItemReaderBuilder<T> keyExtractor(Function<? super T, ?> keyExtractor) {
+		this.keyExtractor = keyExtractor;
+
+		return this;
+	}
+
+	/**
+	 * The associative function folding the items of a group.
+	 *
+	 * @param reducer the reducer to use
+	 * @return The current instance of the builder.
+	 * @see GroupingItemReader#setReducer(BinaryOperator)
+	 */
+	public GroupingItemReaderBuilder<T> reducer(BinaryOperator<T> reducer) {
+		this.reducer = reducer;
+
+		return this;
+	}
+
+	/**
+	 * The maximum number of groups kept in memory at once.
+	 *
+	 * @param maxGroupsInMemory the number of groups, defaults to 10000
+	 * @return The current instance of the builder.
+	 * @see GroupingItemReader#setMaxGroupsInMemory(int)
+	 */
+	public GroupingItemReaderBuilder<T> maxGroupsInMemory(int maxGroupsInMemory) {
+		this.maxGroupsInMemory = maxGroupsInMemory;
+
+		return this;
+	}
+
+	/**
+	 * The number of files the groups are spilled to when they do not fit in memory.
+	 *
+	 * @param partitionCount the number of partition files, defaults to 16
+	 * @return The current instance of the builder.
+	 * @see GroupingItemReader#setPartitionCount(int)
+	 */
+	public GroupingItemReaderBuilder<T> partitionCount(int partitionCount) {
+		this.partitionCount = partitionCount;
+
+		return this;
+	}
+
+	/**
+	 * The directory of the partition files.
+	 *
+	 * @param tempDirectory the directory, defaults to the default temporary directory
+	 * @return The current instance of the builder.
+	 * @see GroupingItemReader#setTempDirectory(File)
+	 */
+	public GroupingItemReaderBuilder<T> tempDirectory(File tempDirectory) {
+		this.tempDirectory = tempDirectory;
+
+		return this;
+	}
+
+	/**
+	 * The encoding of the items in the partition files, defaults to Java serialization.
+	 *
+	 * @param serializer the serializer writing the items
+	 * @param deserializer the deserializer reading the items back
+	 * @return The current instance of the builder.
+	 * @see GroupingItemReader#setSerializer(Serializer)
+	 * @see GroupingItemReader#setDeserializer(Deserializer)
+	 */
+	public GroupingItemReaderBuilder<T> codec(Serializer<? super T> serializer, Deserializer<? extends T> deserializer) {
+		this.serializer = serializer;
+		this.deserializer = deserializer;
+
+		return this;
+	}
+
+	/**
+	 * Validates and builds a {@link GroupingItemReader}.
+	 *
+	 * @return a {@link GroupingItemReader}
+	 */
+	public GroupingItemReader<T> build() {
+		Assert.notNull(this.delegate, "A delegate is required");
+		Assert.notNull(this.keyExtractor, "A key extractor is required");
+		Assert.notNull(this.reducer, "A reducer is required");
+		Assert.isTrue(this.maxGroupsInMemory > 0, "maxGroupsInMemory must be positive");
+		Assert.isTrue(this.partitionCount > 0, "partitionCount must be positive");
+		if (this.saveState) {
+			Assert.hasText(this.name, "A name is required when saveState is set to true");
+		}
+
+		GroupingItemReader<T> reader = new GroupingItemReader<>();
+		reader.setDelegate(this.delegate);
+		reader.setKeyExtractor(this.keyExtractor);
+		reader.setReducer(this.reducer);
+		reader.setMaxGroupsInMemory(this.maxGroupsInMemory);
+		reader.setPartitionCount(this.partitionCount);
+		reader.setTempDirectory(this.tempDirectory);
+		if (this.serializer != null) {
+			reader.setSerializer(this.serializer);
+		}
+		if (this.deserializer != null) {
+			reader.setDeserializer(this.deserializer);
+		}
+		reader.setName(this.name);
+		reader.setSaveState(this.saveState);
+
+		return reader;
+	}
+
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.item.support.builder;
+
+import java.io.File;
+import java.util.Comparator;
+
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.support.SortingItemReader;
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
+import org.springframework.util.Assert;
+
+/**
+ * A builder implementation for the {@link SortingItemReader}.
+ *
+ * @since 4.3
+ * @see SortingItemReader
+ */
+public class SortingItemReaderBuilder<T> {
+
+	private ItemReader<? extends T> delegate;
+
+	private Comparator<? super T> comparator;
+
+	private int maxItemsInMemory = 10000;
+
+	private int mergeFactor = 64;
+
+	private File tempDirectory;
+
+	private Serializer<? super T> serializer;
+
+	private Deserializer<? extends T> deserializer;
+
+	private boolean saveState = true;
+
+	private String name;
+
+	/**
+	 * Configure if the state of the {@link org.springframework.batch.item.ItemStreamSupport}
+	 * should be persisted within the {@link org.springframework.batch.item.ExecutionContext}
+	 * for restart purposes.
+	 *
+	 * @param saveState defaults to true
+	 * @return The current instance of the builder.
+	 */
+	public SortingItemReaderBuilder<T> saveState(boolean saveState) {
+		this.saveState = saveState;
+
+		return this;
+	}
+
+	/**
+	 * The name used to calculate the key within the
+	 * {@link org.springframework.batch.item.ExecutionContext}. Required if
+	 * {@link #saveState(boolean)} is set to true.
+	 *
+	 * @param name name of the reader instance
+	 * @return The current instance of the builder.
+	 * @see org.springframework.batch.item.ItemStreamSupport#setName(String)
+	 */
+	public SortingItemReaderBuilder<T> name(String name) {
+		this.name = name;
+
+		return this;
+	}
+
+	/**
+	 * The reader of the items to sort.
+	 *
+	 * @param delegate the delegate to set
+	 * @return The current instance of the builder.
+	 * @see SortingItemReader#setDelegate(ItemReader)
+	 */
+	public SortingItemReaderBuilder<T> delegate(ItemReader<? extends T> delegate) {
+		this.delegate = delegate;
+
+		return this;
+	}
+
+	/**
+	 * The comparator defining the order of the items.
+	 *
+	 * @param comparator the comparator to use
+	 * @return The current instance of the builder.
+	 * @see SortingItemReader#setComparator(Comparator)
+	 */
+	public SortingItemReaderBuilder<T> comparator(Comparator<? super T> comparator) {
+		this.comparator = comparator;
+
+		return this;
+	}
+
+	/**
+	 * The maximum number of items sorted in memory at once.
+	 *
+	 * @param maxItemsInMemory the number of items per sorted run, defaults to 10000
+	 * @return The current instance of the builder.
+	 * @see SortingItemReader#setMaxItemsInMemory(int)
+	 */
+	public SortingItemReaderBuilder<T> maxItemsInMemory(int maxItemsInMemory) {
+		this.maxItemsInMemory = maxItemsInMemory;
+
+		return this;
+	}
+
+	/**
+	 * The maximum number of sorted runs merged at once.
+	 *
+	 * @param mergeFactor the number of runs merged at once, defaults to 64
+	 * @return The current instance of the builder.
+	 * @see SortingItemReader#setMergeFactor(int)
+	 */
+	public SortingItemReaderBuilder<T> mergeFactor(int mergeFactor) {
+		this.mergeFactor = mergeFactor;
+
+		return this;
+	}
+
+	/**
+	 * The directory of the sorted runs.
+	 *
+	 * @param tempDirectory the directory, defaults to the default temporary directory
+	 * @return The current instance of the builder.
+	 * @see SortingItemReader#setTempDirectory(File)
+	 */
+	public SortingItemReaderBuilder<T> tempDirectory(File tempDirectory) {
+		this.tempDirectory = tempDirectory;
+
+		return this;
+	}
+
+	/**
+	 * The encoding of the items in the sorted runs, defaults to Java serialization.
+	 *
+	 * @param serializer the serializer writing the items
+	 * @param deserializer the deserializer reading the items back
+	 * @return The current instance of the builder.
+	 * @see SortingItemReader#setSerializer(Serializer)
+	 * @see SortingItemReader#setDeserializer(Deserializer)
+	 */
+	public SortingItemReaderBuilder<T> codec(Serializer<? super T> serializer, Deserializer<? extends T> deserializer) {
+		this.serializer = serializer;
+		this.deserializer = deserializer;
+
+		return this;
+	}
+
+	/**
+	 * Validates and builds a {@link SortingItemReader}.
+	 *
+	 * @return a {@link SortingItemReader}
+	 */
+	public SortingItemReader<T> build() {
+		Assert.notNull(this.delegate, "A delegate is required");
+		Assert.notNull(this.comparator, "A comparator is required");
+		Assert.isTrue(this.maxItemsInMemory > 0, "maxItemsInMemory must be positive");
+		Assert.isTrue(this.mergeFactor > 1, "mergeFactor must be at least 2");
+		if (this.saveState) {
+			Assert.hasText(this.name, "A name is required when saveState is set to true");
+		}
+
+		SortingItemReader<T> reader = new SortingItemReader<>();
+		reader.setDelegate(this.delegate);
+		reader.setComparator(this.comparator);
+		reader.setMaxItemsInMemory(this.maxItemsInMemory);
+		reader.setMergeFactor(this.mergeFactor);
+		reader.setTempDirectory(this.tempDirectory);
+		if (this.serializer != null) {
+			reader.setSerializer(this.serializer);
+		}
+		if (this.deserializer != null) {
+			reader.setDeserializer(this.deserializer);
+		}
+		reader.setName(this.name);
+		reader.setSaveState(this.saveState);
+
+		return reader;
+	}
+
+}
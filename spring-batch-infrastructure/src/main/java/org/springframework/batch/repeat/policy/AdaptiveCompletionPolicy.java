@@ -0,0 +1,265 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.repeat.policy;
+
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.repeat.context.RepeatContextSupport;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * <p>
+ * Policy for terminating a batch after a number of operations that is tuned
+ * from the measured throughput, within a minimum and a maximum chunk size.
+ * </p>
+ *
+ * <p>
+ * When used as the completion policy of the chunks of a step, the time between
+ * the start of two chunks is the time taken to read, process, write and commit
+ * the first one. The chunk size follows an additive increase, multiplicative
+ * decrease scheme: it grows by {@link #setIncrement(int) increment} items after
+ * each chunk, and is multiplied by the {@link #setDecreaseFactor(double)
+ * decrease factor} when the throughput in items per second falls by more than
+ * the {@link #setTolerance(double) tolerance} compared to the previous chunk
+ * (for example because commits slow down) or when a chunk
+ * {@link #chunkFailed() failed}. The chunk following a decrease is not compared
+ * with the previous one, since the fixed cost of its commit is spread over fewer
+ * items: its lower throughput would otherwise cause decrease after decrease. The
+ * chunk size therefore oscillates around the size beyond which larger chunks stop
+ * paying off.
+ * </p>
+ *
+ * <p>
+ * The measures are not meaningful across steps, so {@link #reset()} should be
+ * called before each step, which the step builders do when this policy is
+ * given as the chunk completion policy. As with the
+ * {@link SimpleCompletionPolicy}, <code>isComplete()</code> must only be called
+ * once per item, and a policy should not be shared by concurrent steps.
+ * </p>
+ *
+ * @since 4.3
+ */
+public class AdaptiveCompletionPolicy extends DefaultResultCompletionPolicy {
+
+	public static final int DEFAULT_MIN_CHUNK_SIZE = 1;
+
+	public static final int DEFAULT_MAX_CHUNK_SIZE = 1000;
+
+	private final int minChunkSize;
+
+	private final int maxChunkSize;
+
+	private int initialChunkSize;
+
+	private int increment = 10;
+
+	private double decreaseFactor = 0.5;
+
+	private double tolerance = 0.1;
+
+	private volatile int chunkSize;
+
+	private volatile double throughput;
+
+	private AdaptiveTerminationContext lastContext;
+
+	private long lastStart;
+
+	private boolean failed;
+
+	private boolean decreased;
+
+	public AdaptiveCompletionPolicy() {
+		this(DEFAULT_MIN_CHUNK_SIZE, DEFAULT_MAX_CHUNK_SIZE);
+	}
+
+	/**
+	 * @param minChunkSize the minimum chunk size, also the initial chunk size
+	 * @param maxChunkSize the maximum chunk size
+	 */
+	public AdaptiveCompletionPolicy(int minChunkSize, int maxChunkSize) {
+		Assert.isTrue(minChunkSize > 0, "The minimum chunk size must be positive");
+		Assert.isTrue(maxChunkSize >= minChunkSize, "The maximum chunk size must not be less than the minimum");
+		this.minChunkSize = minChunkSize;
+		this.maxChunkSize = maxChunkSize;
+		this.initialChunkSize = minChunkSize;
+		this.chunkSize = minChunkSize;
+	}
+
+	/**
+	 * @param initialChunkSize the size of the first chunk, defaults to the minimum
+	 * chunk size
+	 */
+	public void setInitialChunkSize(int initialChunkSize) {
+		Assert.isTrue(initialChunkSize >= minChunkSize && initialChunkSize <= maxChunkSize,
+				"The initial chunk size must be between the minimum and the maximum chunk size");
+		this.initialChunkSize = initialChunkSize;
+		this.chunkSize = initialChunkSize;
+	}
+
+	/**
+	 * @param increment the number of items added to the chunk size after a chunk
+	 * that did not slow down, defaults to 10
+	 */
+	public void setIncrement(int increment) {
+		Assert.isTrue(increment > 0, "The increment must be positive");
+		this.increment = increment;
+	}
+
+	/**
+	 * @param decreaseFactor the factor applied to the chunk size after a chunk that
+	 * slowed down or failed, defaults to 0.5
+	 */
+	public void setDecreaseFactor(double decreaseFactor) {
+		Assert.isTrue(decreaseFactor > 0 && decreaseFactor < 1, "The decrease factor must be between 0 and 1");
+		this.decreaseFactor = decreaseFactor;
+	}
+
+	/**
+	 * @param tolerance the relative drop of throughput considered as a slow down,
+	 * defaults to 0.1 (10%)
+	 */
+	public void setTolerance(double tolerance) {
+		Assert.isTrue(tolerance >= 0 && tolerance < 1, "The tolerance must be between 0 and 1");
+		this.tolerance = tolerance;
+	}
+
+	/**
+	 * @return the size of the next chunk
+	 */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * @return the throughput of the last chunk measured, in items per second
+	 */
+	public double getThroughput() {
+		return throughput;
+	}
+
+	/**
+	 * Forget the measures and restart from the initial chunk size.
+	 */
+	public synchronized void reset() {
+		chunkSize = initialChunkSize;
+		throughput = 0;
+		lastContext = null;
+		failed = false;
+		decreased = false;
+	}
+
+	/**
+	 * Signal that the current chunk failed, for example because it was rolled
+	 * back, so that the next chunk is smaller.
+	 */
+	public synchronized void chunkFailed() {
+		failed = true;
+	}
+
+	/**
+	 * Measure the chunk started previously, if any, and adapt the chunk size.
+	 *
+	 * @see org.springframework.batch.repeat.CompletionPolicy#start(RepeatContext)
+	 */
+	@Override
+	public synchronized RepeatContext start(RepeatContext parent) {
+		long now = System.nanoTime();
+		if (lastContext != null && lastContext.getStartedCount() > 0 && now > lastStart) {
+			adapt(lastContext.getStartedCount(), now - lastStart);
+		}
+		else if (failed) {
+			adapt(0, 0);
+		}
+		AdaptiveTerminationContext context = new AdaptiveTerminationContext(parent, chunkSize);
+		lastContext = context;
+		lastStart = now;
+		return context;
+	}
+
+	/**
+	 * Terminate if the chunk size has been reached, or the result is null.
+	 *
+	 * @see org.springframework.batch.repeat.CompletionPolicy#isComplete(RepeatContext,
+	 * RepeatStatus)
+	 */
+	@Override
+	public boolean isComplete(RepeatContext context, RepeatStatus result) {
+		return super.isComplete(context, result) || ((AdaptiveTerminationContext) context).isComplete();
+	}
+
+	/**
+	 * Terminate if the chunk size has been reached.
+	 *
+	 * @see org.springframework.batch.repeat.CompletionPolicy#isComplete(RepeatContext)
+	 */
+	@Override
+	public boolean isComplete(RepeatContext context) {
+		return ((AdaptiveTerminationContext) context).isComplete();
+	}
+
+	/**
+	 * Increment the counter in the context.
+	 *
+	 * @see org.springframework.batch.repeat.CompletionPolicy#update(RepeatContext)
+	 */
+	@Override
+	public void update(RepeatContext context) {
+		((AdaptiveTerminationContext) context).increment();
+	}
+
+	private void adapt(int itemCount, long durationNanos) {
+		double lastThroughput = throughput;
+		if (itemCount > 0) {
+			throughput = itemCount * 1e9 / durationNanos;
+		}
+		// a chunk smaller than the previous one is slower anyway, so it is not compared with it
+		boolean slowedDown = itemCount > 0 && !decreased && throughput < lastThroughput * (1 - tolerance);
+		if (failed || slowedDown) {
+			chunkSize = Math.max(minChunkSize, (int) (chunkSize * decreaseFactor));
+			decreased = true;
+		}
+		else {
+			chunkSize = Math.min(maxChunkSize, chunkSize + increment);
+			decreased = false;
+		}
+		failed = false;
+	}
+
+	private static class AdaptiveTerminationContext extends RepeatContextSupport {
+
+		private final int chunkSize;
+
+		private AdaptiveTerminationContext(RepeatContext parent, int chunkSize) {
+			super(parent);
+			this.chunkSize = chunkSize;
+		}
+
+		private boolean isComplete() {
+			return getStartedCount() >= chunkSize;
+		}
+
+	}
+
+	@Override
+	public String toString() {
+		return ClassUtils.getShortName(AdaptiveCompletionPolicy.class) + ": chunkSize=" + chunkSize + ", minChunkSize="
+				+ minChunkSize + ", maxChunkSize=" + maxChunkSize;
+	}
+
+}
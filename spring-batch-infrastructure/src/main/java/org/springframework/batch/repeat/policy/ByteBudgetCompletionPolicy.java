@@ -0,0 +1,166 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.repeat.policy;
+
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.repeat.context.RepeatContextSupport;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * <p>
+ * Policy for terminating a batch once the estimated size of the items read
+ * reaches a byte budget, so that chunks of items of very different sizes neither
+ * waste throughput nor exhaust the memory.
+ * </p>
+ *
+ * <p>
+ * A completion policy does not see the items, so each item read must be passed
+ * to {@link #itemRead(Object)} by the thread that started the batch, typically
+ * from an item read listener, before the completion is checked. The size of the
+ * item is estimated by an {@link ItemSizeEstimator}, by default a
+ * {@link DefaultItemSizeEstimator}. The item that exceeds the budget is kept in
+ * the batch, so a batch holds at least one item.
+ * </p>
+ *
+ * <p>
+ * To also limit the number of items or the duration of a batch, combine this
+ * policy with a {@link SimpleCompletionPolicy} or a
+ * {@link TimeoutTerminationPolicy} in a {@link CompositeCompletionPolicy}.
+ * </p>
+ *
+ * @param <T> type of the items
+ * @since 4.3
+ */
+public class ByteBudgetCompletionPolicy<T> extends DefaultResultCompletionPolicy {
+
+	private final long byteBudget;
+
+	private ItemSizeEstimator<? super T> itemSizeEstimator = new DefaultItemSizeEstimator();
+
+	private final ThreadLocal<ByteBudgetContext> currentContext = new ThreadLocal<>();
+
+	/**
+	 * @param byteBudget the estimated size of the items of a batch, in bytes
+	 */
+	public ByteBudgetCompletionPolicy(long byteBudget) {
+		Assert.isTrue(byteBudget > 0, "The byte budget must be positive");
+		this.byteBudget = byteBudget;
+	}
+
+	/**
+	 * @param itemSizeEstimator the estimator of the size of the items, defaults to
+	 * a {@link DefaultItemSizeEstimator}
+	 */
+	public void setItemSizeEstimator(ItemSizeEstimator<? super T> itemSizeEstimator) {
+		Assert.notNull(itemSizeEstimator, "The item size estimator must not be null");
+		this.itemSizeEstimator = itemSizeEstimator;
+	}
+
+	/**
+	 * Add the estimated size of an item to the batch started by the current
+	 * thread, if any.
+	 *
+	 * @param item the item read
+	 */
+	public void itemRead(T item) {
+		ByteBudgetContext context = currentContext.get();
+		if (context != null) {
+			context.add(itemSizeEstimator.estimateSize(item));
+		}
+	}
+
+	/**
+	 * Start a batch bound to the current thread.
+	 *
+	 * @see org.springframework.batch.repeat.CompletionPolicy#start(RepeatContext)
+	 */
+	@Override
+	public RepeatContext start(RepeatContext parent) {
+		ByteBudgetContext context = new ByteBudgetContext(parent);
+		currentContext.set(context);
+		return context;
+	}
+
+	/**
+	 * Terminate if the byte budget has been reached, or the result is null.
+	 *
+	 * @see org.springframework.batch.repeat.CompletionPolicy#isComplete(RepeatContext,
+	 * RepeatStatus)
+	 */
+	@Override
+	public boolean isComplete(RepeatContext context, RepeatStatus result) {
+		return super.isComplete(context, result) || isComplete(context);
+	}
+
+	/**
+	 * Terminate if the byte budget has been reached.
+	 *
+	 * @see org.springframework.batch.repeat.CompletionPolicy#isComplete(RepeatContext)
+	 */
+	@Override
+	public boolean isComplete(RepeatContext context) {
+		boolean complete = ((ByteBudgetContext) context).getSize() >= byteBudget;
+		if (complete && currentContext.get() == context) {
+			currentContext.remove();
+		}
+		return complete;
+	}
+
+	/**
+	 * Increment the counter in the context.
+	 *
+	 * @see org.springframework.batch.repeat.CompletionPolicy#update(RepeatContext)
+	 */
+	@Override
+	public void update(RepeatContext context) {
+		((ByteBudgetContext) context).increment();
+	}
+
+	/**
+	 * @param context the context of a batch started by this policy
+	 * @return the estimated size of the items of the batch, in bytes
+	 */
+	public long getSize(RepeatContext context) {
+		return ((ByteBudgetContext) context).getSize();
+	}
+
+	private static class ByteBudgetContext extends RepeatContextSupport {
+
+		private long size;
+
+		private ByteBudgetContext(RepeatContext parent) {
+			super(parent);
+		}
+
+		private synchronized void add(long itemSize) {
+			size += itemSize;
+		}
+
+		private synchronized long getSize() {
+			return size;
+		}
+
+	}
+
+	@Override
+	public String toString() {
+		return ClassUtils.getShortName(ByteBudgetCompletionPolicy.class) + ": byteBudget=" + byteBudget;
+	}
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.repeat.policy;
+
+import java.nio.ByteBuffer;
+
+import org.springframework.batch.item.ItemSizeAware;
+
+/**
+ * {@link ItemSizeEstimator} estimating the size of the common item types: the
+ * length of a <code>byte[]</code> or of the remaining content of a
+ * {@link ByteBuffer}, two bytes per character of a {@link CharSequence}, and the
+ * size reported by an {@link ItemSizeAware} item. Other items are given a
+ * {@link #setDefaultSize(long) default size}.
+ *
+ * @since 4.3
+ */
+public class DefaultItemSizeEstimator implements ItemSizeEstimator<Object> {
+
+	private long defaultSize = 1024;
+
+	/**
+	 * @param defaultSize the size of the items of another type, defaults to 1024
+	 * bytes
+	 */
+	public void setDefaultSize(long defaultSize) {
+		this.defaultSize = defaultSize;
+	}
+
+	@Override
+	public long estimateSize(Object item) {
+		if (item instanceof byte[]) {
+			return ((byte[]) item).length;
+		}
+		if (item instanceof CharSequence) {
+			return 2L * ((CharSequence) item).length();
+		}
+		if (item instanceof ByteBuffer) {
+			return ((ByteBuffer) item).remaining();
+		}
+		if (item instanceof ItemSizeAware) {
+			return ((ItemSizeAware) item).getItemSize();
+		}
+		return defaultSize;
+	}
+
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.repeat.policy;
+
+/**
+ * Strategy estimating the memory retained by an item, used to complete a chunk
+ * when its items reach a size budget.
+ *
+ * @param <T> type of the items
+ * @since 4.3
+ * @see ByteBudgetCompletionPolicy
+ */
+@FunctionalInterface
+public interface ItemSizeEstimator<T> {
+
+	/**
+	 * @param item the item to estimate the size of
+	 * @return the estimated size of the item in bytes
+	 */
+	long estimateSize(T item);
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -31,7 +31,12 @@
  */
 package org.springframework.batch.support;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.Arrays;
 
 import org.springframework.aop.framework.Advised;
@@ -45,19 +50,31 @@ import org.springframework.util.ClassUtils;
  * provided, they are ignored and the method is invoked anyway. If there are
  * more arguments than there are provided, then an exception is thrown.
  * 
+ * <p>
+ * The method is invoked through a {@link MethodHandle} created on first use, as
+ * listener methods are typically invoked for each item.
+ * </p>
+ *
  * @author Lucas Ward
  * @since 2.0
  */
 public class SimpleMethodInvoker implements MethodInvoker {
 
+	private static final Object[] NO_ARGUMENTS = new Object[0];
+
 	private final Object object;
 
 	private Method method;
 
+	private final Class<?>[] parameterTypes;
+
+	private volatile MethodHandle handle;
+
 	public SimpleMethodInvoker(Object object, Method method) {
 		Assert.notNull(object, "Object to invoke must not be null");
 		Assert.notNull(method, "Method to invoke must not be null");
 		this.method = method;
+		this.parameterTypes = method.getParameterTypes();
 		this.object = object;
 	}
 
@@ -72,6 +89,7 @@ public class SimpleMethodInvoker implements MethodInvoker {
 			throw new IllegalArgumentException("No methods found for name: [" + methodName + "] in class: ["
 					+ object.getClass() + "] with arguments of type: [" + Arrays.toString(paramTypes) + "]");
 		}
+		this.parameterTypes = this.method.getParameterTypes();
 		this.object = object;
 	}
 
@@ -86,10 +104,9 @@ public class SimpleMethodInvoker implements MethodInvoker {
 	@Override
 	public Object invokeMethod(Object... args) {
 
-		Class<?>[] parameterTypes = method.getParameterTypes();
 		Object[] invokeArgs;
 		if (parameterTypes.length == 0) {
-			invokeArgs = new Object[] {};
+			invokeArgs = NO_ARGUMENTS;
 		}
 		else if (parameterTypes.length != args.length) {
 			throw new IllegalArgumentException("Wrong number of arguments, expected no more than: ["
@@ -99,18 +116,52 @@ public class SimpleMethodInvoker implements MethodInvoker {
 			invokeArgs = args;
 		}
 
-		method.setAccessible(true);
+		for (int i = 0; i < invokeArgs.length; i++) {
+			if (!ClassUtils.isAssignableValue(parameterTypes[i], invokeArgs[i])) {
+				throw new IllegalArgumentException("Unable to invoke method: [" + method + "] on object: [" + object
+						+ "] with arguments: [" + Arrays.toString(args) + "], argument type mismatch");
+			}
+		}
 
+		MethodHandle handle;
+		Object target;
 		try {
+			handle = getHandle();
 			// Extract the target from an Advised as late as possible
 			// in case it contains a lazy initialization
-			Object target = extractTarget(object, method);
-			return method.invoke(target, invokeArgs);
+			target = extractTarget(object, method);
 		}
 		catch (Exception e) {
 			throw new IllegalArgumentException("Unable to invoke method: [" + method + "] on object: [" + object
 					+ "] with arguments: [" + Arrays.toString(args) + "]", e);
 		}
+
+		try {
+			return (Object) handle.invokeExact(target, invokeArgs);
+		}
+		catch (Throwable e) {
+			throw new IllegalArgumentException("Unable to invoke method: [" + method + "] on object: [" + object
+					+ "] with arguments: [" + Arrays.toString(args) + "]", new InvocationTargetException(e));
+		}
+	}
+
+	/**
+	 * Adapt the method to a handle taking the target and an array of arguments and
+	 * returning an object, boxed or null if the method returns void.
+	 */
+	private MethodHandle getHandle() throws IllegalAccessException {
+		MethodHandle handle = this.handle;
+		if (handle == null) {
+			method.setAccessible(true);
+			handle = MethodHandles.lookup().unreflect(method);
+			if (Modifier.isStatic(method.getModifiers())) {
+				handle = MethodHandles.dropArguments(handle, 0, Object.class);
+			}
+			handle = handle.asSpreader(Object[].class, parameterTypes.length)
+					.asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+			this.handle = handle;
+		}
+		return handle;
 	}
 
 	private Object extractTarget(Object target, Method method) {
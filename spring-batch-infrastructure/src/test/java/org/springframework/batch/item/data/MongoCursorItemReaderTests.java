@@ -0,0 +1,216 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.item.data;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+public class MongoCursorItemReaderTests {
+
+	private MongoCursorItemReader<Item> reader;
+
+	@Mock
+	private MongoOperations template;
+
+	private final ObjectId firstId = new ObjectId();
+
+	private final ObjectId secondId = new ObjectId();
+
+	@Before
+	public void setUp() throws Exception {
+		MockitoAnnotations.initMocks(this);
+		when(template.getConverter()).thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()));
+
+		reader = new MongoCursorItemReader<>();
+		reader.setTemplate(template);
+		reader.setTargetType(Item.class);
+		reader.setQuery("{ name : ?0 }");
+		reader.setParameterValues(Arrays.asList("foo"));
+		reader.setBatchSize(500);
+		reader.afterPropertiesSet();
+	}
+
+	@Test
+	public void testAfterPropertiesSet() throws Exception {
+		reader = new MongoCursorItemReader<>();
+		reader.setTemplate(template);
+		reader.setTargetType(Item.class);
+
+		try {
+			reader.afterPropertiesSet();
+			fail("Query was not set but exception was not thrown.");
+		}
+		catch (IllegalStateException ise) {
+			assertEquals("A query is required.", ise.getMessage());
+		}
+
+		reader.setQuery(new Query());
+		reader.setBatchSize(-1);
+		try {
+			reader.afterPropertiesSet();
+			fail("Batch size was negative but exception was not thrown.");
+		}
+		catch (IllegalStateException ise) {
+			assertEquals("The batch size must not be negative.", ise.getMessage());
+		}
+	}
+
+	@Test
+	public void testRead() throws Exception {
+		ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+		when(template.stream(queryCaptor.capture(), eq(Item.class)))
+				.thenReturn(cursor(new Item(firstId, "foo"), new Item(secondId, "foo")));
+
+		reader.open(new ExecutionContext());
+
+		assertEquals(firstId, reader.read().id);
+		assertEquals(secondId, reader.read().id);
+		assertNull(reader.read());
+
+		Query query = queryCaptor.getValue();
+		assertEquals(new Document("name", "foo"), query.getQueryObject());
+		assertEquals(new Document("_id", 1), query.getSortObject());
+		assertEquals(500, query.getMeta().getCursorBatchSize().intValue());
+	}
+
+	@Test
+	public void testRestartStartsAfterLastSortKey() throws Exception {
+		when(template.stream(any(Query.class), eq(Item.class)))
+				.thenReturn(cursor(new Item(firstId, "foo"), new Item(secondId, "foo")));
+		ExecutionContext executionContext = new ExecutionContext();
+
+		reader.open(executionContext);
+		reader.read();
+		reader.update(executionContext);
+		reader.close();
+
+		assertEquals(1, executionContext.getInt("MongoCursorItemReader.read.count"));
+		assertTrue(executionContext.containsKey("MongoCursorItemReader.start.after"));
+
+		ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+		when(template.stream(queryCaptor.capture(), eq(Item.class)))
+				.thenReturn(cursor(new Item(secondId, "foo")));
+
+		reader.open(executionContext);
+
+		assertEquals(secondId, reader.read().id);
+		assertNull(reader.read());
+
+		Document expected = new Document("$and", Arrays.asList(new Document("name", "foo"),
+				new Document("_id", new Document("$gt", firstId))));
+		assertEquals(expected, queryCaptor.getValue().getQueryObject());
+	}
+
+	@Test
+	public void testQueryObjectWithCollectionAndSortKey() throws Exception {
+		reader.setQuery((String) null);
+		reader.setQuery(new Query(Criteria.where("name").is("foo")));
+		reader.setCollection("collection");
+		reader.setSortKey("name");
+		reader.setBatchSize(0);
+
+		ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+		when(template.stream(queryCaptor.capture(), eq(Item.class), eq("collection")))
+				.thenReturn(cursor(new Item(firstId, "foo")));
+		ExecutionContext executionContext = new ExecutionContext();
+
+		reader.open(executionContext);
+		reader.read();
+		reader.update(executionContext);
+
+		assertEquals(new Document("name", 1), queryCaptor.getValue().getSortObject());
+		assertNull(queryCaptor.getValue().getMeta().getCursorBatchSize());
+		assertEquals("{\"value\": \"foo\"}", executionContext.getString("MongoCursorItemReader.start.after"));
+	}
+
+	@Test
+	public void testCloseClosesCursor() throws Exception {
+		CloseableIterator<Item> cursor = cursor(new Item(firstId, "foo"));
+		when(template.stream(any(Query.class), eq(Item.class))).thenReturn(cursor);
+
+		reader.open(new ExecutionContext());
+		reader.close();
+
+		assertFalse(cursor.hasNext());
+	}
+
+	private static CloseableIterator<Item> cursor(Item... items) {
+		List<Item> list = Arrays.asList(items);
+		return new CloseableIterator<Item>() {
+
+			private Iterator<Item> iterator = list.iterator();
+
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public Item next() {
+				return iterator.next();
+			}
+
+			@Override
+			public void close() {
+				iterator = Collections.emptyIterator();
+			}
+		};
+	}
+
+	static class Item {
+
+		@Id
+		private ObjectId id;
+
+		private String name;
+
+		Item(ObjectId id, String name) {
+			this.id = id;
+			this.name = name;
+		}
+
+	}
+
+}
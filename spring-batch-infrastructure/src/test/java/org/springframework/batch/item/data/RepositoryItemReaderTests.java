@@ -16,6 +16,8 @@
 package org.springframework.batch.item.data;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -27,6 +29,7 @@ import org.mockito.MockitoAnnotations;
 
 import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.adapter.DynamicMethodInvocationException;
+import org.springframework.batch.item.sample.Foo;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -41,6 +44,8 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @SuppressWarnings("serial")
@@ -325,7 +330,72 @@ public class RepositoryItemReaderTests {
 		assertEquals("3", reader.read());
 	}
 
+	@Test
+	public void testKeysetRead() throws Exception {
+		KeysetRepository keysetRepository = mock(KeysetRepository.class);
+		RepositoryItemReader<Foo> reader = getKeysetReader(keysetRepository);
+
+		Foo foo1 = new Foo(1, "foo1", 1);
+		Foo foo2 = new Foo(2, "foo2", 2);
+		Foo foo3 = new Foo(3, "foo3", 3);
+		PageRequest request = PageRequest.of(0, 2, Sort.by(Direction.ASC, "id"));
+		when(keysetRepository.findAll(request)).thenReturn(new PageImpl<>(Arrays.asList(foo1, foo2)));
+		when(keysetRepository.findByIdGreaterThan(2, request)).thenReturn(new PageImpl<>(Collections.singletonList(foo3)));
+		when(keysetRepository.findByIdGreaterThan(3, request)).thenReturn(new PageImpl<>(Collections.emptyList()));
+
+		reader.open(new ExecutionContext());
+
+		assertEquals(foo1, reader.read());
+		assertEquals(foo2, reader.read());
+		assertEquals(foo3, reader.read());
+		assertNull(reader.read());
+	}
+
+	@Test
+	public void testKeysetRestart() throws Exception {
+		KeysetRepository keysetRepository = mock(KeysetRepository.class);
+		RepositoryItemReader<Foo> reader = getKeysetReader(keysetRepository);
+
+		Foo foo1 = new Foo(1, "foo1", 1);
+		Foo foo2 = new Foo(2, "foo2", 2);
+		Foo foo3 = new Foo(3, "foo3", 3);
+		PageRequest request = PageRequest.of(0, 2, Sort.by(Direction.ASC, "id"));
+		when(keysetRepository.findAll(request)).thenReturn(new PageImpl<>(Arrays.asList(foo1, foo2)));
+		when(keysetRepository.findByIdGreaterThan(2, request)).thenReturn(new PageImpl<>(Collections.singletonList(foo3)));
+
+		ExecutionContext executionContext = new ExecutionContext();
+		reader.open(executionContext);
+		reader.read();
+		reader.read();
+		reader.update(executionContext);
+		reader.close();
+
+		assertEquals(Collections.singletonMap("id", 2), executionContext.get("RepositoryItemReader.start.after"));
+
+		keysetRepository = mock(KeysetRepository.class);
+		when(keysetRepository.findByIdGreaterThan(2, request)).thenReturn(new PageImpl<>(Collections.singletonList(foo3)));
+		reader = getKeysetReader(keysetRepository);
+		reader.open(executionContext);
+
+		assertEquals(foo3, reader.read());
+		verify(keysetRepository, never()).findAll(request);
+	}
+
+	private RepositoryItemReader<Foo> getKeysetReader(KeysetRepository keysetRepository) {
+		RepositoryItemReader<Foo> reader = new RepositoryItemReader<>();
+		reader.setRepository(keysetRepository);
+		reader.setPageSize(2);
+		reader.setSort(Collections.singletonMap("id", Direction.ASC));
+		reader.setMethodName("findAll");
+		reader.setKeysetMethodName("findByIdGreaterThan");
+		return reader;
+	}
+
 	public interface TestRepository extends PagingAndSortingRepository<Map<String, String>, Long> {
 		Page<String> findFirstNames(Pageable pageable);
 	}
+
+	public interface KeysetRepository extends PagingAndSortingRepository<Foo, Integer> {
+		Page<Foo> findByIdGreaterThan(Integer id, Pageable pageable);
+	}
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.item.data.builder;
+
+import java.util.Collections;
+
+import org.bson.Document;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.data.MongoCursorItemReader;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MongoCursorItemReaderBuilderTests {
+
+	@Mock
+	private MongoOperations template;
+
+	private ArgumentCaptor<Query> queryContainer;
+
+	@Before
+	public void setUp() throws Exception {
+		MockitoAnnotations.initMocks(this);
+		this.queryContainer = ArgumentCaptor.forClass(Query.class);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testConfiguration() throws Exception {
+		MongoCursorItemReader<String> reader = new MongoCursorItemReaderBuilder<String>()
+				.template(this.template)
+				.targetType(String.class)
+				.jsonQuery("{ name : ?0 }")
+				.parameterValues(Collections.singletonList("foo"))
+				.fields("{ name : 1 }")
+				.sortKey("name")
+				.batchSize(100)
+				.hint("{ name : 1 }")
+				.collection("collection")
+				.name("mongoCursorItemReader")
+				.build();
+
+		when(this.template.stream(this.queryContainer.capture(), eq(String.class), eq("collection")))
+				.thenReturn(mock(CloseableIterator.class));
+
+		reader.open(new ExecutionContext());
+		assertNull("reader should not return result", reader.read());
+
+		Query query = this.queryContainer.getValue();
+		assertEquals(new Document("name", "foo"), query.getQueryObject());
+		assertEquals(new Document("name", 1), query.getFieldsObject());
+		assertEquals(new Document("name", 1), query.getSortObject());
+		assertEquals(100, query.getMeta().getCursorBatchSize().intValue());
+		assertEquals("{ name : 1 }", query.getHint());
+	}
+
+	@Test
+	public void testValidation() {
+		validateExceptionMessage(new MongoCursorItemReaderBuilder<String>()
+				.targetType(String.class)
+				.jsonQuery("{ }")
+				.name("mongoCursorItemReader"), "template is required.");
+		validateExceptionMessage(new MongoCursorItemReaderBuilder<String>()
+				.template(this.template)
+				.targetType(String.class)
+				.jsonQuery("{ }"), "A name is required when saveState is set to true");
+		validateExceptionMessage(new MongoCursorItemReaderBuilder<String>()
+				.template(this.template)
+				.targetType(String.class)
+				.name("mongoCursorItemReader"), "A query is required");
+		validateExceptionMessage(new MongoCursorItemReaderBuilder<String>()
+				.template(this.template)
+				.targetType(String.class)
+				.jsonQuery("{ }")
+				.batchSize(-1)
+				.name("mongoCursorItemReader"), "batchSize must not be negative.");
+	}
+
+	private void validateExceptionMessage(MongoCursorItemReaderBuilder<String> builder, String message) {
+		try {
+			builder.build();
+			fail("Exception should have been thrown");
+		}
+		catch (IllegalArgumentException | IllegalStateException exception) {
+			assertEquals(message, exception.getMessage());
+		}
+	}
+
+}
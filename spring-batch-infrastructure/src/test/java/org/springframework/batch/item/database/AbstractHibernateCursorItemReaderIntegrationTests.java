@@ -35,17 +35,9 @@ AbstractGenericDataSourceItemReaderIntegrationTests {
 	@Override
 	protected ItemReader<Foo> createItemReader() throws Exception {
 
-		LocalSessionFactoryBean factoryBean = new LocalSessionFactoryBean();
-		factoryBean.setDataSource(dataSource);
-		factoryBean.setMappingLocations(new ClassPathResource("Foo.hbm.xml", getClass()));
-		customizeSessionFactory(factoryBean);
-		factoryBean.afterPropertiesSet();
-
-		SessionFactory sessionFactory = factoryBean.getObject();
-
 		HibernateCursorItemReader<Foo> hibernateReader = new HibernateCursorItemReader<>();
 		setQuery(hibernateReader);
-		hibernateReader.setSessionFactory(sessionFactory);
+		hibernateReader.setSessionFactory(createSessionFactory());
 		hibernateReader.setUseStatelessSession(isUseStatelessSession());
 		hibernateReader.afterPropertiesSet();
 		hibernateReader.setSaveState(true);
@@ -54,6 +46,15 @@ AbstractGenericDataSourceItemReaderIntegrationTests {
 
 	}
 
+	protected SessionFactory createSessionFactory() throws Exception {
+		LocalSessionFactoryBean factoryBean = new LocalSessionFactoryBean();
+		factoryBean.setDataSource(dataSource);
+		factoryBean.setMappingLocations(new ClassPathResource("Foo.hbm.xml", getClass()));
+		customizeSessionFactory(factoryBean);
+		factoryBean.afterPropertiesSet();
+		return factoryBean.getObject();
+	}
+
 	protected void customizeSessionFactory(LocalSessionFactoryBean factoryBean) {
 	}
 
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.item.database;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import org.springframework.batch.item.sample.Foo;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link HibernateCursorItemReader} restarting from a saved sort key,
+ * using a stateful session cleared while reading.
+ */
+public class HibernateCursorItemReaderKeysetIntegrationTests extends AbstractHibernateCursorItemReaderIntegrationTests {
+
+	@Override
+	protected void setQuery(HibernateCursorItemReader<Foo> reader) throws Exception {
+		reader.setQueryString("from Foo f where f.value > :value");
+		reader.setParameterValues(Collections.singletonMap("value", 0));
+		reader.setSortKey("f.id");
+		reader.setClearInterval(2);
+	}
+
+	@Override
+	protected boolean isUseStatelessSession() {
+		return false;
+	}
+
+	@Test
+	@Transactional
+	@DirtiesContext
+	public void testRestartFromSortKeyWithoutReplay() throws Exception {
+		executionContext.putInt("HibernateCursorItemReader.read.count", 3);
+		executionContext.put("HibernateCursorItemReader.start.after", 3);
+
+		getAsItemStream(reader).open(executionContext);
+
+		assertEquals(4, reader.read().getValue());
+		assertEquals(5, reader.read().getValue());
+
+		getAsItemStream(reader).update(executionContext);
+
+		assertEquals(5, executionContext.getInt("HibernateCursorItemReader.read.count"));
+		assertEquals(5, executionContext.get("HibernateCursorItemReader.start.after"));
+		assertNull(reader.read());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testOrderByRejected() throws Exception {
+		HibernateCursorItemReader<Foo> reader = new HibernateCursorItemReader<>();
+		reader.setQueryString("from Foo f order by f.value");
+		reader.setSortKey("f.id");
+		reader.afterPropertiesSet();
+	}
+
+	@Test
+	@Transactional
+	@DirtiesContext
+	public void testProjectionRejected() throws Exception {
+		HibernateCursorItemReader<Object[]> reader = new HibernateCursorItemReader<>();
+		reader.setQueryString("select f.id, f.name from Foo f");
+		reader.setSortKey("f.id");
+		reader.setSessionFactory(createSessionFactory());
+		reader.afterPropertiesSet();
+		reader.open(executionContext);
+		try {
+			reader.read();
+			fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			assertTrue(e.getMessage().contains("projection"));
+		}
+		finally {
+			reader.close();
+		}
+	}
+
+}
@@ -15,19 +15,28 @@
  */
 package org.springframework.batch.item.database;
 
+import java.sql.Connection;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.jdbc.ReturningWork;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InOrder;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -145,4 +154,67 @@ public class HibernateItemWriterTests {
 			assertEquals("ERROR", e.getMessage());
 		}
 	}
+
+	@Test
+	public void testWriteWithFlushInterval() throws Exception {
+		writer.setSessionFactory(factory);
+		writer.setFlushInterval(2);
+		writer.setJdbcBatchSize(50);
+		when(currentSession.getJdbcBatchSize()).thenReturn(20);
+
+		List<String> items = Arrays.asList("foo", "bar", "baz");
+		writer.write(items);
+
+		InOrder inOrder = inOrder(currentSession);
+		inOrder.verify(currentSession).setJdbcBatchSize(50);
+		inOrder.verify(currentSession).saveOrUpdate("foo");
+		inOrder.verify(currentSession).saveOrUpdate("bar");
+		inOrder.verify(currentSession).flush();
+		inOrder.verify(currentSession).clear();
+		inOrder.verify(currentSession).saveOrUpdate("baz");
+		inOrder.verify(currentSession).flush();
+		inOrder.verify(currentSession).clear();
+		inOrder.verify(currentSession).setJdbcBatchSize(20);
+	}
+
+	@Test
+	public void testJdbcBatchSizeRestoredAfterFailure() throws Exception {
+		writer.setSessionFactory(factory);
+		writer.setJdbcBatchSize(50);
+		// the session factory setting
+		when(currentSession.getJdbcBatchSize()).thenReturn(null);
+		when(currentSession.contains("foo")).thenThrow(new IllegalStateException("ERROR"));
+
+		try {
+			writer.write(Collections.singletonList("foo"));
+			fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			assertEquals("ERROR", e.getMessage());
+		}
+
+		InOrder inOrder = inOrder(currentSession);
+		inOrder.verify(currentSession).setJdbcBatchSize(50);
+		inOrder.verify(currentSession).setJdbcBatchSize(null);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testWriteWithStatelessSession() throws Exception {
+		writer.setSessionFactory(factory);
+		writer.setUseStatelessSession(true);
+		Connection connection = mock(Connection.class);
+		StatelessSession statelessSession = mock(StatelessSession.class);
+		when(currentSession.doReturningWork(any(ReturningWork.class))).thenReturn(connection);
+		when(factory.openStatelessSession(connection)).thenReturn(statelessSession);
+
+		List<String> items = Arrays.asList("foo", "bar");
+		writer.write(items);
+
+		verify(statelessSession).insert("foo");
+		verify(statelessSession).insert("bar");
+		verify(statelessSession).close();
+		verify(currentSession, never()).saveOrUpdate(any());
+		verify(currentSession, times(0)).flush();
+	}
 }
@@ -18,6 +18,7 @@ package org.springframework.batch.item.database;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import javax.sql.DataSource;
 
 import org.junit.Test;
@@ -33,6 +34,7 @@ import org.springframework.transaction.support.TransactionCallback;
 import org.springframework.transaction.support.TransactionTemplate;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
@@ -140,4 +142,45 @@ public class JdbcCursorItemReaderConfigTests {
 		assertEquals(initialAutoCommit, autoCommitCaptor.getValue());
 	}
 
+	@Test
+	public void testAdaptiveFetchSize() throws Exception {
+		DataSource ds = mock(DataSource.class);
+		Connection con = mock(Connection.class);
+		PreparedStatement ps = mock(PreparedStatement.class);
+		ResultSet rs = mock(ResultSet.class);
+		ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+		when(ds.getConnection()).thenReturn(con);
+		when(con.prepareStatement("select foo from bar", ResultSet.TYPE_FORWARD_ONLY,
+				ResultSet.CONCUR_READ_ONLY)).thenReturn(ps);
+		when(ps.executeQuery()).thenReturn(rs);
+		when(rs.next()).thenReturn(true);
+		when(rs.getMetaData()).thenReturn(metaData);
+		when(metaData.getColumnCount()).thenReturn(1);
+		// 50 characters estimated at 100 bytes per row
+		when(rs.getObject(1)).thenReturn("01234567890123456789012345678901234567890123456789");
+
+		JdbcCursorItemReader<Object> reader = new JdbcCursorItemReader<>();
+		reader.setDataSource(ds);
+		reader.setSql("select foo from bar");
+		reader.setRowMapper((resultSet, rowNum) -> resultSet.getObject(1));
+		reader.setVerifyCursorPosition(false);
+		reader.setFetchSize(2);
+		reader.setFetchBufferSize(1000);
+		reader.afterPropertiesSet();
+
+		reader.open(new ExecutionContext());
+		verify(ps).setFetchSize(2);
+		assertEquals(2, reader.getCurrentFetchSize());
+
+		reader.read();
+		verify(rs, never()).setFetchSize(10);
+		reader.read();
+		verify(rs).setFetchSize(10);
+		assertEquals(10, reader.getCurrentFetchSize());
+
+		reader.read();
+		verify(rs, times(1)).setFetchSize(10);
+		reader.close();
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012 the original author or authors.
+ * Copyright 2012-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,9 +21,11 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import org.springframework.batch.item.ItemStream;
 import org.springframework.batch.item.database.support.HsqlPagingQueryProvider;
 import org.springframework.batch.item.sample.Foo;
 import org.springframework.jdbc.core.RowMapper;
@@ -84,6 +86,20 @@ public class JdbcPagingItemReaderNamedParameterTests extends AbstractJdbcPagingI
 		
 	}
     
+	@Test
+	public void testProgressWithCountQuery() throws Exception {
+		JdbcPagingItemReader<Foo> reader = (JdbcPagingItemReader<Foo>) tested;
+		reader.setCountQuery("select count(*) from T_FOOS where VALUE >= :limit");
+		Assert.assertEquals(JdbcPagingItemReader.UNKNOWN, reader.getTotalWork());
+
+		((ItemStream) tested).open(executionContext);
+		tested.read();
+		tested.read();
+
+		Assert.assertEquals(4, reader.getTotalWork());
+		Assert.assertEquals(2, reader.getCompletedWork());
+	}
+
 	@Test
 	public void testReadAfterJumpSecondPageWithJumpToItemQuery() throws Exception {		
 		try {
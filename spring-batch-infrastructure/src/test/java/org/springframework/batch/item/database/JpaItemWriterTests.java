@@ -19,6 +19,7 @@ package org.springframework.batch.item.database;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -31,6 +32,7 @@ import javax.persistence.EntityManagerFactory;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InOrder;
 import org.springframework.orm.jpa.EntityManagerHolder;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
@@ -98,6 +100,26 @@ public class JpaItemWriterTests {
 		TransactionSynchronizationManager.unbindResource(emf);
 	}
 
+	@Test
+	public void testPersistWithFlushIntervalAndClear() throws Exception {
+		writer.setUsePersist(true);
+		writer.setFlushInterval(2);
+		writer.setClearPersistenceContext(true);
+		EntityManager em = mock(EntityManager.class, "em");
+		TransactionSynchronizationManager.bindResource(emf, new EntityManagerHolder(em));
+		List<String> items = Arrays.asList("persist1", "persist2", "persist3");
+		writer.write(items);
+		InOrder inOrder = inOrder(em);
+		inOrder.verify(em).persist("persist1");
+		inOrder.verify(em).persist("persist2");
+		inOrder.verify(em).flush();
+		inOrder.verify(em).clear();
+		inOrder.verify(em).persist("persist3");
+		inOrder.verify(em).flush();
+		inOrder.verify(em).clear();
+		TransactionSynchronizationManager.unbindResource(emf);
+	}
+
 	@Test
 	public void testWriteAndFlushWithFailure() throws Exception {
 		final RuntimeException ex = new RuntimeException("ERROR");
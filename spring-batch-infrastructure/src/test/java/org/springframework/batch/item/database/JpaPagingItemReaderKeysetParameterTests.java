@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.item.database;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.batch.item.sample.Foo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = "classpath:org/springframework/batch/item/database/JpaPagingItemReaderParameterTests-context.xml")
+public class JpaPagingItemReaderKeysetParameterTests extends AbstractPagingItemReaderParameterTests {
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Override
+	protected AbstractPagingItemReader<Foo> getItemReader() throws Exception {
+
+		String jpqlQuery = "select f from Foo f where f.value >= :limit or f.value = -1";
+
+		Map<String, Order> sortKeys = new LinkedHashMap<>();
+		sortKeys.put("f.name", Order.ASCENDING);
+		sortKeys.put("f.id", Order.ASCENDING);
+
+		JpaPagingItemReader<Foo> reader = new JpaPagingItemReader<>();
+		reader.setQueryString(jpqlQuery);
+		reader.setSortKeys(sortKeys);
+		reader.setParameterValues(Collections.<String, Object>singletonMap("limit", 2));
+		reader.setEntityManagerFactory(entityManagerFactory);
+		reader.setPageSize(3);
+		reader.afterPropertiesSet();
+		reader.setSaveState(true);
+
+		return reader;
+	}
+
+	@Override
+	@Test
+	public void testReadAfterJumpSecondPage() throws Exception {
+		Map<String, Object> startAfterValues = new LinkedHashMap<>();
+		startAfterValues.put("f.name", "bar4");
+		startAfterValues.put("f.id", 4);
+		executionContext.put(getName() + ".start.after", startAfterValues);
+		super.testReadAfterJumpSecondPage();
+	}
+
+	@Test
+	public void testStartAfterValuesSavedAtEndOfPage() throws Exception {
+		tested.open(executionContext);
+		for (int i = 0; i < 3; i++) {
+			tested.read();
+		}
+		tested.update(executionContext);
+
+		Map<String, Object> expected = new LinkedHashMap<>();
+		expected.put("f.name", "bar4");
+		expected.put("f.id", 4);
+		assertEquals(expected, executionContext.get(getName() + ".start.after"));
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 the original author or authors.
+ * Copyright 2016-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -26,6 +26,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import org.springframework.batch.item.database.JdbcBatchItemWriter;
+import org.springframework.batch.item.database.support.BeanPropertyItemPreparedStatementSetter;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.context.annotation.Bean;
@@ -127,6 +128,31 @@ public class JdbcBatchItemWriterBuilderTests {
 		verifyWrite();
 	}
 
+	@Test
+	public void testBeanMappedPojoWithItemType() throws Exception {
+		JdbcBatchItemWriter<Foo> writer = new JdbcBatchItemWriterBuilder<Foo>()
+				.beanMapped(Foo.class)
+				.dataSource(this.dataSource)
+				.sql("INSERT INTO FOO (first, second, third) VALUES (:first, :second, :third)")
+				.build();
+
+		writer.afterPropertiesSet();
+
+		assertEquals("INSERT INTO FOO (first, second, third) VALUES (?, ?, ?)",
+				ReflectionTestUtils.getField(writer, "sql"));
+		assertTrue(ReflectionTestUtils.getField(writer, "itemPreparedStatementSetter") instanceof BeanPropertyItemPreparedStatementSetter);
+
+		List<Foo> items = new ArrayList<>(3);
+
+		items.add(new Foo(1, "two", "three"));
+		items.add(new Foo(4, "five", "six"));
+		items.add(new Foo(7, "eight", "nine"));
+
+		writer.write(items);
+
+		verifyWrite();
+	}
+
 	@Test(expected = EmptyResultDataAccessException.class)
 	public void testAssertUpdates() throws Exception {
 		JdbcBatchItemWriter<Foo> writer = new JdbcBatchItemWriterBuilder<Foo>()
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.item.database.support;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+
+import org.junit.Test;
+
+import org.springframework.batch.item.sample.Foo;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class BeanPropertyItemPreparedStatementSetterTests {
+
+	@Test
+	public void testPositionalSql() {
+		BeanPropertyItemPreparedStatementSetter<Foo> setter = new BeanPropertyItemPreparedStatementSetter<>(Foo.class,
+				"INSERT INTO T_FOOS (ID, NAME, VALUE) VALUES (:id, :name, :value)");
+
+		assertEquals("INSERT INTO T_FOOS (ID, NAME, VALUE) VALUES (?, ?, ?)", setter.getSql());
+	}
+
+	@Test
+	public void testSetValues() throws Exception {
+		BeanPropertyItemPreparedStatementSetter<Foo> setter = new BeanPropertyItemPreparedStatementSetter<>(Foo.class,
+				"UPDATE T_FOOS SET NAME = :name, VALUE = :value WHERE ID = :id OR ID = :value");
+		PreparedStatement ps = mock(PreparedStatement.class);
+
+		setter.setValues(new Foo(1, "foo", 2), ps);
+
+		verify(ps).setString(1, "foo");
+		verify(ps).setObject(2, 2, Types.INTEGER);
+		verify(ps).setObject(3, 1, Types.INTEGER);
+		verify(ps).setObject(4, 2, Types.INTEGER);
+	}
+
+	@Test
+	public void testSetNullValue() throws Exception {
+		BeanPropertyItemPreparedStatementSetter<Foo> setter = new BeanPropertyItemPreparedStatementSetter<>(Foo.class,
+				"INSERT INTO T_FOOS (NAME) VALUES (:name)");
+		PreparedStatement ps = mock(PreparedStatement.class);
+
+		setter.setValues(new Foo(1, null, 2), ps);
+
+		verify(ps).setNull(1, Types.VARCHAR);
+	}
+
+	@Test
+	public void testCreateSqlParameterSource() {
+		BeanPropertyItemPreparedStatementSetter<Foo> setter = new BeanPropertyItemPreparedStatementSetter<>(Foo.class,
+				"INSERT INTO T_FOOS (ID, NAME) VALUES (:id, :name)");
+
+		SqlParameterSource source = setter.createSqlParameterSource(new Foo(1, "foo", 2));
+
+		assertTrue(source.hasValue("id"));
+		assertFalse(source.hasValue("value"));
+		assertEquals(1, source.getValue("id"));
+		assertEquals("foo", source.getValue("name"));
+		assertEquals(Types.VARCHAR, source.getSqlType("name"));
+	}
+
+	@Test(expected = InvalidDataAccessApiUsageException.class)
+	public void testUnknownProperty() {
+		new BeanPropertyItemPreparedStatementSetter<>(Foo.class, "INSERT INTO T_FOOS (ID) VALUES (:unknown)");
+	}
+
+	@Test(expected = InvalidDataAccessApiUsageException.class)
+	public void testMixedPlaceholders() {
+		new BeanPropertyItemPreparedStatementSetter<>(Foo.class, "INSERT INTO T_FOOS (ID, NAME) VALUES (:id, ?)");
+	}
+
+	@Test
+	public void testPackagePrivateItemType() throws Exception {
+		BeanPropertyItemPreparedStatementSetter<Bar> setter = new BeanPropertyItemPreparedStatementSetter<>(Bar.class,
+				"INSERT INTO T_BARS (NAME) VALUES (:name)");
+		PreparedStatement ps = mock(PreparedStatement.class);
+
+		setter.setValues(new Bar("bar"), ps);
+
+		verify(ps).setString(1, "bar");
+	}
+
+	static class Bar {
+
+		private final String name;
+
+		Bar(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+	}
+
+}
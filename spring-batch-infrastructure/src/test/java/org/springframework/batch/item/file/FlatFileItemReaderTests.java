@@ -1,5 +1,5 @@
 /*
- * Copyright 2008-2019 the original author or authors.
+ * Copyright 2008-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,8 +24,11 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -33,6 +36,7 @@ import org.junit.Test;
 import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemCountAware;
 import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ProgressAware;
 import org.springframework.batch.item.file.mapping.PassThroughLineMapper;
 import org.springframework.batch.item.file.separator.RecordSeparatorPolicy;
 import org.springframework.core.io.AbstractResource;
@@ -376,6 +380,33 @@ public class FlatFileItemReaderTests {
 
 	}
 
+	@Test
+	public void testProgress() throws Exception {
+		File file = File.createTempFile("progress", ".txt");
+		file.deleteOnExit();
+		Files.write(file.toPath(), "#comment\nline1\nline2\n".getBytes(StandardCharsets.UTF_8));
+		reader.setResource(new FileSystemResource(file));
+
+		reader.open(executionContext);
+		assertEquals(21, reader.getTotalWork());
+		assertEquals(0, reader.getCompletedWork());
+		assertEquals("line1", reader.read());
+		assertEquals(15, reader.getCompletedWork());
+		assertEquals("line2", reader.read());
+		assertNull(reader.read());
+		assertEquals(21, reader.getCompletedWork());
+		reader.close();
+	}
+
+	@Test
+	public void testProgressOfResourceWithoutFile() throws Exception {
+		reader.open(executionContext);
+		reader.read();
+		assertEquals(ProgressAware.UNKNOWN, reader.getTotalWork());
+		assertEquals(10, reader.getCompletedWork());
+		reader.close();
+	}
+
 	@Test
 	public void testDirectoryResource() throws Exception {
 
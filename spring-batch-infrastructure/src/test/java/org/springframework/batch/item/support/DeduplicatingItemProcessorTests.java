@@ -0,0 +1,155 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.item.support;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.batch.item.ExecutionContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class DeduplicatingItemProcessorTests {
+
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+
+	private File journal;
+
+	private DeduplicatingItemProcessor<Long> processor;
+
+	@Before
+	public void setUp() throws Exception {
+		journal = new File(tempFolder.getRoot(), "keys.journal");
+		processor = new DeduplicatingItemProcessor<>();
+		processor.setKeyExtractor(Long::longValue);
+		processor.setJournal(journal);
+		processor.setInitialCapacity(4);
+		processor.afterPropertiesSet();
+	}
+
+	@Test
+	public void testDuplicatesAreFiltered() throws Exception {
+		processor.open(new ExecutionContext());
+
+		assertEquals(Long.valueOf(1), processor.process(1L));
+		assertEquals(Long.valueOf(2), processor.process(2L));
+		assertNull(processor.process(1L));
+		assertEquals(2, processor.getDistinctCount());
+		processor.close();
+	}
+
+	@Test
+	public void testChunkProcessedAgainAfterRollback() throws Exception {
+		ExecutionContext executionContext = new ExecutionContext();
+		processor.open(executionContext);
+		List<Long> chunk = Arrays.asList(1L, 2L, 1L);
+		processor.prepare(chunk);
+		assertEquals(Long.valueOf(1), processor.process(1L));
+		assertEquals(Long.valueOf(2), processor.process(2L));
+		assertNull(processor.process(1L));
+
+		// the chunk is rolled back and processed again
+		processor.prepare(chunk);
+		assertEquals(Long.valueOf(1), processor.process(1L));
+		assertEquals(Long.valueOf(2), processor.process(2L));
+		assertNull(processor.process(1L));
+		assertEquals(0, journal.length());
+
+		processor.update(executionContext);
+		assertEquals(16, journal.length());
+		processor.prepare(Arrays.asList(2L, 3L));
+		assertNull(processor.process(2L));
+		assertEquals(Long.valueOf(3), processor.process(3L));
+		assertEquals(3, processor.getDistinctCount());
+		processor.close();
+	}
+
+	@Test
+	public void testRestartKeepsKeysOfLastCheckpointOnly() throws Exception {
+		ExecutionContext executionContext = new ExecutionContext();
+		processor.open(executionContext);
+		for (long key = 1; key <= 10000; key++) {
+			processor.process(key);
+		}
+		processor.update(executionContext);
+		// keys of a chunk rolled back
+		processor.process(10001L);
+		processor.process(10002L);
+		processor.close();
+
+		assertEquals(80000, executionContext.getLong("DeduplicatingItemProcessor.journal.length"));
+
+		processor.open(executionContext);
+		assertEquals(10000, processor.getDistinctCount());
+		assertNull(processor.process(1L));
+		assertNull(processor.process(10000L));
+		assertEquals(Long.valueOf(10001), processor.process(10001L));
+		processor.update(executionContext);
+		processor.close();
+
+		assertEquals(80008, journal.length());
+	}
+
+	@Test
+	public void testFreshStartTruncatesJournal() throws Exception {
+		ExecutionContext executionContext = new ExecutionContext();
+		processor.open(executionContext);
+		processor.process(1L);
+		processor.update(executionContext);
+		processor.close();
+
+		processor.open(new ExecutionContext());
+		assertEquals(0, journal.length());
+		assertEquals(Long.valueOf(1), processor.process(1L));
+		processor.close();
+	}
+
+	@Test
+	public void testWithoutSavedState() throws Exception {
+		processor = new DeduplicatingItemProcessor<>();
+		processor.setKeyExtractor(Long::longValue);
+		processor.setSaveState(false);
+		processor.afterPropertiesSet();
+
+		processor.open(new ExecutionContext());
+		assertEquals(Long.valueOf(1), processor.process(1L));
+		assertNull(processor.process(1L));
+		processor.close();
+	}
+
+	@Test
+	public void testJournalRequiredWhenStateSaved() throws Exception {
+		processor = new DeduplicatingItemProcessor<>();
+		processor.setKeyExtractor(Long::longValue);
+		try {
+			processor.afterPropertiesSet();
+			fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			assertEquals("A journal file is required when the state is saved.", e.getMessage());
+		}
+	}
+
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.item.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GroupingItemReaderTests {
+
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+
+	private final List<String> input = Arrays.asList("a=1", "b=2", "a=3", "c=4", "d=5", "b=6", "e=7", "a=8");
+
+	private GroupingItemReader<String> reader;
+
+	@Before
+	public void setUp() throws Exception {
+		// items are "<key>=<amount>", the groups sum the amounts per key
+		reader = new GroupingItemReader<>();
+		reader.setDelegate(new ListItemReader<>(input));
+		reader.setKeyExtractor(item -> item.substring(0, item.indexOf('=')));
+		reader.setReducer((left, right) -> left.substring(0, left.indexOf('=') + 1)
+				+ (Integer.parseInt(left.substring(left.indexOf('=') + 1))
+						+ Integer.parseInt(right.substring(right.indexOf('=') + 1))));
+		reader.setPartitionCount(2);
+		reader.setTempDirectory(tempFolder.getRoot());
+		reader.afterPropertiesSet();
+	}
+
+	@Test
+	public void testGroupsInMemory() throws Exception {
+		reader.open(new ExecutionContext());
+
+		assertEquals(0, tempFolder.getRoot().list().length);
+		assertEquals("[a=12, b=8, c=4, d=5, e=7]", readAll().toString());
+		reader.close();
+	}
+
+	@Test
+	public void testGroupsSpilledToPartitions() throws Exception {
+		reader.setMaxGroupsInMemory(2);
+		reader.open(new ExecutionContext());
+
+		assertEquals(2, tempFolder.getRoot().list().length);
+		List<String> groups = readAll();
+		groups.sort(null);
+		assertEquals("[a=12, b=8, c=4, d=5, e=7]", groups.toString());
+		reader.close();
+	}
+
+	@Test
+	public void testRestartResumesFromPartitions() throws Exception {
+		reader.setMaxGroupsInMemory(2);
+		ExecutionContext executionContext = new ExecutionContext();
+		reader.open(executionContext);
+		List<String> groups = new ArrayList<>();
+		groups.add(reader.read());
+		groups.add(reader.read());
+		groups.add(reader.read());
+		reader.update(executionContext);
+		reader.read();
+		reader.close();
+
+		// the partition of a, c and e holds too many groups and was split in two
+		assertEquals(4, tempFolder.getRoot().list().length);
+
+		reader.setDelegate(() -> {
+			throw new IllegalStateException("The delegate should not be read on restart");
+		});
+		reader.open(executionContext);
+		groups.addAll(readAll());
+		reader.update(executionContext);
+		reader.close();
+
+		groups.sort(null);
+		assertEquals("[a=12, b=8, c=4, d=5, e=7]", groups.toString());
+		assertEquals(0, tempFolder.getRoot().list().length);
+	}
+
+	@Test
+	public void testRestartWithoutSpillGroupsAgain() throws Exception {
+		ExecutionContext executionContext = new ExecutionContext();
+		reader.open(executionContext);
+		reader.read();
+		reader.read();
+		reader.update(executionContext);
+		reader.close();
+
+		assertFalse(executionContext.containsKey("GroupingItemReader.group.partitions"));
+
+		reader.setDelegate(new ListItemReader<>(input));
+		reader.open(executionContext);
+		assertEquals("[c=4, d=5, e=7]", readAll().toString());
+		reader.close();
+	}
+
+	@Test
+	public void testPartitionsAreDeletedOnCloseWithoutSavedState() throws Exception {
+		reader.setMaxGroupsInMemory(2);
+		reader.setSaveState(false);
+		reader.open(new ExecutionContext());
+		assertTrue(tempFolder.getRoot().list().length > 0);
+		reader.read();
+		reader.close();
+
+		assertEquals(0, tempFolder.getRoot().list().length);
+	}
+
+	@Test
+	public void testOversizedPartitionsAreSplit() throws Exception {
+		List<String> input = new ArrayList<>();
+		List<String> expected = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			input.add("k" + i + "=" + i);
+			expected.add("k" + i + "=" + 2 * i);
+		}
+		input.addAll(new ArrayList<>(input));
+		expected.sort(null);
+		reader.setDelegate(new ListItemReader<>(input));
+		reader.setMaxGroupsInMemory(4);
+		reader.open(new ExecutionContext());
+
+		List<String> groups = new ArrayList<>();
+		String group;
+		while ((group = reader.read()) != null) {
+			groups.add(group);
+			assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(reader, "groups")).size() <= 4);
+		}
+		reader.close();
+
+		groups.sort(null);
+		assertEquals(expected, groups);
+		assertEquals(0, tempFolder.getRoot().list().length);
+	}
+
+	@Test
+	public void testPartitionWithKeysOfSameHashCodeIsLoaded() throws Exception {
+		// "Aa" and "BB" have the same hash code
+		reader.setDelegate(new ListItemReader<>(Arrays.asList("Aa=1", "BB=2", "Aa=3", "BB=4")));
+		reader.setMaxGroupsInMemory(1);
+		reader.open(new ExecutionContext());
+
+		List<String> groups = readAll();
+		reader.close();
+
+		groups.sort(null);
+		assertEquals("[Aa=4, BB=6]", groups.toString());
+		assertEquals(0, tempFolder.getRoot().list().length);
+	}
+
+	@Test
+	public void testRestartAfterSplit() throws Exception {
+		List<String> input = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			input.add("k" + i + "=" + i);
+		}
+		reader.setDelegate(new ListItemReader<>(input));
+		reader.setMaxGroupsInMemory(2);
+		ExecutionContext executionContext = new ExecutionContext();
+		reader.open(executionContext);
+		List<String> groups = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			groups.add(reader.read());
+		}
+		reader.update(executionContext);
+		for (int i = 0; i < 5; i++) {
+			reader.read();
+		}
+		reader.close();
+
+		assertTrue(executionContext.containsKey("GroupingItemReader.group.partitions.split"));
+
+		reader.setDelegate(() -> {
+			throw new IllegalStateException("The delegate should not be read on restart");
+		});
+		reader.open(executionContext);
+		groups.addAll(readAll());
+		reader.update(executionContext);
+		reader.close();
+
+		groups.sort(null);
+		input.sort(null);
+		assertEquals(input, groups);
+		assertEquals(0, tempFolder.getRoot().list().length);
+	}
+
+	private List<String> readAll() throws Exception {
+		List<String> items = new ArrayList<>();
+		String item;
+		while ((item = reader.read()) != null) {
+			items.add(item);
+		}
+		return items;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2006-2007 the original author or authors.
+ * Copyright 2006-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -43,4 +43,15 @@ public class ListItemReaderTests extends TestCase {
 		assertEquals(0, list.size());
 		assertEquals("b", reader.read());
 	}
+
+	public void testProgress() throws Exception {
+		assertEquals(3, reader.getTotalWork());
+		assertEquals(0, reader.getCompletedWork());
+		reader.read();
+		reader.read();
+		assertEquals(2, reader.getCompletedWork());
+		reader.read();
+		reader.read();
+		assertEquals(3, reader.getCompletedWork());
+	}
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.item.support;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.springframework.batch.item.support.LookupCache.EvictionPolicy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LookupCacheTests {
+
+	@Test
+	public void testLeastRecentlyUsedEntryIsEvicted() {
+		LookupCache<String, Integer> cache = new LookupCache<>(2);
+		cache.put("a", 1);
+		cache.put("b", 2);
+		assertEquals(Integer.valueOf(1), cache.get("a"));
+		cache.put("c", 3);
+
+		assertEquals(2, cache.size());
+		assertTrue(cache.containsKey("a"));
+		assertFalse(cache.containsKey("b"));
+		assertTrue(cache.containsKey("c"));
+		assertEquals(1, cache.getEvictionCount());
+	}
+
+	@Test
+	public void testLeastFrequentlyUsedEntryIsEvicted() {
+		LookupCache<String, Integer> cache = new LookupCache<>(2, null, EvictionPolicy.LFU);
+		cache.put("a", 1);
+		cache.put("b", 2);
+		cache.get("a");
+		cache.get("b");
+		cache.get("b");
+		cache.get("a");
+		cache.get("a");
+		cache.put("c", 3);
+		cache.put("d", 4);
+
+		assertTrue(cache.containsKey("a"));
+		assertFalse(cache.containsKey("b"));
+		assertFalse(cache.containsKey("c"));
+		assertTrue(cache.containsKey("d"));
+	}
+
+	@Test
+	public void testLeastFrequentlyUsedCacheIsBounded() {
+		LookupCache<Integer, Integer> cache = new LookupCache<>(1000, null, EvictionPolicy.LFU);
+		for (int i = 0; i < 5000; i++) {
+			cache.put(i, i);
+			// the first key is used by every lookup, the others once
+			cache.get(0);
+			cache.get(i);
+		}
+		assertTrue(cache.size() <= 1000);
+		assertEquals(5000 - cache.size(), cache.getEvictionCount());
+		assertTrue(cache.containsKey(0));
+		assertTrue(cache.containsKey(4999));
+	}
+
+	@Test
+	public void testExpiredEntryIsNotReturned() throws Exception {
+		LookupCache<String, Integer> cache = new LookupCache<>(10, Duration.ofMillis(10), EvictionPolicy.LRU);
+		cache.put("a", 1);
+		assertEquals(Integer.valueOf(1), cache.get("a"));
+
+		Thread.sleep(20);
+
+		assertNull(cache.get("a"));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testKeysWithoutValueAreCached() {
+		LookupCache<String, Integer> cache = new LookupCache<>(10);
+		cache.put("a", 1);
+		cache.put("b", null);
+
+		Map<String, Integer> values = cache.getAll(Arrays.asList("a", "b", "c"));
+
+		assertEquals(2, values.size());
+		assertEquals(Integer.valueOf(1), values.get("a"));
+		assertTrue(values.containsKey("b"));
+		assertNull(values.get("b"));
+		assertEquals(2, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+	}
+
+	@Test
+	public void testSegmentedCacheIsBounded() {
+		LookupCache<Integer, Integer> cache = new LookupCache<>(1000);
+		for (int i = 0; i < 5000; i++) {
+			cache.put(i, i);
+		}
+		assertTrue(cache.size() <= 1000);
+		assertEquals(5000 - cache.size(), cache.getEvictionCount());
+	}
+
+	@Test
+	public void testCachingLookupLoaderOnlyLoadsMissingKeys() throws Exception {
+		List<List<String>> lookups = new ArrayList<>();
+		LookupLoader<String, Integer> loader = new CachingLookupLoader<>(keys -> {
+			lookups.add(new ArrayList<>(keys));
+			Map<String, Integer> values = new HashMap<>();
+			if (keys.contains("a")) {
+				values.put("a", 1);
+			}
+			return values;
+		}, new LookupCache<>(10));
+
+		assertEquals(Integer.valueOf(1), loader.load(Arrays.asList("a", "x")).get("a"));
+		Map<String, Integer> values = loader.load(Arrays.asList("a", "x", "y"));
+
+		assertEquals(Integer.valueOf(1), values.get("a"));
+		assertTrue(values.containsKey("x"));
+		assertEquals("[[a, x], [y]]", lookups.toString());
+	}
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.item.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class LookupItemProcessorTests {
+
+	private final List<List<String>> lookups = new ArrayList<>();
+
+	private LookupItemProcessor<String, String, Integer, String> processor;
+
+	@Before
+	public void setUp() throws Exception {
+		Map<String, Integer> referenceData = new HashMap<>();
+		referenceData.put("a", 1);
+		referenceData.put("b", 2);
+
+		processor = new LookupItemProcessor<>();
+		processor.setKeyExtractor(item -> item.isEmpty() ? null : item.substring(0, 1));
+		processor.setLoader(keys -> {
+			lookups.add(new ArrayList<>(keys));
+			Map<String, Integer> values = new HashMap<>();
+			for (String key : keys) {
+				if (referenceData.containsKey(key)) {
+					values.put(key, referenceData.get(key));
+				}
+			}
+			return values;
+		});
+		processor.setCombiner((item, value) -> value == null ? null : item + value);
+		processor.afterPropertiesSet();
+	}
+
+	@Test
+	public void testPreparedItemsAreLookedUpOnce() throws Exception {
+		List<String> items = Arrays.asList("a1", "b1", "a2", "c1", "");
+
+		processor.prepare(items);
+
+		assertEquals("a11", processor.process("a1"));
+		assertEquals("b12", processor.process("b1"));
+		assertEquals("a21", processor.process("a2"));
+		assertNull(processor.process("c1"));
+		assertNull(processor.process(""));
+		assertEquals(1, lookups.size());
+		assertEquals(Arrays.asList("a", "b", "c"), lookups.get(0));
+	}
+
+	@Test
+	public void testItemNotPreparedIsLookedUpOnItsOwn() throws Exception {
+		processor.prepare(Arrays.asList("a1"));
+
+		assertEquals("b12", processor.process("b1"));
+		assertEquals(Arrays.asList(Arrays.asList("a"), Arrays.asList("b")), lookups);
+	}
+
+	@Test
+	public void testPrepareReplacesPreviousChunk() throws Exception {
+		processor.prepare(Arrays.asList("a1"));
+		processor.prepare(Arrays.asList("b1"));
+
+		assertEquals("a11", processor.process("a1"));
+		assertEquals(3, lookups.size());
+	}
+
+	@Test
+	public void testReleasedValuesAreLookedUpAgain() throws Exception {
+		processor.prepare(Arrays.asList("a1"));
+		processor.release();
+
+		assertEquals("a11", processor.process("a1"));
+		assertEquals(2, lookups.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMandatoryProperties() throws Exception {
+		new LookupItemProcessor<String, String, String, String>().afterPropertiesSet();
+	}
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.item.support;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OffHeapLongHashSetTests {
+
+	@Test
+	public void testAddAndContains() {
+		OffHeapLongHashSet set = new OffHeapLongHashSet(16, 0.5);
+
+		assertTrue(set.add(0));
+		assertTrue(set.add(42));
+		assertTrue(set.add(-1));
+		assertFalse(set.add(42));
+		assertFalse(set.add(0));
+
+		assertTrue(set.contains(0));
+		assertTrue(set.contains(-1));
+		assertFalse(set.contains(7));
+		assertEquals(3, set.size());
+	}
+
+	@Test
+	public void testGrowsAboveMaxLoadFactor() {
+		OffHeapLongHashSet set = new OffHeapLongHashSet(4, 0.5);
+		for (long i = 1; i <= 10000; i++) {
+			assertTrue(set.add(i * 31));
+		}
+		for (long i = 1; i <= 10000; i++) {
+			assertTrue(set.contains(i * 31));
+			assertFalse(set.add(i * 31));
+		}
+
+		assertEquals(10000, set.size());
+		assertEquals(32768, set.getCapacity());
+		assertTrue(set.getLoadFactor() <= 0.5);
+	}
+
+	@Test
+	public void testClear() {
+		OffHeapLongHashSet set = new OffHeapLongHashSet(4, 0.5);
+		set.add(0);
+		set.add(1);
+		set.clear();
+
+		assertEquals(0, set.size());
+		assertFalse(set.contains(0));
+		assertFalse(set.contains(1));
+	}
+
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.item.support;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class SortingItemReaderTests {
+
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+
+	private SortingItemReader<String> reader;
+
+	@Before
+	public void setUp() throws Exception {
+		reader = new SortingItemReader<>();
+		reader.setDelegate(new ListItemReader<>(Arrays.asList("e", "b", "g", "a", "d", "f", "c")));
+		reader.setComparator(Comparator.naturalOrder());
+		reader.setMaxItemsInMemory(3);
+		reader.setTempDirectory(tempFolder.getRoot());
+		reader.afterPropertiesSet();
+	}
+
+	@Test
+	public void testItemsAreMergedFromSortedRuns() throws Exception {
+		reader.open(new ExecutionContext());
+
+		assertEquals(3, tempFolder.getRoot().list().length);
+		assertEquals("[a, b, c, d, e, f, g]", readAll().toString());
+	}
+
+	@Test
+	public void testEqualItemsKeepTheirInputOrder() throws Exception {
+		reader.setDelegate(new ListItemReader<>(Arrays.asList("b2", "a1", "b1", "a2", "b3", "a3")));
+		reader.setComparator(Comparator.comparing(item -> item.charAt(0)));
+		reader.setMaxItemsInMemory(2);
+		reader.open(new ExecutionContext());
+
+		assertEquals("[a1, a2, a3, b2, b1, b3]", readAll().toString());
+	}
+
+	@Test
+	public void testRunsAreMergedByMergeFactor() throws Exception {
+		List<String> items = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			items.add("b" + i);
+			items.add("a" + i);
+		}
+		reader.setDelegate(new ListItemReader<>(items));
+		reader.setComparator(Comparator.comparing(item -> item.charAt(0)));
+		reader.setMaxItemsInMemory(2);
+		reader.setMergeFactor(3);
+		reader.open(new ExecutionContext());
+
+		// 10 runs merged down to 4 runs, then to 2 runs
+		assertEquals(2, tempFolder.getRoot().list().length);
+		assertEquals("[a0, a1, a2, a3, a4, a5, a6, a7, a8, a9, b0, b1, b2, b3, b4, b5, b6, b7, b8, b9]",
+				readAll().toString());
+	}
+
+	@Test
+	public void testRunsAreDeletedWhenSortFails() throws Exception {
+		ListItemReader<String> items = new ListItemReader<>(Arrays.asList("e", "b", "g", "a"));
+		reader.setDelegate(() -> {
+			String item = items.read();
+			if (item == null) {
+				throw new IllegalStateException("Planned failure in delegate!");
+			}
+			return item;
+		});
+
+		try {
+			reader.open(new ExecutionContext());
+			fail("Expected ItemStreamException");
+		}
+		catch (ItemStreamException e) {
+			assertEquals("Planned failure in delegate!", e.getCause().getMessage());
+		}
+		assertEquals(0, tempFolder.getRoot().list().length);
+	}
+
+	@Test
+	public void testRunsNeverSavedAreDeletedOnClose() throws Exception {
+		reader.open(new ExecutionContext());
+		reader.read();
+		reader.close();
+
+		assertEquals(0, tempFolder.getRoot().list().length);
+	}
+
+	@Test
+	public void testRestartResumesMergeWithoutReadingDelegate() throws Exception {
+		ExecutionContext executionContext = new ExecutionContext();
+		reader.open(executionContext);
+		assertEquals("a", reader.read());
+		assertEquals("b", reader.read());
+		reader.update(executionContext);
+		assertEquals("c", reader.read());
+		reader.close();
+
+		assertEquals(3, tempFolder.getRoot().list().length);
+
+		reader.setDelegate(() -> {
+			throw new IllegalStateException("The delegate should not be read on restart");
+		});
+		reader.open(executionContext);
+
+		assertEquals("[c, d, e, f, g]", readAll().toString());
+		reader.update(executionContext);
+		assertEquals(8, executionContext.getInt("SortingItemReader.read.count"));
+		reader.close();
+
+		assertEquals(0, tempFolder.getRoot().list().length);
+	}
+
+	@Test
+	public void testRestartWithMissingRuns() throws Exception {
+		ExecutionContext executionContext = new ExecutionContext();
+		reader.open(executionContext);
+		reader.update(executionContext);
+		reader.close();
+		for (File run : tempFolder.getRoot().listFiles()) {
+			run.delete();
+		}
+
+		try {
+			reader.open(executionContext);
+			fail("Expected ItemStreamException");
+		}
+		catch (ItemStreamException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testRunsAreDeletedOnCloseWithoutSavedState() throws Exception {
+		reader.setSaveState(false);
+		reader.open(new ExecutionContext());
+		reader.read();
+		reader.close();
+
+		assertEquals(0, tempFolder.getRoot().list().length);
+	}
+
+	@Test
+	public void testCustomCodec() throws Exception {
+		SortingItemReader<Integer> reader = new SortingItemReader<>();
+		reader.setDelegate(new ListItemReader<>(Arrays.asList(3, 1, 2)));
+		reader.setComparator(Comparator.reverseOrder());
+		reader.setMaxItemsInMemory(2);
+		reader.setTempDirectory(tempFolder.getRoot());
+		reader.setSerializer((item, out) -> new DataOutputStream(out).writeInt(item));
+		reader.setDeserializer(in -> new DataInputStream(in).readInt());
+		reader.afterPropertiesSet();
+		reader.open(new ExecutionContext());
+
+		assertEquals(Integer.valueOf(3), reader.read());
+		assertEquals(Integer.valueOf(2), reader.read());
+		assertEquals(Integer.valueOf(1), reader.read());
+		assertNull(reader.read());
+		reader.close();
+	}
+
+	private List<String> readAll() throws Exception {
+		List<String> items = new ArrayList<>();
+		String item;
+		while ((item = reader.read()) != null) {
+			items.add(item);
+		}
+		return items;
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.item.support.builder;
+
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.support.GroupingItemReader;
+import org.springframework.batch.item.support.ListItemReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class GroupingItemReaderBuilderTests {
+
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+
+	@Test
+	public void testBuild() throws Exception {
+		GroupingItemReader<Integer> reader = new GroupingItemReaderBuilder<Integer>()
+				.name("groupingReader")
+				.delegate(new ListItemReader<>(Arrays.asList(1, 2, 3, 4, 5)))
+				.keyExtractor(item -> item % 2)
+				.reducer(Integer::sum)
+				.maxGroupsInMemory(1)
+				.partitionCount(2)
+				.tempDirectory(tempFolder.getRoot())
+				.build();
+
+		reader.open(new ExecutionContext());
+		assertEquals(Integer.valueOf(6), reader.read());
+		assertEquals(Integer.valueOf(9), reader.read());
+		assertNull(reader.read());
+		reader.close();
+	}
+
+	@Test
+	public void testValidation() {
+		try {
+			new GroupingItemReaderBuilder<Integer>()
+					.saveState(false)
+					.delegate(new ListItemReader<>(Arrays.asList(1)))
+					.reducer(Integer::sum)
+					.build();
+			fail("A key extractor is required");
+		}
+		catch (IllegalArgumentException iae) {
+			assertEquals("A key extractor is required", iae.getMessage());
+		}
+	}
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.item.support.builder;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.support.ListItemReader;
+import org.springframework.batch.item.support.SortingItemReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class SortingItemReaderBuilderTests {
+
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+
+	@Test
+	public void testBuild() throws Exception {
+		SortingItemReader<String> reader = new SortingItemReaderBuilder<String>()
+				.name("sortingReader")
+				.delegate(new ListItemReader<>(Arrays.asList("b", "c", "a")))
+				.comparator(Comparator.naturalOrder())
+				.maxItemsInMemory(2)
+				.tempDirectory(tempFolder.getRoot())
+				.build();
+
+		ExecutionContext executionContext = new ExecutionContext();
+		reader.open(executionContext);
+		assertEquals("a", reader.read());
+		assertEquals("b", reader.read());
+		assertEquals("c", reader.read());
+		assertNull(reader.read());
+		reader.update(executionContext);
+		reader.close();
+
+		assertEquals(4, executionContext.getInt("sortingReader.read.count"));
+		assertEquals(0, tempFolder.getRoot().list().length);
+	}
+
+	@Test
+	public void testValidation() {
+		try {
+			new SortingItemReaderBuilder<String>()
+					.saveState(false)
+					.delegate(new ListItemReader<>(Arrays.asList("a")))
+					.build();
+			fail("A comparator is required");
+		}
+		catch (IllegalArgumentException iae) {
+			assertEquals("A comparator is required", iae.getMessage());
+		}
+
+		try {
+			new SortingItemReaderBuilder<String>()
+					.delegate(new ListItemReader<>(Arrays.asList("a")))
+					.comparator(Comparator.naturalOrder())
+					.build();
+			fail("A name is required when saveState is true");
+		}
+		catch (IllegalArgumentException iae) {
+			assertEquals("A name is required when saveState is set to true", iae.getMessage());
+		}
+
+		try {
+			new SortingItemReaderBuilder<String>()
+					.saveState(false)
+					.delegate(new ListItemReader<>(Arrays.asList("a")))
+					.comparator(Comparator.naturalOrder())
+					.mergeFactor(1)
+					.build();
+			fail("mergeFactor must be at least 2");
+		}
+		catch (IllegalArgumentException iae) {
+			assertEquals("mergeFactor must be at least 2", iae.getMessage());
+		}
+	}
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.repeat.policy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.RepeatStatus;
+
+public class AdaptiveCompletionPolicyTests {
+
+	private AdaptiveCompletionPolicy policy = new AdaptiveCompletionPolicy(2, 25);
+
+	@Test
+	public void testTerminationAfterChunkSize() throws Exception {
+		RepeatContext context = policy.start(null);
+		policy.update(context);
+		assertFalse(policy.isComplete(context, RepeatStatus.CONTINUABLE));
+		policy.update(context);
+		assertTrue(policy.isComplete(context, RepeatStatus.CONTINUABLE));
+		assertTrue(policy.isComplete(context));
+	}
+
+	@Test
+	public void testIncreaseUpToMaximum() throws Exception {
+		// a fixed cost per chunk makes larger chunks faster
+		runChunk(20);
+		assertEquals(2, policy.getChunkSize());
+		runChunk(20);
+		assertEquals(12, policy.getChunkSize());
+		runChunk(20);
+		assertEquals(22, policy.getChunkSize());
+		runChunk(20);
+		assertEquals(25, policy.getChunkSize());
+		assertTrue(policy.getThroughput() > 0);
+	}
+
+	@Test
+	public void testDecreaseWhenSlowingDown() throws Exception {
+		policy.setInitialChunkSize(20);
+		policy.setTolerance(0.5);
+		runChunk(20);
+		runChunk(20);
+		runChunk(20);
+		assertEquals(25, policy.getChunkSize());
+		// the same chunk size is now much slower
+		runChunk(200);
+		runChunk(20);
+		assertEquals(12, policy.getChunkSize());
+	}
+
+	@Test
+	public void testDecreaseAfterFailure() throws Exception {
+		policy.setInitialChunkSize(20);
+		runChunk(0);
+		policy.chunkFailed();
+		runChunk(0);
+		assertEquals(10, policy.getChunkSize());
+		policy.chunkFailed();
+		runChunk(0);
+		assertEquals(5, policy.getChunkSize());
+	}
+
+	@Test
+	public void testNoCascadeOfDecreasesWithFixedCostPerChunk() throws Exception {
+		policy.setInitialChunkSize(25);
+		runChunkWithFixedCost();
+		runChunkWithFixedCost();
+		assertEquals(25, policy.getChunkSize());
+		policy.chunkFailed();
+		runChunkWithFixedCost();
+		assertEquals(12, policy.getChunkSize());
+		// the smaller chunk is slower than the one before it, but is not compared with it
+		runChunkWithFixedCost();
+		assertEquals(22, policy.getChunkSize());
+		runChunkWithFixedCost();
+		assertEquals(25, policy.getChunkSize());
+	}
+
+	@Test
+	public void testReset() throws Exception {
+		runChunk(0);
+		runChunk(0);
+		assertEquals(12, policy.getChunkSize());
+		policy.reset();
+		assertEquals(2, policy.getChunkSize());
+		assertEquals(0, policy.getThroughput(), 0);
+		runChunk(0);
+		assertEquals(2, policy.getChunkSize());
+	}
+
+	/**
+	 * Start a chunk, which measures the previous one, and complete it after the
+	 * given delay.
+	 */
+	private void runChunk(long delay) throws Exception {
+		RepeatContext context = policy.start(null);
+		while (!policy.isComplete(context)) {
+			policy.update(context);
+		}
+		Thread.sleep(delay);
+	}
+
+	/**
+	 * Run a chunk taking 50ms plus 1ms per item, so that smaller chunks are slower.
+	 */
+	private void runChunkWithFixedCost() throws Exception {
+		RepeatContext context = policy.start(null);
+		while (!policy.isComplete(context)) {
+			policy.update(context);
+		}
+		Thread.sleep(50 + context.getStartedCount());
+	}
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.repeat.policy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import org.springframework.batch.item.ItemSizeAware;
+import org.springframework.batch.repeat.CompletionPolicy;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.RepeatStatus;
+
+public class ByteBudgetCompletionPolicyTests {
+
+	private ByteBudgetCompletionPolicy<Object> policy = new ByteBudgetCompletionPolicy<>(100);
+
+	@Test
+	public void testTerminationAfterByteBudget() throws Exception {
+		RepeatContext context = policy.start(null);
+		read(context, new byte[60]);
+		assertFalse(policy.isComplete(context, RepeatStatus.CONTINUABLE));
+		read(context, new byte[40]);
+		assertTrue(policy.isComplete(context, RepeatStatus.CONTINUABLE));
+		assertEquals(100, policy.getSize(context));
+		assertEquals(2, context.getStartedCount());
+	}
+
+	@Test
+	public void testTerminationAfterNullResult() throws Exception {
+		RepeatContext context = policy.start(null);
+		read(context, "a");
+		assertFalse(policy.isComplete(context, RepeatStatus.CONTINUABLE));
+		assertTrue(policy.isComplete(context, null));
+	}
+
+	@Test
+	public void testItemsAreOnlyCountedInTheCurrentBatch() throws Exception {
+		RepeatContext first = policy.start(null);
+		read(first, new byte[150]);
+		assertTrue(policy.isComplete(first));
+
+		RepeatContext second = policy.start(null);
+		assertFalse(policy.isComplete(second));
+		read(second, new byte[10]);
+		assertEquals(10, policy.getSize(second));
+		assertEquals(150, policy.getSize(first));
+	}
+
+	@Test
+	public void testCustomEstimator() throws Exception {
+		policy.setItemSizeEstimator(item -> 50);
+		RepeatContext context = policy.start(null);
+		read(context, "a");
+		read(context, "b");
+		assertTrue(policy.isComplete(context));
+	}
+
+	@Test
+	public void testCompositeWithCount() throws Exception {
+		CompositeCompletionPolicy composite = new CompositeCompletionPolicy();
+		composite.setPolicies(new CompletionPolicy[] { new SimpleCompletionPolicy(3), policy });
+		RepeatContext context = composite.start(null);
+		composite.update(context);
+		policy.itemRead("a");
+		composite.update(context);
+		policy.itemRead("b");
+		assertFalse(composite.isComplete(context, RepeatStatus.CONTINUABLE));
+		composite.update(context);
+		policy.itemRead("c");
+		assertTrue(composite.isComplete(context, RepeatStatus.CONTINUABLE));
+
+		context = composite.start(null);
+		composite.update(context);
+		policy.itemRead(new byte[200]);
+		assertTrue(composite.isComplete(context, RepeatStatus.CONTINUABLE));
+	}
+
+	@Test
+	public void testDefaultItemSizeEstimator() throws Exception {
+		DefaultItemSizeEstimator estimator = new DefaultItemSizeEstimator();
+		assertEquals(3, estimator.estimateSize(new byte[3]));
+		assertEquals(6, estimator.estimateSize("foo"));
+		assertEquals(4, estimator.estimateSize(ByteBuffer.allocate(4)));
+		assertEquals(42, estimator.estimateSize((ItemSizeAware) () -> 42));
+		assertEquals(1024, estimator.estimateSize(new Object()));
+		estimator.setDefaultSize(16);
+		assertEquals(16, estimator.estimateSize(new Object()));
+	}
+
+	private void read(RepeatContext context, Object item) {
+		policy.update(context);
+		policy.itemRead(item);
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2008 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -31,6 +31,7 @@
  */
 package org.springframework.batch.support;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
 import org.junit.Before;
@@ -40,7 +41,9 @@ import org.springframework.util.Assert;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * @author Lucas Ward
@@ -109,6 +112,39 @@ public class SimpleMethodInvokerTests {
 		assertTrue(testClass.argumentTestCalled);
 	}
 	
+	@Test
+	public void testMethodWithReturnValue() throws Exception{
+		MethodInvoker methodInvoker = new SimpleMethodInvoker(testClass, "length", String.class);
+		assertEquals(3, methodInvoker.invokeMethod(value));
+		assertNull(new SimpleMethodInvoker(testClass, "before").invokeMethod());
+	}
+
+	@Test
+	public void testMethodWithWrongArgumentType() throws Exception{
+		MethodInvoker methodInvoker = new SimpleMethodInvoker(testClass, "beforeWithArgument", String.class);
+		try {
+			methodInvoker.invokeMethod(1);
+			fail("Expected IllegalArgumentException");
+		}
+		catch (IllegalArgumentException e) {
+			assertFalse(testClass.beforeCalled);
+		}
+	}
+
+	@Test
+	public void testMethodThrowingException() throws Exception{
+		MethodInvoker methodInvoker = new SimpleMethodInvoker(testClass, "argumentTest", Object.class);
+		try {
+			methodInvoker.invokeMethod((Object) null);
+			fail("Expected IllegalArgumentException");
+		}
+		catch (IllegalArgumentException e) {
+			assertTrue(e.getCause() instanceof InvocationTargetException);
+			assertEquals("Object must not be null",
+					((InvocationTargetException) e.getCause()).getTargetException().getMessage());
+		}
+	}
+
 	@Test
 	public void testEquals() throws Exception{
 		Method method = TestClass.class.getMethod("beforeWithArgument", String.class);
@@ -137,6 +173,10 @@ public class SimpleMethodInvokerTests {
 			beforeCalled = true;
 		}
 		
+		public int length(String value){
+			return value.length();
+		}
+
 		public void argumentTest(Object object){
 			Assert.notNull(object, "Object must not be null");
 			argumentTestCalled = true;